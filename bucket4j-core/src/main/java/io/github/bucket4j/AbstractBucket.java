@@ -19,6 +19,8 @@
  */
 package io.github.bucket4j;
 
+import io.github.bucket4j.jfr.BucketEvents;
+
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -75,7 +77,7 @@ public abstract class AbstractBucket implements Bucket {
         if (listener == null) {
             throw BucketExceptions.nullListener();
         }
-        this.listener = listener;
+        this.listener = BucketEvents.decorate(listener);
     }
 
     private final BucketListener listener;
@@ -588,7 +590,7 @@ public abstract class AbstractBucket implements Bucket {
     }
 
     protected BucketListener getListener() {
-        return listener;
+        return BucketEvents.undecorate(listener);
     }
 
     public static <T> CompletableFuture<T> completedFuture(Supplier<T> supplier) {
@@ -263,6 +263,55 @@ public class Bandwidth implements ComparableByContent<Bandwidth> {
         return id != null;
     }
 
+    private static final int FLAG_REFILL_INTERVALLY = 1;
+    private static final int FLAG_ADAPTIVE_INITIAL_TOKENS = 1 << 1;
+    private static final int FLAG_HAS_ID = 1 << 2;
+    private static final int FLAG_INITIAL_TOKENS_EQUAL_TO_CAPACITY = 1 << 3;
+    private static final int FLAG_REFILL_TOKENS_EQUAL_TO_CAPACITY = 1 << 4;
+    private static final int FLAG_HAS_TIME_OF_FIRST_REFILL = 1 << 5;
+
+    static <O> void serializeCompact(SerializationAdapter<O> adapter, O output, Bandwidth bandwidth) throws IOException {
+        int flags = 0;
+        flags |= bandwidth.refillIntervally ? FLAG_REFILL_INTERVALLY : 0;
+        flags |= bandwidth.useAdaptiveInitialTokens ? FLAG_ADAPTIVE_INITIAL_TOKENS : 0;
+        flags |= bandwidth.hasId() ? FLAG_HAS_ID : 0;
+        flags |= bandwidth.initialTokens == bandwidth.capacity ? FLAG_INITIAL_TOKENS_EQUAL_TO_CAPACITY : 0;
+        flags |= bandwidth.refillTokens == bandwidth.capacity ? FLAG_REFILL_TOKENS_EQUAL_TO_CAPACITY : 0;
+        flags |= bandwidth.timeOfFirstRefillMillis != UNSPECIFIED_TIME_OF_FIRST_REFILL ? FLAG_HAS_TIME_OF_FIRST_REFILL : 0;
+        adapter.writeByte(output, (byte) flags);
+
+        adapter.writeVarLong(output, bandwidth.capacity);
+        if ((flags & FLAG_INITIAL_TOKENS_EQUAL_TO_CAPACITY) == 0) {
+            adapter.writeVarLong(output, bandwidth.initialTokens);
+        }
+        adapter.writeVarLong(output, bandwidth.refillPeriodNanos);
+        if ((flags & FLAG_REFILL_TOKENS_EQUAL_TO_CAPACITY) == 0) {
+            adapter.writeVarLong(output, bandwidth.refillTokens);
+        }
+        if ((flags & FLAG_HAS_TIME_OF_FIRST_REFILL) != 0) {
+            adapter.writeVarLong(output, bandwidth.timeOfFirstRefillMillis);
+        }
+        if ((flags & FLAG_HAS_ID) != 0) {
+            adapter.writeString(output, bandwidth.id);
+        }
+    }
+
+    static <S> Bandwidth deserializeCompact(DeserializationAdapter<S> adapter, S input) throws IOException {
+        int flags = adapter.readByte(input);
+
+        long capacity = adapter.readVarLong(input);
+        long initialTokens = (flags & FLAG_INITIAL_TOKENS_EQUAL_TO_CAPACITY) != 0 ? capacity : adapter.readVarLong(input);
+        long refillPeriodNanos = adapter.readVarLong(input);
+        long refillTokens = (flags & FLAG_REFILL_TOKENS_EQUAL_TO_CAPACITY) != 0 ? capacity : adapter.readVarLong(input);
+        long timeOfFirstRefillMillis = (flags & FLAG_HAS_TIME_OF_FIRST_REFILL) != 0 ? adapter.readVarLong(input) : UNSPECIFIED_TIME_OF_FIRST_REFILL;
+        String id = (flags & FLAG_HAS_ID) != 0 ? adapter.readString(input) : UNDEFINED_ID;
+        boolean refillIntervally = (flags & FLAG_REFILL_INTERVALLY) != 0;
+        boolean useAdaptiveInitialTokens = (flags & FLAG_ADAPTIVE_INITIAL_TOKENS) != 0;
+
+        return new Bandwidth(capacity, refillPeriodNanos, refillTokens, initialTokens, refillIntervally,
+            timeOfFirstRefillMillis, useAdaptiveInitialTokens, id);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) { return true; }
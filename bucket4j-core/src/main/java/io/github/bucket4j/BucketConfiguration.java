@@ -19,6 +19,7 @@
  */
 package io.github.bucket4j;
 
+import io.github.bucket4j.distributed.serialization.DataOutputSerializationAdapter;
 import io.github.bucket4j.distributed.serialization.DeserializationAdapter;
 import io.github.bucket4j.distributed.serialization.Scope;
 import io.github.bucket4j.distributed.serialization.SerializationHandle;
@@ -27,7 +28,11 @@ import io.github.bucket4j.distributed.versioning.Version;
 import io.github.bucket4j.distributed.versioning.Versions;
 import io.github.bucket4j.util.ComparableByContent;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.util.*;
 
 import static io.github.bucket4j.distributed.versioning.Versions.v_7_0_0;
@@ -36,6 +41,11 @@ public final class BucketConfiguration implements ComparableByContent<BucketConf
 
     private final Bandwidth[] bandwidths;
 
+    private final long fingerprint;
+
+    // lazily calculated binary form of configuration, it is reused by each request that carries this configuration
+    private volatile byte[] serializedForm;
+
     public BucketConfiguration(List<Bandwidth> bandwidths) {
         Objects.requireNonNull(bandwidths);
         if (bandwidths.isEmpty()) {
@@ -54,6 +64,7 @@ public final class BucketConfiguration implements ComparableByContent<BucketConf
                 }
             }
         }
+        this.fingerprint = calculateFingerprint();
     }
 
     public static ConfigurationBuilder builder() {
@@ -64,6 +75,130 @@ public final class BucketConfiguration implements ComparableByContent<BucketConf
         return bandwidths;
     }
 
+    /**
+     * Returns 64-bit fingerprint of configuration content, including identifiers of bandwidths.
+     * Fingerprint does not depend on JVM or Bucket4j version,
+     * so it can be persisted in place of configuration, see {@link io.github.bucket4j.distributed.ConfigurationStore}.
+     *
+     * @return fingerprint of this configuration
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    private long calculateFingerprint() {
+        long hash = bandwidths.length;
+        for (Bandwidth bandwidth : bandwidths) {
+            hash = mixFingerprint(hash, bandwidth.getCapacity());
+            hash = mixFingerprint(hash, bandwidth.getInitialTokens());
+            hash = mixFingerprint(hash, bandwidth.getRefillPeriodNanos());
+            hash = mixFingerprint(hash, bandwidth.getRefillTokens());
+            hash = mixFingerprint(hash, bandwidth.getTimeOfFirstRefillMillis());
+            hash = mixFingerprint(hash, (bandwidth.isRefillIntervally() ? 1 : 0) | (bandwidth.isUseAdaptiveInitialTokens() ? 2 : 0));
+            String id = bandwidth.getId();
+            if (id == null) {
+                hash = mixFingerprint(hash, -1);
+            } else {
+                hash = mixFingerprint(hash, id.length());
+                for (int i = 0; i < id.length(); i++) {
+                    hash = mixFingerprint(hash, id.charAt(i));
+                }
+            }
+        }
+        return finishFingerprint(hash);
+    }
+
+    /**
+     * Calculates fingerprint of configuration which is written in the binary form, see {@link #SERIALIZATION_HANDLE},
+     * without creation of {@link Bandwidth} objects. Position of buffer is moved to the end of configuration.
+     *
+     * @return the fingerprint, or {@code 0} if it can not be calculated without deserialization,
+     *         for example when identifier of bandwidth contains non-ASCII characters
+     */
+    static long readFingerprintOfSerializedForm(ByteBuffer buffer) {
+        if (buffer.getInt() != v_7_0_0.getNumber()) {
+            return 0;
+        }
+        int bandwidthCount = buffer.getInt();
+        long hash = bandwidthCount;
+        for (int i = 0; i < bandwidthCount; i++) {
+            if (buffer.getInt() != v_7_0_0.getNumber()) {
+                return 0;
+            }
+            long capacity = buffer.getLong();
+            long initialTokens = buffer.getLong();
+            long refillPeriodNanos = buffer.getLong();
+            long refillTokens = buffer.getLong();
+            boolean refillIntervally = buffer.get() != 0;
+            long timeOfFirstRefillMillis = buffer.getLong();
+            boolean useAdaptiveInitialTokens = buffer.get() != 0;
+            hash = mixFingerprint(hash, capacity);
+            hash = mixFingerprint(hash, initialTokens);
+            hash = mixFingerprint(hash, refillPeriodNanos);
+            hash = mixFingerprint(hash, refillTokens);
+            hash = mixFingerprint(hash, timeOfFirstRefillMillis);
+            hash = mixFingerprint(hash, (refillIntervally ? 1 : 0) | (useAdaptiveInitialTokens ? 2 : 0));
+            boolean hasId = buffer.get() != 0;
+            if (!hasId) {
+                hash = mixFingerprint(hash, -1);
+            } else {
+                // identifier is written in modified UTF-8, where ASCII characters are encoded by single byte
+                int length = buffer.getShort() & 0xFFFF;
+                hash = mixFingerprint(hash, length);
+                for (int j = 0; j < length; j++) {
+                    byte b = buffer.get();
+                    if (b <= 0) {
+                        return 0;
+                    }
+                    hash = mixFingerprint(hash, b);
+                }
+            }
+        }
+        return finishFingerprint(hash);
+    }
+
+    private static long finishFingerprint(long hash) {
+        // finalization step of MurmurHash3
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash == 0 ? 1 : hash;
+    }
+
+    byte[] getSerializedForm() {
+        byte[] result = serializedForm;
+        if (result == null) {
+            try {
+                ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+                DataOutputStream output = new DataOutputStream(byteStream);
+                writeFieldByField(DataOutputSerializationAdapter.INSTANCE, output, this);
+                output.flush();
+                result = byteStream.toByteArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            serializedForm = result;
+        }
+        return result;
+    }
+
+    private static <O> void writeFieldByField(SerializationAdapter<O> adapter, O output, BucketConfiguration configuration) throws IOException {
+        adapter.writeInt(output, v_7_0_0.getNumber());
+
+        adapter.writeInt(output, configuration.bandwidths.length);
+        for (Bandwidth bandwidth : configuration.bandwidths) {
+            // binary form of bandwidth does not depend on version and scope
+            Bandwidth.SERIALIZATION_HANDLE.serialize(adapter, output, bandwidth, v_7_0_0, Scope.REQUEST);
+        }
+    }
+
+    private static long mixFingerprint(long hash, long value) {
+        hash ^= value * 0x9e3779b97f4a7c15L;
+        return Long.rotateLeft(hash, 31) * 0xbf58476d1ce4e5b9L;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) { return true; }
@@ -103,11 +238,8 @@ public final class BucketConfiguration implements ComparableByContent<BucketConf
 
         @Override
         public <O> void serialize(SerializationAdapter<O> adapter, O output, BucketConfiguration configuration, Version backwardCompatibilityVersion, Scope scope) throws IOException {
-            adapter.writeInt(output, v_7_0_0.getNumber());
-
-            adapter.writeInt(output, configuration.bandwidths.length);
-            for (Bandwidth bandwidth : configuration.bandwidths) {
-                Bandwidth.SERIALIZATION_HANDLE.serialize(adapter, output, bandwidth, backwardCompatibilityVersion, scope);
+            if (!adapter.writeSerializedBytes(output, configuration.getSerializedForm())) {
+                writeFieldByField(adapter, output, configuration);
             }
         }
 
@@ -154,6 +286,29 @@ public final class BucketConfiguration implements ComparableByContent<BucketConf
 
     };
 
+    /**
+     * Writes configuration in the compact format, see {@link Versions#v_8_15_0}.
+     * The nested format number is not written, because the layout is defined by the format number of enclosing structure.
+     */
+    public static <O> void serializeCompact(SerializationAdapter<O> adapter, O output, BucketConfiguration configuration) throws IOException {
+        adapter.writeVarLong(output, configuration.bandwidths.length);
+        for (Bandwidth bandwidth : configuration.bandwidths) {
+            Bandwidth.serializeCompact(adapter, output, bandwidth);
+        }
+    }
+
+    public static <S> BucketConfiguration deserializeCompact(DeserializationAdapter<S> adapter, S input) throws IOException {
+        long bandwidthAmount = adapter.readVarLong(input);
+        if (bandwidthAmount < 0 || bandwidthAmount > Integer.MAX_VALUE) {
+            throw new IOException("Illegal bandwidth amount " + bandwidthAmount);
+        }
+        List<Bandwidth> bandwidths = new ArrayList<>((int) bandwidthAmount);
+        for (int ii = 0; ii < bandwidthAmount; ii++) {
+            bandwidths.add(Bandwidth.deserializeCompact(adapter, input));
+        }
+        return new BucketConfiguration(bandwidths);
+    }
+
     @Override
     public boolean equalsByContent(BucketConfiguration other) {
         if (bandwidths.length != other.bandwidths.length) {
@@ -53,6 +53,11 @@ public final class BucketExceptions {
         return new IllegalArgumentException(msg);
     }
 
+    public static IllegalArgumentException nullMathType() {
+        String msg = "Math type can not be null";
+        return new IllegalArgumentException(msg);
+    }
+
     public static IllegalArgumentException nullTimeMeter() {
         String msg = "Time meter can not be null";
         return new IllegalArgumentException(msg);
@@ -142,6 +147,34 @@ public final class BucketExceptions {
         return new IllegalArgumentException(msg);
     }
 
+    public static IllegalArgumentException nonPositiveLeaseSize(long leaseSize) {
+        String pattern = "{0} is wrong value for leaseSize, because tokens should be positive";
+        String msg = MessageFormat.format(pattern, leaseSize);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException nullLeaseDuration() {
+        String msg = "leaseDuration can not be null";
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException nonPositiveLeaseDuration(Duration leaseDuration) {
+        String pattern = "leaseDuration = {0}, leaseDuration must be positive";
+        String msg = MessageFormat.format(pattern, leaseDuration);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException nullRebalanceInterval() {
+        String msg = "rebalanceInterval can not be null";
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException nonPositiveRebalanceInterval(Duration rebalanceInterval) {
+        String pattern = "rebalanceInterval = {0}, rebalanceInterval must be positive";
+        String msg = MessageFormat.format(pattern, rebalanceInterval);
+        return new IllegalArgumentException(msg);
+    }
+
     // TODO add test
     public static IllegalArgumentException wrongValueOfMinSamplesForPredictionParameters(int minSamples) {
         String pattern = "minSamples = {0}, minSamples must be >= 2";
@@ -224,6 +257,132 @@ public final class BucketExceptions {
         return new IllegalArgumentException(msg);
     }
 
+    public static IllegalArgumentException nullBucket() {
+        String msg = "Bucket can not be null";
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException nullBlockingStrategy() {
+        String msg = "Blocking strategy can not be null";
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException nonPositiveChunkSize(long chunkSize) {
+        String pattern = "{0} is wrong value for chunk size, because chunk size should be positive";
+        String msg = MessageFormat.format(pattern, chunkSize);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException maxChunkSizeLessThanMinChunkSize(long minChunkSize, long maxChunkSize) {
+        String pattern = "maxChunkSize {1} should not be less than minChunkSize {0}";
+        String msg = MessageFormat.format(pattern, minChunkSize, maxChunkSize);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException bucketsNotSpecified() {
+        String msg = "At least one bucket should be specified";
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException nonPowerOfTwoSketchWidth(int width) {
+        String pattern = "{0} is wrong value for sketch width, because width should be positive power of two";
+        String msg = MessageFormat.format(pattern, width);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException nonPositiveSketchDepth(int depth) {
+        String pattern = "{0} is wrong value for sketch depth, because depth should be positive";
+        String msg = MessageFormat.format(pattern, depth);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException nonPositiveHeavyHittersCapacity(int capacity) {
+        String pattern = "{0} is wrong value for heavy hitters capacity, because capacity should be positive";
+        String msg = MessageFormat.format(pattern, capacity);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException nullKey() {
+        String msg = "Key can not be null";
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException onlyGreedyRefillWithFullInitialTokensIsSupportedBySketch(Bandwidth bandwidth) {
+        String pattern = "{0} can not be used by sketch, only greedy refill without custom initial tokens is supported";
+        String msg = MessageFormat.format(pattern, bandwidth);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException onlyGreedyRefillIsSupportedByGcra(Bandwidth bandwidth) {
+        String pattern = "{0} can not be used with GCRA math, only greedy refill is supported";
+        String msg = MessageFormat.format(pattern, bandwidth);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException multipleBandwidthsAreNotSupportedByGcraBucket(int bandwidthCount) {
+        String pattern = "Lock-free GCRA bucket supports exactly one bandwidth, but configuration contains {0} bandwidths";
+        String msg = MessageFormat.format(pattern, bandwidthCount);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalStateException gcraStateIsNotRefilled() {
+        String msg = "Time of last refill is not persisted for GCRA state, refillAllBandwidth should be called after deserialization";
+        return new IllegalStateException(msg);
+    }
+
+    public static IllegalArgumentException invalidHistogramPrecision(int precisionBits) {
+        String pattern = "{0} is wrong value for histogram precision, because precision should be between 1 and 10 bits";
+        String msg = MessageFormat.format(pattern, precisionBits);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException invalidPercentile(double percentile) {
+        String pattern = "{0} is wrong value for percentile, because percentile should be between 0 and 100";
+        String msg = MessageFormat.format(pattern, percentile);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException incompatibleHistogramSnapshots(int precisionBits, int otherPrecisionBits) {
+        String pattern = "Histogram snapshot with precision {0} bits can not be combined with snapshot with precision {1} bits";
+        String msg = MessageFormat.format(pattern, precisionBits, otherPrecisionBits);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException nonPositiveConfigurationCacheCapacity(int capacity) {
+        String pattern = "{0} is wrong value for configuration cache capacity, because capacity should be positive";
+        String msg = MessageFormat.format(pattern, capacity);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalStateException configurationNotFoundInStore(long fingerprint) {
+        String pattern = "Configuration with fingerprint {0} is referenced, but it is not found in configuration store";
+        String msg = MessageFormat.format(pattern, Long.toHexString(fingerprint));
+        return new IllegalStateException(msg);
+    }
+
+    public static IllegalStateException configurationStoreIsNotConfigured(long fingerprint) {
+        String pattern = "Configuration with fingerprint {0} is referenced, but configuration store is not configured";
+        String msg = MessageFormat.format(pattern, Long.toHexString(fingerprint));
+        return new IllegalStateException(msg);
+    }
+
+    public static IllegalStateException configurationFingerprintMismatch(long expectedFingerprint, long actualFingerprint) {
+        String pattern = "Configuration loaded from store for fingerprint {0} has different fingerprint {1}";
+        String msg = MessageFormat.format(pattern, Long.toHexString(expectedFingerprint), Long.toHexString(actualFingerprint));
+        return new IllegalStateException(msg);
+    }
+
+    public static IllegalStateException configurationFingerprintCollision(long fingerprint) {
+        String pattern = "Configuration store already contains different configuration with fingerprint {0}";
+        String msg = MessageFormat.format(pattern, Long.toHexString(fingerprint));
+        return new IllegalStateException(msg);
+    }
+
+    public static IllegalArgumentException configurationIdsRequireConfigurationStore() {
+        String msg = "Configuration identifiers in requests can not be used without configuration store";
+        return new IllegalArgumentException(msg);
+    }
+
     public static IllegalArgumentException nullTokensInheritanceStrategy() {
         String msg = "Tokens migration mode must not be null";
         return new IllegalArgumentException(msg);
@@ -238,11 +397,98 @@ public final class BucketExceptions {
         return new UnsupportedOperationException(msg);
     }
 
+    public static IllegalArgumentException compactStateFormatIsNotSupportedByVersion(int backwardCompatibilityNumber) {
+        String pattern = "Compact state format can not be used when backward compatibility with format number {0} is required";
+        String msg = MessageFormat.format(pattern, backwardCompatibilityNumber);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static UnsupportedOperationException configurationStoreIsNotSupported() {
+        String msg = "Configuration store is not supported by proxy-manager which executes commands on the server side";
+        return new UnsupportedOperationException(msg);
+    }
+
+    public static UnsupportedOperationException configurationIdsInRequestsAreNotSupported() {
+        String msg = "Configuration identifiers in requests are not supported by proxy-manager which executes commands on the server side";
+        return new UnsupportedOperationException(msg);
+    }
+
     public static UnsupportedOperationException expirationAfterWriteIsNotSupported() {
         String msg = "Expiration-after-write is not supported";
         return new UnsupportedOperationException(msg);
     }
 
+    public static UnsupportedOperationException bulkExecutionIsNotSupported() {
+        String msg = "Bulk execution of commands is not supported";
+        return new UnsupportedOperationException(msg);
+    }
+
+    public static IllegalArgumentException negativeInitialTokensForKey(Object key, long initialTokens) {
+        String pattern = "{0} is wrong value of initial tokens for key {1}, because initial tokens count should not be negative";
+        String msg = MessageFormat.format(pattern, initialTokens, key);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static UnsupportedOperationException scanIsNotSupported() {
+        String msg = "Scan over persisted buckets is not supported";
+        return new UnsupportedOperationException(msg);
+    }
+
+    public static IllegalArgumentException nullScanCursor() {
+        String msg = "Scan cursor can not be null";
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException nullScanPosition() {
+        String msg = "Position of scan cursor can not be null, use ScanCursor.initial() in order to start scan from beginning";
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException unsupportedScanPosition(Object position) {
+        String pattern = "{0} is wrong position of scan cursor for this proxy manager";
+        String msg = MessageFormat.format(pattern, position);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException nonPositiveScanPageSize(int pageSize) {
+        String pattern = "{0} is wrong value for scan page size, because page size should be positive";
+        String msg = MessageFormat.format(pattern, pageSize);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException nullMigration() {
+        String msg = "Migration can not be null";
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException nullMigrationFilter() {
+        String msg = "Filter of buckets for migration can not be null";
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException nonPositiveMigrationRate(long bucketsPerSecond) {
+        String pattern = "{0} is wrong value for migration rate, because amount of buckets migrated per second should be positive";
+        String msg = MessageFormat.format(pattern, bucketsPerSecond);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException nullBulkCommand(Object key) {
+        String pattern = "Command for key {0} is null";
+        String msg = MessageFormat.format(pattern, key);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException severalKeysMappedToSameBucket(Object firstKey, Object secondKey, Object mappedKey) {
+        String pattern = "Keys {0} and {1} are mapped to the same bucket {2}, bulk request can not contain two commands for one bucket";
+        String msg = MessageFormat.format(pattern, firstKey, secondKey, mappedKey);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException nonPositiveRequestCoalescingParallelism(int parallelism) {
+        String msg = "Non-positive request coalescing parallelism " + parallelism;
+        return new IllegalArgumentException(msg);
+    }
+
     public static IllegalArgumentException nonPositiveRequestTimeout(Duration requestTimeout) {
         String msg = "Non-positive request timeout " + requestTimeout;
         return new IllegalArgumentException(msg);
@@ -64,6 +64,8 @@ public interface BucketState {
     static BucketState createInitialState(BucketConfiguration configuration, MathType mathType, long currentTimeNanos) {
         return switch (mathType) {
             case INTEGER_64_BITS -> new BucketState64BitsInteger(configuration, currentTimeNanos);
+            case SLIDING_WINDOW_COUNTER -> new BucketStateSlidingWindowCounter(configuration, currentTimeNanos);
+            case GCRA -> new BucketStateGcra(configuration, currentTimeNanos);
         };
     }
 
@@ -71,6 +73,10 @@ public interface BucketState {
         int typeId = adapter.readInt(input);
         if (typeId == BucketState64BitsInteger.SERIALIZATION_HANDLE.getTypeId()) {
             return BucketState64BitsInteger.SERIALIZATION_HANDLE.deserialize(adapter, input);
+        } else if (typeId == BucketStateSlidingWindowCounter.SERIALIZATION_HANDLE.getTypeId()) {
+            return BucketStateSlidingWindowCounter.SERIALIZATION_HANDLE.deserialize(adapter, input);
+        } else if (typeId == BucketStateGcra.SERIALIZATION_HANDLE.getTypeId()) {
+            return BucketStateGcra.SERIALIZATION_HANDLE.deserialize(adapter, input);
         } else {
             throw new IOException("Unknown typeId=" + typeId);
         }
@@ -82,15 +88,64 @@ public interface BucketState {
                 adapter.writeInt(output, BucketState64BitsInteger.SERIALIZATION_HANDLE.getTypeId());
                 BucketState64BitsInteger.SERIALIZATION_HANDLE.serialize(adapter, output, (BucketState64BitsInteger) state, backwardCompatibilityVersion, scope);
                 break;
+            case SLIDING_WINDOW_COUNTER:
+                adapter.writeInt(output, BucketStateSlidingWindowCounter.SERIALIZATION_HANDLE.getTypeId());
+                BucketStateSlidingWindowCounter.SERIALIZATION_HANDLE.serialize(adapter, output, (BucketStateSlidingWindowCounter) state, backwardCompatibilityVersion, scope);
+                break;
+            case GCRA:
+                adapter.writeInt(output, BucketStateGcra.SERIALIZATION_HANDLE.getTypeId());
+                BucketStateGcra.SERIALIZATION_HANDLE.serialize(adapter, output, (BucketStateGcra) state, backwardCompatibilityVersion, scope);
+                break;
+            default:
+                throw new IOException("Unknown mathType=" + state.getMathType());
+        }
+    }
+
+    /**
+     * Writes state in the compact format, see {@link io.github.bucket4j.distributed.versioning.Versions#v_8_15_0}.
+     * Unlike {@link #serialize(SerializationAdapter, Object, BucketState, Version, Scope)} the nested format number is not written,
+     * because the layout is defined by the format number of enclosing structure.
+     */
+    static <O> void serializeCompact(SerializationAdapter<O> adapter, O output, BucketState state) throws IOException {
+        switch (state.getMathType()) {
+            case INTEGER_64_BITS:
+                adapter.writeVarLong(output, BucketState64BitsInteger.SERIALIZATION_HANDLE.getTypeId());
+                adapter.writeDeltaLongArray(output, ((BucketState64BitsInteger) state).stateData);
+                break;
+            case SLIDING_WINDOW_COUNTER:
+                adapter.writeVarLong(output, BucketStateSlidingWindowCounter.SERIALIZATION_HANDLE.getTypeId());
+                adapter.writeDeltaLongArray(output, ((BucketStateSlidingWindowCounter) state).stateData);
+                break;
+            case GCRA:
+                adapter.writeVarLong(output, BucketStateGcra.SERIALIZATION_HANDLE.getTypeId());
+                adapter.writeDeltaLongArray(output, ((BucketStateGcra) state).stateData);
+                break;
             default:
                 throw new IOException("Unknown mathType=" + state.getMathType());
         }
     }
 
+    static <S> BucketState deserializeCompact(DeserializationAdapter<S> adapter, S input) throws IOException {
+        long typeId = adapter.readVarLong(input);
+        if (typeId == BucketState64BitsInteger.SERIALIZATION_HANDLE.getTypeId()) {
+            return new BucketState64BitsInteger(adapter.readDeltaLongArray(input));
+        } else if (typeId == BucketStateSlidingWindowCounter.SERIALIZATION_HANDLE.getTypeId()) {
+            return new BucketStateSlidingWindowCounter(adapter.readDeltaLongArray(input));
+        } else if (typeId == BucketStateGcra.SERIALIZATION_HANDLE.getTypeId()) {
+            return new BucketStateGcra(adapter.readDeltaLongArray(input));
+        } else {
+            throw new IOException("Unknown typeId=" + typeId);
+        }
+    }
+
     static BucketState fromJsonCompatibleSnapshot(Map<String, Object> snapshot) throws IOException {
         String type = (String) snapshot.get("type");
         if (BucketState64BitsInteger.SERIALIZATION_HANDLE.getTypeName().equals(type)) {
             return BucketState64BitsInteger.SERIALIZATION_HANDLE.fromJsonCompatibleSnapshot(snapshot);
+        } else if (BucketStateSlidingWindowCounter.SERIALIZATION_HANDLE.getTypeName().equals(type)) {
+            return BucketStateSlidingWindowCounter.SERIALIZATION_HANDLE.fromJsonCompatibleSnapshot(snapshot);
+        } else if (BucketStateGcra.SERIALIZATION_HANDLE.getTypeName().equals(type)) {
+            return BucketStateGcra.SERIALIZATION_HANDLE.fromJsonCompatibleSnapshot(snapshot);
         } else {
             throw new IOException("Unknown typeName=" + type);
         }
@@ -103,6 +158,16 @@ public interface BucketState {
                 result.put("type", BucketState64BitsInteger.SERIALIZATION_HANDLE.getTypeName());
                 return result;
             }
+            case SLIDING_WINDOW_COUNTER: {
+                Map<String, Object> result = BucketStateSlidingWindowCounter.SERIALIZATION_HANDLE.toJsonCompatibleSnapshot((BucketStateSlidingWindowCounter) state, backwardCompatibilityVersion, scope);
+                result.put("type", BucketStateSlidingWindowCounter.SERIALIZATION_HANDLE.getTypeName());
+                return result;
+            }
+            case GCRA: {
+                Map<String, Object> result = BucketStateGcra.SERIALIZATION_HANDLE.toJsonCompatibleSnapshot((BucketStateGcra) state, backwardCompatibilityVersion, scope);
+                result.put("type", BucketStateGcra.SERIALIZATION_HANDLE.getTypeName());
+                return result;
+            }
             default:
                 throw new IOException("Unknown mathType=" + state.getMathType());
         }
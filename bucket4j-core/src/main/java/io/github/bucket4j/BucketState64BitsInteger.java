@@ -34,6 +34,8 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
+import static io.github.bucket4j.BucketStateMath.countOfBandwidthsWithNullIdentifiers;
+import static io.github.bucket4j.BucketStateMath.multiplyExactOrReturnMaxValue;
 import static io.github.bucket4j.distributed.versioning.Versions.v_7_0_0;
 
 public class BucketState64BitsInteger implements BucketState, ComparableByContent<BucketState64BitsInteger> {
@@ -104,7 +106,7 @@ public class BucketState64BitsInteger implements BucketState, ComparableByConten
         this.configuration = otherState.configuration;
     }
 
-    private BucketState64BitsInteger(long[] stateData) {
+    BucketState64BitsInteger(long[] stateData) {
         this.stateData = stateData;
     }
 
@@ -283,17 +285,6 @@ public class BucketState64BitsInteger implements BucketState, ComparableByConten
         }
     }
 
-    private int countOfBandwidthsWithNullIdentifiers(BucketConfiguration configuration) {
-        Bandwidth[] bandwidths = configuration.getBandwidths();
-        int count = 0;
-        for (int i = 0; i < bandwidths.length; i++) {
-            if (bandwidths[i].getId() == null) {
-                count++;
-            }
-        }
-        return count;
-    }
-
     @Override
     public void copyStateFrom(BucketState sourceState) {
         BucketState64BitsInteger sourceState64BitsInteger = (BucketState64BitsInteger) sourceState;
@@ -637,23 +628,6 @@ public class BucketState64BitsInteger implements BucketState, ComparableByConten
                 '}';
     }
 
-    // just a copy of JDK method Math#multiplyExact,
-    // but instead of throwing exception it returns Long.MAX_VALUE in case of overflow
-    private static long multiplyExactOrReturnMaxValue(long x, long y) {
-        long r = x * y;
-        long ax = Math.abs(x);
-        long ay = Math.abs(y);
-        if (((ax | ay) >>> 31 != 0)) {
-            // Some bits greater than 2^31 that might cause overflow
-            // Check the result using the divide operator
-            // and check for the special case of Long.MIN_VALUE * -1
-            if (((y != 0) && (r / y != x)) || (x == Long.MIN_VALUE && y == -1)) {
-                return Long.MAX_VALUE;
-            }
-        }
-        return r;
-    }
-
     @Override
     public boolean equalsByContent(BucketState64BitsInteger other) {
         return Arrays.equals(stateData, other.stateData);
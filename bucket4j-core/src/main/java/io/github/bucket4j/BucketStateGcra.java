@@ -0,0 +1,459 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j;
+
+import io.github.bucket4j.distributed.serialization.DeserializationAdapter;
+import io.github.bucket4j.distributed.serialization.Scope;
+import io.github.bucket4j.distributed.serialization.SerializationAdapter;
+import io.github.bucket4j.distributed.serialization.SerializationHandle;
+import io.github.bucket4j.distributed.versioning.Version;
+import io.github.bucket4j.distributed.versioning.Versions;
+import io.github.bucket4j.util.ComparableByContent;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import static io.github.bucket4j.BucketStateMath.countOfBandwidthsWithNullIdentifiers;
+import static io.github.bucket4j.BucketStateMath.multiplyAndDivideCeil;
+import static io.github.bucket4j.BucketStateMath.multiplyAndDivideFloor;
+import static io.github.bucket4j.BucketStateMath.multiplyExactOrReturnMaxValue;
+import static io.github.bucket4j.distributed.versioning.Versions.v_8_14_0;
+
+/**
+ * Implementation of {@link BucketState} based on generic cell rate algorithm (GCRA).
+ *
+ * <p>
+ * Each bandwidth is represented by single long - "theoretical arrival time", the moment when bandwidth becomes full.
+ * The bandwidth has {@code capacity - ceil((tat - now) * refillTokens / refillPeriod)} available tokens,
+ * consumption of {@code N} tokens just moves {@code tat} forward on {@code ceil(N * refillPeriod / refillTokens)} nanoseconds.
+ * So, the state of single-bandwidth bucket is just one long, that allows to update it via single CAS or tiny script on the storage side.
+ * The time of last refill is not persisted, so deserialized state should be refilled before amount of tokens is read or changed,
+ * every remote command does it before execution.
+ *
+ * <p>
+ * When {@code refillPeriod} is divisible by {@code refillTokens} the behavior is identical to {@link BucketState64BitsInteger},
+ * otherwise this state can be more pessimistic on one nanosecond per consumption, because there is no place to hold rounding error.
+ *
+ * <p>
+ * Limitations:
+ * <ul>
+ *     <li>Only greedy refill is supported.</li>
+ *     <li>Bucket can not hold more tokens than capacity, so {@link #forceAddTokens(long)} behaves exactly like {@link #addTokens(long)}.</li>
+ * </ul>
+ */
+public class BucketStateGcra implements BucketState, ComparableByContent<BucketStateGcra> {
+
+    private static final long UNKNOWN_TIME = Long.MIN_VALUE;
+
+    long[] stateData;
+
+    // time of last refill, it is not part of the persisted state
+    private long currentTimeNanos;
+
+    private BucketConfiguration configuration;
+
+    public static final SerializationHandle<BucketStateGcra> SERIALIZATION_HANDLE = new SerializationHandle<>() {
+        @Override
+        public <S> BucketStateGcra deserialize(DeserializationAdapter<S> adapter, S input) throws IOException {
+            int formatNumber = adapter.readInt(input);
+            Versions.check(formatNumber, v_8_14_0, v_8_14_0);
+
+            long[] data = adapter.readLongArray(input);
+            return new BucketStateGcra(data);
+        }
+
+        @Override
+        public <O> void serialize(SerializationAdapter<O> adapter, O output, BucketStateGcra state, Version backwardCompatibilityVersion, Scope scope) throws IOException {
+            adapter.writeInt(output, v_8_14_0.getNumber());
+
+            adapter.writeLongArray(output, state.stateData);
+        }
+
+        @Override
+        public int getTypeId() {
+            return 8;
+        }
+
+        @Override
+        public Class<BucketStateGcra> getSerializedType() {
+            return BucketStateGcra.class;
+        }
+
+        @Override
+        public BucketStateGcra fromJsonCompatibleSnapshot(Map<String, Object> snapshot) throws IOException {
+            int formatNumber = readIntValue(snapshot, "version");
+            Versions.check(formatNumber, v_8_14_0, v_8_14_0);
+
+            long[] stateDate = readLongArray(snapshot, "stateData");
+            Map<String, Object> configurationSnapshot = (Map<String, Object>) snapshot.get("configuration");
+            BucketConfiguration configuration = BucketConfiguration.SERIALIZATION_HANDLE.fromJsonCompatibleSnapshot(configurationSnapshot);
+            BucketStateGcra state = new BucketStateGcra(stateDate);
+            state.setConfiguration(configuration);
+            return state;
+        }
+
+        @Override
+        public Map<String, Object> toJsonCompatibleSnapshot(BucketStateGcra state, Version backwardCompatibilityVersion, Scope scope) throws IOException {
+            Map<String, Object> result = new HashMap<>();
+            result.put("version", v_8_14_0.getNumber());
+            result.put("stateData", state.stateData);
+            result.put("configuration", BucketConfiguration.SERIALIZATION_HANDLE.toJsonCompatibleSnapshot(state.configuration, backwardCompatibilityVersion, scope));
+            return result;
+        }
+
+        @Override
+        public String getTypeName() {
+            return "BucketStateGcra";
+        }
+    };
+
+    private BucketStateGcra(BucketStateGcra otherState) {
+        this.stateData = otherState.stateData.clone();
+        this.configuration = otherState.configuration;
+        this.currentTimeNanos = otherState.currentTimeNanos;
+    }
+
+    /**
+     * Creates deserialized state, time of last refill is unknown until {@link #refillAllBandwidth(long)} is called.
+     */
+    BucketStateGcra(long[] stateData) {
+        this(stateData, UNKNOWN_TIME);
+    }
+
+    BucketStateGcra(long[] stateData, long currentTimeNanos) {
+        this.stateData = stateData;
+        this.currentTimeNanos = currentTimeNanos;
+    }
+
+    public BucketStateGcra(BucketConfiguration configuration, long currentTimeNanos) {
+        Bandwidth[] bandwidths = configuration.getBandwidths();
+        for (Bandwidth bandwidth : bandwidths) {
+            checkCompatibility(bandwidth);
+        }
+        this.configuration = configuration;
+        this.currentTimeNanos = currentTimeNanos;
+        this.stateData = new long[bandwidths.length];
+        for (int i = 0; i < bandwidths.length; i++) {
+            stateData[i] = initialTheoreticalArrivalTime(bandwidths[i], currentTimeNanos);
+        }
+    }
+
+    /**
+     * Creates the state from already known theoretical arrival times, for example taken from {@link #getTheoreticalArrivalTime(int)}.
+     *
+     * @param configuration the configuration
+     * @param theoreticalArrivalTimes theoretical arrival time per each bandwidth
+     * @param currentTimeNanos current time
+     */
+    public BucketStateGcra(BucketConfiguration configuration, long[] theoreticalArrivalTimes, long currentTimeNanos) {
+        this.configuration = configuration;
+        this.stateData = theoreticalArrivalTimes;
+        this.currentTimeNanos = UNKNOWN_TIME;
+        refillAllBandwidth(currentTimeNanos);
+    }
+
+    public static void checkCompatibility(Bandwidth bandwidth) {
+        if (!bandwidth.isGready() || bandwidth.isIntervallyAligned()) {
+            throw BucketExceptions.onlyGreedyRefillIsSupportedByGcra(bandwidth);
+        }
+    }
+
+    @Override
+    public BucketState copy() {
+        return new BucketStateGcra(this);
+    }
+
+    @Override
+    public BucketConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    @Override
+    public void setConfiguration(BucketConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    @Override
+    public BucketState replaceConfiguration(BucketConfiguration newConfiguration, TokensInheritanceStrategy tokensInheritanceStrategy, long currentTimeNanos) {
+        if (tokensInheritanceStrategy == TokensInheritanceStrategy.RESET) {
+            return new BucketStateGcra(newConfiguration, currentTimeNanos);
+        }
+        Bandwidth[] newBandwidths = newConfiguration.getBandwidths();
+        for (Bandwidth bandwidth : newBandwidths) {
+            checkCompatibility(bandwidth);
+        }
+
+        BucketConfiguration previousConfiguration = this.configuration;
+        boolean nullIdComparisonCanBeApplied = countOfBandwidthsWithNullIdentifiers(previousConfiguration) < 2
+                && countOfBandwidthsWithNullIdentifiers(newConfiguration) < 2;
+        Bandwidth[] previousBandwidths = previousConfiguration.getBandwidths();
+
+        BucketStateGcra newState = new BucketStateGcra(new long[newBandwidths.length], currentTimeNanos);
+        newState.setConfiguration(newConfiguration);
+        for (int newBandwidthIndex = 0; newBandwidthIndex < newBandwidths.length; newBandwidthIndex++) {
+            Bandwidth newBandwidth = newBandwidths[newBandwidthIndex];
+            Bandwidth previousBandwidth = null;
+            int previousBandwidthIndex = -1;
+            if (newBandwidth.getId() != null || nullIdComparisonCanBeApplied) {
+                for (int j = 0; j < previousBandwidths.length; j++) {
+                    if (Objects.equals(newBandwidth.getId(), previousBandwidths[j].getId())) {
+                        previousBandwidth = previousBandwidths[j];
+                        previousBandwidthIndex = j;
+                        break;
+                    }
+                }
+            }
+            if (previousBandwidth == null) {
+                newState.stateData[newBandwidthIndex] = initialTheoreticalArrivalTime(newBandwidth, currentTimeNanos);
+                continue;
+            }
+
+            long availableTokens = availableTokens(previousBandwidth, stateData[previousBandwidthIndex], currentTimeNanos);
+            long newAvailableTokens = switch (tokensInheritanceStrategy) {
+                case AS_IS -> availableTokens;
+                case PROPORTIONALLY -> (long) ((double) availableTokens * (double) newBandwidth.capacity / (double) previousBandwidth.capacity);
+                case ADDITIVE -> newBandwidth.capacity > previousBandwidth.capacity ?
+                        availableTokens + (newBandwidth.capacity - previousBandwidth.capacity) : availableTokens;
+                default -> throw new IllegalStateException("Should never reach there");
+            };
+            newAvailableTokens = Math.min(newAvailableTokens, newBandwidth.capacity);
+            newState.stateData[newBandwidthIndex] = currentTimeNanos + nanosToRefillCeil(newBandwidth, newBandwidth.capacity - newAvailableTokens);
+        }
+        return newState;
+    }
+
+    @Override
+    public void copyStateFrom(BucketState sourceState) {
+        BucketStateGcra sourceStateGcra = (BucketStateGcra) sourceState;
+        this.currentTimeNanos = sourceStateGcra.currentTimeNanos;
+        if (sourceStateGcra.configuration == configuration) {
+            System.arraycopy(sourceStateGcra.stateData, 0, stateData, 0, stateData.length);
+        } else {
+            this.configuration = sourceStateGcra.configuration;
+            this.stateData = sourceStateGcra.stateData.clone();
+        }
+    }
+
+    @Override
+    public long getAvailableTokens() {
+        long availableTokens = getCurrentSize(0);
+        for (int i = 1; i < stateData.length; i++) {
+            availableTokens = Math.min(availableTokens, getCurrentSize(i));
+        }
+        return availableTokens;
+    }
+
+    @Override
+    public void consume(long toConsume) {
+        Bandwidth[] bandwidths = configuration.getBandwidths();
+        for (int i = 0; i < bandwidths.length; i++) {
+            stateData[i] = consume(bandwidths[i], stateData[i], toConsume);
+        }
+    }
+
+    @Override
+    public long calculateDelayNanosAfterWillBePossibleToConsume(long tokensToConsume, long currentTimeNanos, boolean checkTokensToConsumeShouldBeLessThenCapacity) {
+        Bandwidth[] bandwidths = configuration.getBandwidths();
+        long delayAfterWillBePossibleToConsume = 0;
+        for (int i = 0; i < bandwidths.length; i++) {
+            Bandwidth bandwidth = bandwidths[i];
+            if (checkTokensToConsumeShouldBeLessThenCapacity && tokensToConsume > bandwidth.capacity) {
+                return Long.MAX_VALUE;
+            }
+            long delay = delayNanosAfterWillBePossibleToConsume(bandwidth, stateData[i], tokensToConsume, currentTimeNanos);
+            delayAfterWillBePossibleToConsume = Math.max(delayAfterWillBePossibleToConsume, delay);
+        }
+        return delayAfterWillBePossibleToConsume;
+    }
+
+    @Override
+    public long calculateFullRefillingTime(long currentTimeNanos) {
+        long maxTimeToFullRefillNanos = 0;
+        for (int i = 0; i < stateData.length; i++) {
+            maxTimeToFullRefillNanos = Math.max(maxTimeToFullRefillNanos, stateData[i] - currentTimeNanos);
+        }
+        return maxTimeToFullRefillNanos;
+    }
+
+    @Override
+    public void refillAllBandwidth(long currentTimeNanos) {
+        if (currentTimeNanos <= this.currentTimeNanos) {
+            return;
+        }
+        this.currentTimeNanos = currentTimeNanos;
+        for (int i = 0; i < stateData.length; i++) {
+            stateData[i] = refill(stateData[i], currentTimeNanos);
+        }
+    }
+
+    @Override
+    public void addTokens(long tokensToAdd) {
+        checkRefilled();
+        Bandwidth[] bandwidths = configuration.getBandwidths();
+        for (int i = 0; i < bandwidths.length; i++) {
+            stateData[i] = addTokens(bandwidths[i], stateData[i], tokensToAdd, currentTimeNanos);
+        }
+    }
+
+    @Override
+    public void forceAddTokens(long tokensToAdd) {
+        addTokens(tokensToAdd);
+    }
+
+    @Override
+    public void reset() {
+        checkRefilled();
+        for (int i = 0; i < stateData.length; i++) {
+            stateData[i] = currentTimeNanos;
+        }
+    }
+
+    @Override
+    public long getCurrentSize(int bandwidth) {
+        checkRefilled();
+        return availableTokens(configuration.getBandwidths()[bandwidth], stateData[bandwidth], currentTimeNanos);
+    }
+
+    @Override
+    public long getRoundingError(int bandwidth) {
+        return 0;
+    }
+
+    /**
+     * Returns the moment when bandwidth will be fully refilled.
+     *
+     * @param bandwidth index of bandwidth
+     * @return theoretical arrival time
+     */
+    public long getTheoreticalArrivalTime(int bandwidth) {
+        return stateData[bandwidth];
+    }
+
+    private void checkRefilled() {
+        if (currentTimeNanos == UNKNOWN_TIME) {
+            throw BucketExceptions.gcraStateIsNotRefilled();
+        }
+    }
+
+    @Override
+    public MathType getMathType() {
+        return MathType.GCRA;
+    }
+
+    // ------------------- primitives which operate with single bandwidth ----------------------------
+
+    /**
+     * Returns theoretical arrival time of new bandwidth
+     */
+    public static long initialTheoreticalArrivalTime(Bandwidth bandwidth, long currentTimeNanos) {
+        long deficit = Math.max(0, bandwidth.capacity - bandwidth.initialTokens);
+        return currentTimeNanos + nanosToRefillCeil(bandwidth, deficit);
+    }
+
+    /**
+     * Returns theoretical arrival time after refill
+     */
+    public static long refill(long theoreticalArrivalTime, long currentTimeNanos) {
+        return Math.max(theoreticalArrivalTime, currentTimeNanos);
+    }
+
+    /**
+     * Returns the amount of tokens available at {@code currentTimeNanos}, result can be negative if tokens were consumed in debt
+     */
+    public static long availableTokens(Bandwidth bandwidth, long theoreticalArrivalTime, long currentTimeNanos) {
+        long debtNanos = theoreticalArrivalTime - currentTimeNanos;
+        if (debtNanos <= 0) {
+            return bandwidth.capacity;
+        }
+        long debtTokens = multiplyAndDivideFloor(debtNanos, bandwidth.refillTokens, bandwidth.refillPeriodNanos);
+        // theoretical arrival time is rounded up on consumption, so debt should not be rounded up one more time
+        // when it is covered by rounded up refill time of the same amount of tokens
+        if (nanosToRefillCeil(bandwidth, debtTokens) < debtNanos) {
+            debtTokens++;
+        }
+        return bandwidth.capacity - debtTokens;
+    }
+
+    /**
+     * Returns theoretical arrival time after consumption of {@code tokens}
+     */
+    public static long consume(Bandwidth bandwidth, long theoreticalArrivalTime, long tokens) {
+        long result = theoreticalArrivalTime + nanosToRefillCeil(bandwidth, tokens);
+        if (result < theoreticalArrivalTime) {
+            // arithmetic overflow happens
+            return Long.MAX_VALUE;
+        }
+        return result;
+    }
+
+    /**
+     * Returns theoretical arrival time after returning of {@code tokens} back to bandwidth
+     */
+    public static long addTokens(Bandwidth bandwidth, long theoreticalArrivalTime, long tokens, long currentTimeNanos) {
+        long result = theoreticalArrivalTime - multiplyAndDivideFloor(tokens, bandwidth.refillPeriodNanos, bandwidth.refillTokens);
+        if (result > theoreticalArrivalTime) {
+            // arithmetic overflow happens
+            return currentTimeNanos;
+        }
+        return Math.max(result, currentTimeNanos);
+    }
+
+    /**
+     * Returns amount of nanoseconds required to wait until {@code tokens} will be available
+     */
+    public static long delayNanosAfterWillBePossibleToConsume(Bandwidth bandwidth, long theoreticalArrivalTime, long tokens, long currentTimeNanos) {
+        long debtNanos = Math.max(0, theoreticalArrivalTime - currentTimeNanos);
+        long tokensAfterConsumption = bandwidth.capacity - tokens;
+        long delay;
+        if (tokensAfterConsumption >= 0) {
+            delay = debtNanos - multiplyAndDivideFloor(tokensAfterConsumption, bandwidth.refillPeriodNanos, bandwidth.refillTokens);
+        } else {
+            delay = debtNanos + nanosToRefillCeil(bandwidth, -tokensAfterConsumption);
+            if (delay < debtNanos) {
+                // arithmetic overflow happens
+                return Long.MAX_VALUE;
+            }
+        }
+        return Math.max(0, delay);
+    }
+
+    private static long nanosToRefillCeil(Bandwidth bandwidth, long tokens) {
+        if (bandwidth.refillTokens == 1) {
+            return multiplyExactOrReturnMaxValue(tokens, bandwidth.refillPeriodNanos);
+        }
+        return multiplyAndDivideCeil(tokens, bandwidth.refillPeriodNanos, bandwidth.refillTokens);
+    }
+
+    @Override
+    public String toString() {
+        return "BucketStateGcra{" +
+                "theoreticalArrivalTimes=" + Arrays.toString(stateData) +
+                '}';
+    }
+
+    @Override
+    public boolean equalsByContent(BucketStateGcra other) {
+        return Arrays.equals(stateData, other.stateData);
+    }
+
+}
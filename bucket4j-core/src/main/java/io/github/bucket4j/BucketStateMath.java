@@ -0,0 +1,78 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j;
+
+/**
+ * Arithmetic shared by implementations of {@link BucketState}.
+ */
+final class BucketStateMath {
+
+    private BucketStateMath() {
+    }
+
+    static int countOfBandwidthsWithNullIdentifiers(BucketConfiguration configuration) {
+        Bandwidth[] bandwidths = configuration.getBandwidths();
+        int count = 0;
+        for (int i = 0; i < bandwidths.length; i++) {
+            if (bandwidths[i].getId() == null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    static long multiplyAndDivideCeil(long x, long y, long divisor) {
+        long multiplied = multiplyExactOrReturnMaxValue(x, y);
+        if (multiplied == Long.MAX_VALUE) {
+            // arithmetic overflow happens.
+            // there is no sense to stay in integer arithmetic when having deal with so big numbers
+            return (long) Math.ceil((double) x * (double) y / (double) divisor);
+        }
+        return multiplied / divisor + (multiplied % divisor > 0 ? 1 : 0);
+    }
+
+    static long multiplyAndDivideFloor(long x, long y, long divisor) {
+        long multiplied = multiplyExactOrReturnMaxValue(x, y);
+        if (multiplied == Long.MAX_VALUE) {
+            // arithmetic overflow happens.
+            // there is no sense to stay in integer arithmetic when having deal with so big numbers
+            return (long) ((double) x * (double) y / (double) divisor);
+        }
+        return multiplied / divisor;
+    }
+
+    // just a copy of JDK method Math#multiplyExact,
+    // but instead of throwing exception it returns Long.MAX_VALUE in case of overflow
+    static long multiplyExactOrReturnMaxValue(long x, long y) {
+        long r = x * y;
+        long ax = Math.abs(x);
+        long ay = Math.abs(y);
+        if (((ax | ay) >>> 31 != 0)) {
+            // Some bits greater than 2^31 that might cause overflow
+            // Check the result using the divide operator
+            // and check for the special case of Long.MIN_VALUE * -1
+            if (((y != 0) && (r / y != x)) || (x == Long.MIN_VALUE && y == -1)) {
+                return Long.MAX_VALUE;
+            }
+        }
+        return r;
+    }
+
+}
@@ -0,0 +1,487 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j;
+
+import io.github.bucket4j.distributed.serialization.DeserializationAdapter;
+import io.github.bucket4j.distributed.serialization.Scope;
+import io.github.bucket4j.distributed.serialization.SerializationAdapter;
+import io.github.bucket4j.distributed.serialization.SerializationHandle;
+import io.github.bucket4j.distributed.versioning.Version;
+import io.github.bucket4j.distributed.versioning.Versions;
+import io.github.bucket4j.util.ComparableByContent;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import static io.github.bucket4j.BucketStateMath.countOfBandwidthsWithNullIdentifiers;
+import static io.github.bucket4j.BucketStateMath.multiplyAndDivideCeil;
+import static io.github.bucket4j.BucketStateMath.multiplyAndDivideFloor;
+import static io.github.bucket4j.BucketStateMath.multiplyExactOrReturnMaxValue;
+import static io.github.bucket4j.distributed.versioning.Versions.v_8_14_0;
+
+/**
+ * Implementation of {@link BucketState} that uses sliding window counter algorithm instead of token-bucket.
+ *
+ * <p>
+ * For each bandwidth the time is split into fixed windows, the length of window is the time required to regenerate full capacity
+ * ({@code capacity * refillPeriod / refillTokens}, that is just refill period for bandwidths like {@code capacity(N).refillIntervally(N, period)}).
+ * State holds the count of tokens consumed in current and previous window, and amount of tokens consumed during last {@code window} duration
+ * is estimated as {@code current + previous * (window - elapsedInCurrentWindow) / window}.
+ * Each bandwidth is represented by three longs, {@code [windowStart, previousCount, currentCount]},
+ * plus one long which is shared between bandwidths and holds time of last refill.
+ *
+ * <p>
+ * The type of refill (greedy or intervally) is not relevant for this algorithm, refill always happens with granularity of one nanosecond.
+ * Tokens which were added above capacity via {@link #forceAddTokens(long)} are available only until the end of current window.
+ */
+public class BucketStateSlidingWindowCounter implements BucketState, ComparableByContent<BucketStateSlidingWindowCounter> {
+
+    private static final int BANDWIDTH_SIZE = 3;
+
+    long[] stateData;
+
+    private BucketConfiguration configuration;
+
+    public static final SerializationHandle<BucketStateSlidingWindowCounter> SERIALIZATION_HANDLE = new SerializationHandle<>() {
+        @Override
+        public <S> BucketStateSlidingWindowCounter deserialize(DeserializationAdapter<S> adapter, S input) throws IOException {
+            int formatNumber = adapter.readInt(input);
+            Versions.check(formatNumber, v_8_14_0, v_8_14_0);
+
+            long[] data = adapter.readLongArray(input);
+            return new BucketStateSlidingWindowCounter(data);
+        }
+
+        @Override
+        public <O> void serialize(SerializationAdapter<O> adapter, O output, BucketStateSlidingWindowCounter state, Version backwardCompatibilityVersion, Scope scope) throws IOException {
+            adapter.writeInt(output, v_8_14_0.getNumber());
+
+            adapter.writeLongArray(output, state.stateData);
+        }
+
+        @Override
+        public int getTypeId() {
+            return 7;
+        }
+
+        @Override
+        public Class<BucketStateSlidingWindowCounter> getSerializedType() {
+            return BucketStateSlidingWindowCounter.class;
+        }
+
+        @Override
+        public BucketStateSlidingWindowCounter fromJsonCompatibleSnapshot(Map<String, Object> snapshot) throws IOException {
+            int formatNumber = readIntValue(snapshot, "version");
+            Versions.check(formatNumber, v_8_14_0, v_8_14_0);
+
+            long[] stateDate = readLongArray(snapshot, "stateData");
+            Map<String, Object> configurationSnapshot = (Map<String, Object>) snapshot.get("configuration");
+            BucketConfiguration configuration = BucketConfiguration.SERIALIZATION_HANDLE.fromJsonCompatibleSnapshot(configurationSnapshot);
+            BucketStateSlidingWindowCounter state = new BucketStateSlidingWindowCounter(stateDate);
+            state.setConfiguration(configuration);
+            return state;
+        }
+
+        @Override
+        public Map<String, Object> toJsonCompatibleSnapshot(BucketStateSlidingWindowCounter state, Version backwardCompatibilityVersion, Scope scope) throws IOException {
+            Map<String, Object> result = new HashMap<>();
+            result.put("version", v_8_14_0.getNumber());
+            result.put("stateData", state.stateData);
+            result.put("configuration", BucketConfiguration.SERIALIZATION_HANDLE.toJsonCompatibleSnapshot(state.configuration, backwardCompatibilityVersion, scope));
+            return result;
+        }
+
+        @Override
+        public String getTypeName() {
+            return "BucketStateSlidingWindowCounter";
+        }
+    };
+
+    private BucketStateSlidingWindowCounter(BucketStateSlidingWindowCounter otherState) {
+        this.stateData = otherState.stateData.clone();
+        this.configuration = otherState.configuration;
+    }
+
+    BucketStateSlidingWindowCounter(long[] stateData) {
+        this.stateData = stateData;
+    }
+
+    public BucketStateSlidingWindowCounter(BucketConfiguration configuration, long currentTimeNanos) {
+        this.configuration = configuration;
+        Bandwidth[] bandwidths = configuration.getBandwidths();
+
+        this.stateData = new long[1 + bandwidths.length * BANDWIDTH_SIZE];
+        setLastRefillTimeNanos(currentTimeNanos);
+        for (int i = 0; i < bandwidths.length; i++) {
+            initBandwidth(i, bandwidths[i], currentTimeNanos);
+        }
+    }
+
+    @Override
+    public BucketState copy() {
+        return new BucketStateSlidingWindowCounter(this);
+    }
+
+    @Override
+    public BucketConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    @Override
+    public void setConfiguration(BucketConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    @Override
+    public BucketState replaceConfiguration(BucketConfiguration newConfiguration, TokensInheritanceStrategy tokensInheritanceStrategy, long currentTimeNanos) {
+        if (tokensInheritanceStrategy == TokensInheritanceStrategy.RESET) {
+            return new BucketStateSlidingWindowCounter(newConfiguration, currentTimeNanos);
+        }
+
+        BucketConfiguration previousConfiguration = this.configuration;
+        boolean nullIdComparisonCanBeApplied = countOfBandwidthsWithNullIdentifiers(previousConfiguration) < 2
+                && countOfBandwidthsWithNullIdentifiers(newConfiguration) < 2;
+
+        Bandwidth[] previousBandwidths = previousConfiguration.getBandwidths();
+        Bandwidth[] newBandwidths = newConfiguration.getBandwidths();
+
+        BucketStateSlidingWindowCounter newState = new BucketStateSlidingWindowCounter(new long[1 + newBandwidths.length * BANDWIDTH_SIZE]);
+        newState.setConfiguration(newConfiguration);
+        newState.setLastRefillTimeNanos(getLastRefillTimeNanos());
+        for (int newBandwidthIndex = 0; newBandwidthIndex < newBandwidths.length; newBandwidthIndex++) {
+            Bandwidth newBandwidth = newBandwidths[newBandwidthIndex];
+            Bandwidth previousBandwidth = null;
+            int previousBandwidthIndex = -1;
+            if (newBandwidth.getId() != null || nullIdComparisonCanBeApplied) {
+                for (int j = 0; j < previousBandwidths.length; j++) {
+                    if (Objects.equals(newBandwidth.getId(), previousBandwidths[j].getId())) {
+                        previousBandwidth = previousBandwidths[j];
+                        previousBandwidthIndex = j;
+                        break;
+                    }
+                }
+            }
+            if (previousBandwidth == null) {
+                newState.initBandwidth(newBandwidthIndex, newBandwidth, currentTimeNanos);
+                continue;
+            }
+
+            long previousCount = getPreviousCount(previousBandwidthIndex);
+            long currentCount = getCurrentCount(previousBandwidthIndex);
+            newState.setWindowStart(newBandwidthIndex, getWindowStart(previousBandwidthIndex));
+            switch (tokensInheritanceStrategy) {
+                case AS_IS:
+                    // keep amount of available tokens
+                    currentCount += newBandwidth.capacity - previousBandwidth.capacity;
+                    break;
+                case PROPORTIONALLY:
+                    double scale = (double) newBandwidth.capacity / (double) previousBandwidth.capacity;
+                    previousCount = (long) Math.ceil(previousCount * scale);
+                    currentCount = (long) Math.ceil(currentCount * scale);
+                    break;
+                case ADDITIVE:
+                    if (newBandwidth.capacity <= previousBandwidth.capacity) {
+                        currentCount += newBandwidth.capacity - previousBandwidth.capacity;
+                    }
+                    break;
+                default: throw new IllegalStateException("Should never reach there");
+            }
+            newState.setPreviousCount(newBandwidthIndex, previousCount);
+            newState.setCurrentCount(newBandwidthIndex, currentCount);
+            if (newState.getCurrentSize(newBandwidthIndex) > newBandwidth.capacity) {
+                newState.resetBandwidth(newBandwidthIndex);
+            }
+        }
+        return newState;
+    }
+
+    @Override
+    public void copyStateFrom(BucketState sourceState) {
+        BucketStateSlidingWindowCounter sourceStateSlidingWindow = (BucketStateSlidingWindowCounter) sourceState;
+        if (sourceStateSlidingWindow.configuration == configuration) {
+            System.arraycopy(sourceStateSlidingWindow.stateData, 0, stateData, 0, stateData.length);
+        } else {
+            this.configuration = sourceStateSlidingWindow.configuration;
+            this.stateData = sourceStateSlidingWindow.stateData.clone();
+        }
+    }
+
+    @Override
+    public long getAvailableTokens() {
+        long availableTokens = getCurrentSize(0);
+        for (int i = 1; i < configuration.getBandwidths().length; i++) {
+            availableTokens = Math.min(availableTokens, getCurrentSize(i));
+        }
+        return availableTokens;
+    }
+
+    @Override
+    public void consume(long toConsume) {
+        for (int i = 0; i < configuration.getBandwidths().length; i++) {
+            setCurrentCount(i, getCurrentCount(i) + toConsume);
+        }
+    }
+
+    @Override
+    public long calculateDelayNanosAfterWillBePossibleToConsume(long tokensToConsume, long currentTimeNanos, boolean checkTokensToConsumeShouldBeLessThenCapacity) {
+        Bandwidth[] bandwidths = configuration.getBandwidths();
+        long delayAfterWillBePossibleToConsume = 0;
+        for (int i = 0; i < bandwidths.length; i++) {
+            Bandwidth bandwidth = bandwidths[i];
+            if (checkTokensToConsumeShouldBeLessThenCapacity && tokensToConsume > bandwidth.capacity) {
+                return Long.MAX_VALUE;
+            }
+            long delay = calculateDelayNanosBeforeEstimatedCountDecreasesTo(i, bandwidth, bandwidth.capacity - tokensToConsume, currentTimeNanos);
+            delayAfterWillBePossibleToConsume = Math.max(delayAfterWillBePossibleToConsume, delay);
+        }
+        return delayAfterWillBePossibleToConsume;
+    }
+
+    @Override
+    public long calculateFullRefillingTime(long currentTimeNanos) {
+        Bandwidth[] bandwidths = configuration.getBandwidths();
+        long maxTimeToFullRefillNanos = 0;
+        for (int i = 0; i < bandwidths.length; i++) {
+            long delay = calculateDelayNanosBeforeEstimatedCountDecreasesTo(i, bandwidths[i], 0, currentTimeNanos);
+            maxTimeToFullRefillNanos = Math.max(maxTimeToFullRefillNanos, delay);
+        }
+        return maxTimeToFullRefillNanos;
+    }
+
+    @Override
+    public void refillAllBandwidth(long currentTimeNanos) {
+        if (currentTimeNanos <= getLastRefillTimeNanos()) {
+            return;
+        }
+        setLastRefillTimeNanos(currentTimeNanos);
+        Bandwidth[] bandwidths = configuration.getBandwidths();
+        for (int i = 0; i < bandwidths.length; i++) {
+            long windowNanos = windowNanos(bandwidths[i]);
+            long windowStart = getWindowStart(i);
+            long elapsed = currentTimeNanos - windowStart;
+            if (elapsed < windowNanos) {
+                continue;
+            }
+            if (elapsed - windowNanos < windowNanos) {
+                setPreviousCount(i, Math.max(0, getCurrentCount(i)));
+            } else {
+                setPreviousCount(i, 0);
+            }
+            setCurrentCount(i, 0);
+            setWindowStart(i, currentTimeNanos - elapsed % windowNanos);
+        }
+    }
+
+    @Override
+    public void addTokens(long tokensToAdd) {
+        Bandwidth[] bandwidths = configuration.getBandwidths();
+        for (int i = 0; i < bandwidths.length; i++) {
+            returnTokens(i, bandwidths[i], tokensToAdd);
+        }
+    }
+
+    @Override
+    public void forceAddTokens(long tokensToAdd) {
+        Bandwidth[] bandwidths = configuration.getBandwidths();
+        for (int i = 0; i < bandwidths.length; i++) {
+            long notReturned = returnTokens(i, bandwidths[i], tokensToAdd);
+            if (notReturned > 0) {
+                // negative count means tokens above capacity, they are available until the end of current window
+                long currentCount = getCurrentCount(i);
+                long minCount = bandwidths[i].capacity - Long.MAX_VALUE;
+                setCurrentCount(i, notReturned >= currentCount - minCount ? minCount : currentCount - notReturned);
+            }
+        }
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < configuration.getBandwidths().length; i++) {
+            resetBandwidth(i);
+        }
+    }
+
+    @Override
+    public long getCurrentSize(int bandwidth) {
+        Bandwidth[] bandwidths = configuration.getBandwidths();
+        long estimatedCount = estimateCount(bandwidth, bandwidths[bandwidth], getLastRefillTimeNanos());
+        return bandwidths[bandwidth].capacity - estimatedCount;
+    }
+
+    @Override
+    public long getRoundingError(int bandwidth) {
+        return 0;
+    }
+
+    @Override
+    public MathType getMathType() {
+        return MathType.SLIDING_WINDOW_COUNTER;
+    }
+
+    private void initBandwidth(int bandwidthIndex, Bandwidth bandwidth, long currentTimeNanos) {
+        setWindowStart(bandwidthIndex, currentTimeNanos);
+        setPreviousCount(bandwidthIndex, 0);
+        setCurrentCount(bandwidthIndex, Math.max(0, bandwidth.capacity - bandwidth.initialTokens));
+    }
+
+    private void resetBandwidth(int bandwidthIndex) {
+        setPreviousCount(bandwidthIndex, 0);
+        setCurrentCount(bandwidthIndex, 0);
+    }
+
+    /**
+     * @return amount of tokens which were not returned because bandwidth became full
+     */
+    private long returnTokens(int bandwidthIndex, Bandwidth bandwidth, long tokensToReturn) {
+        long currentCount = getCurrentCount(bandwidthIndex);
+        if (currentCount > 0) {
+            long returnedFromCurrent = Math.min(currentCount, tokensToReturn);
+            setCurrentCount(bandwidthIndex, currentCount - returnedFromCurrent);
+            tokensToReturn -= returnedFromCurrent;
+        }
+        if (tokensToReturn <= 0) {
+            return 0;
+        }
+
+        long previousCount = getPreviousCount(bandwidthIndex);
+        if (previousCount <= 0) {
+            return tokensToReturn;
+        }
+        long windowNanos = windowNanos(bandwidth);
+        long remainingNanos = windowNanos - (getLastRefillTimeNanos() - getWindowStart(bandwidthIndex));
+        if (remainingNanos <= 0) {
+            return tokensToReturn;
+        }
+        // previous window is visible with weight remainingNanos/windowNanos, so returning of one token requires to decrease previous count by inverse weight
+        long weightedPrevious = multiplyAndDivideCeil(previousCount, remainingNanos, windowNanos);
+        if (tokensToReturn >= weightedPrevious) {
+            setPreviousCount(bandwidthIndex, 0);
+            return tokensToReturn - weightedPrevious;
+        }
+        long decrease = multiplyAndDivideFloor(tokensToReturn, windowNanos, remainingNanos);
+        setPreviousCount(bandwidthIndex, Math.max(0, previousCount - decrease));
+        return 0;
+    }
+
+    private long estimateCount(int bandwidthIndex, Bandwidth bandwidth, long currentTimeNanos) {
+        long currentCount = getCurrentCount(bandwidthIndex);
+        long previousCount = getPreviousCount(bandwidthIndex);
+        if (previousCount == 0) {
+            return currentCount;
+        }
+        long windowNanos = windowNanos(bandwidth);
+        long remainingNanos = windowNanos - (currentTimeNanos - getWindowStart(bandwidthIndex));
+        if (remainingNanos <= 0) {
+            return currentCount;
+        }
+        remainingNanos = Math.min(remainingNanos, windowNanos);
+        return currentCount + multiplyAndDivideCeil(previousCount, remainingNanos, windowNanos);
+    }
+
+    private long calculateDelayNanosBeforeEstimatedCountDecreasesTo(int bandwidthIndex, Bandwidth bandwidth, long targetCount, long currentTimeNanos) {
+        long windowNanos = windowNanos(bandwidth);
+        long additionalDelay = 0;
+        if (targetCount < 0) {
+            // requested more than capacity, so the deficit can be closed only by additional windows
+            long deficitWindows = -targetCount / bandwidth.capacity + (-targetCount % bandwidth.capacity == 0 ? 0 : 1);
+            additionalDelay = multiplyExactOrReturnMaxValue(deficitWindows, windowNanos);
+            if (additionalDelay == Long.MAX_VALUE) {
+                return Long.MAX_VALUE;
+            }
+            targetCount = 0;
+        }
+
+        long currentCount = getCurrentCount(bandwidthIndex);
+        long previousCount = getPreviousCount(bandwidthIndex);
+        long elapsed = Math.max(0, Math.min(windowNanos, currentTimeNanos - getWindowStart(bandwidthIndex)));
+        long remainingNanos = windowNanos - elapsed;
+
+        long delay;
+        if (currentCount <= targetCount) {
+            if (previousCount <= 0 || remainingNanos == 0) {
+                return additionalDelay;
+            }
+            // ceil(previousCount * (remainingNanos - delay) / windowNanos) <= targetCount - currentCount
+            long allowedNanos = multiplyAndDivideFloor(targetCount - currentCount, windowNanos, previousCount);
+            delay = Math.max(0, remainingNanos - allowedNanos);
+        } else {
+            // current window becomes previous after remainingNanos, then ceil(currentCount * (windowNanos - x) / windowNanos) <= targetCount
+            long allowedNanos = multiplyAndDivideFloor(targetCount, windowNanos, currentCount);
+            delay = remainingNanos + (windowNanos - allowedNanos);
+        }
+        delay += additionalDelay;
+        return delay < 0 ? Long.MAX_VALUE : delay;
+    }
+
+    static long windowNanos(Bandwidth bandwidth) {
+        if (bandwidth.capacity == bandwidth.refillTokens) {
+            return bandwidth.refillPeriodNanos;
+        }
+        return Math.max(1, multiplyAndDivideCeil(bandwidth.capacity, bandwidth.refillPeriodNanos, bandwidth.refillTokens));
+    }
+
+    private long getLastRefillTimeNanos() {
+        return stateData[0];
+    }
+
+    private void setLastRefillTimeNanos(long nanos) {
+        stateData[0] = nanos;
+    }
+
+    private long getWindowStart(int bandwidth) {
+        return stateData[1 + bandwidth * BANDWIDTH_SIZE];
+    }
+
+    private void setWindowStart(int bandwidth, long nanos) {
+        stateData[1 + bandwidth * BANDWIDTH_SIZE] = nanos;
+    }
+
+    private long getPreviousCount(int bandwidth) {
+        return stateData[1 + bandwidth * BANDWIDTH_SIZE + 1];
+    }
+
+    private void setPreviousCount(int bandwidth, long count) {
+        stateData[1 + bandwidth * BANDWIDTH_SIZE + 1] = count;
+    }
+
+    private long getCurrentCount(int bandwidth) {
+        return stateData[1 + bandwidth * BANDWIDTH_SIZE + 2];
+    }
+
+    private void setCurrentCount(int bandwidth, long count) {
+        stateData[1 + bandwidth * BANDWIDTH_SIZE + 2] = count;
+    }
+
+    @Override
+    public String toString() {
+        return "BucketStateSlidingWindowCounter{" +
+                "stateData=" + Arrays.toString(stateData) +
+                '}';
+    }
+
+    @Override
+    public boolean equalsByContent(BucketStateSlidingWindowCounter other) {
+        return Arrays.equals(stateData, other.stateData);
+    }
+
+}
@@ -42,7 +42,7 @@ public class ConfigurationBuilder {
      * @return configuration that used for bucket construction.
      */
     public BucketConfiguration build() {
-        return new BucketConfiguration(this.bandwidths);
+        return ConfigurationCache.getDefault().intern(new BucketConfiguration(this.bandwidths));
     }
 
     /**
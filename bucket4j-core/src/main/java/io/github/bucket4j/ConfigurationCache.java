@@ -0,0 +1,175 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Canonicalizing cache of {@link BucketConfiguration}, which allows identical configurations to share one instance.
+ *
+ * <p>
+ * Configurations are compared by content, including identifiers of bandwidths.
+ * The cache has fixed size: the table is split into small sets of {@link #WAYS} slots, configuration can be placed only in the set selected by its fingerprint,
+ * and when set is full then random slot is overwritten. So the cache never holds more than {@code capacity} configurations,
+ * and in worst case, when application uses more distinct configurations than the capacity, interning just returns the same instance.
+ *
+ * <p>
+ * {@link ConfigurationBuilder#build()}, configurations of deserialized remote bucket states and configurations which are loaded from {@link io.github.bucket4j.distributed.ConfigurationStore}
+ * go through {@link #getDefault() default cache}, so millions of per-key buckets and remote bucket states with the same configuration do not retain millions of copies.
+ */
+@Experimental
+public final class ConfigurationCache {
+
+    public static final int WAYS = 4;
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private static final ConfigurationCache DEFAULT = new ConfigurationCache(DEFAULT_CAPACITY);
+
+    private final AtomicReferenceArray<BucketConfiguration> slots;
+    private final int setMask;
+
+    /**
+     * Creates the cache.
+     *
+     * @param capacity maximum amount of cached configurations, it will be rounded up to power of two and to {@link #WAYS}
+     */
+    public ConfigurationCache(int capacity) {
+        if (capacity <= 0) {
+            throw BucketExceptions.nonPositiveConfigurationCacheCapacity(capacity);
+        }
+        int slotCount = Math.max(WAYS, Integer.highestOneBit(capacity - 1) << 1);
+        this.slots = new AtomicReferenceArray<>(slotCount);
+        this.setMask = slotCount / WAYS - 1;
+    }
+
+    /**
+     * @return the cache which is used by builders and deserialization
+     */
+    public static ConfigurationCache getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns the canonical instance of configuration that has the same content as {@code configuration}.
+     *
+     * @param configuration the configuration
+     *
+     * @return the previously cached configuration with same content, or {@code configuration} itself
+     */
+    public BucketConfiguration intern(BucketConfiguration configuration) {
+        if (configuration == null) {
+            throw BucketExceptions.nullConfiguration();
+        }
+        int firstSlot = setIndex(configuration.getFingerprint()) * WAYS;
+        int emptySlot = -1;
+        for (int i = firstSlot; i < firstSlot + WAYS; i++) {
+            BucketConfiguration cached = slots.get(i);
+            if (cached == null) {
+                if (emptySlot == -1) {
+                    emptySlot = i;
+                }
+            } else if (cached == configuration || equalsWithIdentifiers(cached, configuration)) {
+                return cached;
+            }
+        }
+        if (emptySlot != -1 && slots.compareAndSet(emptySlot, null, configuration)) {
+            return configuration;
+        }
+        slots.set(firstSlot + ThreadLocalRandom.current().nextInt(WAYS), configuration);
+        return configuration;
+    }
+
+    /**
+     * Returns cached configuration with specified {@link BucketConfiguration#getFingerprint() fingerprint}.
+     *
+     * @param fingerprint the fingerprint of configuration
+     *
+     * @return the cached configuration, or {@code null} if configuration with such fingerprint is not cached
+     */
+    public BucketConfiguration getByFingerprint(long fingerprint) {
+        int firstSlot = setIndex(fingerprint) * WAYS;
+        for (int i = firstSlot; i < firstSlot + WAYS; i++) {
+            BucketConfiguration cached = slots.get(i);
+            if (cached != null && cached.getFingerprint() == fingerprint) {
+                return cached;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns cached configuration which is written in the binary form at current position of {@code buffer},
+     * it allows to read persisted states without creation of {@link Bandwidth} objects for configuration which is already known to the process.
+     * When configuration is found, position of buffer is moved to the end of configuration.
+     *
+     * @param buffer the buffer backed by array
+     *
+     * @return the cached configuration, or {@code null} if configuration is not cached, in such case position of buffer is undefined
+     */
+    public BucketConfiguration getBySerializedForm(ByteBuffer buffer) {
+        int start = buffer.position();
+        long fingerprint = BucketConfiguration.readFingerprintOfSerializedForm(buffer);
+        if (fingerprint == 0) {
+            return null;
+        }
+        BucketConfiguration cached = getByFingerprint(fingerprint);
+        if (cached == null) {
+            return null;
+        }
+        // fingerprint is a hash, so content must be compared
+        byte[] serializedForm = cached.getSerializedForm();
+        int from = buffer.arrayOffset() + start;
+        int to = buffer.arrayOffset() + buffer.position();
+        return Arrays.equals(serializedForm, 0, serializedForm.length, buffer.array(), from, to) ? cached : null;
+    }
+
+    /**
+     * Removes all configurations from the cache.
+     */
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+    }
+
+    private int setIndex(long fingerprint) {
+        // fingerprint is well mixed, so lowest bits can be used directly
+        return (int) fingerprint & setMask;
+    }
+
+    private static boolean equalsWithIdentifiers(BucketConfiguration first, BucketConfiguration second) {
+        if (!first.equalsByContent(second)) {
+            return false;
+        }
+        Bandwidth[] firstBandwidths = first.getBandwidths();
+        Bandwidth[] secondBandwidths = second.getBandwidths();
+        for (int i = 0; i < firstBandwidths.length; i++) {
+            if (!Objects.equals(firstBandwidths[i].getId(), secondBandwidths[i].getId())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -28,4 +28,17 @@ public enum MathType {
      */
     INTEGER_64_BITS,
 
+    /**
+     * Sliding window counter algorithm, see {@link BucketStateSlidingWindowCounter} for details.
+     * Fits well for contracts like "N requests per rolling minute" and requires {@link io.github.bucket4j.distributed.versioning.Versions#v_8_14_0} for distributed usage.
+     */
+    SLIDING_WINDOW_COUNTER,
+
+    /**
+     * Generic cell rate algorithm, see {@link BucketStateGcra} for details.
+     * The state of each bandwidth is single long, so local bucket with single bandwidth is updated via one CAS of {@link java.util.concurrent.atomic.AtomicLong}.
+     * Supports only greedy refill and requires {@link io.github.bucket4j.distributed.versioning.Versions#v_8_14_0} for distributed usage.
+     */
+    GCRA,
+
 }
@@ -0,0 +1,113 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed;
+
+import io.github.bucket4j.Experimental;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Side table for configurations of buckets, which allows to persist {@link io.github.bucket4j.BucketConfiguration#getFingerprint() fingerprint}
+ * of configuration in the bucket state instead of whole configuration.
+ *
+ * <p>
+ * The table should be located in the same backend as bucket states, and all clients that access the bucket states must be configured with the same table,
+ * because the state that references configuration can not be read without the table.
+ * Configurations are cached on each client in {@link io.github.bucket4j.ConfigurationCache#getDefault() default configuration cache},
+ * so the table is accessed only at first usage of configuration in the process.
+ *
+ * <p>
+ * Implementations need to provide only two primitive operations, remembering of already saved configurations is done by this class.
+ */
+@Experimental
+public abstract class ConfigurationStore {
+
+    private static final int MAX_REMEMBERED_FINGERPRINTS = 10_000;
+
+    private final Set<Long> savedFingerprints = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Loads configuration from the table.
+     *
+     * @param fingerprint the fingerprint of configuration
+     *
+     * @return serialized configuration, or {@code null} if there is no configuration with specified fingerprint
+     */
+    protected abstract byte[] load(long fingerprint);
+
+    /**
+     * Saves configuration to the table. Must be idempotent, because the same configuration can be saved concurrently by different clients.
+     *
+     * @param fingerprint the fingerprint of configuration
+     * @param configurationBytes serialized configuration
+     */
+    protected abstract void save(long fingerprint, byte[] configurationBytes);
+
+    /**
+     * Loads configuration from the table.
+     *
+     * @param fingerprint the fingerprint of configuration
+     *
+     * @return serialized configuration, or {@code null} if there is no configuration with specified fingerprint
+     */
+    public byte[] loadConfiguration(long fingerprint) {
+        byte[] configurationBytes = load(fingerprint);
+        if (configurationBytes != null) {
+            remember(fingerprint);
+        }
+        return configurationBytes;
+    }
+
+    /**
+     * Saves configuration to the table if it was not saved or loaded by this store before.
+     *
+     * @param fingerprint the fingerprint of configuration
+     * @param configurationBytesSupplier supplier of serialized configuration, that is called only when configuration needs to be saved
+     */
+    public void saveConfigurationIfAbsent(long fingerprint, Supplier<byte[]> configurationBytesSupplier) {
+        if (isKnown(fingerprint)) {
+            return;
+        }
+        save(fingerprint, configurationBytesSupplier.get());
+        remember(fingerprint);
+    }
+
+    /**
+     * Checks whether configuration was saved or loaded by this store before, so saving of configuration does not require access to the table.
+     *
+     * @param fingerprint the fingerprint of configuration
+     *
+     * @return {@code true} if configuration is known to be present in the table
+     */
+    public boolean isKnown(long fingerprint) {
+        return savedFingerprints.contains(fingerprint);
+    }
+
+    private void remember(long fingerprint) {
+        if (savedFingerprints.size() >= MAX_REMEMBERED_FINGERPRINTS) {
+            // configurations are created dynamically, just forget everything, saving is idempotent
+            savedFingerprints.clear();
+        }
+        savedFingerprints.add(fingerprint);
+    }
+
+}
@@ -0,0 +1,132 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.jdbc;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketExceptions;
+import io.github.bucket4j.Experimental;
+import io.github.bucket4j.distributed.ConfigurationStore;
+import io.github.bucket4j.distributed.serialization.InternalSerializationHelper;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * {@link ConfigurationStore} that keeps configurations in the table of relational database,
+ * it is intended to be used together with JDBC based proxy-managers and can share the same {@link DataSource} with them.
+ *
+ * <p>
+ * Expected structure of table, where {@code id} is the primary key:
+ * <pre>{@code
+ * CREATE TABLE bucket_configuration(id BIGINT PRIMARY KEY, configuration BYTEA);
+ * }</pre>
+ * The type of {@code configuration} column depends on database, for example {@code BLOB} for MySQL or {@code VARBINARY} for MSSQL.
+ *
+ * <p>
+ * Configurations are immutable, so rows are never updated, concurrent insertion of the same configuration is resolved by primary key.
+ * When the row already exists, its content is compared with the saved configuration,
+ * so collision of fingerprints of different configurations fails loudly instead of binding buckets to the wrong configuration.
+ */
+@Experimental
+public class JdbcConfigurationStore extends ConfigurationStore {
+
+    public static final String DEFAULT_TABLE_NAME = "bucket_configuration";
+    public static final String DEFAULT_ID_COLUMN_NAME = "id";
+    public static final String DEFAULT_CONFIGURATION_COLUMN_NAME = "configuration";
+
+    private final DataSource dataSource;
+    private final String selectSqlQuery;
+    private final String insertSqlQuery;
+
+    public JdbcConfigurationStore(DataSource dataSource) {
+        this(dataSource, DEFAULT_TABLE_NAME, DEFAULT_ID_COLUMN_NAME, DEFAULT_CONFIGURATION_COLUMN_NAME);
+    }
+
+    public JdbcConfigurationStore(DataSource dataSource, String tableName, String idColumnName, String configurationColumnName) {
+        this.dataSource = Objects.requireNonNull(dataSource);
+        Objects.requireNonNull(tableName);
+        Objects.requireNonNull(idColumnName);
+        Objects.requireNonNull(configurationColumnName);
+        this.selectSqlQuery = MessageFormat.format("SELECT {0} FROM {1} WHERE {2} = ?", configurationColumnName, tableName, idColumnName);
+        this.insertSqlQuery = MessageFormat.format("INSERT INTO {0}({1}, {2}) VALUES(?, ?)", tableName, idColumnName, configurationColumnName);
+    }
+
+    @Override
+    protected byte[] load(long fingerprint) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(selectSqlQuery)) {
+            statement.setLong(1, fingerprint);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? rs.getBytes(1) : null;
+            }
+        } catch (SQLException e) {
+            throw new BucketExceptions.BucketExecutionException(e);
+        }
+    }
+
+    @Override
+    protected void save(long fingerprint, byte[] configurationBytes) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(insertSqlQuery)) {
+            statement.setLong(1, fingerprint);
+            statement.setBytes(2, configurationBytes);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            if (isDuplicateKey(e)) {
+                // configuration was saved concurrently by another client or fingerprints of different configurations collide
+                checkStoredConfiguration(fingerprint, configurationBytes);
+                return;
+            }
+            throw new BucketExceptions.BucketExecutionException(e);
+        }
+    }
+
+    private void checkStoredConfiguration(long fingerprint, byte[] configurationBytes) {
+        byte[] storedBytes = load(fingerprint);
+        if (storedBytes == null) {
+            throw BucketExceptions.configurationNotFoundInStore(fingerprint);
+        }
+        if (Arrays.equals(storedBytes, configurationBytes)) {
+            return;
+        }
+        BucketConfiguration stored = InternalSerializationHelper.deserializeConfiguration(storedBytes);
+        BucketConfiguration saving = InternalSerializationHelper.deserializeConfiguration(configurationBytes);
+        if (!stored.equalsByContent(saving)) {
+            throw BucketExceptions.configurationFingerprintCollision(fingerprint);
+        }
+    }
+
+    private static boolean isDuplicateKey(SQLException e) {
+        if (e instanceof SQLIntegrityConstraintViolationException) {
+            return true;
+        }
+        // SQL standard class 23 is "integrity constraint violation", not all drivers map it to dedicated exception type
+        String sqlState = e.getSQLState();
+        return sqlState != null && sqlState.startsWith("23");
+    }
+
+}
@@ -22,6 +22,7 @@ package io.github.bucket4j.distributed.proxy;
 import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.BucketExceptions;
 import io.github.bucket4j.BucketListener;
+import io.github.bucket4j.MathType;
 import io.github.bucket4j.TimeMeter;
 import io.github.bucket4j.TokensInheritanceStrategy;
 import io.github.bucket4j.distributed.AsyncBucketProxy;
@@ -29,14 +30,25 @@ import io.github.bucket4j.distributed.BucketProxy;
 import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
 import io.github.bucket4j.distributed.proxy.optimization.Optimization;
 import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
 import io.github.bucket4j.distributed.remote.RemoteCommand;
 import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.distributed.remote.commands.CreateInitialStateAndExecuteCommand;
 import io.github.bucket4j.distributed.remote.commands.GetConfigurationCommand;
+import io.github.bucket4j.distributed.serialization.InternalSerializationHelper;
 import io.github.bucket4j.distributed.versioning.Version;
+import io.github.bucket4j.distributed.versioning.Versions;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import static java.util.Objects.requireNonNull;
@@ -47,12 +59,28 @@ public abstract class AbstractProxyManager<K> implements ProxyManager<K> {
     private static final Optimization DEFAULT_REQUEST_OPTIMIZER = Optimization.NONE_OPTIMIZED;
 
     private final ClientSideConfig clientSideConfig;
+    private final RequestCoalescer<K> requestCoalescer;
 
     protected AbstractProxyManager(ClientSideConfig clientSideConfig) {
         if (clientSideConfig.getExpirationAfterWriteStrategy().isPresent() && !isExpireAfterWriteSupported()) {
             throw BucketExceptions.expirationAfterWriteIsNotSupported();
         }
+        if (clientSideConfig.getConfigurationStore().isPresent() && !isConfigurationStoreSupported()) {
+            throw BucketExceptions.configurationStoreIsNotSupported();
+        }
+        if (clientSideConfig.isConfigurationIdsInRequests() && clientSideConfig.getConfigurationStore().isEmpty()) {
+            throw BucketExceptions.configurationIdsRequireConfigurationStore();
+        }
+        if (clientSideConfig.isCompactStateFormat() && clientSideConfig.getBackwardCompatibilityVersion().getNumber() < Versions.v_8_15_0.getNumber()) {
+            throw BucketExceptions.compactStateFormatIsNotSupportedByVersion(clientSideConfig.getBackwardCompatibilityVersion().getNumber());
+        }
+        if (clientSideConfig.isConfigurationIdsInRequests() && !isConfigurationIdsInRequestsSupported()) {
+            throw BucketExceptions.configurationIdsInRequestsAreNotSupported();
+        }
         this.clientSideConfig = requireNonNull(clientSideConfig);
+        this.requestCoalescer = !isMultiKeyExecutionSupported() ? null : clientSideConfig.getRequestCoalescingParallelism()
+            .map(parallelism -> new RequestCoalescer<>(this, parallelism))
+            .orElse(null);
     }
 
     private final AsyncProxyManager<K> asyncView = new AsyncProxyManager<>() {
@@ -78,6 +106,40 @@ public abstract class AbstractProxyManager<K> implements ProxyManager<K> {
         public CompletableFuture<Void> removeProxy(K key) {
             return removeAsync(key);
         }
+
+        @Override
+        public <T> CompletableFuture<Map<K, T>> executeBulk(Map<K, ? extends RemoteCommand<T>> commands, Function<? super K, CompletableFuture<BucketConfiguration>> configurationProvider) {
+            Map<K, Request<T>> requests;
+            try {
+                requests = createBulkRequests(commands);
+            } catch (Throwable e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            ExecutionStrategy executionStrategy = clientSideConfig.getExecutionStrategy();
+            return executionStrategy.executeAsync(() -> executeAllAsync(requests)).thenCompose(results -> {
+                List<K> notFoundKeys = getNotFoundKeys(results);
+                if (notFoundKeys.isEmpty()) {
+                    return CompletableFuture.completedFuture(extractBulkData(commands, results));
+                }
+
+                // some buckets are not persisted yet, retry for them with configuration
+                Map<K, CompletableFuture<BucketConfiguration>> configurationFutures = new LinkedHashMap<>();
+                for (K key : notFoundKeys) {
+                    configurationFutures.put(key, configurationProvider.apply(key));
+                }
+                return CompletableFuture.allOf(configurationFutures.values().toArray(new CompletableFuture<?>[0])).thenCompose(ignored -> {
+                    Map<K, Request<T>> initializationRequests = new LinkedHashMap<>();
+                    configurationFutures.forEach((key, configurationFuture) -> {
+                        initializationRequests.put(key, createInitializationRequest(commands.get(key), configurationFuture.join()));
+                    });
+                    return executionStrategy.executeAsync(() -> executeAllAsync(initializationRequests)).thenApply(resultsAfterInitialization -> {
+                        Map<K, CommandResult<T>> allResults = new HashMap<>(results);
+                        allResults.putAll(resultsAfterInitialization);
+                        return extractBulkData(commands, allResults);
+                    });
+                });
+            });
+        }
     };
 
     @Override
@@ -105,12 +167,129 @@ public abstract class AbstractProxyManager<K> implements ProxyManager<K> {
         return Optional.of(result.getData());
     }
 
+    @Override
+    public ScanPage<K> scan(ScanCursor cursor, int pageSize) {
+        if (cursor == null) {
+            throw BucketExceptions.nullScanCursor();
+        }
+        if (pageSize <= 0) {
+            throw BucketExceptions.nonPositiveScanPageSize(pageSize);
+        }
+        return clientSideConfig.getExecutionStrategy().execute(() -> scanPage(cursor, pageSize));
+    }
+
+    @Override
+    public MigrationProgress migrateConfigurations(ConfigurationMigration<K> migration) {
+        if (migration == null) {
+            throw BucketExceptions.nullMigration();
+        }
+        return new ConfigurationMigrator<>(this, migration).run();
+    }
+
+    @Override
+    public <T> Map<K, T> executeBulk(Map<K, ? extends RemoteCommand<T>> commands, Function<? super K, BucketConfiguration> configurationProvider) {
+        Map<K, Request<T>> requests = createBulkRequests(commands);
+        ExecutionStrategy executionStrategy = clientSideConfig.getExecutionStrategy();
+        Map<K, CommandResult<T>> results = executionStrategy.execute(() -> executeAll(requests));
+        List<K> notFoundKeys = getNotFoundKeys(results);
+        if (notFoundKeys.isEmpty()) {
+            return extractBulkData(commands, results);
+        }
+
+        // some buckets are not persisted yet, retry for them with configuration
+        Map<K, Request<T>> initializationRequests = new LinkedHashMap<>();
+        for (K key : notFoundKeys) {
+            initializationRequests.put(key, createInitializationRequest(commands.get(key), configurationProvider.apply(key)));
+        }
+        Map<K, CommandResult<T>> allResults = new HashMap<>(results);
+        allResults.putAll(executionStrategy.execute(() -> executeAll(initializationRequests)));
+        return extractBulkData(commands, allResults);
+    }
+
+    @Override
+    public boolean tryConsumeAll(Map<K, Long> tokensByKey, Function<? super K, BucketConfiguration> configurationProvider) {
+        Map<K, RemoteCommand<Boolean>> commands = AllOrNothingConsumption.createConsumeCommands(tokensByKey);
+        Map<K, Request<Boolean>> requests = createBulkRequests(commands);
+        ExecutionStrategy executionStrategy = clientSideConfig.getExecutionStrategy();
+        Map<K, CommandResult<Boolean>> results = executionStrategy.execute(() -> executeAllOrNothing(requests));
+        if (results == null) {
+            return ProxyManager.super.tryConsumeAll(tokensByKey, configurationProvider);
+        }
+        List<K> notFoundKeys = getNotFoundKeys(results);
+        if (!notFoundKeys.isEmpty()) {
+            // nothing was consumed, retry for all buckets with configuration for buckets which are not persisted yet
+            Map<K, Request<Boolean>> retryRequests = new LinkedHashMap<>(requests);
+            for (K key : notFoundKeys) {
+                retryRequests.put(key, createInitializationRequest(commands.get(key), configurationProvider.apply(key)));
+            }
+            results = executionStrategy.execute(() -> executeAllOrNothing(retryRequests));
+        }
+        return AllOrNothingConsumption.isConsumedFromAll(extractBulkData(commands, results));
+    }
+
+    private <T> Map<K, Request<T>> createBulkRequests(Map<K, ? extends RemoteCommand<T>> commands) {
+        // all requests of bulk share the same time, so identical commands are serialized to identical requests
+        Long clientSideTime = getClientSideTime();
+        Map<K, Request<T>> requests = new LinkedHashMap<>();
+        commands.forEach((key, command) -> {
+            if (command == null) {
+                throw BucketExceptions.nullBulkCommand(key);
+            }
+            requests.put(key, createRequest(command, clientSideTime));
+        });
+        return requests;
+    }
+
+    private <T> Request<T> createInitializationRequest(RemoteCommand<T> command, BucketConfiguration configuration) {
+        if (configuration == null) {
+            throw BucketExceptions.nullConfiguration();
+        }
+        return createRequest(new CreateInitialStateAndExecuteCommand<>(configuration, command));
+    }
+
+    <T> Request<T> createRequest(RemoteCommand<T> command) {
+        return createRequest(command, getClientSideTime());
+    }
+
+    private <T> Request<T> createRequest(RemoteCommand<T> command, Long clientSideTime) {
+        ExpirationAfterWriteStrategy expirationStrategy = clientSideConfig.getExpirationAfterWriteStrategy().orElse(null);
+        Version backwardCompatibilityVersion = getBackwardCompatibilityVersion();
+        if (clientSideConfig.isConfigurationIdsInRequests() && backwardCompatibilityVersion.getNumber() >= Versions.v_8_15_0.getNumber()) {
+            command = command.withConfigurationIds(clientSideConfig.getConfigurationStore().get());
+        }
+        return new Request<>(command, backwardCompatibilityVersion, clientSideTime, expirationStrategy, clientSideConfig.isCompactStateFormat());
+    }
+
+    private static <K, T> List<K> getNotFoundKeys(Map<K, CommandResult<T>> results) {
+        List<K> notFoundKeys = new ArrayList<>();
+        results.forEach((key, result) -> {
+            if (result.isBucketNotFound()) {
+                notFoundKeys.add(key);
+            }
+        });
+        return notFoundKeys;
+    }
+
+    private static <K, T> Map<K, T> extractBulkData(Map<K, ? extends RemoteCommand<T>> commands, Map<K, CommandResult<T>> results) {
+        Map<K, T> data = new LinkedHashMap<>();
+        for (K key : commands.keySet()) {
+            CommandResult<T> result = results.get(key);
+            if (result.isBucketNotFound()) {
+                throw new IllegalStateException("Bucket is not initialized properly");
+            }
+            data.put(key, result.getData());
+        }
+        return data;
+    }
+
     class DefaultAsyncRemoteBucketBuilder implements RemoteAsyncBucketBuilder<K> {
 
         private RecoveryStrategy recoveryStrategy = DEFAULT_RECOVERY_STRATEGY;
         private Optimization asyncRequestOptimizer = DEFAULT_REQUEST_OPTIMIZER;
         private ImplicitConfigurationReplacement implicitConfigurationReplacement;
         private BucketListener listener = BucketListener.NOPE;
+        private MathType mathType = MathType.INTEGER_64_BITS;
+        private boolean eagerInitialization;
 
         @Override
         public DefaultAsyncRemoteBucketBuilder withRecoveryStrategy(RecoveryStrategy recoveryStrategy) {
@@ -136,6 +315,21 @@ public abstract class AbstractProxyManager<K> implements ProxyManager<K> {
             return this;
         }
 
+        @Override
+        public RemoteAsyncBucketBuilder<K> withMathType(MathType mathType) {
+            if (mathType == null) {
+                throw BucketExceptions.nullMathType();
+            }
+            this.mathType = mathType;
+            return this;
+        }
+
+        @Override
+        public RemoteAsyncBucketBuilder<K> withEagerInitialization() {
+            this.eagerInitialization = true;
+            return this;
+        }
+
         @Override
         public AsyncBucketProxy build(K key, BucketConfiguration configuration) {
             if (configuration == null) {
@@ -153,15 +347,14 @@ public abstract class AbstractProxyManager<K> implements ProxyManager<K> {
             AsyncCommandExecutor commandExecutor = new AsyncCommandExecutor() {
                 @Override
                 public <T> CompletableFuture<CommandResult<T>> executeAsync(RemoteCommand<T> command) {
-                    ExpirationAfterWriteStrategy expirationStrategy = clientSideConfig.getExpirationAfterWriteStrategy().orElse(null);
-                    Request<T> request = new Request<>(command, getBackwardCompatibilityVersion(), getClientSideTime(), expirationStrategy);
-                    Supplier<CompletableFuture<CommandResult<T>>> futureSupplier = () -> AbstractProxyManager.this.executeAsync(key, request);
+                    Request<T> request = createRequest(command);
+                    Supplier<CompletableFuture<CommandResult<T>>> futureSupplier = () -> executeAsyncCoalesced(key, request);
                     return clientSideConfig.getExecutionStrategy().executeAsync(futureSupplier);
                 }
             };
             commandExecutor = asyncRequestOptimizer.apply(commandExecutor);
 
-            return new DefaultAsyncBucketProxy(commandExecutor, recoveryStrategy, configurationSupplier, implicitConfigurationReplacement, listener);
+            return new DefaultAsyncBucketProxy(commandExecutor, recoveryStrategy, configurationSupplier, implicitConfigurationReplacement, listener, mathType, eagerInitialization);
         }
 
     }
@@ -172,6 +365,8 @@ public abstract class AbstractProxyManager<K> implements ProxyManager<K> {
         private Optimization requestOptimizer = DEFAULT_REQUEST_OPTIMIZER;
         private ImplicitConfigurationReplacement implicitConfigurationReplacement;
         private BucketListener listener = BucketListener.NOPE;
+        private MathType mathType = MathType.INTEGER_64_BITS;
+        private boolean eagerInitialization;
 
         @Override
         public RemoteBucketBuilder<K> withRecoveryStrategy(RecoveryStrategy recoveryStrategy) {
@@ -197,6 +392,21 @@ public abstract class AbstractProxyManager<K> implements ProxyManager<K> {
             return this;
         }
 
+        @Override
+        public RemoteBucketBuilder<K> withMathType(MathType mathType) {
+            if (mathType == null) {
+                throw BucketExceptions.nullMathType();
+            }
+            this.mathType = mathType;
+            return this;
+        }
+
+        @Override
+        public RemoteBucketBuilder<K> withEagerInitialization() {
+            this.eagerInitialization = true;
+            return this;
+        }
+
         @Override
         public BucketProxy build(K key, BucketConfiguration configuration) {
             if (configuration == null) {
@@ -214,25 +424,154 @@ public abstract class AbstractProxyManager<K> implements ProxyManager<K> {
             CommandExecutor commandExecutor = new CommandExecutor() {
                 @Override
                 public <T> CommandResult<T> execute(RemoteCommand<T> command) {
-                    ExpirationAfterWriteStrategy expirationStrategy = clientSideConfig.getExpirationAfterWriteStrategy().orElse(null);
-                    Request<T> request = new Request<>(command, getBackwardCompatibilityVersion(), getClientSideTime(), expirationStrategy);
-                    Supplier<CommandResult<T>> resultSupplier = () -> AbstractProxyManager.this.execute(key, request);
+                    Request<T> request = createRequest(command);
+                    Supplier<CommandResult<T>> resultSupplier = () -> executeCoalesced(key, request);
                     return clientSideConfig.getExecutionStrategy().execute(resultSupplier);
                 }
             };
             commandExecutor = requestOptimizer.apply(commandExecutor);
 
-            return new DefaultBucketProxy(configurationSupplier, commandExecutor, recoveryStrategy, implicitConfigurationReplacement, listener);
+            return new DefaultBucketProxy(configurationSupplier, commandExecutor, recoveryStrategy, implicitConfigurationReplacement, listener, mathType, eagerInitialization);
         }
 
     }
 
+    private <T> CommandResult<T> executeCoalesced(K key, Request<T> request) {
+        return requestCoalescer == null ? execute(key, request) : requestCoalescer.execute(key, request);
+    }
+
+    private <T> CompletableFuture<CommandResult<T>> executeAsyncCoalesced(K key, Request<T> request) {
+        return requestCoalescer == null ? executeAsync(key, request) : requestCoalescer.executeAsync(key, request);
+    }
+
     abstract protected <T> CommandResult<T> execute(K key, Request<T> request);
 
     abstract protected <T> CompletableFuture<CommandResult<T>> executeAsync(K key, Request<T> request);
 
     abstract protected CompletableFuture<Void> removeAsync(K key);
 
+    /**
+     * Executes requests for several buckets, it is used by {@link #executeBulk(Map, Function)}.
+     *
+     * <p>Default implementation submits all requests via {@link #executeAllAsync(Map)} and waits for all results when {@link #isAsyncModeSupported() async mode is supported},
+     * so requests are pipelined by driver instead of waiting for each other, otherwise requests are executed one by one.
+     * Backends which support multi-key operations should override this method in order to execute all requests in one round-trip.
+     *
+     * @return map from key to result of request, it must contain the result for each key from {@code requests}
+     */
+    protected <T> Map<K, CommandResult<T>> executeAll(Map<K, Request<T>> requests) {
+        if (isAsyncModeSupported()) {
+            try {
+                return executeAllAsync(requests).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw BucketExceptions.from(e.getCause());
+            }
+        }
+        Map<K, CommandResult<T>> results = new HashMap<>();
+        requests.forEach((key, request) -> results.put(key, execute(key, request)));
+        return results;
+    }
+
+    /**
+     * Executes consumption requests for several buckets on all-or-nothing basis, it is used by {@link #tryConsumeAll(Map, Function)}.
+     * Changes are applied only if each request returned {@code true}, otherwise state of any bucket must stay untouched,
+     * including the case when some bucket is not persisted yet.
+     *
+     * <p>Default implementation returns {@code null}, in such case compensation based implementation from {@link ProxyManager#tryConsumeAll(Map, Function)} is used.
+     * Backends which are able to update several buckets in one transaction should override this method.
+     *
+     * @return map from key to result of request, or {@code null} if requests can not be executed atomically
+     */
+    protected Map<K, CommandResult<Boolean>> executeAllOrNothing(Map<K, Request<Boolean>> requests) {
+        return null;
+    }
+
+    /**
+     * Describes whether states can be persisted with reference to configuration, see {@link ClientSideConfig#withConfigurationStore(io.github.bucket4j.distributed.ConfigurationStore)}.
+     * Grid based proxy-managers do not support it, because commands are executed on partition threads of grid members,
+     * where blocking access to the side table, that is stored in other partitions, is not allowed.
+     *
+     * <p>This method is called from constructor, so implementation must not depend on the state of subclass.
+     *
+     * @return {@code true} if configuration store is used when commands are executed
+     */
+    protected boolean isConfigurationStoreSupported() {
+        return false;
+    }
+
+    /**
+     * Describes whether commands can refer to configurations by identifier, see {@link ClientSideConfig#withConfigurationIdsInRequests()}.
+     * Identifier is resolved on the side where command is executed, so only proxy managers that execute commands on the client side,
+     * where {@link ClientSideConfig#getConfigurationStore() configuration store} is available, support this feature.
+     *
+     * <p>This method is called from constructor, so implementation must not depend on the state of subclass.
+     *
+     * @return {@code true} if configuration identifiers can be resolved by backend
+     */
+    protected boolean isConfigurationIdsInRequestsSupported() {
+        return false;
+    }
+
+    /**
+     * Describes whether {@link #executeAll(Map)} is overridden by multi-key operation of backend that executes all requests in one round-trip.
+     * {@link ClientSideConfig#withRequestCoalescing(int) Request coalescing} is enabled only for such proxy managers,
+     * because coalescing of requests that are executed one by one just adds latency.
+     *
+     * <p>This method is called from constructor, so implementation must not depend on the state of subclass.
+     *
+     * @return {@code true} if requests for several keys are executed in one round-trip
+     */
+    protected boolean isMultiKeyExecutionSupported() {
+        return false;
+    }
+
+    /**
+     * Asynchronous version of {@link #executeAll(Map)}, default implementation submits requests one by one.
+     */
+    protected <T> CompletableFuture<Map<K, CommandResult<T>>> executeAllAsync(Map<K, Request<T>> requests) {
+        Map<K, CompletableFuture<CommandResult<T>>> futures = new LinkedHashMap<>();
+        requests.forEach((key, request) -> futures.put(key, executeAsync(key, request)));
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            Map<K, CommandResult<T>> results = new HashMap<>();
+            futures.forEach((key, future) -> results.put(key, future.join()));
+            return results;
+        });
+    }
+
+    /**
+     * Reads one page of persisted buckets, it is used by {@link #scan(ScanCursor, int)}.
+     * Backends which are able to iterate over stored entries without blocking should override this method together with {@link #isScanSupported()},
+     * persisted bytes can be decoded via {@link #decodeState(byte[])}.
+     *
+     * <p>Default implementation throws {@link UnsupportedOperationException}.
+     *
+     * @param cursor the position from which scan should be continued, it is never {@code null}
+     * @param pageSize the maximum amount of buckets in the page, it is always positive
+     */
+    protected ScanPage<K> scanPage(ScanCursor cursor, int pageSize) {
+        throw BucketExceptions.scanIsNotSupported();
+    }
+
+    /**
+     * Decodes the state of bucket persisted by this proxy manager, decoded state is refilled to current time.
+     *
+     * @param stateBytes the persisted bytes
+     *
+     * @return decoded state, or {@code null} if bytes are absent because bucket is not fully initialized yet
+     */
+    protected RemoteBucketState decodeState(byte[] stateBytes) {
+        if (stateBytes == null) {
+            return null;
+        }
+        RemoteBucketState state = InternalSerializationHelper.deserializeState(stateBytes, clientSideConfig.getConfigurationStore().orElse(null));
+        // some states, like GCRA, do not persist the time of last refill
+        state.refillAllBandwidth(currentTimeNanos());
+        return state;
+    }
+
     protected ClientSideConfig getClientSideConfig() {
         return clientSideConfig;
     }
@@ -25,7 +25,9 @@ import java.util.Optional;
 
 import io.github.bucket4j.BucketExceptions;
 import io.github.bucket4j.BucketListener;
+import io.github.bucket4j.Experimental;
 import io.github.bucket4j.TimeMeter;
+import io.github.bucket4j.distributed.ConfigurationStore;
 import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
 import io.github.bucket4j.distributed.versioning.Version;
 import io.github.bucket4j.distributed.versioning.Versions;
@@ -47,6 +49,10 @@ public abstract class AbstractProxyManagerBuilder<K, P extends ProxyManager<K>,
 
     private BucketListener defaultListener = BucketListener.NOPE;
     private RecoveryStrategy defaultRecoveryStrategy = RecoveryStrategy.RECONSTRUCT;
+    private Optional<Integer> requestCoalescingParallelism = Optional.empty();
+    private Optional<ConfigurationStore> configurationStore = Optional.empty();
+    private boolean configurationIdsInRequests;
+    private boolean compactStateFormat;
 
     /**
      * Configures {@code backwardCompatibilityVersion}.
@@ -169,6 +175,58 @@ public abstract class AbstractProxyManagerBuilder<K, P extends ProxyManager<K>,
         return (B) this;
     }
 
+    /**
+     * Enables coalescing of concurrent requests for different keys into multi-key operations,
+     * see {@link ClientSideConfig#withRequestCoalescing(int)} for details.
+     *
+     * @param parallelism the maximum amount of multi-key operations that can be in progress at the same time
+     *
+     * @return this builder instance
+     */
+    @Experimental
+    public B requestCoalescing(int parallelism) {
+        if (parallelism <= 0) {
+            throw BucketExceptions.nonPositiveRequestCoalescingParallelism(parallelism);
+        }
+        this.requestCoalescingParallelism = Optional.of(parallelism);
+        return (B) this;
+    }
+
+    /**
+     * Configures the side table for configurations, see {@link ClientSideConfig#withConfigurationStore(ConfigurationStore)} for details.
+     *
+     * @param configurationStore the side table for configurations
+     *
+     * @return this builder instance
+     */
+    @Experimental
+    public B configurationStore(ConfigurationStore configurationStore) {
+        this.configurationStore = Optional.of(configurationStore);
+        return (B) this;
+    }
+
+    /**
+     * Enables referencing of configurations by identifier in requests, see {@link ClientSideConfig#withConfigurationIdsInRequests()} for details.
+     *
+     * @return this builder instance
+     */
+    @Experimental
+    public B configurationIdsInRequests() {
+        this.configurationIdsInRequests = true;
+        return (B) this;
+    }
+
+    /**
+     * Enables compact format of persisted state, see {@link ClientSideConfig#withCompactStateFormat()} for details.
+     *
+     * @return this builder instance
+     */
+    @Experimental
+    public B compactStateFormat() {
+        this.compactStateFormat = true;
+        return (B) this;
+    }
+
     /**
      * Returns the strategy for choosing time to live for buckets.
      *
@@ -233,7 +291,7 @@ public abstract class AbstractProxyManagerBuilder<K, P extends ProxyManager<K>,
     }
 
     public ClientSideConfig getClientSideConfig() {
-        return new ClientSideConfig(backwardCompatibilityVersion, clientSideClock, executionStrategy, requestTimeoutNanos, expirationStrategy, defaultListener, defaultRecoveryStrategy);
+        return new ClientSideConfig(backwardCompatibilityVersion, clientSideClock, executionStrategy, requestTimeoutNanos, expirationStrategy, defaultListener, defaultRecoveryStrategy, configurationStore, requestCoalescingParallelism, configurationIdsInRequests, compactStateFormat);
     }
 
 }
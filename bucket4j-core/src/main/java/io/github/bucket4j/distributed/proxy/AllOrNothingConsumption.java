@@ -0,0 +1,75 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.proxy;
+
+import io.github.bucket4j.BucketExceptions;
+import io.github.bucket4j.Nothing;
+import io.github.bucket4j.distributed.remote.RemoteCommand;
+import io.github.bucket4j.distributed.remote.commands.AddTokensCommand;
+import io.github.bucket4j.distributed.remote.commands.TryConsumeCommand;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Helpers for compensation-based implementation of {@link ProxyManager#tryConsumeAll(Map, java.util.function.Function)}.
+ */
+class AllOrNothingConsumption {
+
+    static <K> Map<K, RemoteCommand<Boolean>> createConsumeCommands(Map<K, Long> tokensByKey) {
+        Map<K, RemoteCommand<Boolean>> commands = new LinkedHashMap<>();
+        tokensByKey.forEach((key, tokens) -> {
+            if (tokens <= 0) {
+                throw BucketExceptions.nonPositiveTokensToConsume(tokens);
+            }
+            commands.put(key, TryConsumeCommand.create(tokens));
+        });
+        return commands;
+    }
+
+    static <K> boolean isConsumedFromAll(Map<K, Boolean> results) {
+        for (Boolean consumed : results.values()) {
+            if (!consumed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates commands that return tokens to the buckets which were consumed while some another bucket rejected consumption.
+     * {@link AddTokensCommand} is used instead of forced addition, because bucket can be refilled since consumption,
+     * so returned tokens never exceed capacity.
+     */
+    static <K> Map<K, RemoteCommand<Nothing>> createCompensationCommands(Map<K, Long> tokensByKey, Map<K, Boolean> results) {
+        Map<K, RemoteCommand<Nothing>> commands = new LinkedHashMap<>();
+        results.forEach((key, consumed) -> {
+            if (consumed) {
+                commands.put(key, new AddTokensCommand(tokensByKey.get(key)));
+            }
+        });
+        return commands;
+    }
+
+    private AllOrNothingConsumption() {
+        // private constructor for utility class
+    }
+
+}
@@ -20,8 +20,14 @@
 package io.github.bucket4j.distributed.proxy;
 
 import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketExceptions;
+import io.github.bucket4j.Experimental;
+import io.github.bucket4j.MathType;
+import io.github.bucket4j.Nothing;
 import io.github.bucket4j.distributed.AsyncBucketProxy;
+import io.github.bucket4j.distributed.remote.RemoteCommand;
 
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
@@ -79,6 +85,95 @@ public interface AsyncProxyManager<K> {
      */
     CompletableFuture<Optional<BucketConfiguration>> getProxyConfiguration(K key);
 
+    /**
+     * Asynchronous version of {@link ProxyManager#executeBulk(Map, Function)}.
+     *
+     * @param commands the map from bucket key to command that should be executed on that bucket
+     * @param configurationProvider provider for configuration of buckets which are not persisted yet
+     *
+     * @return the future that completed by map from key to result of command, iteration order is the same as in {@code commands}
+     */
+    @Experimental
+    default <T> CompletableFuture<Map<K, T>> executeBulk(Map<K, ? extends RemoteCommand<T>> commands, Function<? super K, CompletableFuture<BucketConfiguration>> configurationProvider) {
+        return CompletableFuture.failedFuture(BucketExceptions.bulkExecutionIsNotSupported());
+    }
+
+    /**
+     * Asynchronous version of {@link ProxyManager#tryConsumeAll(Map, Function)}, see it for details about atomicity.
+     *
+     * @param tokensByKey the map from bucket key to amount of tokens that should be consumed from that bucket
+     * @param configurationProvider provider for configuration of buckets which are not persisted yet
+     *
+     * @return the future that completed by {@code true} if tokens were consumed from all buckets, {@code false} if tokens were not consumed from any bucket
+     */
+    @Experimental
+    default CompletableFuture<Boolean> tryConsumeAll(Map<K, Long> tokensByKey, Function<? super K, CompletableFuture<BucketConfiguration>> configurationProvider) {
+        Map<K, RemoteCommand<Boolean>> consumeCommands;
+        try {
+            consumeCommands = AllOrNothingConsumption.createConsumeCommands(tokensByKey);
+        } catch (Throwable e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return executeBulk(consumeCommands, configurationProvider).thenCompose(results -> {
+            if (AllOrNothingConsumption.isConsumedFromAll(results)) {
+                return CompletableFuture.completedFuture(true);
+            }
+            Map<K, RemoteCommand<Nothing>> compensations = AllOrNothingConsumption.createCompensationCommands(tokensByKey, results);
+            if (compensations.isEmpty()) {
+                return CompletableFuture.completedFuture(false);
+            }
+            return executeBulk(compensations, configurationProvider).thenApply(ignored -> false);
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link ProxyManager#initializeAll(Map, Map)}.
+     *
+     * @param configurations the map from bucket key to configuration of bucket
+     * @param initialTokens the map from bucket key to amount of available tokens for created bucket,
+     *                      buckets which keys are absent in this map are created with amount of tokens specified by configuration
+     *
+     * @return the future that completed by count of created buckets
+     */
+    @Experimental
+    default CompletableFuture<Integer> initializeAll(Map<K, BucketConfiguration> configurations, Map<K, Long> initialTokens) {
+        return initializeAll(configurations, initialTokens, MathType.INTEGER_64_BITS);
+    }
+
+    /**
+     * Asynchronous version of {@link ProxyManager#initializeAll(Map, Map, MathType)}.
+     *
+     * @param configurations the map from bucket key to configuration of bucket
+     * @param initialTokens the map from bucket key to amount of available tokens for created bucket,
+     *                      buckets which keys are absent in this map are created with amount of tokens specified by configuration
+     * @param mathType the math type of created buckets
+     *
+     * @return the future that completed by count of created buckets
+     */
+    @Experimental
+    default CompletableFuture<Integer> initializeAll(Map<K, BucketConfiguration> configurations, Map<K, Long> initialTokens, MathType mathType) {
+        Map<K, RemoteCommand<Boolean>> commands;
+        try {
+            commands = BulkInitialization.createInitializationCommands(configurations, initialTokens, mathType);
+        } catch (Throwable e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return executeBulk(commands, key -> CompletableFuture.completedFuture(configurations.get(key)))
+            .thenApply(BulkInitialization::countCreated);
+    }
+
+    /**
+     * Asynchronous version of {@link ProxyManager#initializeAll(Map)}.
+     *
+     * @param configurations the map from bucket key to configuration of bucket
+     *
+     * @return the future that completed by count of created buckets
+     */
+    @Experimental
+    default CompletableFuture<Integer> initializeAll(Map<K, BucketConfiguration> configurations) {
+        return initializeAll(configurations, Map.of());
+    }
+
     /**
      * Returns a proxy object that wraps this AsyncProxyManager such that keys are first mapped using the specified mapping function
      * before being sent to the remote store. The returned AsyncProxyManager shares the same underlying store as the original,
@@ -19,6 +19,8 @@
  */
 package io.github.bucket4j.distributed.proxy;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
@@ -26,6 +28,7 @@ import java.util.function.Supplier;
 
 import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.distributed.AsyncBucketProxy;
+import io.github.bucket4j.distributed.remote.RemoteCommand;
 
 public class AsyncProxyManagerView<K, OldKey> implements AsyncProxyManager<K> {
 
@@ -57,6 +60,20 @@ public class AsyncProxyManagerView<K, OldKey> implements AsyncProxyManager<K> {
         return target.getProxyConfiguration(mapper.apply(key));
     }
 
+    @Override
+    public <T> CompletableFuture<Map<K, T>> executeBulk(Map<K, ? extends RemoteCommand<T>> commands, Function<? super K, CompletableFuture<BucketConfiguration>> configurationProvider) {
+        Map<OldKey, K> originalKeys;
+        try {
+            originalKeys = ProxyManagerView.mapKeys(commands.keySet(), mapper);
+        } catch (Throwable e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        Map<OldKey, RemoteCommand<T>> mappedCommands = new LinkedHashMap<>();
+        originalKeys.forEach((mappedKey, key) -> mappedCommands.put(mappedKey, commands.get(key)));
+        return target.executeBulk(mappedCommands, mappedKey -> configurationProvider.apply(originalKeys.get(mappedKey)))
+            .thenApply(results -> ProxyManagerView.restoreKeys(results, originalKeys));
+    }
+
     // To prevent nesting of anonymous class instances, directly map the original instance.
     @Override
     public <K2> AsyncProxyManager<K2> withMapper(Function<? super K2, ? extends K> innerMapper) {
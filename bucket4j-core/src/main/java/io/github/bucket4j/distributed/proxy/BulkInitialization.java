@@ -0,0 +1,72 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.distributed.proxy;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketExceptions;
+import io.github.bucket4j.MathType;
+import io.github.bucket4j.distributed.remote.RemoteCommand;
+import io.github.bucket4j.distributed.remote.commands.CreateInitialStateCommand;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Helpers for implementation of {@link ProxyManager#initializeAll(Map, Map, MathType)}.
+ */
+class BulkInitialization {
+
+    static <K> Map<K, RemoteCommand<Boolean>> createInitializationCommands(Map<K, BucketConfiguration> configurations, Map<K, Long> initialTokens, MathType mathType) {
+        if (mathType == null) {
+            throw BucketExceptions.nullMathType();
+        }
+        Map<K, RemoteCommand<Boolean>> commands = new LinkedHashMap<>();
+        configurations.forEach((key, configuration) -> {
+            if (configuration == null) {
+                throw BucketExceptions.nullConfiguration();
+            }
+            Long tokens = initialTokens.get(key);
+            if (tokens == null) {
+                commands.put(key, new CreateInitialStateCommand(configuration, CreateInitialStateCommand.CONFIGURED_INITIAL_TOKENS, mathType));
+            } else if (tokens < 0) {
+                throw BucketExceptions.negativeInitialTokensForKey(key, tokens);
+            } else {
+                commands.put(key, new CreateInitialStateCommand(configuration, tokens, mathType));
+            }
+        });
+        return commands;
+    }
+
+    static <K> int countCreated(Map<K, Boolean> results) {
+        int created = 0;
+        for (Boolean bucketCreated : results.values()) {
+            if (bucketCreated) {
+                created++;
+            }
+        }
+        return created;
+    }
+
+    private BulkInitialization() {
+        // private constructor for utility class
+    }
+
+}
@@ -25,7 +25,9 @@ import java.util.Optional;
 
 import io.github.bucket4j.BucketExceptions;
 import io.github.bucket4j.BucketListener;
+import io.github.bucket4j.Experimental;
 import io.github.bucket4j.TimeMeter;
+import io.github.bucket4j.distributed.ConfigurationStore;
 import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
 import io.github.bucket4j.distributed.proxy.AbstractProxyManager.DefaultAsyncRemoteBucketBuilder;
 import io.github.bucket4j.distributed.proxy.AbstractProxyManager.DefaultRemoteBucketBuilder;
@@ -56,12 +58,33 @@ public class ClientSideConfig {
     private final BucketListener defaultListener;
     private final RecoveryStrategy defaultRecoveryStrategy;
 
+    private final Optional<ConfigurationStore> configurationStore;
+
+    private final Optional<Integer> requestCoalescingParallelism;
+
+    private final boolean configurationIdsInRequests;
+
+    private final boolean compactStateFormat;
+
     protected ClientSideConfig(Version backwardCompatibilityVersion, Optional<TimeMeter> clientSideClock,
                                ExecutionStrategy executionStrategy,
                                Optional<Long> requestTimeoutNanos,
                                Optional<ExpirationAfterWriteStrategy> expirationStrategy,
                                BucketListener defaultListener,
                                RecoveryStrategy defaultRecoveryStrategy) {
+        this(backwardCompatibilityVersion, clientSideClock, executionStrategy, requestTimeoutNanos, expirationStrategy, defaultListener, defaultRecoveryStrategy, Optional.empty(), Optional.empty(), false, false);
+    }
+
+    protected ClientSideConfig(Version backwardCompatibilityVersion, Optional<TimeMeter> clientSideClock,
+                               ExecutionStrategy executionStrategy,
+                               Optional<Long> requestTimeoutNanos,
+                               Optional<ExpirationAfterWriteStrategy> expirationStrategy,
+                               BucketListener defaultListener,
+                               RecoveryStrategy defaultRecoveryStrategy,
+                               Optional<ConfigurationStore> configurationStore,
+                               Optional<Integer> requestCoalescingParallelism,
+                               boolean configurationIdsInRequests,
+                               boolean compactStateFormat) {
         this.backwardCompatibilityVersion = Objects.requireNonNull(backwardCompatibilityVersion);
         this.clientSideClock = Objects.requireNonNull(clientSideClock);
         this.executionStrategy = executionStrategy;
@@ -69,6 +92,10 @@ public class ClientSideConfig {
         this.expirationStrategy = expirationStrategy;
         this.defaultListener = Objects.requireNonNull(defaultListener);
         this.defaultRecoveryStrategy = Objects.requireNonNull(defaultRecoveryStrategy);
+        this.configurationStore = Objects.requireNonNull(configurationStore);
+        this.requestCoalescingParallelism = Objects.requireNonNull(requestCoalescingParallelism);
+        this.configurationIdsInRequests = configurationIdsInRequests;
+        this.compactStateFormat = compactStateFormat;
     }
 
     /**
@@ -98,7 +125,7 @@ public class ClientSideConfig {
      * @return new instance of {@link ClientSideConfig} with configured {@code backwardCompatibilityVersion}.
      */
     public ClientSideConfig backwardCompatibleWith(Version backwardCompatibilityVersion) {
-        return new ClientSideConfig(backwardCompatibilityVersion, clientSideClock, executionStrategy, requestTimeoutNanos, expirationStrategy, defaultListener, defaultRecoveryStrategy);
+        return new ClientSideConfig(backwardCompatibilityVersion, clientSideClock, executionStrategy, requestTimeoutNanos, expirationStrategy, defaultListener, defaultRecoveryStrategy, configurationStore, requestCoalescingParallelism, configurationIdsInRequests, compactStateFormat);
     }
 
     /**
@@ -116,7 +143,7 @@ public class ClientSideConfig {
      * @return new instance of {@link ClientSideConfig} with configured {@code clientClock}.
      */
     public ClientSideConfig withClientClock(TimeMeter clientClock) {
-        return new ClientSideConfig(backwardCompatibilityVersion, Optional.of(clientClock), executionStrategy, requestTimeoutNanos, expirationStrategy, defaultListener, defaultRecoveryStrategy);
+        return new ClientSideConfig(backwardCompatibilityVersion, Optional.of(clientClock), executionStrategy, requestTimeoutNanos, expirationStrategy, defaultListener, defaultRecoveryStrategy, configurationStore, requestCoalescingParallelism, configurationIdsInRequests, compactStateFormat);
     }
 
     /**
@@ -130,7 +157,7 @@ public class ClientSideConfig {
      * @return new instance of {@link ClientSideConfig} with configured {@code clientClock}.
      */
     public ClientSideConfig withExecutionStrategy(ExecutionStrategy executionStrategy) {
-        return new ClientSideConfig(backwardCompatibilityVersion, clientSideClock, executionStrategy, requestTimeoutNanos, expirationStrategy, defaultListener, defaultRecoveryStrategy);
+        return new ClientSideConfig(backwardCompatibilityVersion, clientSideClock, executionStrategy, requestTimeoutNanos, expirationStrategy, defaultListener, defaultRecoveryStrategy, configurationStore, requestCoalescingParallelism, configurationIdsInRequests, compactStateFormat);
     }
 
     /**
@@ -153,7 +180,7 @@ public class ClientSideConfig {
             throw BucketExceptions.nonPositiveRequestTimeout(requestTimeout);
         }
         long requestTimeoutNanos = requestTimeout.toNanos();
-        return new ClientSideConfig(backwardCompatibilityVersion, clientSideClock, executionStrategy, Optional.of(requestTimeoutNanos), expirationStrategy, defaultListener, defaultRecoveryStrategy);
+        return new ClientSideConfig(backwardCompatibilityVersion, clientSideClock, executionStrategy, Optional.of(requestTimeoutNanos), expirationStrategy, defaultListener, defaultRecoveryStrategy, configurationStore, requestCoalescingParallelism, configurationIdsInRequests, compactStateFormat);
     }
 
     /**
@@ -166,7 +193,141 @@ public class ClientSideConfig {
      * @return new instance of {@link ClientSideConfig} with configured {@code expirationStrategy}.
      */
     public ClientSideConfig withExpirationAfterWriteStrategy(ExpirationAfterWriteStrategy expirationStrategy) {
-        return new ClientSideConfig(backwardCompatibilityVersion, clientSideClock, executionStrategy, requestTimeoutNanos, Optional.of(expirationStrategy), defaultListener, defaultRecoveryStrategy);
+        return new ClientSideConfig(backwardCompatibilityVersion, clientSideClock, executionStrategy, requestTimeoutNanos, Optional.of(expirationStrategy), defaultListener, defaultRecoveryStrategy, configurationStore, requestCoalescingParallelism, configurationIdsInRequests, compactStateFormat);
+    }
+
+    /**
+     * Returns new instance of {@link ClientSideConfig} with configured {@code configurationStore}.
+     *
+     * <p>
+     * When store is configured, then bucket states are persisted with {@link io.github.bucket4j.BucketConfiguration#getFingerprint() fingerprint} of configuration
+     * instead of configuration itself, and configurations are kept in the store.
+     * All clients that access the same buckets must be configured with the same store.
+     * Persisting by reference uses the compact state format, so it requires all nodes to be of version {@link Versions#v_8_15_0} or higher.
+     *
+     * <p>
+     * This option is supported only by proxy-managers that execute commands on the client side: compare-and-swap, lock and select-for-update based.
+     * Grid based proxy-managers reject it, because they execute commands on grid members, where configuration store is not available.
+     *
+     * @param configurationStore the side table for configurations
+     *
+     * @return new instance of {@link ClientSideConfig} with configured {@code configurationStore}.
+     */
+    @Experimental
+    public ClientSideConfig withConfigurationStore(ConfigurationStore configurationStore) {
+        return new ClientSideConfig(backwardCompatibilityVersion, clientSideClock, executionStrategy, requestTimeoutNanos, expirationStrategy, defaultListener, defaultRecoveryStrategy, Optional.of(configurationStore), requestCoalescingParallelism, configurationIdsInRequests, compactStateFormat);
+    }
+
+    /**
+     * Returns the side table for configurations.
+     *
+     * @return the side table for configurations
+     *
+     * @see #withConfigurationStore(ConfigurationStore)
+     */
+    public Optional<ConfigurationStore> getConfigurationStore() {
+        return configurationStore;
+    }
+
+    /**
+     * Returns new instance of {@link ClientSideConfig} which refers to configurations by identifier in requests instead of carrying whole configuration.
+     *
+     * <p>
+     * Commands that initialize buckets carry the {@link io.github.bucket4j.BucketConfiguration configuration} in each request,
+     * when this option is enabled configuration is registered once in the {@link #withConfigurationStore(ConfigurationStore) configuration store},
+     * and then referenced by its 8-byte {@link io.github.bucket4j.BucketConfiguration#getFingerprint() fingerprint}.
+     * Identifier is resolved via the same store on the side where command is executed, and resolved configuration is cached in the {@link io.github.bucket4j.ConfigurationCache#getDefault() default configuration cache}.
+     * So the option is supported only by proxy-managers that execute commands on the client side (compare-and-swap, lock and select-for-update based),
+     * grid based proxy-managers execute commands on the server side where the store is not available, so they reject this option at construction time.
+     *
+     * <p>
+     * Identifiers are understood only by nodes of version {@link Versions#v_8_15_0} or higher,
+     * so configurations are still carried inside the requests while {@link #backwardCompatibleWith(Version) backward compatibility} with previous versions is configured.
+     *
+     * @return new instance of {@link ClientSideConfig} with enabled configuration identifiers in requests.
+     */
+    @Experimental
+    public ClientSideConfig withConfigurationIdsInRequests() {
+        return new ClientSideConfig(backwardCompatibilityVersion, clientSideClock, executionStrategy, requestTimeoutNanos, expirationStrategy, defaultListener, defaultRecoveryStrategy, configurationStore, requestCoalescingParallelism, true, compactStateFormat);
+    }
+
+    /**
+     * Returns true if configurations should be referenced by identifier in requests.
+     *
+     * @return true if configurations should be referenced by identifier in requests
+     *
+     * @see #withConfigurationIdsInRequests()
+     */
+    public boolean isConfigurationIdsInRequests() {
+        return configurationIdsInRequests;
+    }
+
+    /**
+     * Returns new instance of {@link ClientSideConfig} which persists bucket states in the compact format.
+     *
+     * <p>
+     * Compact format uses variable-length integers instead of fixed-width ones and delta encoding for timestamps,
+     * so persisted state is several times smaller. Nodes of versions before {@link Versions#v_8_15_0} are unable to read the compact format,
+     * so this option should be enabled only after all nodes are upgraded, and it can not be combined with {@link #backwardCompatibleWith(Version) backward compatibility}
+     * with previous versions. States which were persisted in the previous format are read as usual and converted at the next write.
+     *
+     * <p>
+     * For grid based proxy-managers the flag is passed to the server side inside the request, because the state is persisted by the server.
+     *
+     * @return new instance of {@link ClientSideConfig} with enabled compact format of persisted state.
+     */
+    @Experimental
+    public ClientSideConfig withCompactStateFormat() {
+        return new ClientSideConfig(backwardCompatibilityVersion, clientSideClock, executionStrategy, requestTimeoutNanos, expirationStrategy, defaultListener, defaultRecoveryStrategy, configurationStore, requestCoalescingParallelism, configurationIdsInRequests, true);
+    }
+
+    /**
+     * Returns true if bucket states should be persisted in the compact format.
+     *
+     * @return true if bucket states should be persisted in the compact format
+     *
+     * @see #withCompactStateFormat()
+     */
+    public boolean isCompactStateFormat() {
+        return compactStateFormat;
+    }
+
+    /**
+     * Returns new instance of {@link ClientSideConfig} with enabled coalescing of requests for different keys.
+     *
+     * <p>
+     * When coalescing is enabled, then requests that are issued concurrently by different bucket proxies are collected together
+     * while previous request is in progress, and shipped to the storage by one multi-key operation.
+     * It increases throughput per connection and per transaction when traffic is spread over many keys,
+     * which is the case where {@link io.github.bucket4j.distributed.proxy.optimization.Optimizations#batching() batching optimization} is useless,
+     * because batching merges only requests for the same key.
+     *
+     * <p>
+     * Coalescing is helpful only for proxy-managers which execute multi-key operations in one round-trip, see {@link ProxyManager#executeBulk},
+     * for other proxy-managers this option is ignored.
+     * Requests are not delayed artificially, so a single request is executed immediately when nothing is in progress.
+     *
+     * @param parallelism the maximum amount of multi-key operations that can be in progress at the same time
+     *
+     * @return new instance of {@link ClientSideConfig} with enabled coalescing of requests.
+     */
+    @Experimental
+    public ClientSideConfig withRequestCoalescing(int parallelism) {
+        if (parallelism <= 0) {
+            throw BucketExceptions.nonPositiveRequestCoalescingParallelism(parallelism);
+        }
+        return new ClientSideConfig(backwardCompatibilityVersion, clientSideClock, executionStrategy, requestTimeoutNanos, expirationStrategy, defaultListener, defaultRecoveryStrategy, configurationStore, Optional.of(parallelism), configurationIdsInRequests, compactStateFormat);
+    }
+
+    /**
+     * Returns the maximum amount of multi-key operations that can be in progress at the same time when request coalescing is enabled.
+     *
+     * @return the parallelism of request coalescing, or empty optional if coalescing is disabled
+     *
+     * @see #withRequestCoalescing(int)
+     */
+    public Optional<Integer> getRequestCoalescingParallelism() {
+        return requestCoalescingParallelism;
     }
 
     /**
@@ -0,0 +1,203 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.distributed.proxy;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketExceptions;
+import io.github.bucket4j.Experimental;
+import io.github.bucket4j.TokensInheritanceStrategy;
+
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Describes bulk replacement of configuration for persisted buckets, see {@link ProxyManager#migrateConfigurations(ConfigurationMigration)}.
+ *
+ * <p>Instances are immutable, each {@code with*} method returns new instance.
+ *
+ * <p>Migration reads buckets via {@link ProxyManager#scan(ScanCursor, int)}, so it can be executed only by proxy managers
+ * for which {@link ProxyManager#isScanSupported()} returns {@code true}. Replacement is performed by command introduced in
+ * {@link io.github.bucket4j.distributed.versioning.Versions#v_8_15_0}, so proxy manager should not be configured to be backward compatible with older versions.
+ *
+ * @param <K> type of primary key
+ */
+@Experimental
+public class ConfigurationMigration<K> {
+
+    private static final int DEFAULT_PAGE_SIZE = 1000;
+    private static final Consumer<MigrationProgress> NOPE_LISTENER = progress -> {};
+
+    private final Predicate<PersistedBucket<K>> filter;
+    private final BucketConfiguration newConfiguration;
+    private final TokensInheritanceStrategy tokensInheritanceStrategy;
+    private final int pageSize;
+    private final long maxBucketsPerSecond;
+    private final Consumer<MigrationProgress> progressListener;
+    private final ScanCursor startCursor;
+
+    private ConfigurationMigration(Predicate<PersistedBucket<K>> filter, BucketConfiguration newConfiguration, TokensInheritanceStrategy tokensInheritanceStrategy,
+                                   int pageSize, long maxBucketsPerSecond, Consumer<MigrationProgress> progressListener, ScanCursor startCursor) {
+        this.filter = filter;
+        this.newConfiguration = newConfiguration;
+        this.tokensInheritanceStrategy = tokensInheritanceStrategy;
+        this.pageSize = pageSize;
+        this.maxBucketsPerSecond = maxBucketsPerSecond;
+        this.progressListener = progressListener;
+        this.startCursor = startCursor;
+    }
+
+    /**
+     * Creates migration for buckets which currently have configuration with specified {@link BucketConfiguration#getFingerprint() fingerprint}.
+     *
+     * @param fingerprint the fingerprint of configuration that should be replaced
+     * @param newConfiguration the new configuration
+     * @param tokensInheritanceStrategy the strategy that specifies how to inherit tokens from previous configuration
+     */
+    public static <K> ConfigurationMigration<K> forFingerprint(long fingerprint, BucketConfiguration newConfiguration, TokensInheritanceStrategy tokensInheritanceStrategy) {
+        return forBuckets(bucket -> bucket.getConfiguration().getFingerprint() == fingerprint, newConfiguration, tokensInheritanceStrategy);
+    }
+
+    /**
+     * Creates migration for buckets which keys are accepted by {@code keyFilter}, for example keys from some range.
+     *
+     * @param keyFilter the filter of keys
+     * @param newConfiguration the new configuration
+     * @param tokensInheritanceStrategy the strategy that specifies how to inherit tokens from previous configuration
+     */
+    public static <K> ConfigurationMigration<K> forKeys(Predicate<? super K> keyFilter, BucketConfiguration newConfiguration, TokensInheritanceStrategy tokensInheritanceStrategy) {
+        if (keyFilter == null) {
+            throw BucketExceptions.nullMigrationFilter();
+        }
+        return forBuckets(bucket -> keyFilter.test(bucket.getKey()), newConfiguration, tokensInheritanceStrategy);
+    }
+
+    /**
+     * Creates migration for buckets which are accepted by {@code filter}.
+     *
+     * @param filter the filter of buckets
+     * @param newConfiguration the new configuration
+     * @param tokensInheritanceStrategy the strategy that specifies how to inherit tokens from previous configuration
+     */
+    public static <K> ConfigurationMigration<K> forBuckets(Predicate<PersistedBucket<K>> filter, BucketConfiguration newConfiguration, TokensInheritanceStrategy tokensInheritanceStrategy) {
+        if (filter == null) {
+            throw BucketExceptions.nullMigrationFilter();
+        }
+        if (newConfiguration == null) {
+            throw BucketExceptions.nullConfiguration();
+        }
+        if (tokensInheritanceStrategy == null) {
+            throw BucketExceptions.nullTokensInheritanceStrategy();
+        }
+        return new ConfigurationMigration<>(filter, newConfiguration, tokensInheritanceStrategy, DEFAULT_PAGE_SIZE, 0, NOPE_LISTENER, ScanCursor.initial());
+    }
+
+    /**
+     * Specifies how many buckets are read and replaced by one request to external storage, default value is {@value DEFAULT_PAGE_SIZE}.
+     *
+     * @param pageSize the page size
+     *
+     * @return new instance of migration with configured page size
+     */
+    public ConfigurationMigration<K> withPageSize(int pageSize) {
+        if (pageSize <= 0) {
+            throw BucketExceptions.nonPositiveScanPageSize(pageSize);
+        }
+        return new ConfigurationMigration<>(filter, newConfiguration, tokensInheritanceStrategy, pageSize, maxBucketsPerSecond, progressListener, startCursor);
+    }
+
+    /**
+     * Throttles the migration in order to protect external storage, by default migration is not throttled.
+     *
+     * @param maxBucketsPerSecond the maximum amount of buckets that can be replaced per second
+     *
+     * @return new instance of migration with configured throttling
+     */
+    public ConfigurationMigration<K> withRateLimit(long maxBucketsPerSecond) {
+        if (maxBucketsPerSecond <= 0) {
+            throw BucketExceptions.nonPositiveMigrationRate(maxBucketsPerSecond);
+        }
+        return new ConfigurationMigration<>(filter, newConfiguration, tokensInheritanceStrategy, pageSize, maxBucketsPerSecond, progressListener, startCursor);
+    }
+
+    /**
+     * Specifies listener which is notified after processing of each page.
+     *
+     * @param progressListener the listener of progress
+     *
+     * @return new instance of migration with configured listener
+     */
+    public ConfigurationMigration<K> withProgressListener(Consumer<MigrationProgress> progressListener) {
+        if (progressListener == null) {
+            throw BucketExceptions.nullListener();
+        }
+        return new ConfigurationMigration<>(filter, newConfiguration, tokensInheritanceStrategy, pageSize, maxBucketsPerSecond, progressListener, startCursor);
+    }
+
+    /**
+     * Continues interrupted migration from the cursor reported by {@link MigrationProgress#getNextCursor()}.
+     * The cursor points to the beginning of the page which was not completed, so buckets of that page are read again,
+     * it is safe because buckets which already have new configuration are skipped.
+     * In order to continue migration after restart of application, persist {@link ScanCursor#getPosition() position} of reported cursor
+     * and restore cursor via {@link ScanCursor#of(Object)}, it is possible when backend uses plain values as position, see {@link ScanCursor}.
+     *
+     * @param startCursor the cursor from which migration should be started
+     *
+     * @return new instance of migration with configured start position
+     */
+    public ConfigurationMigration<K> startingFrom(ScanCursor startCursor) {
+        if (startCursor == null) {
+            throw BucketExceptions.nullScanCursor();
+        }
+        return new ConfigurationMigration<>(filter, newConfiguration, tokensInheritanceStrategy, pageSize, maxBucketsPerSecond, progressListener, startCursor);
+    }
+
+    public boolean matches(PersistedBucket<K> bucket) {
+        return filter.test(bucket);
+    }
+
+    public BucketConfiguration getNewConfiguration() {
+        return newConfiguration;
+    }
+
+    public TokensInheritanceStrategy getTokensInheritanceStrategy() {
+        return tokensInheritanceStrategy;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * @return the maximum amount of buckets that can be replaced per second, or zero if migration is not throttled
+     */
+    public long getMaxBucketsPerSecond() {
+        return maxBucketsPerSecond;
+    }
+
+    public Consumer<MigrationProgress> getProgressListener() {
+        return progressListener;
+    }
+
+    public ScanCursor getStartCursor() {
+        return startCursor;
+    }
+
+}
@@ -0,0 +1,112 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.distributed.proxy;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.distributed.remote.commands.ReplaceConfigurationIfMatchesCommand;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Implementation of {@link ProxyManager#migrateConfigurations(ConfigurationMigration)} for {@link AbstractProxyManager}.
+ *
+ * <p>Buckets are read page by page via {@link AbstractProxyManager#scan(ScanCursor, int)},
+ * then configuration of matched buckets is replaced by {@link ReplaceConfigurationIfMatchesCommand} sent via {@link AbstractProxyManager#executeAll(Map)},
+ * so the replacement is executed close to the data by one request per page and does not overwrite buckets which were reconfigured after reading.
+ * Throttling is implemented by local bucket.
+ */
+class ConfigurationMigrator<K> {
+
+    private final AbstractProxyManager<K> proxyManager;
+    private final ConfigurationMigration<K> migration;
+    private final Bucket throttle;
+    private final int pageSize;
+
+    private long scannedBuckets;
+    private long matchedBuckets;
+    private long migratedBuckets;
+
+    ConfigurationMigrator(AbstractProxyManager<K> proxyManager, ConfigurationMigration<K> migration) {
+        this.proxyManager = proxyManager;
+        this.migration = migration;
+        long maxBucketsPerSecond = migration.getMaxBucketsPerSecond();
+        if (maxBucketsPerSecond > 0) {
+            this.throttle = Bucket.builder()
+                .addLimit(limit -> limit.capacity(maxBucketsPerSecond).refillGreedy(maxBucketsPerSecond, Duration.ofSeconds(1)))
+                .build();
+            // page should not be greater than capacity of throttle
+            this.pageSize = (int) Math.min(migration.getPageSize(), maxBucketsPerSecond);
+        } else {
+            this.throttle = null;
+            this.pageSize = migration.getPageSize();
+        }
+    }
+
+    MigrationProgress run() {
+        ScanCursor cursor = migration.getStartCursor();
+        MigrationProgress progress;
+        do {
+            ScanPage<K> page = proxyManager.scan(cursor, pageSize);
+            migratePage(page);
+            // cursor is advanced only after page is migrated, so failure of page leaves reported cursor at its beginning
+            cursor = page.getNextCursor();
+            progress = new MigrationProgress(scannedBuckets, matchedBuckets, migratedBuckets, cursor);
+            migration.getProgressListener().accept(progress);
+        } while (cursor != null);
+        return progress;
+    }
+
+    private void migratePage(ScanPage<K> page) {
+        BucketConfiguration newConfiguration = migration.getNewConfiguration();
+        long newFingerprint = newConfiguration.getFingerprint();
+        Map<K, Request<Boolean>> requests = new LinkedHashMap<>();
+        for (PersistedBucket<K> bucket : page.getBuckets()) {
+            scannedBuckets++;
+            long currentFingerprint = bucket.getConfiguration().getFingerprint();
+            if (currentFingerprint == newFingerprint || !migration.matches(bucket)) {
+                continue;
+            }
+            matchedBuckets++;
+            ReplaceConfigurationIfMatchesCommand command = new ReplaceConfigurationIfMatchesCommand(currentFingerprint, newConfiguration, migration.getTokensInheritanceStrategy());
+            requests.put(bucket.getKey(), proxyManager.createRequest(command));
+        }
+        if (requests.isEmpty()) {
+            return;
+        }
+
+        if (throttle != null) {
+            throttle.asBlocking().consumeUninterruptibly(requests.size());
+        }
+        Map<K, CommandResult<Boolean>> results = proxyManager.getClientSideConfig().getExecutionStrategy().execute(() -> proxyManager.executeAll(requests));
+        for (CommandResult<Boolean> result : results.values()) {
+            // bucket which was removed after reading is not recreated
+            if (!result.isBucketNotFound() && result.getData()) {
+                migratedBuckets++;
+            }
+        }
+    }
+
+}
@@ -28,6 +28,7 @@ import io.github.bucket4j.distributed.remote.CommandResult;
 import io.github.bucket4j.distributed.remote.RemoteCommand;
 import io.github.bucket4j.distributed.remote.RemoteVerboseResult;
 import io.github.bucket4j.distributed.remote.commands.*;
+import io.github.bucket4j.jfr.BucketEvents;
 
 import java.time.Duration;
 import java.util.Objects;
@@ -47,6 +48,8 @@ public class DefaultAsyncBucketProxy implements AsyncBucketProxy, AsyncOptimizat
     private final BucketListener listener;
     private final ImplicitConfigurationReplacement implicitConfigurationReplacement;
     private final AtomicBoolean wasInitialized;
+    private final MathType mathType;
+    private final boolean eagerInitialization;
 
     @Override
     public AsyncVerboseBucket asVerbose() {
@@ -55,7 +58,7 @@ public class DefaultAsyncBucketProxy implements AsyncBucketProxy, AsyncOptimizat
 
     @Override
     public AsyncBucketProxy toListenable(BucketListener listener) {
-        return new DefaultAsyncBucketProxy(commandExecutor, recoveryStrategy, configurationSupplier, implicitConfigurationReplacement, wasInitialized, listener);
+        return new DefaultAsyncBucketProxy(commandExecutor, recoveryStrategy, configurationSupplier, implicitConfigurationReplacement, wasInitialized, listener, mathType, eagerInitialization);
     }
 
     @Override
@@ -65,21 +68,33 @@ public class DefaultAsyncBucketProxy implements AsyncBucketProxy, AsyncOptimizat
 
     public DefaultAsyncBucketProxy(AsyncCommandExecutor commandExecutor, RecoveryStrategy recoveryStrategy, Supplier<CompletableFuture<BucketConfiguration>> configurationSupplier,
                                    ImplicitConfigurationReplacement implicitConfigurationReplacement, BucketListener listener) {
-        this(commandExecutor, recoveryStrategy, configurationSupplier, implicitConfigurationReplacement, new AtomicBoolean(false), listener);
+        this(commandExecutor, recoveryStrategy, configurationSupplier, implicitConfigurationReplacement, listener, MathType.INTEGER_64_BITS);
     }
 
-    private DefaultAsyncBucketProxy(AsyncCommandExecutor commandExecutor, RecoveryStrategy recoveryStrategy, Supplier<CompletableFuture<BucketConfiguration>> configurationSupplier, ImplicitConfigurationReplacement implicitConfigurationReplacement, AtomicBoolean wasInitialized, BucketListener listener) {
-        this.commandExecutor = Objects.requireNonNull(commandExecutor);
+    public DefaultAsyncBucketProxy(AsyncCommandExecutor commandExecutor, RecoveryStrategy recoveryStrategy, Supplier<CompletableFuture<BucketConfiguration>> configurationSupplier,
+                                   ImplicitConfigurationReplacement implicitConfigurationReplacement, BucketListener listener, MathType mathType) {
+        this(commandExecutor, recoveryStrategy, configurationSupplier, implicitConfigurationReplacement, listener, mathType, false);
+    }
+
+    public DefaultAsyncBucketProxy(AsyncCommandExecutor commandExecutor, RecoveryStrategy recoveryStrategy, Supplier<CompletableFuture<BucketConfiguration>> configurationSupplier,
+                                   ImplicitConfigurationReplacement implicitConfigurationReplacement, BucketListener listener, MathType mathType, boolean eagerInitialization) {
+        this(commandExecutor, recoveryStrategy, configurationSupplier, implicitConfigurationReplacement, new AtomicBoolean(false), listener, mathType, eagerInitialization);
+    }
+
+    private DefaultAsyncBucketProxy(AsyncCommandExecutor commandExecutor, RecoveryStrategy recoveryStrategy, Supplier<CompletableFuture<BucketConfiguration>> configurationSupplier, ImplicitConfigurationReplacement implicitConfigurationReplacement, AtomicBoolean wasInitialized, BucketListener listener, MathType mathType, boolean eagerInitialization) {
+        this.commandExecutor = BucketEvents.decorateAsync(Objects.requireNonNull(commandExecutor));
         this.recoveryStrategy = recoveryStrategy;
         this.configurationSupplier = configurationSupplier;
         this.implicitConfigurationReplacement = implicitConfigurationReplacement;
         this.wasInitialized = wasInitialized;
+        this.mathType = Objects.requireNonNull(mathType);
+        this.eagerInitialization = eagerInitialization;
 
         if (listener == null) {
             throw BucketExceptions.nullListener();
         }
 
-        this.listener = listener;
+        this.listener = BucketEvents.decorate(listener);
     }
 
     private final AsyncVerboseBucket asyncVerboseView = new AsyncVerboseBucket() {
@@ -459,6 +474,10 @@ public class DefaultAsyncBucketProxy implements AsyncBucketProxy, AsyncOptimizat
             new CheckConfigurationVersionAndExecuteCommand<>(command, implicitConfigurationReplacement.getDesiredConfigurationVersion());
 
         boolean wasInitializedBeforeExecution = wasInitialized.get();
+        if (eagerInitialization && !wasInitializedBeforeExecution) {
+            // there is no evidence that bucket exists, so configuration is sent with the first request to avoid second round-trip
+            return executeWithInitialization(command);
+        }
         CompletableFuture<CommandResult<T>> futureResult = commandExecutor.executeAsync(commandToExecute);
         return futureResult.thenCompose(cmdResult -> {
             if (!cmdResult.isBucketNotFound() && !cmdResult.isConfigurationNeedToBeReplaced()) {
@@ -473,36 +492,40 @@ public class DefaultAsyncBucketProxy implements AsyncBucketProxy, AsyncOptimizat
                 return failedFuture;
             }
 
-            // fetch actual configuration
-            CompletableFuture<BucketConfiguration> configurationFuture;
-            try {
-                configurationFuture = configurationSupplier.get();
-            } catch (Throwable t) {
-                CompletableFuture<T> failedFuture = new CompletableFuture<>();
-                failedFuture.completeExceptionally(t);
-                return failedFuture;
-            }
-            if (configurationFuture == null) {
+            return executeWithInitialization(command);
+        });
+    }
+
+    private <T> CompletableFuture<T> executeWithInitialization(RemoteCommand<T> command) {
+        // fetch actual configuration
+        CompletableFuture<BucketConfiguration> configurationFuture;
+        try {
+            configurationFuture = configurationSupplier.get();
+        } catch (Throwable t) {
+            CompletableFuture<T> failedFuture = new CompletableFuture<>();
+            failedFuture.completeExceptionally(t);
+            return failedFuture;
+        }
+        if (configurationFuture == null) {
+            CompletableFuture<T> failedFuture = new CompletableFuture<>();
+            failedFuture.completeExceptionally(BucketExceptions.nullConfigurationFuture());
+            return failedFuture;
+        }
+
+        // execute command together with initialization
+        return configurationFuture.thenCompose(configuration -> {
+            if (configuration == null) {
                 CompletableFuture<T> failedFuture = new CompletableFuture<>();
-                failedFuture.completeExceptionally(BucketExceptions.nullConfigurationFuture());
+                failedFuture.completeExceptionally(BucketExceptions.nullConfiguration());
                 return failedFuture;
             }
+            RemoteCommand<T> initAndExecuteCommand = implicitConfigurationReplacement == null?
+                    new CreateInitialStateAndExecuteCommand<>(configuration, command, mathType) :
+                    new CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<>(configuration, command, implicitConfigurationReplacement.getDesiredConfigurationVersion(), implicitConfigurationReplacement.getTokensInheritanceStrategy(), mathType);
 
-            // retry command execution
-            return configurationFuture.thenCompose(configuration -> {
-                if (configuration == null) {
-                    CompletableFuture<T> failedFuture = new CompletableFuture<>();
-                    failedFuture.completeExceptionally(BucketExceptions.nullConfiguration());
-                    return failedFuture;
-                }
-                RemoteCommand<T> initAndExecuteCommand = implicitConfigurationReplacement == null?
-                        new CreateInitialStateAndExecuteCommand<>(configuration, command) :
-                        new CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<>(configuration, command, implicitConfigurationReplacement.getDesiredConfigurationVersion(), implicitConfigurationReplacement.getTokensInheritanceStrategy());
-
-                return commandExecutor.executeAsync(initAndExecuteCommand).thenApply(initAndExecuteCmdResult -> {
-                    wasInitialized.set(true);
-                    return initAndExecuteCmdResult.getData();
-                });
+            return commandExecutor.executeAsync(initAndExecuteCommand).thenApply(initAndExecuteCmdResult -> {
+                wasInitialized.set(true);
+                return initAndExecuteCmdResult.getData();
             });
         });
     }
@@ -26,6 +26,7 @@ import io.github.bucket4j.distributed.OptimizationController;
 import io.github.bucket4j.distributed.remote.RemoteCommand;
 import io.github.bucket4j.distributed.remote.CommandResult;
 import io.github.bucket4j.distributed.remote.commands.*;
+import io.github.bucket4j.jfr.BucketEvents;
 
 import java.time.Duration;
 import java.util.Objects;
@@ -39,10 +40,12 @@ public class DefaultBucketProxy extends AbstractBucket implements BucketProxy, O
     private final Supplier<BucketConfiguration> configurationSupplier;
     private final ImplicitConfigurationReplacement implicitConfigurationReplacement;
     private final AtomicBoolean wasInitialized;
+    private final MathType mathType;
+    private final boolean eagerInitialization;
 
     @Override
     public BucketProxy toListenable(BucketListener listener) {
-        return new DefaultBucketProxy(configurationSupplier, commandExecutor, recoveryStrategy, wasInitialized, implicitConfigurationReplacement, listener);
+        return new DefaultBucketProxy(configurationSupplier, commandExecutor, recoveryStrategy, wasInitialized, implicitConfigurationReplacement, listener, mathType, eagerInitialization);
     }
 
     @Override
@@ -57,13 +60,23 @@ public class DefaultBucketProxy extends AbstractBucket implements BucketProxy, O
 
     public DefaultBucketProxy(Supplier<BucketConfiguration> configurationSupplier, CommandExecutor commandExecutor, RecoveryStrategy recoveryStrategy,
                               ImplicitConfigurationReplacement implicitConfigurationReplacement, BucketListener listener) {
-        this(configurationSupplier, commandExecutor, recoveryStrategy, new AtomicBoolean(false), implicitConfigurationReplacement, listener);
+        this(configurationSupplier, commandExecutor, recoveryStrategy, implicitConfigurationReplacement, listener, MathType.INTEGER_64_BITS);
     }
 
-    private DefaultBucketProxy(Supplier<BucketConfiguration> configurationSupplier, CommandExecutor commandExecutor, RecoveryStrategy recoveryStrategy, AtomicBoolean wasInitialized, ImplicitConfigurationReplacement implicitConfigurationReplacement, BucketListener listener) {
+    public DefaultBucketProxy(Supplier<BucketConfiguration> configurationSupplier, CommandExecutor commandExecutor, RecoveryStrategy recoveryStrategy,
+                              ImplicitConfigurationReplacement implicitConfigurationReplacement, BucketListener listener, MathType mathType) {
+        this(configurationSupplier, commandExecutor, recoveryStrategy, implicitConfigurationReplacement, listener, mathType, false);
+    }
+
+    public DefaultBucketProxy(Supplier<BucketConfiguration> configurationSupplier, CommandExecutor commandExecutor, RecoveryStrategy recoveryStrategy,
+                              ImplicitConfigurationReplacement implicitConfigurationReplacement, BucketListener listener, MathType mathType, boolean eagerInitialization) {
+        this(configurationSupplier, commandExecutor, recoveryStrategy, new AtomicBoolean(false), implicitConfigurationReplacement, listener, mathType, eagerInitialization);
+    }
+
+    private DefaultBucketProxy(Supplier<BucketConfiguration> configurationSupplier, CommandExecutor commandExecutor, RecoveryStrategy recoveryStrategy, AtomicBoolean wasInitialized, ImplicitConfigurationReplacement implicitConfigurationReplacement, BucketListener listener, MathType mathType, boolean eagerInitialization) {
         super(listener);
 
-        this.commandExecutor = Objects.requireNonNull(commandExecutor);
+        this.commandExecutor = BucketEvents.decorate(Objects.requireNonNull(commandExecutor));
         this.recoveryStrategy = Objects.requireNonNull(recoveryStrategy);
 
         if (configurationSupplier == null) {
@@ -72,6 +85,8 @@ public class DefaultBucketProxy extends AbstractBucket implements BucketProxy, O
         this.configurationSupplier = configurationSupplier;
         this.implicitConfigurationReplacement = implicitConfigurationReplacement;
         this.wasInitialized = wasInitialized;
+        this.mathType = Objects.requireNonNull(mathType);
+        this.eagerInitialization = eagerInitialization;
     }
 
     @Override
@@ -212,6 +227,10 @@ public class DefaultBucketProxy extends AbstractBucket implements BucketProxy, O
         }
 
         boolean wasInitializedBeforeExecution = wasInitialized.get();
+        if (eagerInitialization && !wasInitializedBeforeExecution) {
+            // there is no evidence that bucket exists, so configuration is sent with the first request to avoid second round-trip
+            return executeWithInitialization(command);
+        }
         CommandResult<T> result = commandExecutor.execute(command);
         if (!result.isBucketNotFound() && !result.isConfigurationNeedToBeReplaced()) {
             return result.getData();
@@ -223,9 +242,13 @@ public class DefaultBucketProxy extends AbstractBucket implements BucketProxy, O
         }
 
         // retry command execution
+        return executeWithInitialization(command);
+    }
+
+    private <T> T executeWithInitialization(RemoteCommand<T> command) {
         RemoteCommand<T> initAndExecuteCommand = implicitConfigurationReplacement == null?
-                new CreateInitialStateAndExecuteCommand<>(getConfiguration(), command) :
-                new CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<>(getConfiguration(), command, implicitConfigurationReplacement.getDesiredConfigurationVersion(), implicitConfigurationReplacement.getTokensInheritanceStrategy());
+                new CreateInitialStateAndExecuteCommand<>(getConfiguration(), command, mathType) :
+                new CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<>(getConfiguration(), command, implicitConfigurationReplacement.getDesiredConfigurationVersion(), implicitConfigurationReplacement.getTokensInheritanceStrategy(), mathType);
         CommandResult<T> resultAfterInitialization = commandExecutor.execute(initAndExecuteCommand);
         if (resultAfterInitialization.isBucketNotFound()) {
             throw new IllegalStateException("Bucket is not initialized properly");
@@ -0,0 +1,88 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.distributed.proxy;
+
+import io.github.bucket4j.Experimental;
+
+/**
+ * The progress of {@link ProxyManager#migrateConfigurations(ConfigurationMigration) configuration migration}.
+ */
+@Experimental
+public class MigrationProgress {
+
+    private final long scannedBuckets;
+    private final long matchedBuckets;
+    private final long migratedBuckets;
+    private final ScanCursor nextCursor;
+
+    public MigrationProgress(long scannedBuckets, long matchedBuckets, long migratedBuckets, ScanCursor nextCursor) {
+        this.scannedBuckets = scannedBuckets;
+        this.matchedBuckets = matchedBuckets;
+        this.migratedBuckets = migratedBuckets;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * @return the amount of buckets which were read from external storage
+     */
+    public long getScannedBuckets() {
+        return scannedBuckets;
+    }
+
+    /**
+     * @return the amount of buckets which were accepted by filter of migration
+     */
+    public long getMatchedBuckets() {
+        return matchedBuckets;
+    }
+
+    /**
+     * @return the amount of buckets which configuration was replaced,
+     * it can be less than {@link #getMatchedBuckets()} when bucket was removed or reconfigured concurrently after it was read
+     */
+    public long getMigratedBuckets() {
+        return migratedBuckets;
+    }
+
+    /**
+     * @return the cursor from which interrupted migration can be continued via {@link ConfigurationMigration#startingFrom(ScanCursor)},
+     * or {@code null} if migration is completed. Progress is reported only after all buckets of page are processed,
+     * so the last reported cursor never skips buckets of the page which was interrupted.
+     */
+    public ScanCursor getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isCompleted() {
+        return nextCursor == null;
+    }
+
+    @Override
+    public String toString() {
+        return "MigrationProgress{" +
+            "scannedBuckets=" + scannedBuckets +
+            ", matchedBuckets=" + matchedBuckets +
+            ", migratedBuckets=" + migratedBuckets +
+            ", nextCursor=" + nextCursor +
+            '}';
+    }
+
+}
@@ -0,0 +1,66 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.distributed.proxy;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.Experimental;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+
+/**
+ * The bucket found by scan over external storage, see {@link ProxyManager#scan(ScanCursor, int)}.
+ *
+ * @param <K> type of primary key
+ */
+@Experimental
+public class PersistedBucket<K> {
+
+    private final K key;
+    private final RemoteBucketState state;
+
+    public PersistedBucket(K key, RemoteBucketState state) {
+        this.key = key;
+        this.state = state;
+    }
+
+    public K getKey() {
+        return key;
+    }
+
+    /**
+     * @return the decoded state of bucket as it was at the moment of scan
+     */
+    public RemoteBucketState getState() {
+        return state;
+    }
+
+    public BucketConfiguration getConfiguration() {
+        return state.getConfiguration();
+    }
+
+    @Override
+    public String toString() {
+        return "PersistedBucket{" +
+            "key=" + key +
+            ", state=" + state +
+            '}';
+    }
+
+}
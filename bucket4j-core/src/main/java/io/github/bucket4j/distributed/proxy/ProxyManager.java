@@ -20,8 +20,15 @@
 
 package io.github.bucket4j.distributed.proxy;
 import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketExceptions;
+import io.github.bucket4j.Experimental;
+import io.github.bucket4j.MathType;
+import io.github.bucket4j.Nothing;
 import io.github.bucket4j.distributed.BucketProxy;
+import io.github.bucket4j.distributed.remote.RemoteCommand;
 
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -79,6 +86,183 @@ public interface ProxyManager<K> {
      */
     void removeProxy(K key);
 
+    /**
+     * Executes commands against several buckets at once and returns results per key.
+     *
+     * <p>Backends which provide native multi-key operations execute all commands in one round-trip per node,
+     * like JCache {@code invokeAll} or one transaction for PostgreSQL, backends with asynchronous API submit all commands at once without waiting for each other,
+     * other backends execute commands one by one. Commands for different keys are not atomic with respect to each other.
+     * If bucket with some key is not persisted yet, then it is created with configuration returned by {@code configurationProvider}.
+     *
+     * @param commands the map from bucket key to command that should be executed on that bucket
+     * @param configurationProvider provider for configuration of buckets which are not persisted yet
+     *
+     * @return map from key to result of command, iteration order is the same as in {@code commands}
+     *
+     * @throws UnsupportedOperationException in case of this proxy manager does not support bulk execution
+     */
+    @Experimental
+    default <T> Map<K, T> executeBulk(Map<K, ? extends RemoteCommand<T>> commands, Function<? super K, BucketConfiguration> configurationProvider) {
+        throw BucketExceptions.bulkExecutionIsNotSupported();
+    }
+
+    /**
+     * Consumes tokens from several buckets on all-or-nothing basis:
+     * tokens are consumed only if each bucket has enough tokens, otherwise tokens are not consumed from any bucket.
+     * It is intended for hierarchical limits, like per-user, per-organization and global limits stored as separate buckets.
+     *
+     * <p><b>Atomicity.</b> Backends which are able to execute this operation in one transaction override this method,
+     * for example select-for-update based proxy-managers with multi-key transactions, like PostgreSQL, lock all buckets in one transaction
+     * and commit it only if each bucket accepted consumption.
+     * Default implementation is based on compensation and is not atomic:
+     * <ol>
+     *     <li>tokens are consumed from each bucket via {@link #executeBulk(Map, Function)};</li>
+     *     <li>if at least one bucket rejected consumption, then consumed tokens are returned back to other buckets
+     *     by second bulk request, returned tokens never exceed capacity of bucket.</li>
+     * </ol>
+     * So, concurrent consumers can be rejected because of tokens which are returned a moment later,
+     * and tokens stay consumed when compensation request fails, in such case the exception is propagated to caller.
+     * The compensation never leads to consumption above the limits, but can lead to consumption below them.
+     *
+     * @param tokensByKey the map from bucket key to amount of tokens that should be consumed from that bucket
+     * @param configurationProvider provider for configuration of buckets which are not persisted yet
+     *
+     * @return {@code true} if tokens were consumed from all buckets, {@code false} if tokens were not consumed from any bucket
+     */
+    @Experimental
+    default boolean tryConsumeAll(Map<K, Long> tokensByKey, Function<? super K, BucketConfiguration> configurationProvider) {
+        Map<K, RemoteCommand<Boolean>> consumeCommands = AllOrNothingConsumption.createConsumeCommands(tokensByKey);
+        Map<K, Boolean> results = executeBulk(consumeCommands, configurationProvider);
+        if (AllOrNothingConsumption.isConsumedFromAll(results)) {
+            return true;
+        }
+
+        Map<K, RemoteCommand<Nothing>> compensations = AllOrNothingConsumption.createCompensationCommands(tokensByKey, results);
+        if (!compensations.isEmpty()) {
+            executeBulk(compensations, configurationProvider);
+        }
+        return false;
+    }
+
+    /**
+     * Creates buckets in bulk, it is intended for onboarding of many tenants at once or for restoring from snapshot,
+     * when lazy initialization of each bucket by first request is too slow.
+     *
+     * <p>Buckets are created via {@link #executeBulk(Map, Function)}, so backends which provide native multi-key operations
+     * write all buckets in one round-trip per node. Buckets which already exist are left untouched.
+     * Callers which initialize a very large amount of buckets should split them into chunks of reasonable size,
+     * because all requests of one invocation are sent together.
+     *
+     * @param configurations the map from bucket key to configuration of bucket
+     * @param initialTokens the map from bucket key to amount of available tokens for created bucket,
+     *                      buckets which keys are absent in this map are created with amount of tokens specified by configuration
+     *
+     * @return the count of created buckets
+     *
+     * @throws UnsupportedOperationException in case of this proxy manager does not support bulk execution
+     */
+    @Experimental
+    default int initializeAll(Map<K, BucketConfiguration> configurations, Map<K, Long> initialTokens) {
+        return initializeAll(configurations, initialTokens, MathType.INTEGER_64_BITS);
+    }
+
+    /**
+     * Creates buckets in bulk with specified math type, see {@link #initializeAll(Map, Map)} for details.
+     * Buckets should be created with the same math type that is specified via {@link RemoteBucketBuilder#withMathType(MathType)}
+     * for buckets which use these keys.
+     *
+     * @param configurations the map from bucket key to configuration of bucket
+     * @param initialTokens the map from bucket key to amount of available tokens for created bucket,
+     *                      buckets which keys are absent in this map are created with amount of tokens specified by configuration
+     * @param mathType the math type of created buckets
+     *
+     * @return the count of created buckets
+     *
+     * @throws UnsupportedOperationException in case of this proxy manager does not support bulk execution
+     */
+    @Experimental
+    default int initializeAll(Map<K, BucketConfiguration> configurations, Map<K, Long> initialTokens, MathType mathType) {
+        Map<K, RemoteCommand<Boolean>> commands = BulkInitialization.createInitializationCommands(configurations, initialTokens, mathType);
+        Map<K, Boolean> results = executeBulk(commands, configurations::get);
+        return BulkInitialization.countCreated(results);
+    }
+
+    /**
+     * Creates buckets in bulk with amount of tokens specified by configuration, see {@link #initializeAll(Map, Map)} for details.
+     *
+     * @param configurations the map from bucket key to configuration of bucket
+     *
+     * @return the count of created buckets
+     */
+    @Experimental
+    default int initializeAll(Map<K, BucketConfiguration> configurations) {
+        return initializeAll(configurations, Map.of());
+    }
+
+    /**
+     * Reads one page of buckets persisted in external storage, it is intended for capacity reviews, migrations and investigations.
+     *
+     * <p>Scan is cursor based: the first page is requested with {@link ScanCursor#initial()},
+     * each next page is requested with cursor returned by previous page until the last page is reached.
+     * Only one page is held in memory, and backend is not locked between pages, so buckets which are created or removed during scan can be missed,
+     * and buckets which are modified during scan are returned in the state which they had at the moment of reading their page.
+     *
+     * <p>Scan is supported only by proxy managers for which {@link #isScanSupported()} returns {@code true}, currently it is implemented only for JCache.
+     * Cursor is immutable position, so scanning the same cursor twice returns the same page if storage was not modified between scans,
+     * see {@link ScanCursor} for details.
+     *
+     * @param cursor the position from which scan should be continued
+     * @param pageSize the maximum amount of buckets in the page
+     *
+     * @return the page of buckets
+     *
+     * @throws UnsupportedOperationException in case of this proxy manager does not support scan
+     */
+    @Experimental
+    default ScanPage<K> scan(ScanCursor cursor, int pageSize) {
+        throw BucketExceptions.scanIsNotSupported();
+    }
+
+    /**
+     * Returns iterator over all buckets persisted in external storage,
+     * pages are fetched via {@link #scan(ScanCursor, int)} lazily when previous page is consumed by caller.
+     *
+     * @param pageSize the maximum amount of buckets fetched by one request to external storage
+     *
+     * @return iterator over persisted buckets
+     */
+    @Experimental
+    default Iterator<PersistedBucket<K>> scan(int pageSize) {
+        if (pageSize <= 0) {
+            throw BucketExceptions.nonPositiveScanPageSize(pageSize);
+        }
+        return new ScanIterator<>(this, pageSize);
+    }
+
+    /**
+     * Replaces configuration of persisted buckets in bulk, it is intended for changing of plan for huge amount of existing buckets.
+     *
+     * <p>Buckets are read page by page via {@link #scan(ScanCursor, int)}, and configuration of buckets matched by migration
+     * is replaced by one bulk request per page. Replacement is rechecked close to the data:
+     * bucket which configuration was changed after it was read, or which was removed after it was read, is left untouched.
+     * Buckets which already have new configuration are skipped.
+     *
+     * <p>The invocation blocks until migration is completed, progress is reported to {@link ConfigurationMigration#withProgressListener(java.util.function.Consumer) listener}
+     * after each page, and interrupted migration can be continued from {@link MigrationProgress#getNextCursor() last reported cursor},
+     * the page which was interrupted is read again. Cursor can survive restart of application when backend uses plain values as position, see {@link ScanCursor}.
+     * Migration depends on scan, so it is supported only by proxy managers for which {@link #isScanSupported()} returns {@code true}.
+     *
+     * @param migration the description of migration
+     *
+     * @return the final progress of migration
+     *
+     * @throws UnsupportedOperationException in case of this proxy manager does not support scan
+     */
+    @Experimental
+    default MigrationProgress migrateConfigurations(ConfigurationMigration<K> migration) {
+        throw BucketExceptions.scanIsNotSupported();
+    }
+
     /**
      * Describes whether this manager supports asynchronous API.
      * If this method returns <code>false</code> then any invocation of {@link #asAsync()} will throw {@link UnsupportedOperationException}.
@@ -87,6 +271,18 @@ public interface ProxyManager<K> {
      */
     boolean isAsyncModeSupported();
 
+    /**
+     * Describes whether this manager supports scan over persisted buckets.
+     * If this method returns <code>false</code> then any invocation of {@link #scan(ScanCursor, int)} and {@link #migrateConfigurations(ConfigurationMigration)}
+     * will throw {@link UnsupportedOperationException}.
+     *
+     * @return <code>true</code> if this manager supports scan over persisted buckets
+     */
+    @Experimental
+    default boolean isScanSupported() {
+        return false;
+    }
+
     /**
      * Describes whether this manager supports expire-after-write feature.
      *
@@ -19,12 +19,17 @@
  */
 package io.github.bucket4j.distributed.proxy;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
 import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketExceptions;
 import io.github.bucket4j.distributed.BucketProxy;
+import io.github.bucket4j.distributed.remote.RemoteCommand;
 
 public class ProxyManagerView<K, KeyOld> implements ProxyManager<K> {
     private final ProxyManager<KeyOld> target;
@@ -55,6 +60,15 @@ public class ProxyManagerView<K, KeyOld> implements ProxyManager<K> {
         target.removeProxy(mapper.apply(key));
     }
 
+    @Override
+    public <T> Map<K, T> executeBulk(Map<K, ? extends RemoteCommand<T>> commands, Function<? super K, BucketConfiguration> configurationProvider) {
+        Map<KeyOld, K> originalKeys = mapKeys(commands.keySet(), mapper);
+        Map<KeyOld, RemoteCommand<T>> mappedCommands = new LinkedHashMap<>();
+        originalKeys.forEach((mappedKey, key) -> mappedCommands.put(mappedKey, commands.get(key)));
+        Map<KeyOld, T> results = target.executeBulk(mappedCommands, mappedKey -> configurationProvider.apply(originalKeys.get(mappedKey)));
+        return restoreKeys(results, originalKeys);
+    }
+
     @Override
     public boolean isAsyncModeSupported() {
         return target.isAsyncModeSupported();
@@ -76,4 +90,22 @@ public class ProxyManagerView<K, KeyOld> implements ProxyManager<K> {
         return target.withMapper(mapper.compose(innerMapper));
     }
 
+    static <K, KeyOld> Map<KeyOld, K> mapKeys(Set<K> keys, Function<? super K, ? extends KeyOld> mapper) {
+        Map<KeyOld, K> originalKeys = new LinkedHashMap<>();
+        for (K key : keys) {
+            KeyOld mappedKey = mapper.apply(key);
+            K previousKey = originalKeys.put(mappedKey, key);
+            if (previousKey != null) {
+                throw BucketExceptions.severalKeysMappedToSameBucket(previousKey, key, mappedKey);
+            }
+        }
+        return originalKeys;
+    }
+
+    static <K, KeyOld, T> Map<K, T> restoreKeys(Map<KeyOld, T> results, Map<KeyOld, K> originalKeys) {
+        Map<K, T> restored = new LinkedHashMap<>();
+        originalKeys.forEach((mappedKey, key) -> restored.put(key, results.get(mappedKey)));
+        return restored;
+    }
+
 }
@@ -25,6 +25,7 @@ import java.util.function.Supplier;
 
 import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.BucketListener;
+import io.github.bucket4j.MathType;
 import io.github.bucket4j.TokensInheritanceStrategy;
 import io.github.bucket4j.distributed.AsyncBucketProxy;
 import io.github.bucket4j.distributed.proxy.optimization.Optimization;
@@ -62,6 +63,18 @@ public class RemoteAsyncBucketBuilderView<K, KeyOld> implements RemoteAsyncBucke
         return this;
     }
 
+    @Override
+    public RemoteAsyncBucketBuilder<K> withMathType(MathType mathType) {
+        target.withMathType(mathType);
+        return this;
+    }
+
+    @Override
+    public RemoteAsyncBucketBuilder<K> withEagerInitialization() {
+        target.withEagerInitialization();
+        return this;
+    }
+
     @Override
     public AsyncBucketProxy build(K key, BucketConfiguration configuration) {
         return target.build(mapper.apply(key), configuration);
@@ -22,6 +22,8 @@ package io.github.bucket4j.distributed.proxy;
 
 import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.BucketListener;
+import io.github.bucket4j.Experimental;
+import io.github.bucket4j.MathType;
 import io.github.bucket4j.TokensInheritanceStrategy;
 import io.github.bucket4j.distributed.BucketProxy;
 import io.github.bucket4j.distributed.proxy.optimization.Optimization;
@@ -92,6 +94,36 @@ public interface RemoteBucketBuilder<K> {
      */
     RemoteBucketBuilder<K> withListener(BucketListener listener);
 
+    /**
+     * Specifies the algorithm of state for buckets that will be created by this builder.
+     *
+     * <p> By default {@link MathType#INTEGER_64_BITS} is used.
+     * Math type takes effect only when bucket is being created in the storage, state of already persisted bucket is not converted.
+     * Any math type other than {@link MathType#INTEGER_64_BITS} requires all nodes in the cluster to be upgraded to {@link io.github.bucket4j.distributed.versioning.Versions#v_8_14_0}.
+     *
+     * @param mathType the algorithm of bucket state
+     *
+     * @return this builder instance
+     */
+    @Experimental
+    RemoteBucketBuilder<K> withMathType(MathType mathType);
+
+    /**
+     * Enables sending of configuration together with the first request of bucket proxy,
+     * so bucket that does not exist yet is created by single round-trip instead of two.
+     *
+     * <p> By default, the first request is sent without configuration, and only if bucket is not found then request is repeated with configuration.
+     * When this option is enabled, configuration is sent with each request until the proxy gets the evidence that bucket exists,
+     * that is, until the first successful request. So, this option is helpful for workloads dominated by new keys,
+     * like per-session limits, and for long-living bucket proxies.
+     * It is not recommended when bucket proxies are recreated for each request to already existing buckets,
+     * because in such case configuration would be transferred with each request.
+     *
+     * @return this builder instance
+     */
+    @Experimental
+    RemoteBucketBuilder<K> withEagerInitialization();
+
     /**
      * Has the same semantic with {@link #build(Object, BucketConfiguration)},
      * but additionally provides ability to provide configuration lazily, that can be helpful when figuring-out the right configuration parameters
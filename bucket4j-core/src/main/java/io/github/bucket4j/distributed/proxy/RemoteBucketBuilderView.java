@@ -24,6 +24,7 @@ import java.util.function.Supplier;
 
 import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.BucketListener;
+import io.github.bucket4j.MathType;
 import io.github.bucket4j.TokensInheritanceStrategy;
 import io.github.bucket4j.distributed.BucketProxy;
 import io.github.bucket4j.distributed.proxy.optimization.Optimization;
@@ -61,6 +62,18 @@ public class RemoteBucketBuilderView<K, KeyOld> implements RemoteBucketBuilder<K
         return this;
     }
 
+    @Override
+    public RemoteBucketBuilder<K> withMathType(MathType mathType) {
+        target.withMathType(mathType);
+        return this;
+    }
+
+    @Override
+    public RemoteBucketBuilder<K> withEagerInitialization() {
+        target.withEagerInitialization();
+        return this;
+    }
+
     @Override
     public BucketProxy build(K key, Supplier<BucketConfiguration> configurationSupplier) {
         return target.build(mapper.apply(key), configurationSupplier);
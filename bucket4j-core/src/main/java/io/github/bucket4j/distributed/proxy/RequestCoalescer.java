@@ -0,0 +1,173 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.proxy;
+
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.util.concurrent.batch.AsyncBatchHelper;
+import io.github.bucket4j.util.concurrent.batch.BatchHelper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent requests for different keys into multi-key requests, see {@link ClientSideConfig#withRequestCoalescing(int)}.
+ *
+ * <p>Requests are distributed between stripes by key, each stripe has at most one multi-key request in progress,
+ * requests which arrive while stripe is busy are collected and executed together by the next multi-key request via {@link AbstractProxyManager#executeAll(Map)}.
+ *
+ * @param <K> type of primary key
+ */
+class RequestCoalescer<K> {
+
+    private final AbstractProxyManager<K> proxyManager;
+    private final List<BatchHelper<KeyedRequest<K>, CommandResult<?>, List<KeyedRequest<K>>, List<CommandResult<?>>>> stripes;
+    private final List<AsyncBatchHelper<KeyedRequest<K>, CommandResult<?>, List<KeyedRequest<K>>, List<CommandResult<?>>>> asyncStripes;
+
+    RequestCoalescer(AbstractProxyManager<K> proxyManager, int parallelism) {
+        this.proxyManager = proxyManager;
+
+        Function<List<KeyedRequest<K>>, List<KeyedRequest<K>>> taskCombiner = Function.identity();
+        BiFunction<List<KeyedRequest<K>>, List<CommandResult<?>>, List<CommandResult<?>>> combinedResultSplitter = new BiFunction<>() {
+            @Override
+            public List<CommandResult<?>> apply(List<KeyedRequest<K>> requests, List<CommandResult<?>> results) {
+                return results;
+            }
+        };
+
+        Function<List<KeyedRequest<K>>, List<CommandResult<?>>> combinedTaskExecutor = new Function<>() {
+            @Override
+            public List<CommandResult<?>> apply(List<KeyedRequest<K>> requests) {
+                List<CommandResult<?>> results = new ArrayList<>(Collections.nCopies(requests.size(), null));
+                for (List<Integer> round : splitToRounds(requests)) {
+                    Map<K, CommandResult<Object>> roundResults = proxyManager.executeAll(toRequestMap(requests, round));
+                    for (int index : round) {
+                        results.set(index, roundResults.get(requests.get(index).key));
+                    }
+                }
+                return results;
+            }
+        };
+        Function<KeyedRequest<K>, CommandResult<?>> taskExecutor = new Function<>() {
+            @Override
+            public CommandResult<?> apply(KeyedRequest<K> request) {
+                return proxyManager.execute(request.key, request.request);
+            }
+        };
+
+        Function<List<KeyedRequest<K>>, CompletableFuture<List<CommandResult<?>>>> asyncCombinedTaskExecutor = new Function<>() {
+            @Override
+            public CompletableFuture<List<CommandResult<?>>> apply(List<KeyedRequest<K>> requests) {
+                List<CommandResult<?>> results = new ArrayList<>(Collections.nCopies(requests.size(), null));
+                CompletableFuture<Void> future = CompletableFuture.completedFuture(null);
+                for (List<Integer> round : splitToRounds(requests)) {
+                    future = future
+                        .thenCompose(ignored -> proxyManager.executeAllAsync(toRequestMap(requests, round)))
+                        .thenAccept(roundResults -> {
+                            for (int index : round) {
+                                results.set(index, roundResults.get(requests.get(index).key));
+                            }
+                        });
+                }
+                return future.thenApply(ignored -> results);
+            }
+        };
+        Function<KeyedRequest<K>, CompletableFuture<CommandResult<?>>> asyncTaskExecutor = new Function<>() {
+            @Override
+            public CompletableFuture<CommandResult<?>> apply(KeyedRequest<K> request) {
+                return proxyManager.executeAsync(request.key, request.request).thenApply(Function.identity());
+            }
+        };
+
+        this.stripes = new ArrayList<>(parallelism);
+        this.asyncStripes = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            stripes.add(BatchHelper.create(taskCombiner, combinedTaskExecutor, taskExecutor, combinedResultSplitter));
+            asyncStripes.add(AsyncBatchHelper.create(taskCombiner, asyncCombinedTaskExecutor, asyncTaskExecutor, combinedResultSplitter));
+        }
+    }
+
+    <T> CommandResult<T> execute(K key, Request<T> request) {
+        CommandResult<?> result = stripes.get(stripeIndex(key)).execute(new KeyedRequest<>(key, request));
+        return resultOf(request, result);
+    }
+
+    <T> CompletableFuture<CommandResult<T>> executeAsync(K key, Request<T> request) {
+        return asyncStripes.get(stripeIndex(key)).executeAsync(new KeyedRequest<>(key, request))
+            .thenApply(result -> resultOf(request, result));
+    }
+
+    private int stripeIndex(K key) {
+        int hash = key.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), stripes.size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> CommandResult<T> resultOf(Request<T> request, CommandResult<?> result) {
+        // requests with different types of result are coalesced together, but each result is produced by the command of its own request
+        return (CommandResult<T>) result;
+    }
+
+    /**
+     * Splits requests to rounds where each key is present at most once,
+     * several requests for the same key are executed in the order of arrival by consequent rounds.
+     */
+    private static <K> List<List<Integer>> splitToRounds(List<KeyedRequest<K>> requests) {
+        List<List<Integer>> rounds = new ArrayList<>();
+        Map<K, Integer> requestsPerKey = new HashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            int roundIndex = requestsPerKey.merge(requests.get(i).key, 1, Integer::sum) - 1;
+            if (roundIndex == rounds.size()) {
+                rounds.add(new ArrayList<>());
+            }
+            rounds.get(roundIndex).add(i);
+        }
+        return rounds;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> Map<K, Request<Object>> toRequestMap(List<KeyedRequest<K>> requests, List<Integer> round) {
+        Map<K, Request<Object>> requestMap = new HashMap<>();
+        for (int index : round) {
+            KeyedRequest<K> request = requests.get(index);
+            requestMap.put(request.key, (Request<Object>) request.request);
+        }
+        return requestMap;
+    }
+
+    private static class KeyedRequest<K> {
+
+        private final K key;
+        private final Request<?> request;
+
+        private KeyedRequest(K key, Request<?> request) {
+            this.key = key;
+            this.request = request;
+        }
+
+    }
+
+}
@@ -0,0 +1,91 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.distributed.proxy;
+
+import io.github.bucket4j.BucketExceptions;
+import io.github.bucket4j.Experimental;
+
+/**
+ * The position of scan over persisted buckets, see {@link ProxyManager#scan(ScanCursor, int)}.
+ *
+ * <p>Cursor is opaque for the caller, the content of position is defined by particular backend.
+ * Cursor is immutable and stateless: it points to a position inside the scan, but does not hold the resources of scan,
+ * so the same cursor can be scanned repeatedly, and each scan continues from the same position.
+ * Backends which keep some resources between pages, for example open iterator, use them only as optimization
+ * and fall back to restoring of position from the cursor.
+ *
+ * <p>Cursor is valid only for proxy manager which returned it.
+ * If backend uses plain values as position, like {@link Long} used by JCache, the cursor can be persisted via {@link #getPosition()}
+ * and restored via {@link #of(Object)} in order to continue scan after restart of application.
+ */
+@Experimental
+public final class ScanCursor {
+
+    private static final ScanCursor INITIAL = new ScanCursor(null);
+
+    private final Object position;
+
+    private ScanCursor(Object position) {
+        this.position = position;
+    }
+
+    /**
+     * @return the cursor which points to the beginning of scan
+     */
+    public static ScanCursor initial() {
+        return INITIAL;
+    }
+
+    /**
+     * Creates cursor which points to the specified position, this method is intended to be used by backend implementations
+     * and for restoring of cursor from position which was persisted via {@link #getPosition()}.
+     * Position should be immutable value.
+     *
+     * @param position the backend specific position
+     *
+     * @return new cursor
+     */
+    public static ScanCursor of(Object position) {
+        if (position == null) {
+            throw BucketExceptions.nullScanPosition();
+        }
+        return new ScanCursor(position);
+    }
+
+    /**
+     * @return the backend specific position, or {@code null} if cursor points to the beginning of scan
+     */
+    public Object getPosition() {
+        return position;
+    }
+
+    public boolean isInitial() {
+        return position == null;
+    }
+
+    @Override
+    public String toString() {
+        return "ScanCursor{" +
+            "position=" + position +
+            '}';
+    }
+
+}
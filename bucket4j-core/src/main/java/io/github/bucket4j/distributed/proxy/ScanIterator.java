@@ -0,0 +1,61 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.distributed.proxy;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterator which lazily fetches pages of {@link ProxyManager#scan(ScanCursor, int)},
+ * so only one page is kept in memory and next page is not requested until caller consumes current one.
+ */
+class ScanIterator<K> implements Iterator<PersistedBucket<K>> {
+
+    private final ProxyManager<K> proxyManager;
+    private final int pageSize;
+
+    private ScanCursor nextCursor = ScanCursor.initial();
+    private Iterator<PersistedBucket<K>> currentPage = null;
+
+    ScanIterator(ProxyManager<K> proxyManager, int pageSize) {
+        this.proxyManager = proxyManager;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while ((currentPage == null || !currentPage.hasNext()) && nextCursor != null) {
+            ScanPage<K> page = proxyManager.scan(nextCursor, pageSize);
+            currentPage = page.getBuckets().iterator();
+            nextCursor = page.getNextCursor();
+        }
+        return currentPage.hasNext();
+    }
+
+    @Override
+    public PersistedBucket<K> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return currentPage.next();
+    }
+
+}
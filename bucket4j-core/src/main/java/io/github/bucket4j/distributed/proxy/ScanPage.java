@@ -0,0 +1,62 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.distributed.proxy;
+
+import io.github.bucket4j.Experimental;
+
+import java.util.List;
+
+/**
+ * The page of buckets returned by {@link ProxyManager#scan(ScanCursor, int)}.
+ *
+ * @param <K> type of primary key
+ */
+@Experimental
+public class ScanPage<K> {
+
+    private final List<PersistedBucket<K>> buckets;
+    private final ScanCursor nextCursor;
+
+    /**
+     * @param buckets the buckets of page, it can be empty even if scan is not finished yet, because some backends filter entries after fetching
+     * @param nextCursor the cursor that should be used to fetch next page, or {@code null} if this page is the last one
+     */
+    public ScanPage(List<PersistedBucket<K>> buckets, ScanCursor nextCursor) {
+        this.buckets = buckets;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<PersistedBucket<K>> getBuckets() {
+        return buckets;
+    }
+
+    /**
+     * @return the cursor that should be used to fetch next page, or {@code null} if this page is the last one
+     */
+    public ScanCursor getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isLast() {
+        return nextCursor == null;
+    }
+
+}
@@ -0,0 +1,100 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.proxy.generic;
+
+import io.github.bucket4j.BucketExceptions;
+import io.github.bucket4j.distributed.ConfigurationStore;
+import io.github.bucket4j.distributed.serialization.InternalSerializationHelper;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Wrapper for {@link ConfigurationStore} that is used by proxy-managers which execute commands inside a database transaction.
+ *
+ * <p>
+ * The target store can share the connection pool with proxy-manager, so accessing it while transaction holds a connection
+ * can exhaust the pool when many clients use new configurations concurrently.
+ * Instead of accessing the target store, this wrapper interrupts the command by {@link DeferredAccessException},
+ * then proxy-manager rolls back the transaction, releases the connection, performs {@link DeferredAccessException#perform()}
+ * and executes the command again in the scope of new transaction.
+ * After first access configuration is known by the process, so the transaction is restarted at most once per configuration.
+ */
+public class DeferredConfigurationStore extends ConfigurationStore {
+
+    private final ConfigurationStore target;
+
+    public DeferredConfigurationStore(ConfigurationStore target) {
+        this.target = Objects.requireNonNull(target);
+    }
+
+    @Override
+    protected byte[] load(long fingerprint) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected void save(long fingerprint, byte[] configurationBytes) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public byte[] loadConfiguration(long fingerprint) {
+        // configuration is not in the cache, otherwise store would not be asked
+        throw new DeferredAccessException(() -> InternalSerializationHelper.loadConfiguration(fingerprint, target));
+    }
+
+    @Override
+    public void saveConfigurationIfAbsent(long fingerprint, Supplier<byte[]> configurationBytesSupplier) {
+        if (target.isKnown(fingerprint)) {
+            return;
+        }
+        byte[] configurationBytes = configurationBytesSupplier.get();
+        throw new DeferredAccessException(() -> target.saveConfigurationIfAbsent(fingerprint, () -> configurationBytes));
+    }
+
+    /**
+     * Signals that command needs to be executed again after access to configuration store out of transaction.
+     */
+    public static class DeferredAccessException extends BucketExceptions.BucketExecutionException {
+
+        private final Runnable access;
+
+        private DeferredAccessException(Runnable access) {
+            super("Configuration store must be accessed out of transaction");
+            this.access = access;
+        }
+
+        /**
+         * Performs postponed access to the target store, must be called when proxy-manager does not hold any connection.
+         */
+        public void perform() {
+            access.run();
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            // used for control flow
+            return this;
+        }
+
+    }
+
+}
@@ -45,6 +45,17 @@ public abstract class AbstractCompareAndSwapBasedProxyManager<K> extends Abstrac
         super(injectTimeClock(clientSideConfig));
     }
 
+    @Override
+    protected boolean isConfigurationStoreSupported() {
+        // commands are executed on the client side, where the configuration store is available
+        return true;
+    }
+
+    @Override
+    protected boolean isConfigurationIdsInRequestsSupported() {
+        return true;
+    }
+
     @Override
     public <T> CommandResult<T> execute(K key, Request<T> request) {
         Timeout timeout = Timeout.of(getClientSideConfig());
@@ -72,13 +83,13 @@ public abstract class AbstractCompareAndSwapBasedProxyManager<K> extends Abstrac
     private <T> CommandResult<T> execute(Request<T> request, CompareAndSwapOperation operation, Timeout timeout) {
         RemoteCommand<T> command = request.getCommand();
         byte[] originalStateBytes = timeout.call(operation::getStateData).orElse(null);
-        MutableBucketEntry entry = new MutableBucketEntry(originalStateBytes);
+        MutableBucketEntry entry = new MutableBucketEntry(originalStateBytes, getClientSideConfig().getConfigurationStore().orElse(null), command);
         CommandResult<T> result = command.execute(entry, getClientSideTime());
         if (!entry.isStateModified()) {
             return result;
         }
 
-        byte[] newStateBytes = entry.getStateBytes(request.getBackwardCompatibilityVersion());
+        byte[] newStateBytes = entry.getStateBytes(request.getBackwardCompatibilityVersion(), request.isCompactStateFormat());
         if (timeout.call(requestTimeout -> operation.compareAndSwap(originalStateBytes, newStateBytes, entry.get(), requestTimeout))) {
             return result;
         } else {
@@ -99,13 +110,13 @@ public abstract class AbstractCompareAndSwapBasedProxyManager<K> extends Abstrac
             .thenApply((Optional<byte[]> originalStateBytes) -> originalStateBytes.orElse(null))
             .thenCompose((byte[] originalStateBytes) -> {
                 RemoteCommand<T> command = request.getCommand();
-                MutableBucketEntry entry = new MutableBucketEntry(originalStateBytes);
+                MutableBucketEntry entry = new MutableBucketEntry(originalStateBytes, getClientSideConfig().getConfigurationStore().orElse(null), command);
                 CommandResult<T> result = command.execute(entry, getClientSideTime());
                 if (!entry.isStateModified()) {
                     return CompletableFuture.completedFuture(result);
                 }
 
-                byte[] newStateBytes = entry.getStateBytes(request.getBackwardCompatibilityVersion());
+                byte[] newStateBytes = entry.getStateBytes(request.getBackwardCompatibilityVersion(), request.isCompactStateFormat());
                 return timeout.callAsync(requestTimeout -> operation.compareAndSwap(originalStateBytes, newStateBytes, entry.get(), requestTimeout))
                     .thenApply((casWasSuccessful) -> casWasSuccessful? result : null);
             });
@@ -22,9 +22,11 @@ package io.github.bucket4j.distributed.proxy.generic.pessimistic_locking;
 
 import io.github.bucket4j.BucketExceptions;
 import io.github.bucket4j.TimeMeter;
+import io.github.bucket4j.distributed.ConfigurationStore;
 import io.github.bucket4j.distributed.proxy.AbstractProxyManager;
 import io.github.bucket4j.distributed.proxy.ClientSideConfig;
 import io.github.bucket4j.distributed.proxy.Timeout;
+import io.github.bucket4j.distributed.proxy.generic.DeferredConfigurationStore;
 import io.github.bucket4j.distributed.remote.CommandResult;
 import io.github.bucket4j.distributed.remote.MutableBucketEntry;
 import io.github.bucket4j.distributed.remote.RemoteCommand;
@@ -43,18 +45,39 @@ import java.util.concurrent.TimeUnit;
  */
 public abstract class AbstractLockBasedProxyManager<K> extends AbstractProxyManager<K> {
 
+    private final ConfigurationStore configurationStore;
+
     protected AbstractLockBasedProxyManager(ClientSideConfig clientSideConfig) {
         super(injectTimeClock(clientSideConfig));
+        this.configurationStore = getClientSideConfig().getConfigurationStore().map(DeferredConfigurationStore::new).orElse(null);
+    }
+
+    @Override
+    protected boolean isConfigurationStoreSupported() {
+        // commands are executed on the client side, where the configuration store is available
+        return true;
+    }
+
+    @Override
+    protected boolean isConfigurationIdsInRequestsSupported() {
+        return true;
     }
 
     @Override
     public <T> CommandResult<T> execute(K key, Request<T> request) {
         Timeout timeout = Timeout.of(getClientSideConfig());
-        LockBasedTransaction transaction = timeout.call(requestTimeout -> allocateTransaction(key, requestTimeout));
-        try {
-            return execute(request, transaction, timeout);
-        } finally {
-            transaction.release();
+        while (true) {
+            LockBasedTransaction transaction = timeout.call(requestTimeout -> allocateTransaction(key, requestTimeout));
+            DeferredConfigurationStore.DeferredAccessException deferredAccess;
+            try {
+                return execute(request, transaction, timeout);
+            } catch (DeferredConfigurationStore.DeferredAccessException e) {
+                deferredAccess = e;
+            } finally {
+                transaction.release();
+            }
+            // transaction is rolled back and lock is released, so configuration store can be accessed safely
+            deferredAccess.perform();
         }
     }
 
@@ -95,10 +118,10 @@ public abstract class AbstractLockBasedProxyManager<K> extends AbstractProxyMana
         }
 
         try {
-            MutableBucketEntry entry = new MutableBucketEntry(persistedDataOnBeginOfTransaction);
+            MutableBucketEntry entry = new MutableBucketEntry(persistedDataOnBeginOfTransaction, configurationStore, command);
             CommandResult<T> result = command.execute(entry, super.getClientSideTime());
             if (entry.isStateModified()) {
-                byte[] bytes = entry.getStateBytes(request.getBackwardCompatibilityVersion());
+                byte[] bytes = entry.getStateBytes(request.getBackwardCompatibilityVersion(), request.isCompactStateFormat());
                 if (persistedDataOnBeginOfTransaction == null) {
                     timeout.run(requestTimeout -> transaction.create(bytes, entry.get(), requestTimeout));
                 } else {
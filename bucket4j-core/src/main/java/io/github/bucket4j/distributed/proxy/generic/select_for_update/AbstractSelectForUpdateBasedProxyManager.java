@@ -22,9 +22,11 @@ package io.github.bucket4j.distributed.proxy.generic.select_for_update;
 
 import io.github.bucket4j.BucketExceptions;
 import io.github.bucket4j.TimeMeter;
+import io.github.bucket4j.distributed.ConfigurationStore;
 import io.github.bucket4j.distributed.proxy.AbstractProxyManager;
 import io.github.bucket4j.distributed.proxy.ClientSideConfig;
 import io.github.bucket4j.distributed.proxy.Timeout;
+import io.github.bucket4j.distributed.proxy.generic.DeferredConfigurationStore;
 import io.github.bucket4j.distributed.remote.CommandResult;
 import io.github.bucket4j.distributed.remote.MutableBucketEntry;
 import io.github.bucket4j.distributed.remote.RemoteBucketState;
@@ -33,6 +35,11 @@ import io.github.bucket4j.distributed.remote.Request;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
@@ -47,8 +54,22 @@ public abstract class AbstractSelectForUpdateBasedProxyManager<K> extends Abstra
 
     private static final CommandResult RETRY_IN_THE_SCOPE_OF_NEW_TRANSACTION = CommandResult.success(true, 666);
 
+    private final ConfigurationStore configurationStore;
+
     protected AbstractSelectForUpdateBasedProxyManager(ClientSideConfig clientSideConfig) {
         super(injectTimeClock(clientSideConfig));
+        this.configurationStore = getClientSideConfig().getConfigurationStore().map(DeferredConfigurationStore::new).orElse(null);
+    }
+
+    @Override
+    protected boolean isConfigurationStoreSupported() {
+        // commands are executed on the client side, where the configuration store is available
+        return true;
+    }
+
+    @Override
+    protected boolean isConfigurationIdsInRequestsSupported() {
+        return true;
     }
 
     @Override
@@ -56,13 +77,19 @@ public abstract class AbstractSelectForUpdateBasedProxyManager<K> extends Abstra
         Timeout timeout = Timeout.of(getClientSideConfig());
         while (true) {
             SelectForUpdateBasedTransaction transaction = timeout.call(timeoutNanos -> allocateTransaction(key, timeoutNanos));
-            CommandResult<T> result;
+            CommandResult<T> result = RETRY_IN_THE_SCOPE_OF_NEW_TRANSACTION;
+            DeferredConfigurationStore.DeferredAccessException deferredAccess = null;
             try {
                 result = execute(request, transaction, timeout);
+            } catch (DeferredConfigurationStore.DeferredAccessException e) {
+                deferredAccess = e;
             } finally {
                 transaction.release();
             }
-            if (result != RETRY_IN_THE_SCOPE_OF_NEW_TRANSACTION) {
+            if (deferredAccess != null) {
+                // transaction is rolled back and connection is released, so configuration store can not exhaust the pool
+                deferredAccess.perform();
+            } else if (result != RETRY_IN_THE_SCOPE_OF_NEW_TRANSACTION) {
                 return result;
             }
         }
@@ -85,6 +112,143 @@ public abstract class AbstractSelectForUpdateBasedProxyManager<K> extends Abstra
 
     protected abstract SelectForUpdateBasedTransaction allocateTransaction(K key, Optional<Long> timeoutNanos);
 
+    /**
+     * Allocates transaction that is able to lock and update several buckets in the scope of one database transaction,
+     * it is used by {@link #executeAll(Map)} in order to pay for connection acquisition and commit once per bulk instead of once per bucket.
+     *
+     * <p>Default implementation returns {@code null}, in such case requests of bulk are executed one by one.
+     *
+     * @param timeoutNanos optional timeout in nanoseconds
+     *
+     * @return the transaction or {@code null} if multi-key transactions are not supported
+     */
+    protected MultiKeySelectForUpdateBasedTransaction<K> allocateMultiKeyTransaction(Optional<Long> timeoutNanos) {
+        return null;
+    }
+
+    /**
+     * Executes requests in the scope of one transaction when {@link #allocateMultiKeyTransaction(Optional)} is supported.
+     * Rows are locked in natural order of keys if keys are {@link Comparable}, otherwise in order of {@code requests},
+     * so concurrent bulks with different order of non-comparable keys can be aborted by deadlock detector of database.
+     */
+    @Override
+    protected <T> Map<K, CommandResult<T>> executeAll(Map<K, Request<T>> requests) {
+        Timeout timeout = Timeout.of(getClientSideConfig());
+        MultiKeySelectForUpdateBasedTransaction<K> transaction = timeout.call(this::allocateMultiKeyTransaction);
+        if (transaction == null) {
+            return super.executeAll(requests);
+        }
+        return executeInMultiKeyTransaction(requests, false, transaction, timeout);
+    }
+
+    /**
+     * Locks rows of all buckets in the same way as {@link #executeAll(Map)}, but commits the transaction only if each bucket accepted consumption,
+     * otherwise transaction is rolled back, so tokens are consumed atomically without compensation.
+     */
+    @Override
+    protected Map<K, CommandResult<Boolean>> executeAllOrNothing(Map<K, Request<Boolean>> requests) {
+        Timeout timeout = Timeout.of(getClientSideConfig());
+        MultiKeySelectForUpdateBasedTransaction<K> transaction = timeout.call(this::allocateMultiKeyTransaction);
+        if (transaction == null) {
+            return null;
+        }
+        return executeInMultiKeyTransaction(requests, true, transaction, timeout);
+    }
+
+    private <T> Map<K, CommandResult<T>> executeInMultiKeyTransaction(Map<K, Request<T>> requests, boolean allOrNothing, MultiKeySelectForUpdateBasedTransaction<K> transaction, Timeout timeout) {
+        List<K> keys = sortIfComparable(requests.keySet());
+        while (true) {
+            Map<K, CommandResult<T>> results = null;
+            DeferredConfigurationStore.DeferredAccessException deferredAccess = null;
+            try {
+                while (results == null) {
+                    results = executeAll(requests, keys, allOrNothing, transaction, timeout);
+                }
+                return results;
+            } catch (DeferredConfigurationStore.DeferredAccessException e) {
+                deferredAccess = e;
+            } finally {
+                transaction.release();
+            }
+            // transaction is rolled back and connection is released, so configuration store can not exhaust the pool
+            deferredAccess.perform();
+            transaction = timeout.call(this::allocateMultiKeyTransaction);
+        }
+    }
+
+    private <T> Map<K, CommandResult<T>> executeAll(Map<K, Request<T>> requests, List<K> keys, boolean allOrNothing, MultiKeySelectForUpdateBasedTransaction<K> transaction, Timeout timeout) {
+        timeout.run(transaction::begin);
+        try {
+            // lock and get data
+            Map<K, byte[]> persistedData = new HashMap<>();
+            List<K> notLockedKeys = new ArrayList<>();
+            for (K key : keys) {
+                LockAndGetResult lockResult = timeout.call(timeoutNanos -> transaction.tryLockAndGet(key, timeoutNanos));
+                if (lockResult.isLocked()) {
+                    persistedData.put(key, lockResult.getData());
+                } else {
+                    notLockedKeys.add(key);
+                }
+            }
+
+            // insert data that can be locked in next transaction if data does not exist
+            if (!notLockedKeys.isEmpty()) {
+                for (K key : notLockedKeys) {
+                    timeout.run(timeoutNanos -> transaction.insertEmptyData(key, timeoutNanos));
+                }
+                timeout.run(transaction::commit);
+                return null;
+            }
+
+            Map<K, CommandResult<T>> results = new HashMap<>();
+            for (K key : keys) {
+                Request<T> request = requests.get(key);
+                byte[] data = persistedData.get(key);
+                if (data == null && !request.getCommand().isInitializationCommand()) {
+                    results.put(key, CommandResult.bucketNotFound());
+                    continue;
+                }
+                MutableBucketEntry entry = new MutableBucketEntry(data, configurationStore, request.getCommand());
+                results.put(key, request.getCommand().execute(entry, super.getClientSideTime()));
+                if (entry.isStateModified()) {
+                    RemoteBucketState modifiedState = entry.get();
+                    byte[] bytes = entry.getStateBytes(request.getBackwardCompatibilityVersion(), request.isCompactStateFormat());
+                    timeout.run(timeoutNanos -> transaction.update(key, bytes, modifiedState, timeoutNanos));
+                }
+            }
+            if (allOrNothing && !isSuccessfulForAll(results)) {
+                // some bucket rejected consumption or is not persisted yet, so changes of other buckets must not be applied
+                transaction.rollback();
+                return results;
+            }
+            timeout.run(transaction::commit);
+            return results;
+        } catch (Throwable t) {
+            transaction.rollback();
+            throw BucketExceptions.from(t);
+        }
+    }
+
+    private static <K, T> boolean isSuccessfulForAll(Map<K, CommandResult<T>> results) {
+        for (CommandResult<T> result : results.values()) {
+            if (result.isBucketNotFound() || !Boolean.TRUE.equals(result.getData())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static <K> List<K> sortIfComparable(Collection<K> keys) {
+        List<K> sorted = new ArrayList<>(keys);
+        for (K key : sorted) {
+            if (!(key instanceof Comparable)) {
+                return sorted;
+            }
+        }
+        sorted.sort((first, second) -> ((Comparable<Object>) first).compareTo(second));
+        return sorted;
+    }
+
     private <T> CommandResult<T> execute(Request<T> request, SelectForUpdateBasedTransaction transaction, Timeout timeout) {
         RemoteCommand<T> command = request.getCommand();
         timeout.run(transaction::begin);
@@ -122,11 +286,11 @@ public abstract class AbstractSelectForUpdateBasedProxyManager<K> extends Abstra
         }
 
         try {
-            MutableBucketEntry entry = new MutableBucketEntry(persistedDataOnBeginOfTransaction);
+            MutableBucketEntry entry = new MutableBucketEntry(persistedDataOnBeginOfTransaction, configurationStore, command);
             CommandResult<T> result = command.execute(entry, super.getClientSideTime());
             if (entry.isStateModified()) {
                 RemoteBucketState modifiedState = entry.get();
-                byte[] bytes = entry.getStateBytes(request.getBackwardCompatibilityVersion());
+                byte[] bytes = entry.getStateBytes(request.getBackwardCompatibilityVersion(), request.isCompactStateFormat());
                 timeout.run(threshold -> transaction.update(bytes, modifiedState, threshold));
             }
             timeout.run(transaction::commit);
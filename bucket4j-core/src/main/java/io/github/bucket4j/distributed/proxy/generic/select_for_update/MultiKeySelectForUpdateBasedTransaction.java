@@ -0,0 +1,96 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.distributed.proxy.generic.select_for_update;
+
+import java.util.Optional;
+
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+
+/**
+ * Describes the set of operations that {@link AbstractSelectForUpdateBasedProxyManager} performs in order to execute requests for several buckets
+ * in the scope of one database transaction, see {@link AbstractSelectForUpdateBasedProxyManager#allocateMultiKeyTransaction(Optional)}.
+ * The flow is the same as for {@link SelectForUpdateBasedTransaction}, but each row operation takes the key:
+ * <ol>
+ *     <li>begin - {@link #begin(Optional)}</li>
+ *     <li>lock each key - {@link #tryLockAndGet(Object, Optional)}</li>
+ *     <li>update each modified key - {@link #update(Object, byte[], RemoteBucketState, Optional)}</li>
+ *     <li>commit - {@link #commit(Optional)}</li>
+ *     <li>release - {@link #release()}</li>
+ * </ol>
+ *
+ * @param <K> type of key
+ */
+public interface MultiKeySelectForUpdateBasedTransaction<K> {
+
+    /**
+     * Begins transaction.
+     * There is strong guarantee that {@link #commit(Optional)} or {@link #rollback()} will be called if {@link #begin(Optional)} returns successfully.
+     *
+     * @param timeoutNanos optional timeout in nanoseconds
+     */
+    void begin(Optional<Long> timeoutNanos);
+
+    /**
+     * Rollbacks transaction
+     */
+    void rollback();
+
+    /**
+     * Commits transaction, updates which were deferred by {@link #update(Object, byte[], RemoteBucketState, Optional)} must be flushed before commit.
+     *
+     * @param timeoutNanos optional timeout in nanoseconds
+     */
+    void commit(Optional<Long> timeoutNanos);
+
+    /**
+     * Locks data by the key and returns data that is associated with the key.
+     *
+     * @param key the key of bucket
+     * @param timeoutNanos optional timeout in nanoseconds
+     *
+     * @return the data by the key, or {@link LockAndGetResult#notLocked()} if row for the key does not exist
+     */
+    LockAndGetResult tryLockAndGet(K key, Optional<Long> timeoutNanos);
+
+    /**
+     * Creates empty data for the key, this operation is required to be able to lock data in the scope of next transaction.
+     *
+     * @param key the key of bucket
+     * @param timeoutNanos optional timeout in nanoseconds
+     */
+    void insertEmptyData(K key, Optional<Long> timeoutNanos);
+
+    /**
+     * Updates the data by the key, implementation is free to defer the update until commit in order to send all updates by one batch.
+     *
+     * @param key the key of bucket
+     * @param data bucket state to persists
+     * @param newState new state of bucket - can be used to extract additional data is useful for persistence or logging.
+     * @param timeoutNanos optional timeout in nanoseconds
+     */
+    void update(K key, byte[] data, RemoteBucketState newState, Optional<Long> timeoutNanos);
+
+    /**
+     * Frees resources associated with this transaction
+     */
+    void release();
+
+}
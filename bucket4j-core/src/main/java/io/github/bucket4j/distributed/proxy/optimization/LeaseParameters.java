@@ -0,0 +1,58 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.proxy.optimization;
+
+import io.github.bucket4j.BucketExceptions;
+import io.github.bucket4j.distributed.proxy.optimization.lease.TokenLeaseOptimization;
+
+import java.time.Duration;
+
+/**
+ * Describes parameters for {@link TokenLeaseOptimization}.
+ *
+ * @see TokenLeaseOptimization
+ * @see Optimizations#leasing(LeaseParameters)
+ */
+public class LeaseParameters {
+
+    public final long leaseSize;
+    public final long leaseDurationNanos;
+
+    /**
+     * Creates the new instance of {@link LeaseParameters}
+     *
+     * @param leaseSize how many tokens are leased by one request to external storage. Must be a positive number.
+     * @param leaseDuration how long leased tokens can be served locally, unused tokens are returned to external storage after expiration. Must be a positive duration.
+     */
+    public LeaseParameters(long leaseSize, Duration leaseDuration) {
+        if (leaseSize <= 0) {
+            throw BucketExceptions.nonPositiveLeaseSize(leaseSize);
+        }
+        if (leaseDuration == null) {
+            throw BucketExceptions.nullLeaseDuration();
+        }
+        if (leaseDuration.isNegative() || leaseDuration.isZero()) {
+            throw BucketExceptions.nonPositiveLeaseDuration(leaseDuration);
+        }
+        this.leaseSize = leaseSize;
+        this.leaseDurationNanos = leaseDuration.toNanos();
+    }
+
+}
@@ -19,10 +19,15 @@
  */
 package io.github.bucket4j.distributed.proxy.optimization;
 
+import io.github.bucket4j.BucketExceptions;
 import io.github.bucket4j.TimeMeter;
 import io.github.bucket4j.distributed.proxy.optimization.batch.BatchingOptimization;
 import io.github.bucket4j.distributed.proxy.optimization.predictive.PredictiveOptimization;
 import io.github.bucket4j.distributed.proxy.optimization.delay.DelayOptimization;
+import io.github.bucket4j.distributed.proxy.optimization.lease.TokenLeaseOptimization;
+import io.github.bucket4j.distributed.proxy.optimization.partitioning.PartitioningOptimization;
+
+import java.time.Duration;
 
 /**
  * Provides factory methods for all request optimizations that are built-in into Bucket4j library.
@@ -30,6 +35,7 @@ import io.github.bucket4j.distributed.proxy.optimization.delay.DelayOptimization
  * @see BatchingOptimization
  * @see DelayOptimization
  * @see PredictiveOptimization
+ * @see TokenLeaseOptimization
  * @see OptimizationListener
  */
 public class Optimizations {
@@ -90,4 +96,39 @@ public class Optimizations {
         return new PredictiveOptimization(defaultPrediction, delayParameters, NopeOptimizationListener.INSTANCE, TimeMeter.SYSTEM_MILLISECONDS);
     }
 
+    /**
+     * Creates optimization that leases tokens from external storage and serves requests locally from the lease,
+     * unlike {@link #delaying(DelayParameters)} it never leads to overconsumption of the limit.
+     *
+     * @param leaseParameters parameters that control how many tokens are leased and how long lease is valid
+     *
+     * @return new instance of {@link TokenLeaseOptimization}
+     *
+     * @see TokenLeaseOptimization
+     * @see LeaseParameters
+     */
+    public static Optimization leasing(LeaseParameters leaseParameters) {
+        return new TokenLeaseOptimization(leaseParameters, NopeOptimizationListener.INSTANCE, TimeMeter.SYSTEM_MILLISECONDS);
+    }
+
+    /**
+     * Creates optimization that partitions the limit between application nodes according to their demand,
+     * each node serves requests from its local share and rebalances the share through external storage once per {@code rebalanceInterval}.
+     *
+     * @param rebalanceInterval how often node reports its demand and claims new share
+     *
+     * @return new instance of {@link PartitioningOptimization}
+     *
+     * @see PartitioningOptimization
+     */
+    public static Optimization partitioning(Duration rebalanceInterval) {
+        if (rebalanceInterval == null) {
+            throw BucketExceptions.nullRebalanceInterval();
+        }
+        if (rebalanceInterval.isNegative() || rebalanceInterval.isZero()) {
+            throw BucketExceptions.nonPositiveRebalanceInterval(rebalanceInterval);
+        }
+        return new PartitioningOptimization(rebalanceInterval.toNanos(), NopeOptimizationListener.INSTANCE, TimeMeter.SYSTEM_MILLISECONDS);
+    }
+
 }
@@ -0,0 +1,218 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.proxy.optimization.lease;
+
+import io.github.bucket4j.TimeMeter;
+import io.github.bucket4j.distributed.proxy.AsyncCommandExecutor;
+import io.github.bucket4j.distributed.proxy.CommandExecutor;
+import io.github.bucket4j.distributed.proxy.optimization.LeaseParameters;
+import io.github.bucket4j.distributed.proxy.optimization.OptimizationListener;
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.RemoteCommand;
+import io.github.bucket4j.distributed.remote.commands.LeaseTokensCommand;
+import io.github.bucket4j.distributed.remote.commands.TryConsumeCommand;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+class TokenLeaseCommandExecutor implements CommandExecutor, AsyncCommandExecutor {
+
+    private final CommandExecutor originalExecutor;
+    private final AsyncCommandExecutor originalAsyncExecutor;
+    private final LeaseParameters leaseParameters;
+    private final OptimizationListener listener;
+    private final TimeMeter timeMeter;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private long leasedTokens;
+    private long leaseExpirationNanos;
+    private boolean renewalInProgress;
+
+    TokenLeaseCommandExecutor(CommandExecutor originalExecutor, LeaseParameters leaseParameters, OptimizationListener listener, TimeMeter timeMeter) {
+        this.originalExecutor = originalExecutor;
+        this.originalAsyncExecutor = null;
+        this.leaseParameters = leaseParameters;
+        this.listener = listener;
+        this.timeMeter = timeMeter;
+    }
+
+    TokenLeaseCommandExecutor(AsyncCommandExecutor originalAsyncExecutor, LeaseParameters leaseParameters, OptimizationListener listener, TimeMeter timeMeter) {
+        this.originalExecutor = null;
+        this.originalAsyncExecutor = originalAsyncExecutor;
+        this.leaseParameters = leaseParameters;
+        this.listener = listener;
+        this.timeMeter = timeMeter;
+    }
+
+    @Override
+    public <T> CommandResult<T> execute(RemoteCommand<T> command) {
+        if (!(command instanceof TryConsumeCommand)) {
+            return originalExecutor.execute(command);
+        }
+        long tokensToConsume = ((TryConsumeCommand) command).getTokensToConsume();
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+
+        if (tryConsumeFromLease(tokensToConsume, currentTimeNanos)) {
+            // remote call is not needed
+            listener.incrementSkipCount(1);
+            LeaseTokensCommand renewalCommand = startRenewalIfNeeded();
+            if (renewalCommand != null) {
+                CommandResult<Long> renewalResult = null;
+                try {
+                    renewalResult = originalExecutor.execute(renewalCommand);
+                } catch (RuntimeException e) {
+                    // request is already served, renewal will be repeated by next request
+                } finally {
+                    completeRenewal(renewalResult, currentTimeNanos);
+                }
+            }
+            return (CommandResult<T>) CommandResult.TRUE;
+        }
+
+        LeaseTokensCommand leaseCommand = startLease(tokensToConsume, currentTimeNanos);
+        CommandResult<Long> leaseResult;
+        try {
+            leaseResult = originalExecutor.execute(leaseCommand);
+        } catch (RuntimeException e) {
+            abortLease(leaseCommand);
+            throw e;
+        }
+        return completeLease(leaseResult, leaseCommand, tokensToConsume, currentTimeNanos);
+    }
+
+    @Override
+    public <T> CompletableFuture<CommandResult<T>> executeAsync(RemoteCommand<T> command) {
+        if (!(command instanceof TryConsumeCommand)) {
+            return originalAsyncExecutor.executeAsync(command);
+        }
+        long tokensToConsume = ((TryConsumeCommand) command).getTokensToConsume();
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+
+        if (tryConsumeFromLease(tokensToConsume, currentTimeNanos)) {
+            // remote call is not needed
+            listener.incrementSkipCount(1);
+            LeaseTokensCommand renewalCommand = startRenewalIfNeeded();
+            if (renewalCommand != null) {
+                originalAsyncExecutor.executeAsync(renewalCommand)
+                    .whenComplete((renewalResult, error) -> completeRenewal(renewalResult, currentTimeNanos));
+            }
+            return CompletableFuture.completedFuture((CommandResult<T>) CommandResult.TRUE);
+        }
+
+        LeaseTokensCommand leaseCommand = startLease(tokensToConsume, currentTimeNanos);
+        return originalAsyncExecutor.executeAsync(leaseCommand)
+            .whenComplete((leaseResult, error) -> {
+                if (error != null) {
+                    abortLease(leaseCommand);
+                }
+            })
+            .thenApply(leaseResult -> completeLease(leaseResult, leaseCommand, tokensToConsume, currentTimeNanos));
+    }
+
+    private boolean tryConsumeFromLease(long tokensToConsume, long currentTimeNanos) {
+        lock.lock();
+        try {
+            if (currentTimeNanos >= leaseExpirationNanos || leasedTokens < tokensToConsume) {
+                return false;
+            }
+            leasedTokens -= tokensToConsume;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private LeaseTokensCommand startRenewalIfNeeded() {
+        lock.lock();
+        try {
+            if (renewalInProgress || leasedTokens * 2 >= leaseParameters.leaseSize) {
+                return null;
+            }
+            renewalInProgress = true;
+            return new LeaseTokensCommand(leaseParameters.leaseSize - leasedTokens, 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void completeRenewal(CommandResult<Long> renewalResult, long renewalStartTimeNanos) {
+        lock.lock();
+        try {
+            renewalInProgress = false;
+            if (renewalResult != null && !renewalResult.isError()) {
+                addToLease(renewalResult.getData(), renewalStartTimeNanos);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private LeaseTokensCommand startLease(long tokensToConsume, long currentTimeNanos) {
+        lock.lock();
+        try {
+            long tokensToReturn = 0;
+            if (currentTimeNanos >= leaseExpirationNanos) {
+                // lease is expired, unused tokens are returned in the same request
+                tokensToReturn = leasedTokens;
+                leasedTokens = 0;
+            }
+            long tokensToLease = Math.max(leaseParameters.leaseSize, tokensToConsume - leasedTokens);
+            return new LeaseTokensCommand(tokensToLease, tokensToReturn);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void abortLease(LeaseTokensCommand leaseCommand) {
+        lock.lock();
+        try {
+            // tokens were not returned to the storage, the lease is still expired, so they will be returned by the next lease request
+            leasedTokens += leaseCommand.getTokensToReturn();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <T> CommandResult<T> completeLease(CommandResult<Long> leaseResult, LeaseTokensCommand leaseCommand, long tokensToConsume, long leaseStartTimeNanos) {
+        if (leaseResult.isError()) {
+            abortLease(leaseCommand);
+            return (CommandResult<T>) leaseResult;
+        }
+        lock.lock();
+        try {
+            addToLease(leaseResult.getData(), leaseStartTimeNanos);
+            if (leasedTokens < tokensToConsume) {
+                return (CommandResult<T>) CommandResult.FALSE;
+            }
+            leasedTokens -= tokensToConsume;
+            return (CommandResult<T>) CommandResult.TRUE;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void addToLease(long grantedTokens, long leaseStartTimeNanos) {
+        if (grantedTokens > 0) {
+            leasedTokens += grantedTokens;
+            leaseExpirationNanos = leaseStartTimeNanos + leaseParameters.leaseDurationNanos;
+        }
+    }
+
+}
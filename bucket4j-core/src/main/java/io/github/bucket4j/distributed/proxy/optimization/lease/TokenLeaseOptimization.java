@@ -0,0 +1,76 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.proxy.optimization.lease;
+
+import io.github.bucket4j.TimeMeter;
+import io.github.bucket4j.distributed.proxy.AsyncCommandExecutor;
+import io.github.bucket4j.distributed.proxy.CommandExecutor;
+import io.github.bucket4j.distributed.proxy.optimization.LeaseParameters;
+import io.github.bucket4j.distributed.proxy.optimization.Optimization;
+import io.github.bucket4j.distributed.proxy.optimization.OptimizationListener;
+import io.github.bucket4j.distributed.remote.commands.LeaseTokensCommand;
+
+/**
+ * Optimization that leases tokens from external storage and serves requests locally until leased tokens are exhausted or lease expired.
+ *
+ * <p>Tokens are consumed in external storage at the moment of leasing, so unlike {@link io.github.bucket4j.distributed.proxy.optimization.delay.DelayOptimization}
+ * this optimization never leads to overconsumption. The lease is renewed when less than half of {@link LeaseParameters#leaseSize} remains,
+ * renewal is asynchronous for {@link io.github.bucket4j.distributed.AsyncBucketProxy}, and performed by the request that crossed the threshold for
+ * {@link io.github.bucket4j.distributed.BucketProxy}. Unused tokens of expired lease are returned to the storage by the next request,
+ * and if that request fails then they are kept to be returned by the following one.
+ *
+ * <p>Only plain {@code tryConsume} requests are served from the lease, all other requests are propagated to external storage as is,
+ * and they do not see the tokens which are leased by proxies. So the lease size should be small in comparison with capacity.
+ * There is no background activity that returns tokens of expired leases: when key becomes idle, or proxy is abandoned, with active lease,
+ * then up to {@link LeaseParameters#leaseSize} tokens stay consumed in the storage until the bucket refills them,
+ * so other nodes can observe lower throughput during time required to refill {@code leaseSize} tokens.
+ *
+ * <p>This optimization requires all nodes to be of version {@link io.github.bucket4j.distributed.versioning.Versions#v_8_15_0} or higher, because it uses {@link LeaseTokensCommand}.
+ *
+ * @see LeaseParameters
+ */
+public class TokenLeaseOptimization implements Optimization {
+
+    private final LeaseParameters leaseParameters;
+    private final OptimizationListener listener;
+    private final TimeMeter timeMeter;
+
+    public TokenLeaseOptimization(LeaseParameters leaseParameters, OptimizationListener listener, TimeMeter timeMeter) {
+        this.leaseParameters = leaseParameters;
+        this.listener = listener;
+        this.timeMeter = timeMeter;
+    }
+
+    @Override
+    public Optimization withListener(OptimizationListener listener) {
+        return new TokenLeaseOptimization(leaseParameters, listener, timeMeter);
+    }
+
+    @Override
+    public CommandExecutor apply(CommandExecutor originalExecutor) {
+        return new TokenLeaseCommandExecutor(originalExecutor, leaseParameters, listener, timeMeter);
+    }
+
+    @Override
+    public AsyncCommandExecutor apply(AsyncCommandExecutor originalExecutor) {
+        return new TokenLeaseCommandExecutor(originalExecutor, leaseParameters, listener, timeMeter);
+    }
+
+}
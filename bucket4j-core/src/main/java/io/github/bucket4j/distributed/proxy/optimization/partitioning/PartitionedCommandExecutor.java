@@ -0,0 +1,236 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.proxy.optimization.partitioning;
+
+import io.github.bucket4j.TimeMeter;
+import io.github.bucket4j.distributed.proxy.AsyncCommandExecutor;
+import io.github.bucket4j.distributed.proxy.CommandExecutor;
+import io.github.bucket4j.distributed.proxy.optimization.OptimizationListener;
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.RemoteCommand;
+import io.github.bucket4j.distributed.remote.commands.LeaseTokensCommand;
+import io.github.bucket4j.distributed.remote.commands.TryConsumeCommand;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+class PartitionedCommandExecutor implements CommandExecutor, AsyncCommandExecutor {
+
+    private final CommandExecutor originalExecutor;
+    private final AsyncCommandExecutor originalAsyncExecutor;
+    private final long rebalanceIntervalNanos;
+    private final OptimizationListener listener;
+    private final TimeMeter timeMeter;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private long shareTokens;
+    private long demand;
+    private long lastRebalanceTimeNanos;
+    private boolean rebalanceRequired = true;
+    private boolean rebalanceInProgress;
+
+    PartitionedCommandExecutor(CommandExecutor originalExecutor, long rebalanceIntervalNanos, OptimizationListener listener, TimeMeter timeMeter) {
+        this.originalExecutor = originalExecutor;
+        this.originalAsyncExecutor = null;
+        this.rebalanceIntervalNanos = rebalanceIntervalNanos;
+        this.listener = listener;
+        this.timeMeter = timeMeter;
+    }
+
+    PartitionedCommandExecutor(AsyncCommandExecutor originalAsyncExecutor, long rebalanceIntervalNanos, OptimizationListener listener, TimeMeter timeMeter) {
+        this.originalExecutor = null;
+        this.originalAsyncExecutor = originalAsyncExecutor;
+        this.rebalanceIntervalNanos = rebalanceIntervalNanos;
+        this.listener = listener;
+        this.timeMeter = timeMeter;
+    }
+
+    @Override
+    public <T> CommandResult<T> execute(RemoteCommand<T> command) {
+        if (!(command instanceof TryConsumeCommand)) {
+            return originalExecutor.execute(command);
+        }
+        long tokensToConsume = ((TryConsumeCommand) command).getTokensToConsume();
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+
+        LeaseTokensCommand rebalanceCommand = startRebalanceIfNeeded(currentTimeNanos);
+        if (rebalanceCommand != null) {
+            CommandResult<Long> rebalanceResult = null;
+            try {
+                rebalanceResult = originalExecutor.execute(rebalanceCommand);
+            } finally {
+                completeRebalance(rebalanceCommand, rebalanceResult);
+            }
+            if (rebalanceResult.isError()) {
+                // most likely bucket is not initialized yet, let proxy to handle it
+                return (CommandResult<T>) rebalanceResult;
+            }
+        }
+
+        if (tryConsumeFromShare(tokensToConsume)) {
+            if (rebalanceCommand == null) {
+                // remote call is not needed
+                listener.incrementSkipCount(1);
+            }
+            return (CommandResult<T>) CommandResult.TRUE;
+        }
+
+        // share is exhausted, missing tokens are requested from external storage
+        LeaseTokensCommand topUpCommand = startTopUp(tokensToConsume);
+        CommandResult<Long> topUpResult = originalExecutor.execute(topUpCommand);
+        return completeTopUp(topUpResult, tokensToConsume);
+    }
+
+    @Override
+    public <T> CompletableFuture<CommandResult<T>> executeAsync(RemoteCommand<T> command) {
+        if (!(command instanceof TryConsumeCommand)) {
+            return originalAsyncExecutor.executeAsync(command);
+        }
+        long tokensToConsume = ((TryConsumeCommand) command).getTokensToConsume();
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+
+        LeaseTokensCommand rebalanceCommand = startRebalanceIfNeeded(currentTimeNanos);
+        if (rebalanceCommand == null) {
+            if (tryConsumeFromShare(tokensToConsume)) {
+                // remote call is not needed
+                listener.incrementSkipCount(1);
+                return CompletableFuture.completedFuture((CommandResult<T>) CommandResult.TRUE);
+            }
+            return topUpAsync(tokensToConsume);
+        }
+
+        CompletableFuture<CommandResult<Long>> rebalanceFuture = originalAsyncExecutor.executeAsync(rebalanceCommand)
+            .whenComplete((rebalanceResult, error) -> completeRebalance(rebalanceCommand, error == null ? rebalanceResult : null));
+        if (tryConsumeFromShare(tokensToConsume)) {
+            // rebalance is continued in background
+            return CompletableFuture.completedFuture((CommandResult<T>) CommandResult.TRUE);
+        }
+        return rebalanceFuture.thenCompose(rebalanceResult -> {
+            if (rebalanceResult.isError()) {
+                return CompletableFuture.completedFuture((CommandResult<T>) rebalanceResult);
+            }
+            if (tryConsumeFromShare(tokensToConsume)) {
+                return CompletableFuture.completedFuture((CommandResult<T>) CommandResult.TRUE);
+            }
+            return topUpAsync(tokensToConsume);
+        });
+    }
+
+    private <T> CompletableFuture<CommandResult<T>> topUpAsync(long tokensToConsume) {
+        LeaseTokensCommand topUpCommand = startTopUp(tokensToConsume);
+        return originalAsyncExecutor.executeAsync(topUpCommand)
+            .thenApply(topUpResult -> completeTopUp(topUpResult, tokensToConsume));
+    }
+
+    private LeaseTokensCommand startRebalanceIfNeeded(long currentTimeNanos) {
+        lock.lock();
+        try {
+            long elapsedNanos = currentTimeNanos - lastRebalanceTimeNanos;
+            if (rebalanceInProgress || (!rebalanceRequired && elapsedNanos < rebalanceIntervalNanos)) {
+                return null;
+            }
+
+            // demand served during the previous interval is the share claimed for the next interval,
+            // when node was idle for a longer time the demand is scaled down to the length of interval
+            long targetShare = demand;
+            if (!rebalanceRequired && elapsedNanos > rebalanceIntervalNanos) {
+                targetShare = (long) (demand * ((double) rebalanceIntervalNanos / elapsedNanos));
+            }
+            demand = 0;
+            lastRebalanceTimeNanos = currentTimeNanos;
+            rebalanceRequired = false;
+            if (targetShare == shareTokens) {
+                // share already matches the demand
+                return null;
+            }
+
+            // whole share is returned and claimed again in the same request, so storage limits the new share by the refill rate of bucket for the interval
+            long tokensToReturn = shareTokens;
+            shareTokens = 0;
+            rebalanceInProgress = true;
+            return new LeaseTokensCommand(targetShare, tokensToReturn, rebalanceIntervalNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void completeRebalance(LeaseTokensCommand rebalanceCommand, CommandResult<Long> rebalanceResult) {
+        lock.lock();
+        try {
+            rebalanceInProgress = false;
+            if (rebalanceResult == null || rebalanceResult.isError()) {
+                // share was not returned to the storage, rebalance will be repeated by next request
+                shareTokens += rebalanceCommand.getTokensToReturn();
+                rebalanceRequired = true;
+            } else {
+                shareTokens += rebalanceResult.getData();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean tryConsumeFromShare(long tokensToConsume) {
+        lock.lock();
+        try {
+            if (shareTokens < tokensToConsume) {
+                return false;
+            }
+            shareTokens -= tokensToConsume;
+            demand = saturatedAdd(demand, tokensToConsume);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private LeaseTokensCommand startTopUp(long tokensToConsume) {
+        lock.lock();
+        try {
+            return new LeaseTokensCommand(tokensToConsume - shareTokens, 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <T> CommandResult<T> completeTopUp(CommandResult<Long> topUpResult, long tokensToConsume) {
+        if (topUpResult.isError()) {
+            return (CommandResult<T>) topUpResult;
+        }
+        lock.lock();
+        try {
+            shareTokens += topUpResult.getData();
+            if (shareTokens < tokensToConsume) {
+                return (CommandResult<T>) CommandResult.FALSE;
+            }
+            shareTokens -= tokensToConsume;
+            demand = saturatedAdd(demand, tokensToConsume);
+            return (CommandResult<T>) CommandResult.TRUE;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        long result = a + b;
+        return result < 0 ? Long.MAX_VALUE : result;
+    }
+
+}
@@ -0,0 +1,74 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.proxy.optimization.partitioning;
+
+import io.github.bucket4j.TimeMeter;
+import io.github.bucket4j.distributed.proxy.AsyncCommandExecutor;
+import io.github.bucket4j.distributed.proxy.CommandExecutor;
+import io.github.bucket4j.distributed.proxy.optimization.Optimization;
+import io.github.bucket4j.distributed.proxy.optimization.OptimizationListener;
+import io.github.bucket4j.distributed.remote.commands.LeaseTokensCommand;
+
+/**
+ * Optimization that partitions the limit between application nodes, so each node serves requests from its local share of tokens.
+ *
+ * <p>Once per rebalance interval each node reports its demand to external storage, which is the amount of tokens served on this node
+ * during the previous interval, and claims the share for the next interval from the bucket in external storage,
+ * unused tokens of the previous share are returned back in the same request. Rejected requests are not counted as demand,
+ * and the claim is limited by the amount of tokens which the bucket refills during the rebalance interval,
+ * so a node which receives a burst of requests can not take the whole bucket into its share.
+ * So backend traffic in the steady state is one small request per node per interval, and shares follow the demand of nodes. Requests which can not be served from the local share are propagated to external storage,
+ * it is always the case for the first interval when demand of node is not known yet.
+ *
+ * <p>Node membership is not registered explicitly, the bucket in external storage is the arbiter for all shares,
+ * so the sum of shares never exceeds the limit. A node which stops to receive requests keeps its last share until the next request,
+ * and returns it at the next rebalance.
+ *
+ * <p>Only plain {@code tryConsume} requests are served from the share, all other requests are propagated to external storage as is.
+ * This optimization requires all nodes to be of version {@link io.github.bucket4j.distributed.versioning.Versions#v_8_15_0} or higher, because it uses {@link LeaseTokensCommand}.
+ */
+public class PartitioningOptimization implements Optimization {
+
+    private final long rebalanceIntervalNanos;
+    private final OptimizationListener listener;
+    private final TimeMeter timeMeter;
+
+    public PartitioningOptimization(long rebalanceIntervalNanos, OptimizationListener listener, TimeMeter timeMeter) {
+        this.rebalanceIntervalNanos = rebalanceIntervalNanos;
+        this.listener = listener;
+        this.timeMeter = timeMeter;
+    }
+
+    @Override
+    public Optimization withListener(OptimizationListener listener) {
+        return new PartitioningOptimization(rebalanceIntervalNanos, listener, timeMeter);
+    }
+
+    @Override
+    public CommandExecutor apply(CommandExecutor originalExecutor) {
+        return new PartitionedCommandExecutor(originalExecutor, rebalanceIntervalNanos, listener, timeMeter);
+    }
+
+    @Override
+    public AsyncCommandExecutor apply(AsyncCommandExecutor originalExecutor) {
+        return new PartitionedCommandExecutor(originalExecutor, rebalanceIntervalNanos, listener, timeMeter);
+    }
+
+}
@@ -19,6 +19,7 @@
  */
 package io.github.bucket4j.distributed.remote;
 
+import io.github.bucket4j.distributed.ConfigurationStore;
 import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
 import io.github.bucket4j.distributed.serialization.InternalSerializationHelper;
 import io.github.bucket4j.distributed.versioning.*;
@@ -49,20 +50,17 @@ public abstract class AbstractBinaryTransaction {
         Version backwardCompatibilityVersion = request.getBackwardCompatibilityVersion();
 
         try {
-            RemoteBucketState currentState = null;
-            if (exists()) {
-                byte[] stateBytes = getRawState();
-                currentState = deserializeState(stateBytes);
-            }
-            MutableBucketEntry entryWrapper = new MutableBucketEntry(currentState);
+            RemoteCommand<?> command = request.getCommand();
+            byte[] stateBytes = exists() ? getRawState() : null;
+            // commands that do not replace configuration are executed over flyweight view of persisted state
+            MutableBucketEntry entryWrapper = new MutableBucketEntry(stateBytes, getConfigurationStore(), command);
 
             currentTimeNanos = request.getClientSideTime() != null? request.getClientSideTime(): System.currentTimeMillis() * 1_000_000;
-            RemoteCommand<?> command = request.getCommand();
             CommandResult<?> result = command.execute(entryWrapper, currentTimeNanos);
 
             if (entryWrapper.isStateModified()) {
                 RemoteBucketState newState = entryWrapper.get();
-                setRawState(serializeState(newState, backwardCompatibilityVersion), newState);
+                setRawState(entryWrapper.getStateBytes(backwardCompatibilityVersion, request.isCompactStateFormat()), newState);
             }
 
             return serializeResult(result, request.getBackwardCompatibilityVersion());
@@ -81,6 +79,17 @@ public abstract class AbstractBinaryTransaction {
 
     public abstract boolean exists();
 
+    /**
+     * Returns the side table for configurations, override it to persist states with reference to configuration instead of configuration itself.
+     * Grid based transactions do not override it, because they are executed on partition threads where the side table can not be accessed,
+     * see {@link io.github.bucket4j.distributed.proxy.AbstractProxyManager#isConfigurationStoreSupported()}.
+     *
+     * @return the side table for configurations, or {@code null} if configuration should be inlined into each state
+     */
+    protected ConfigurationStore getConfigurationStore() {
+        return null;
+    }
+
     protected Request<?> getRequest() {
         return request;
     }
@@ -0,0 +1,152 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.remote;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketState;
+import io.github.bucket4j.ConfigurationCache;
+import io.github.bucket4j.distributed.serialization.ByteBufferSerializationAdapter;
+import io.github.bucket4j.distributed.serialization.Scope;
+import io.github.bucket4j.distributed.versioning.Version;
+
+import java.nio.ByteBuffer;
+
+import static io.github.bucket4j.distributed.versioning.Versions.v_7_0_0;
+import static io.github.bucket4j.distributed.versioning.Versions.v_8_1_0;
+
+/**
+ * Flyweight view of {@link RemoteBucketState} persisted in the fixed-width binary format, see {@link RemoteBucketState#SERIALIZATION_HANDLE}.
+ *
+ * <p>
+ * Configuration is taken from {@link ConfigurationCache#getBySerializedForm(ByteBuffer)}, so {@link io.github.bucket4j.Bandwidth} objects are not created,
+ * and only state longs and statistics are read at their offsets. The new state is written by patching these offsets in the copy of original bytes,
+ * original array is never modified, because compare-and-swap based proxy-managers use it as expected value and some grids share it by reference.
+ *
+ * <p>
+ * The view is used only for commands which do not replace configuration, see {@link RemoteCommand#isConfigurationPreserved()}.
+ * Unknown configuration, compact format and any change of layout fall back to the regular serialization.
+ */
+final class FlyweightStateView {
+
+    private final byte[] bytes;
+    private final int formatNumber;
+    private final int stateOffset;
+    private final int statOffset;
+    private final int configurationVersionOffset;
+    private final RemoteBucketState state;
+
+    private FlyweightStateView(byte[] bytes, int formatNumber, int stateOffset, int statOffset, int configurationVersionOffset, RemoteBucketState state) {
+        this.bytes = bytes;
+        this.formatNumber = formatNumber;
+        this.stateOffset = stateOffset;
+        this.statOffset = statOffset;
+        this.configurationVersionOffset = configurationVersionOffset;
+        this.state = state;
+    }
+
+    /**
+     * Reads persisted state without deserialization of configuration.
+     *
+     * @return the view, or {@code null} if state should be deserialized in the regular way
+     */
+    static FlyweightStateView parse(byte[] bytes) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            int formatNumber = buffer.getInt();
+            if (formatNumber != v_7_0_0.getNumber() && formatNumber != v_8_1_0.getNumber()) {
+                return null;
+            }
+
+            BucketConfiguration configuration = ConfigurationCache.getDefault().getBySerializedForm(buffer);
+            if (configuration == null) {
+                // configuration is seen first time, regular deserialization puts it into cache
+                return null;
+            }
+
+            int stateOffset = buffer.position();
+            BucketState bucketState = BucketState.deserialize(ByteBufferSerializationAdapter.INSTANCE, buffer);
+            bucketState.setConfiguration(configuration);
+
+            int statOffset = buffer.position();
+            if (buffer.getInt() != v_7_0_0.getNumber()) {
+                return null;
+            }
+            long consumedTokens = buffer.getLong();
+
+            int configurationVersionOffset = -1;
+            Long configurationVersion = null;
+            if (formatNumber == v_8_1_0.getNumber() && buffer.get() != 0) {
+                configurationVersionOffset = buffer.position();
+                configurationVersion = buffer.getLong();
+            }
+            if (buffer.hasRemaining()) {
+                return null;
+            }
+
+            RemoteBucketState state = new RemoteBucketState(bucketState, new RemoteStat(consumedTokens), configurationVersion);
+            return new FlyweightStateView(bytes, formatNumber, stateOffset, statOffset, configurationVersionOffset, state);
+        } catch (Exception e) {
+            // corrupted or unknown data, regular deserialization will report the problem
+            return null;
+        }
+    }
+
+    RemoteBucketState getState() {
+        return state;
+    }
+
+    /**
+     * Writes new state by patching the copy of original bytes.
+     *
+     * @return the new bytes, or {@code null} if new state can not be written in the same layout, for example when configuration was replaced
+     */
+    byte[] patch(RemoteBucketState newState, Version backwardCompatibilityVersion) {
+        if (newState.getConfiguration() != state.getConfiguration()) {
+            return null;
+        }
+        Long configurationVersion = newState.getConfigurationVersion();
+        if (configurationVersionOffset == -1) {
+            if (configurationVersion != null || formatNumber != v_7_0_0.getNumber()) {
+                return null;
+            }
+        } else if (configurationVersion == null || backwardCompatibilityVersion.getNumber() < v_8_1_0.getNumber()) {
+            return null;
+        }
+
+        byte[] newBytes = bytes.clone();
+        ByteBuffer buffer = ByteBuffer.wrap(newBytes);
+        buffer.position(stateOffset);
+        try {
+            BucketState.serialize(ByteBufferSerializationAdapter.INSTANCE, buffer, newState.getState(), backwardCompatibilityVersion, Scope.PERSISTED_STATE);
+        } catch (Exception e) {
+            // math type or amount of bandwidths was changed, so state does not fit into original place
+            return null;
+        }
+        if (buffer.position() != statOffset) {
+            return null;
+        }
+        buffer.putLong(statOffset + 4, newState.getRemoteStat().getConsumedTokens());
+        if (configurationVersionOffset != -1) {
+            buffer.putLong(configurationVersionOffset, configurationVersion);
+        }
+        return newBytes;
+    }
+
+}
@@ -22,22 +22,61 @@ package io.github.bucket4j.distributed.remote;
 
 import java.util.Objects;
 
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.ConfigurationStore;
 import io.github.bucket4j.distributed.versioning.Version;
 
 import static io.github.bucket4j.distributed.serialization.InternalSerializationHelper.deserializeState;
+import static io.github.bucket4j.distributed.serialization.InternalSerializationHelper.loadConfiguration;
 import static io.github.bucket4j.distributed.serialization.InternalSerializationHelper.serializeState;
 
 public class MutableBucketEntry {
 
     private RemoteBucketState state;
     private boolean stateModified;
+    private final ConfigurationStore configurationStore;
+    private final FlyweightStateView originalStateView;
 
     public MutableBucketEntry(RemoteBucketState state) {
         this.state = state;
+        this.configurationStore = null;
+        this.originalStateView = null;
     }
 
     public MutableBucketEntry(byte[] originalStateBytes) {
-        this.state = originalStateBytes == null? null : deserializeState(originalStateBytes);
+        this(originalStateBytes, null);
+    }
+
+    /**
+     * @param originalStateBytes the persisted state or {@code null} if bucket does not exist
+     * @param configurationStore the side table for configurations, when not {@code null} the state is persisted with reference to configuration
+     */
+    public MutableBucketEntry(byte[] originalStateBytes, ConfigurationStore configurationStore) {
+        this.state = originalStateBytes == null? null : deserializeState(originalStateBytes, configurationStore);
+        this.configurationStore = configurationStore;
+        this.originalStateView = null;
+    }
+
+    /**
+     * Creates entry for execution of {@code command}, when command does not replace configuration the state is accessed through flyweight view,
+     * so configuration is not deserialized and new state is written by patching copy of {@code originalStateBytes}.
+     *
+     * @param originalStateBytes the persisted state or {@code null} if bucket does not exist
+     * @param configurationStore the side table for configurations, when not {@code null} the state is persisted with reference to configuration
+     * @param command the command which will be executed on this entry
+     */
+    public MutableBucketEntry(byte[] originalStateBytes, ConfigurationStore configurationStore, RemoteCommand<?> command) {
+        this.configurationStore = configurationStore;
+        FlyweightStateView view = null;
+        if (originalStateBytes != null && configurationStore == null && command.isConfigurationPreserved()) {
+            view = FlyweightStateView.parse(originalStateBytes);
+        }
+        this.originalStateView = view;
+        if (view != null) {
+            this.state = view.getState();
+        } else {
+            this.state = originalStateBytes == null? null : deserializeState(originalStateBytes, configurationStore);
+        }
     }
 
     public boolean exists() {
@@ -60,8 +99,34 @@ public class MutableBucketEntry {
         return state;
     }
 
+    /**
+     * Resolves configuration which is referenced by command instead of being carried inside the request,
+     * see {@link RemoteCommand#withConfigurationIds(ConfigurationStore)}.
+     *
+     * @param fingerprint the {@link BucketConfiguration#getFingerprint() fingerprint} of configuration
+     *
+     * @return the resolved configuration
+     */
+    public BucketConfiguration resolveConfiguration(long fingerprint) {
+        return loadConfiguration(fingerprint, configurationStore);
+    }
+
     public byte[] getStateBytes(Version backwardCompatibilityVersion) {
-        return serializeState(get(), backwardCompatibilityVersion);
+        return getStateBytes(backwardCompatibilityVersion, false);
+    }
+
+    /**
+     * @param compactStateFormat whether state should be written in the compact format, see {@link Request#isCompactStateFormat()}
+     */
+    public byte[] getStateBytes(Version backwardCompatibilityVersion, boolean compactStateFormat) {
+        RemoteBucketState state = get();
+        if (originalStateView != null && !compactStateFormat) {
+            byte[] patchedBytes = originalStateView.patch(state, backwardCompatibilityVersion);
+            if (patchedBytes != null) {
+                return patchedBytes;
+            }
+        }
+        return serializeState(state, backwardCompatibilityVersion, compactStateFormat, configurationStore);
     }
 
 }
@@ -22,8 +22,11 @@ package io.github.bucket4j.distributed.remote;
 
 import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.BucketState;
+import io.github.bucket4j.ConfigurationCache;
 import io.github.bucket4j.TokensInheritanceStrategy;
+import io.github.bucket4j.distributed.ConfigurationStore;
 import io.github.bucket4j.distributed.serialization.DeserializationAdapter;
+import io.github.bucket4j.distributed.serialization.InternalSerializationHelper;
 import io.github.bucket4j.distributed.serialization.Scope;
 import io.github.bucket4j.distributed.serialization.SerializationHandle;
 import io.github.bucket4j.distributed.serialization.SerializationAdapter;
@@ -37,6 +40,7 @@ import java.util.Map;
 
 import static io.github.bucket4j.distributed.versioning.Versions.v_7_0_0;
 import static io.github.bucket4j.distributed.versioning.Versions.v_8_1_0;
+import static io.github.bucket4j.distributed.versioning.Versions.v_8_15_0;
 
 
 public class RemoteBucketState implements ComparableByContent<RemoteBucketState> {
@@ -48,22 +52,7 @@ public class RemoteBucketState implements ComparableByContent<RemoteBucketState>
     public static final SerializationHandle<RemoteBucketState> SERIALIZATION_HANDLE = new SerializationHandle<>() {
         @Override
         public <S> RemoteBucketState deserialize(DeserializationAdapter<S> adapter, S input) throws IOException {
-            int formatNumber = adapter.readInt(input);
-            Versions.check(formatNumber, v_7_0_0, v_8_1_0);
-
-            BucketConfiguration bucketConfiguration = BucketConfiguration.SERIALIZATION_HANDLE.deserialize(adapter, input);
-            BucketState bucketState = BucketState.deserialize(adapter, input);
-            bucketState.setConfiguration(bucketConfiguration);
-            RemoteStat stat = RemoteStat.SERIALIZATION_HANDLE.deserialize(adapter, input);
-
-            Long configurationVersion = null;
-            if (formatNumber >= v_8_1_0.getNumber()) {
-                boolean hasConfigurationVersion = adapter.readBoolean(input);
-                if (hasConfigurationVersion) {
-                    configurationVersion = adapter.readLong(input);
-                }
-            }
-            return new RemoteBucketState(bucketState, stat, configurationVersion);
+            return RemoteBucketState.deserialize(adapter, input, null);
         }
 
         @Override
@@ -145,6 +134,84 @@ public class RemoteBucketState implements ComparableByContent<RemoteBucketState>
 
     };
 
+    /**
+     * Deserializes state, configuration referenced by fingerprint is taken from {@link ConfigurationCache#getDefault() configuration cache}
+     * or loaded from {@code configurationStore}.
+     *
+     * @param configurationStore the side table for configurations, can be {@code null} if states are persisted with inlined configuration
+     *
+     * @throws IllegalStateException if configuration is referenced by fingerprint but can not be resolved
+     */
+    public static <S> RemoteBucketState deserialize(DeserializationAdapter<S> adapter, S input, ConfigurationStore configurationStore) throws IOException {
+        int formatNumber = adapter.readInt(input);
+        Versions.check(formatNumber, v_7_0_0, v_8_15_0);
+        if (formatNumber == v_8_15_0.getNumber()) {
+            return deserializeCompact(adapter, input, configurationStore);
+        }
+
+        BucketConfiguration bucketConfiguration = ConfigurationCache.getDefault().intern(BucketConfiguration.SERIALIZATION_HANDLE.deserialize(adapter, input));
+        BucketState bucketState = BucketState.deserialize(adapter, input);
+        bucketState.setConfiguration(bucketConfiguration);
+        RemoteStat stat = RemoteStat.SERIALIZATION_HANDLE.deserialize(adapter, input);
+
+        Long configurationVersion = null;
+        if (formatNumber >= v_8_1_0.getNumber()) {
+            boolean hasConfigurationVersion = adapter.readBoolean(input);
+            if (hasConfigurationVersion) {
+                configurationVersion = adapter.readLong(input);
+            }
+        }
+        return new RemoteBucketState(bucketState, stat, configurationVersion);
+    }
+
+    private static <S> RemoteBucketState deserializeCompact(DeserializationAdapter<S> adapter, S input, ConfigurationStore configurationStore) throws IOException {
+        BucketConfiguration bucketConfiguration;
+        if (adapter.readBoolean(input)) {
+            long fingerprint = adapter.readLong(input);
+            bucketConfiguration = InternalSerializationHelper.loadConfiguration(fingerprint, configurationStore);
+        } else {
+            bucketConfiguration = ConfigurationCache.getDefault().intern(BucketConfiguration.deserializeCompact(adapter, input));
+        }
+        BucketState bucketState = BucketState.deserializeCompact(adapter, input);
+        bucketState.setConfiguration(bucketConfiguration);
+        RemoteStat stat = new RemoteStat(adapter.readVarLong(input));
+        Long configurationVersion = adapter.readBoolean(input) ? adapter.readVarLong(input) : null;
+        return new RemoteBucketState(bucketState, stat, configurationVersion);
+    }
+
+    /**
+     * Writes state in the compact format with inlined configuration, see {@link io.github.bucket4j.distributed.proxy.ClientSideConfig#withCompactStateFormat()}.
+     */
+    public static <O> void serializeCompact(SerializationAdapter<O> adapter, O output, RemoteBucketState remoteState) throws IOException {
+        serializeCompact(adapter, output, remoteState, false);
+    }
+
+    /**
+     * Writes state in the compact format with {@link BucketConfiguration#getFingerprint() fingerprint} of configuration instead of configuration itself,
+     * the caller is responsible to save configuration into {@link io.github.bucket4j.distributed.ConfigurationStore}.
+     */
+    public static <O> void serializeWithConfigurationReference(SerializationAdapter<O> adapter, O output, RemoteBucketState remoteState) throws IOException {
+        serializeCompact(adapter, output, remoteState, true);
+    }
+
+    private static <O> void serializeCompact(SerializationAdapter<O> adapter, O output, RemoteBucketState remoteState, boolean configurationByReference) throws IOException {
+        adapter.writeInt(output, v_8_15_0.getNumber());
+        adapter.writeBoolean(output, configurationByReference);
+        if (configurationByReference) {
+            adapter.writeLong(output, remoteState.getConfiguration().getFingerprint());
+        } else {
+            BucketConfiguration.serializeCompact(adapter, output, remoteState.getConfiguration());
+        }
+        BucketState.serializeCompact(adapter, output, remoteState.state);
+        adapter.writeVarLong(output, remoteState.stat.getConsumedTokens());
+        if (remoteState.configurationVersion != null) {
+            adapter.writeBoolean(output, true);
+            adapter.writeVarLong(output, remoteState.configurationVersion);
+        } else {
+            adapter.writeBoolean(output, false);
+        }
+    }
+
     public RemoteBucketState(BucketState state, RemoteStat stat, Long configurationVersion) {
         this.state = state;
         this.stat = stat;
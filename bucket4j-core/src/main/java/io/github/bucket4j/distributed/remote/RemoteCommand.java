@@ -39,6 +39,7 @@ package io.github.bucket4j.distributed.remote;
 import java.io.IOException;
 import java.util.Map;
 
+import io.github.bucket4j.distributed.ConfigurationStore;
 import io.github.bucket4j.distributed.remote.commands.VerboseCommand;
 import io.github.bucket4j.distributed.serialization.DeserializationAdapter;
 import io.github.bucket4j.distributed.serialization.Scope;
@@ -59,6 +60,17 @@ public interface RemoteCommand<T> {
         return false;
     }
 
+    /**
+     * Describes whether command never replaces configuration of existing bucket,
+     * state for such commands is accessed through flyweight view without deserialization of configuration,
+     * see {@link MutableBucketEntry#MutableBucketEntry(byte[], ConfigurationStore, RemoteCommand)}.
+     *
+     * @return {@code true} if configuration of existing bucket is never replaced by this command
+     */
+    default boolean isConfigurationPreserved() {
+        return false;
+    }
+
     default boolean canBeMerged(RemoteCommand<?> another) {
         return false;
     }
@@ -83,6 +95,19 @@ public interface RemoteCommand<T> {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Returns equivalent command which refers to configurations by {@link io.github.bucket4j.BucketConfiguration#getFingerprint() fingerprint}
+     * instead of carrying them inside the request, referenced configurations are registered in {@code configurationStore} before return.
+     * Commands which neither carry configuration nor wrap other commands return themselves.
+     *
+     * @param configurationStore the side table for configurations which is shared with backend
+     *
+     * @return equivalent command which refers to configurations by fingerprint
+     */
+    default RemoteCommand<T> withConfigurationIds(ConfigurationStore configurationStore) {
+        return this;
+    }
+
     SerializationHandle<RemoteCommand<?>> getSerializationHandle();
 
     boolean isImmediateSyncRequired(long unsynchronizedTokens, long nanosSinceLastSync);
@@ -35,6 +35,7 @@ import java.util.Objects;
 
 import static io.github.bucket4j.distributed.versioning.Versions.v_7_0_0;
 import static io.github.bucket4j.distributed.versioning.Versions.v_8_10_0;
+import static io.github.bucket4j.distributed.versioning.Versions.v_8_15_0;
 
 public class Request<T> implements ComparableByContent<Request<T>> {
 
@@ -42,12 +43,18 @@ public class Request<T> implements ComparableByContent<Request<T>> {
     private final RemoteCommand<T> command;
     private final Long clientSideTime;
     private final ExpirationAfterWriteStrategy expirationStrategy;
+    private final boolean compactStateFormat;
 
     public Request(RemoteCommand<T> command, Version backwardCompatibilityVersion, Long clientSideTime, ExpirationAfterWriteStrategy expirationStrategy) {
+        this(command, backwardCompatibilityVersion, clientSideTime, expirationStrategy, false);
+    }
+
+    public Request(RemoteCommand<T> command, Version backwardCompatibilityVersion, Long clientSideTime, ExpirationAfterWriteStrategy expirationStrategy, boolean compactStateFormat) {
         this.command = command;
         this.clientSideTime = clientSideTime;
         this.backwardCompatibilityVersion = backwardCompatibilityVersion;
         this.expirationStrategy = expirationStrategy;
+        this.compactStateFormat = compactStateFormat;
     }
 
     public RemoteCommand<T> getCommand() {
@@ -66,11 +73,19 @@ public class Request<T> implements ComparableByContent<Request<T>> {
         return expirationStrategy;
     }
 
+    /**
+     * @return true if state modified by this request should be persisted in the compact format,
+     * see {@link io.github.bucket4j.distributed.proxy.ClientSideConfig#withCompactStateFormat()}
+     */
+    public boolean isCompactStateFormat() {
+        return compactStateFormat;
+    }
+
     public static final SerializationHandle<Request<?>> SERIALIZATION_HANDLE = new SerializationHandle<>() {
         @Override
         public <S> Request<?> deserialize(DeserializationAdapter<S> adapter, S input) throws IOException {
             int formatNumber = adapter.readInt(input);
-            Versions.check(formatNumber, v_7_0_0, v_8_10_0);
+            Versions.check(formatNumber, v_7_0_0, v_8_15_0);
 
             int backwardCompatibilityNumber = adapter.readInt(input);
             Version requestBackwardCompatibilityVersion = Versions.byNumber(backwardCompatibilityNumber);
@@ -91,14 +106,18 @@ public class Request<T> implements ComparableByContent<Request<T>> {
                 }
             }
 
-            return new Request<>(command, requestBackwardCompatibilityVersion, clientTime, expireStrategy);
+            boolean compactStateFormat = false;
+            if (formatNumber >= v_8_15_0.getNumber()) {
+                compactStateFormat = adapter.readBoolean(input);
+            }
+
+            return new Request<>(command, requestBackwardCompatibilityVersion, clientTime, expireStrategy, compactStateFormat);
         }
 
         @Override
         public <O> void serialize(SerializationAdapter<O> adapter, O output, Request<?> request, Version backwardCompatibilityVersion, Scope scope) throws IOException {
             Version selfVersion = request.getSelfVersion();
-            Version effectiveVersion = Versions.max(request.command.getRequiredVersion(), selfVersion);
-            Versions.check(effectiveVersion.getNumber(), v_7_0_0, request.backwardCompatibilityVersion);
+            Version effectiveVersion = request.getEffectiveVersion();
 
             adapter.writeInt(output, selfVersion.getNumber());
             adapter.writeInt(output, effectiveVersion.getNumber());
@@ -119,6 +138,9 @@ public class Request<T> implements ComparableByContent<Request<T>> {
                     adapter.writeBoolean(output, false);
                 }
             }
+            if (selfVersion.getNumber() >= v_8_15_0.getNumber()) {
+                adapter.writeBoolean(output, request.compactStateFormat);
+            }
         }
 
         @Override
@@ -134,7 +156,7 @@ public class Request<T> implements ComparableByContent<Request<T>> {
         @Override
         public Request<?> fromJsonCompatibleSnapshot(Map<String, Object> snapshot) throws IOException {
             int formatNumber = readIntValue(snapshot, "version");
-            Versions.check(formatNumber, v_7_0_0, v_8_10_0);
+            Versions.check(formatNumber, v_7_0_0, v_8_15_0);
 
             int backwardCompatibilityNumber = readIntValue(snapshot, "backwardCompatibilityNumber");
             Version requestBackwardCompatibilityVersion = Versions.byNumber(backwardCompatibilityNumber);
@@ -151,13 +173,17 @@ public class Request<T> implements ComparableByContent<Request<T>> {
                 expireStrategy = ExpirationAfterWriteStrategy.fromJsonCompatibleSnapshot((Map<String, Object>) snapshot.get("expireAfterWriteStrategy"));
             }
 
-            return new Request<>(command, requestBackwardCompatibilityVersion, clientTime, expireStrategy);
+            boolean compactStateFormat = false;
+            if (snapshot.containsKey("compactStateFormat")) {
+                compactStateFormat = (Boolean) snapshot.get("compactStateFormat");
+            }
+
+            return new Request<>(command, requestBackwardCompatibilityVersion, clientTime, expireStrategy, compactStateFormat);
         }
 
         @Override
         public Map<String, Object> toJsonCompatibleSnapshot(Request<?> request, Version backwardCompatibilityVersion, Scope scope) throws IOException {
-            Version effectiveVersion = Versions.max(request.command.getRequiredVersion(), request.getSelfVersion());
-            Versions.check(effectiveVersion.getNumber(), v_7_0_0, request.backwardCompatibilityVersion);
+            Version effectiveVersion = request.getEffectiveVersion();
 
             Version selfVersion = request.getSelfVersion();
             Map<String, Object> result = new HashMap<>();
@@ -170,6 +196,9 @@ public class Request<T> implements ComparableByContent<Request<T>> {
             if (request.expirationStrategy != null) {
                 result.put("expireAfterWriteStrategy", ExpirationAfterWriteStrategy.toJsonCompatibleSnapshot(request.expirationStrategy, backwardCompatibilityVersion, scope));
             }
+            if (request.compactStateFormat) {
+                result.put("compactStateFormat", true);
+            }
             return result;
         }
 
@@ -180,7 +209,16 @@ public class Request<T> implements ComparableByContent<Request<T>> {
 
     };
 
+    private Version getEffectiveVersion() {
+        Version effectiveVersion = Versions.max(command.getRequiredVersion(), getSelfVersion());
+        Versions.check(effectiveVersion.getNumber(), v_7_0_0, backwardCompatibilityVersion);
+        return effectiveVersion;
+    }
+
     private Version getSelfVersion() {
+        if (compactStateFormat) {
+            return v_8_15_0;
+        }
         return expirationStrategy != null ? v_8_10_0 : v_7_0_0;
     }
 
@@ -188,7 +226,8 @@ public class Request<T> implements ComparableByContent<Request<T>> {
     public boolean equalsByContent(Request<T> other) {
         return // backwardCompatibilityVersion.equals(other.backwardCompatibilityVersion) &&
                 ComparableByContent.equals(command, other.command)
-            && Objects.equals(clientSideTime, other.clientSideTime);
+            && Objects.equals(clientSideTime, other.clientSideTime)
+            && compactStateFormat == other.compactStateFormat;
     }
 
 }
\ No newline at end of file
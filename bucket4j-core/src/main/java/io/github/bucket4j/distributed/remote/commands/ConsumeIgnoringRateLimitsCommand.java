@@ -131,6 +131,11 @@ public class ConsumeIgnoringRateLimitsCommand implements RemoteCommand<Long>, Co
         return tokensToConsume == other.tokensToConsume;
     }
 
+    @Override
+    public boolean isConfigurationPreserved() {
+        return true;
+    }
+
     @Override
     public boolean isImmediateSyncRequired(long unsynchronizedTokens, long nanosSinceLastSync) {
         return false;
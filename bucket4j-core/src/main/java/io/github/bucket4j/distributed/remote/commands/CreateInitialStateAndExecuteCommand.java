@@ -22,9 +22,12 @@ package io.github.bucket4j.distributed.remote.commands;
 
 import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.BucketState;
+import io.github.bucket4j.ConfigurationCache;
 import io.github.bucket4j.MathType;
+import io.github.bucket4j.distributed.ConfigurationStore;
 import io.github.bucket4j.distributed.remote.*;
 import io.github.bucket4j.distributed.serialization.DeserializationAdapter;
+import io.github.bucket4j.distributed.serialization.InternalSerializationHelper;
 import io.github.bucket4j.distributed.serialization.Scope;
 import io.github.bucket4j.distributed.serialization.SerializationAdapter;
 import io.github.bucket4j.distributed.serialization.SerializationHandle;
@@ -37,30 +40,54 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static io.github.bucket4j.distributed.versioning.Versions.v_7_0_0;
+import static io.github.bucket4j.distributed.versioning.Versions.v_8_14_0;
+import static io.github.bucket4j.distributed.versioning.Versions.v_8_15_0;
 
 public class CreateInitialStateAndExecuteCommand<T> implements RemoteCommand<T>, ComparableByContent<CreateInitialStateAndExecuteCommand> {
 
     private final RemoteCommand<T> targetCommand;
-    private final BucketConfiguration configuration;
+    private final BucketConfiguration configuration; // null when referenced configuration is not resolved yet
+    private final long configurationId; // zero when configuration is carried inside the command
+    private final MathType mathType;
 
     public static final SerializationHandle<CreateInitialStateAndExecuteCommand> SERIALIZATION_HANDLE = new SerializationHandle<>() {
         @Override
         public <S> CreateInitialStateAndExecuteCommand deserialize(DeserializationAdapter<S> adapter, S input) throws IOException {
             int formatNumber = adapter.readInt(input);
-            Versions.check(formatNumber, v_7_0_0, v_7_0_0);
+            Versions.check(formatNumber, v_7_0_0, v_8_15_0);
 
-            BucketConfiguration configuration = BucketConfiguration.SERIALIZATION_HANDLE.deserialize(adapter, input);
+            BucketConfiguration configuration;
+            long configurationId = 0;
+            if (formatNumber >= v_8_15_0.getNumber() && adapter.readBoolean(input)) {
+                configurationId = adapter.readLong(input);
+                configuration = ConfigurationCache.getDefault().getByFingerprint(configurationId);
+            } else {
+                configuration = BucketConfiguration.SERIALIZATION_HANDLE.deserialize(adapter, input);
+            }
             RemoteCommand<?> targetCommand = RemoteCommand.deserialize(adapter, input);
+            MathType mathType = MathType.INTEGER_64_BITS;
+            if (formatNumber >= v_8_14_0.getNumber()) {
+                mathType = MathType.valueOf(adapter.readString(input));
+            }
 
-            return new CreateInitialStateAndExecuteCommand(configuration, targetCommand);
+            return new CreateInitialStateAndExecuteCommand(configuration, configurationId, targetCommand, mathType);
         }
 
         @Override
         public <O> void serialize(SerializationAdapter<O> adapter, O output, CreateInitialStateAndExecuteCommand command, Version backwardCompatibilityVersion, Scope scope) throws IOException {
-            adapter.writeInt(output, v_7_0_0.getNumber());
+            Version selfVersion = command.getSelfVersion();
+            adapter.writeInt(output, selfVersion.getNumber());
 
-            BucketConfiguration.SERIALIZATION_HANDLE.serialize(adapter, output, command.configuration, backwardCompatibilityVersion, scope);
+            if (selfVersion.getNumber() >= v_8_15_0.getNumber()) {
+                adapter.writeBoolean(output, true);
+                adapter.writeLong(output, command.configurationId);
+            } else {
+                BucketConfiguration.SERIALIZATION_HANDLE.serialize(adapter, output, command.configuration, backwardCompatibilityVersion, scope);
+            }
             RemoteCommand.serialize(adapter, output, command.targetCommand, backwardCompatibilityVersion, scope);
+            if (selfVersion.getNumber() >= v_8_14_0.getNumber()) {
+                adapter.writeString(output, command.mathType.name());
+            }
         }
 
         @Override
@@ -76,20 +103,39 @@ public class CreateInitialStateAndExecuteCommand<T> implements RemoteCommand<T>,
         @Override
         public CreateInitialStateAndExecuteCommand<?> fromJsonCompatibleSnapshot(Map<String, Object> snapshot) throws IOException {
             int formatNumber = readIntValue(snapshot, "version");
-            Versions.check(formatNumber, v_7_0_0, v_7_0_0);
+            Versions.check(formatNumber, v_7_0_0, v_8_15_0);
 
-            BucketConfiguration configuration = BucketConfiguration.SERIALIZATION_HANDLE
-                .fromJsonCompatibleSnapshot((Map<String, Object>) snapshot.get("configuration"));
+            BucketConfiguration configuration;
+            long configurationId = 0;
+            if (snapshot.containsKey("configurationId")) {
+                configurationId = readLongValue(snapshot, "configurationId");
+                configuration = ConfigurationCache.getDefault().getByFingerprint(configurationId);
+            } else {
+                configuration = BucketConfiguration.SERIALIZATION_HANDLE
+                    .fromJsonCompatibleSnapshot((Map<String, Object>) snapshot.get("configuration"));
+            }
             RemoteCommand<?> targetCommand = RemoteCommand.fromJsonCompatibleSnapshot((Map<String, Object>) snapshot.get("targetCommand"));
-            return new CreateInitialStateAndExecuteCommand<>(configuration, targetCommand);
+            MathType mathType = MathType.INTEGER_64_BITS;
+            if (snapshot.containsKey("mathType")) {
+                mathType = MathType.valueOf((String) snapshot.get("mathType"));
+            }
+            return new CreateInitialStateAndExecuteCommand<>(configuration, configurationId, targetCommand, mathType);
         }
 
         @Override
         public Map<String, Object> toJsonCompatibleSnapshot(CreateInitialStateAndExecuteCommand command, Version backwardCompatibilityVersion, Scope scope) throws IOException {
             Map<String, Object> result = new HashMap<>();
-            result.put("version", v_7_0_0.getNumber());
-            result.put("configuration", BucketConfiguration.SERIALIZATION_HANDLE.toJsonCompatibleSnapshot(command.configuration, backwardCompatibilityVersion, scope));
+            Version selfVersion = command.getSelfVersion();
+            result.put("version", selfVersion.getNumber());
+            if (selfVersion.getNumber() >= v_8_15_0.getNumber()) {
+                result.put("configurationId", command.configurationId);
+            } else {
+                result.put("configuration", BucketConfiguration.SERIALIZATION_HANDLE.toJsonCompatibleSnapshot(command.configuration, backwardCompatibilityVersion, scope));
+            }
             result.put("targetCommand", RemoteCommand.toJsonCompatibleSnapshot(command.targetCommand, backwardCompatibilityVersion, scope));
+            if (selfVersion.getNumber() >= v_8_14_0.getNumber()) {
+                result.put("mathType", command.mathType.name());
+            }
             return result;
         }
 
@@ -101,34 +147,68 @@ public class CreateInitialStateAndExecuteCommand<T> implements RemoteCommand<T>,
     };
 
     public CreateInitialStateAndExecuteCommand(BucketConfiguration configuration, RemoteCommand<T> targetCommand) {
+        this(configuration, targetCommand, MathType.INTEGER_64_BITS);
+    }
+
+    public CreateInitialStateAndExecuteCommand(BucketConfiguration configuration, RemoteCommand<T> targetCommand, MathType mathType) {
+        this(configuration, 0, targetCommand, mathType);
+    }
+
+    private CreateInitialStateAndExecuteCommand(BucketConfiguration configuration, long configurationId, RemoteCommand<T> targetCommand, MathType mathType) {
         this.configuration = configuration;
+        this.configurationId = configurationId;
         this.targetCommand = targetCommand;
+        this.mathType = mathType;
     }
 
     @Override
     public CommandResult<T> execute(MutableBucketEntry mutableEntry, long currentTimeNanos) {
         RemoteBucketState state;
         if (!mutableEntry.exists()) {
-            BucketState bucketState = BucketState.createInitialState(configuration, MathType.INTEGER_64_BITS, currentTimeNanos);
+            BucketConfiguration configuration = this.configuration != null ? this.configuration : mutableEntry.resolveConfiguration(configurationId);
+            BucketState bucketState = BucketState.createInitialState(configuration, mathType, currentTimeNanos);
             state = new RemoteBucketState(bucketState, new RemoteStat(0), null);
             mutableEntry.set(state);
         }
         return targetCommand.execute(mutableEntry, currentTimeNanos);
     }
 
+    /**
+     * @return the configuration, or {@code null} if command refers to configuration which is not resolved yet
+     */
     public BucketConfiguration getConfiguration() {
         return configuration;
     }
 
+    /**
+     * @return the fingerprint of referenced configuration, or zero if configuration is carried inside the command
+     */
+    public long getConfigurationId() {
+        return configurationId;
+    }
+
     public RemoteCommand<T> getTargetCommand() {
         return targetCommand;
     }
 
+    public MathType getMathType() {
+        return mathType;
+    }
+
     @Override
     public boolean isInitializationCommand() {
         return true;
     }
 
+    @Override
+    public RemoteCommand<T> withConfigurationIds(ConfigurationStore configurationStore) {
+        if (configurationId != 0) {
+            return this;
+        }
+        long fingerprint = InternalSerializationHelper.registerConfiguration(configuration, configurationStore);
+        return new CreateInitialStateAndExecuteCommand<>(configuration, fingerprint, targetCommand.withConfigurationIds(configurationStore), mathType);
+    }
+
     @Override
     public SerializationHandle getSerializationHandle() {
         return SERIALIZATION_HANDLE;
@@ -137,7 +217,15 @@ public class CreateInitialStateAndExecuteCommand<T> implements RemoteCommand<T>,
     @Override
     public boolean equalsByContent(CreateInitialStateAndExecuteCommand other) {
         return ComparableByContent.equals(configuration, other.configuration) &&
-                ComparableByContent.equals(targetCommand, other.targetCommand);
+                configurationId == other.configurationId &&
+                ComparableByContent.equals(targetCommand, other.targetCommand) &&
+                mathType == other.mathType;
+    }
+
+    @Override
+    public boolean isConfigurationPreserved() {
+        // configuration is used only when bucket does not exist
+        return targetCommand.isConfigurationPreserved();
     }
 
     @Override
@@ -157,7 +245,14 @@ public class CreateInitialStateAndExecuteCommand<T> implements RemoteCommand<T>,
 
     @Override
     public Version getRequiredVersion() {
-        return Versions.max(v_7_0_0, targetCommand.getRequiredVersion());
+        return Versions.max(getSelfVersion(), targetCommand.getRequiredVersion());
+    }
+
+    private Version getSelfVersion() {
+        if (configurationId != 0) {
+            return v_8_15_0;
+        }
+        return mathType == MathType.INTEGER_64_BITS ? v_7_0_0 : v_8_14_0;
     }
 
 }
@@ -0,0 +1,230 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.remote.commands;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketState;
+import io.github.bucket4j.MathType;
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.MutableBucketEntry;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import io.github.bucket4j.distributed.remote.RemoteCommand;
+import io.github.bucket4j.distributed.remote.RemoteStat;
+import io.github.bucket4j.distributed.serialization.DeserializationAdapter;
+import io.github.bucket4j.distributed.serialization.Scope;
+import io.github.bucket4j.distributed.serialization.SerializationAdapter;
+import io.github.bucket4j.distributed.serialization.SerializationHandle;
+import io.github.bucket4j.distributed.versioning.Version;
+import io.github.bucket4j.distributed.versioning.Versions;
+import io.github.bucket4j.util.ComparableByContent;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static io.github.bucket4j.distributed.serialization.PrimitiveSerializationHandles.BOOLEAN_HANDLE;
+import static io.github.bucket4j.distributed.versioning.Versions.v_8_15_0;
+
+/**
+ * Creates the bucket if it is not persisted yet, existing bucket is left untouched.
+ * It is used for bulk warm-up of buckets, see {@link io.github.bucket4j.distributed.proxy.ProxyManager#initializeAll(Map, Map)}.
+ *
+ * <p>The result is {@code true} if bucket was created, and {@code false} if bucket already existed.
+ */
+public class CreateInitialStateCommand implements RemoteCommand<Boolean>, ComparableByContent<CreateInitialStateCommand> {
+
+    /**
+     * The value of initial tokens which means that bucket is created with amount of tokens specified by configuration.
+     */
+    public static final long CONFIGURED_INITIAL_TOKENS = -1;
+
+    private final BucketConfiguration configuration;
+    private final long initialTokens;
+    private final MathType mathType;
+
+    public static final SerializationHandle<CreateInitialStateCommand> SERIALIZATION_HANDLE = new SerializationHandle<>() {
+        @Override
+        public <S> CreateInitialStateCommand deserialize(DeserializationAdapter<S> adapter, S input) throws IOException {
+            int formatNumber = adapter.readInt(input);
+            Versions.check(formatNumber, v_8_15_0, v_8_15_0);
+
+            BucketConfiguration configuration = BucketConfiguration.SERIALIZATION_HANDLE.deserialize(adapter, input);
+            long initialTokens = adapter.readLong(input);
+            // math types are serializable since v_8_14_0 and the command appeared in v_8_15_0, so math type is always present in its format
+            MathType mathType = MathType.valueOf(adapter.readString(input));
+
+            return new CreateInitialStateCommand(configuration, initialTokens, mathType);
+        }
+
+        @Override
+        public <O> void serialize(SerializationAdapter<O> adapter, O output, CreateInitialStateCommand command, Version backwardCompatibilityVersion, Scope scope) throws IOException {
+            adapter.writeInt(output, v_8_15_0.getNumber());
+
+            BucketConfiguration.SERIALIZATION_HANDLE.serialize(adapter, output, command.configuration, backwardCompatibilityVersion, scope);
+            adapter.writeLong(output, command.initialTokens);
+            adapter.writeString(output, command.mathType.name());
+        }
+
+        @Override
+        public int getTypeId() {
+            return 44;
+        }
+
+        @Override
+        public Class<CreateInitialStateCommand> getSerializedType() {
+            return CreateInitialStateCommand.class;
+        }
+
+        @Override
+        public CreateInitialStateCommand fromJsonCompatibleSnapshot(Map<String, Object> snapshot) throws IOException {
+            int formatNumber = readIntValue(snapshot, "version");
+            Versions.check(formatNumber, v_8_15_0, v_8_15_0);
+
+            BucketConfiguration configuration = BucketConfiguration.SERIALIZATION_HANDLE
+                .fromJsonCompatibleSnapshot((Map<String, Object>) snapshot.get("configuration"));
+            long initialTokens = readLongValue(snapshot, "initialTokens");
+            MathType mathType = MathType.INTEGER_64_BITS;
+            if (snapshot.containsKey("mathType")) {
+                mathType = MathType.valueOf((String) snapshot.get("mathType"));
+            }
+            return new CreateInitialStateCommand(configuration, initialTokens, mathType);
+        }
+
+        @Override
+        public Map<String, Object> toJsonCompatibleSnapshot(CreateInitialStateCommand command, Version backwardCompatibilityVersion, Scope scope) throws IOException {
+            Map<String, Object> result = new HashMap<>();
+            result.put("version", v_8_15_0.getNumber());
+            result.put("configuration", BucketConfiguration.SERIALIZATION_HANDLE.toJsonCompatibleSnapshot(command.configuration, backwardCompatibilityVersion, scope));
+            result.put("initialTokens", command.initialTokens);
+            result.put("mathType", command.mathType.name());
+            return result;
+        }
+
+        @Override
+        public String getTypeName() {
+            return "CreateInitialStateCommand";
+        }
+
+    };
+
+    /**
+     * Creates command which initializes bucket with amount of tokens specified by configuration.
+     *
+     * @param configuration the configuration of bucket
+     */
+    public CreateInitialStateCommand(BucketConfiguration configuration) {
+        this(configuration, CONFIGURED_INITIAL_TOKENS);
+    }
+
+    /**
+     * Creates command which initializes bucket with specified amount of available tokens,
+     * the amount which exceeds the tokens specified by configuration is ignored.
+     *
+     * @param configuration the configuration of bucket
+     * @param initialTokens the amount of available tokens, zero means that bucket is created empty
+     */
+    public CreateInitialStateCommand(BucketConfiguration configuration, long initialTokens) {
+        this(configuration, initialTokens, MathType.INTEGER_64_BITS);
+    }
+
+    /**
+     * Creates command which initializes bucket with specified amount of available tokens and math type.
+     *
+     * @param configuration the configuration of bucket
+     * @param initialTokens the amount of available tokens, zero means that bucket is created empty, or {@link #CONFIGURED_INITIAL_TOKENS}
+     * @param mathType the math type of created bucket
+     */
+    public CreateInitialStateCommand(BucketConfiguration configuration, long initialTokens, MathType mathType) {
+        this.configuration = configuration;
+        this.initialTokens = initialTokens;
+        this.mathType = mathType;
+    }
+
+    @Override
+    public CommandResult<Boolean> execute(MutableBucketEntry mutableEntry, long currentTimeNanos) {
+        if (mutableEntry.exists()) {
+            return CommandResult.success(false, BOOLEAN_HANDLE);
+        }
+
+        BucketState bucketState = BucketState.createInitialState(configuration, mathType, currentTimeNanos);
+        RemoteBucketState state = new RemoteBucketState(bucketState, new RemoteStat(0), null);
+        if (initialTokens != CONFIGURED_INITIAL_TOKENS) {
+            long excessTokens = state.getAvailableTokens() - initialTokens;
+            if (excessTokens > 0) {
+                state.consume(excessTokens);
+            }
+        }
+        mutableEntry.set(state);
+        return CommandResult.success(true, BOOLEAN_HANDLE);
+    }
+
+    public BucketConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * @return the amount of available tokens for created bucket, or {@link #CONFIGURED_INITIAL_TOKENS} if amount is specified by configuration
+     */
+    public long getInitialTokens() {
+        return initialTokens;
+    }
+
+    public MathType getMathType() {
+        return mathType;
+    }
+
+    @Override
+    public SerializationHandle getSerializationHandle() {
+        return SERIALIZATION_HANDLE;
+    }
+
+    @Override
+    public boolean equalsByContent(CreateInitialStateCommand other) {
+        return ComparableByContent.equals(configuration, other.configuration)
+            && initialTokens == other.initialTokens
+            && mathType == other.mathType;
+    }
+
+    @Override
+    public boolean isInitializationCommand() {
+        return true;
+    }
+
+    @Override
+    public boolean isImmediateSyncRequired(long unsynchronizedTokens, long nanosSinceLastSync) {
+        return true;
+    }
+
+    @Override
+    public long estimateTokensToConsume() {
+        return 0;
+    }
+
+    @Override
+    public long getConsumedTokens(Boolean result) {
+        return 0;
+    }
+
+    @Override
+    public Version getRequiredVersion() {
+        return v_8_15_0;
+    }
+
+}
@@ -22,10 +22,13 @@ package io.github.bucket4j.distributed.remote.commands;
 
 import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.BucketState;
+import io.github.bucket4j.ConfigurationCache;
 import io.github.bucket4j.MathType;
 import io.github.bucket4j.TokensInheritanceStrategy;
+import io.github.bucket4j.distributed.ConfigurationStore;
 import io.github.bucket4j.distributed.remote.*;
 import io.github.bucket4j.distributed.serialization.DeserializationAdapter;
+import io.github.bucket4j.distributed.serialization.InternalSerializationHelper;
 import io.github.bucket4j.distributed.serialization.Scope;
 import io.github.bucket4j.distributed.serialization.SerializationAdapter;
 import io.github.bucket4j.distributed.serialization.SerializationHandle;
@@ -37,37 +40,61 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
+import static io.github.bucket4j.distributed.versioning.Versions.v_8_14_0;
+import static io.github.bucket4j.distributed.versioning.Versions.v_8_15_0;
 import static io.github.bucket4j.distributed.versioning.Versions.v_8_1_0;
 
 public class CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<T> implements RemoteCommand<T>, ComparableByContent<CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand> {
 
     private final RemoteCommand<T> targetCommand;
-    private final BucketConfiguration configuration;
+    private final BucketConfiguration configuration; // null when referenced configuration is not resolved yet
+    private final long configurationId; // zero when configuration is carried inside the command
     private final long desiredConfigurationVersion;
     private final TokensInheritanceStrategy tokensInheritanceStrategy;
+    private final MathType mathType;
 
     public static final SerializationHandle<CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<?>> SERIALIZATION_HANDLE = new SerializationHandle<>() {
         @Override
         public <S> CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<?> deserialize(DeserializationAdapter<S> adapter, S input) throws IOException {
             int formatNumber = adapter.readInt(input);
-            Versions.check(formatNumber, v_8_1_0, v_8_1_0);
-
-            BucketConfiguration configuration = BucketConfiguration.SERIALIZATION_HANDLE.deserialize(adapter, input);
+            Versions.check(formatNumber, v_8_1_0, v_8_15_0);
+
+            BucketConfiguration configuration;
+            long configurationId = 0;
+            if (formatNumber >= v_8_15_0.getNumber() && adapter.readBoolean(input)) {
+                configurationId = adapter.readLong(input);
+                configuration = ConfigurationCache.getDefault().getByFingerprint(configurationId);
+            } else {
+                configuration = BucketConfiguration.SERIALIZATION_HANDLE.deserialize(adapter, input);
+            }
             RemoteCommand<?> targetCommand = RemoteCommand.deserialize(adapter, input);
             long desiredConfigurationVersion = adapter.readLong(input);
             TokensInheritanceStrategy tokensInheritanceStrategy = TokensInheritanceStrategy.getById(adapter.readByte(input));
+            MathType mathType = MathType.INTEGER_64_BITS;
+            if (formatNumber >= v_8_14_0.getNumber()) {
+                mathType = MathType.valueOf(adapter.readString(input));
+            }
 
-            return new CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<>(configuration, targetCommand, desiredConfigurationVersion, tokensInheritanceStrategy);
+            return new CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<>(configuration, configurationId, targetCommand, desiredConfigurationVersion, tokensInheritanceStrategy, mathType);
         }
 
         @Override
         public <O> void serialize(SerializationAdapter<O> adapter, O output, CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<?> command, Version backwardCompatibilityVersion, Scope scope) throws IOException {
-            adapter.writeInt(output, v_8_1_0.getNumber());
-
-            BucketConfiguration.SERIALIZATION_HANDLE.serialize(adapter, output, command.configuration, backwardCompatibilityVersion, scope);
+            Version selfVersion = command.getSelfVersion();
+            adapter.writeInt(output, selfVersion.getNumber());
+
+            if (selfVersion.getNumber() >= v_8_15_0.getNumber()) {
+                adapter.writeBoolean(output, true);
+                adapter.writeLong(output, command.configurationId);
+            } else {
+                BucketConfiguration.SERIALIZATION_HANDLE.serialize(adapter, output, command.configuration, backwardCompatibilityVersion, scope);
+            }
             RemoteCommand.serialize(adapter, output, command.targetCommand, backwardCompatibilityVersion, scope);
             adapter.writeLong(output, command.desiredConfigurationVersion);
             adapter.writeByte(output, command.tokensInheritanceStrategy.getId());
+            if (selfVersion.getNumber() >= v_8_14_0.getNumber()) {
+                adapter.writeString(output, command.mathType.name());
+            }
         }
 
         @Override
@@ -83,24 +110,43 @@ public class CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteComman
         @Override
         public CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<?> fromJsonCompatibleSnapshot(Map<String, Object> snapshot) throws IOException {
             int formatNumber = readIntValue(snapshot, "version");
-            Versions.check(formatNumber, v_8_1_0, v_8_1_0);
-
-            BucketConfiguration configuration = BucketConfiguration.SERIALIZATION_HANDLE
-                    .fromJsonCompatibleSnapshot((Map<String, Object>) snapshot.get("configuration"));
+            Versions.check(formatNumber, v_8_1_0, v_8_15_0);
+
+            BucketConfiguration configuration;
+            long configurationId = 0;
+            if (snapshot.containsKey("configurationId")) {
+                configurationId = readLongValue(snapshot, "configurationId");
+                configuration = ConfigurationCache.getDefault().getByFingerprint(configurationId);
+            } else {
+                configuration = BucketConfiguration.SERIALIZATION_HANDLE
+                        .fromJsonCompatibleSnapshot((Map<String, Object>) snapshot.get("configuration"));
+            }
             RemoteCommand<?> targetCommand = RemoteCommand.fromJsonCompatibleSnapshot((Map<String, Object>) snapshot.get("targetCommand"));
             TokensInheritanceStrategy tokensInheritanceStrategy = TokensInheritanceStrategy.valueOf((String) snapshot.get("tokensInheritanceStrategy"));
             long desiredConfigurationVersion = readLongValue(snapshot, "desiredConfigurationVersion");
-            return new CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<>(configuration, targetCommand, desiredConfigurationVersion, tokensInheritanceStrategy);
+            MathType mathType = MathType.INTEGER_64_BITS;
+            if (snapshot.containsKey("mathType")) {
+                mathType = MathType.valueOf((String) snapshot.get("mathType"));
+            }
+            return new CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<>(configuration, configurationId, targetCommand, desiredConfigurationVersion, tokensInheritanceStrategy, mathType);
         }
 
         @Override
         public Map<String, Object> toJsonCompatibleSnapshot(CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<?> command, Version backwardCompatibilityVersion, Scope scope) throws IOException {
             Map<String, Object> result = new HashMap<>();
-            result.put("version", v_8_1_0.getNumber());
-            result.put("configuration", BucketConfiguration.SERIALIZATION_HANDLE.toJsonCompatibleSnapshot(command.configuration, backwardCompatibilityVersion, scope));
+            Version selfVersion = command.getSelfVersion();
+            result.put("version", selfVersion.getNumber());
+            if (selfVersion.getNumber() >= v_8_15_0.getNumber()) {
+                result.put("configurationId", command.configurationId);
+            } else {
+                result.put("configuration", BucketConfiguration.SERIALIZATION_HANDLE.toJsonCompatibleSnapshot(command.configuration, backwardCompatibilityVersion, scope));
+            }
             result.put("targetCommand", RemoteCommand.toJsonCompatibleSnapshot(command.targetCommand, backwardCompatibilityVersion, scope));
             result.put("desiredConfigurationVersion", command.desiredConfigurationVersion);
             result.put("tokensInheritanceStrategy", command.tokensInheritanceStrategy.toString());
+            if (selfVersion.getNumber() >= v_8_14_0.getNumber()) {
+                result.put("mathType", command.mathType.name());
+            }
 
             return result;
         }
@@ -113,10 +159,20 @@ public class CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteComman
     };
 
     public CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand(BucketConfiguration configuration, RemoteCommand<T> targetCommand, long desiredConfigurationVersion, TokensInheritanceStrategy tokensInheritanceStrategy) {
+        this(configuration, targetCommand, desiredConfigurationVersion, tokensInheritanceStrategy, MathType.INTEGER_64_BITS);
+    }
+
+    public CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand(BucketConfiguration configuration, RemoteCommand<T> targetCommand, long desiredConfigurationVersion, TokensInheritanceStrategy tokensInheritanceStrategy, MathType mathType) {
+        this(configuration, 0, targetCommand, desiredConfigurationVersion, tokensInheritanceStrategy, mathType);
+    }
+
+    private CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand(BucketConfiguration configuration, long configurationId, RemoteCommand<T> targetCommand, long desiredConfigurationVersion, TokensInheritanceStrategy tokensInheritanceStrategy, MathType mathType) {
         this.configuration = configuration;
+        this.configurationId = configurationId;
         this.targetCommand = targetCommand;
         this.desiredConfigurationVersion = desiredConfigurationVersion;
         this.tokensInheritanceStrategy = tokensInheritanceStrategy;
+        this.mathType = mathType;
     }
 
     @Override
@@ -125,12 +181,12 @@ public class CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteComman
             RemoteBucketState state = mutableEntry.get();
             Long actualConfigurationVersion = state.getConfigurationVersion();
             if (actualConfigurationVersion == null || actualConfigurationVersion < desiredConfigurationVersion) {
-                ReplaceConfigurationCommand replaceConfigurationCommand = new ReplaceConfigurationCommand(configuration, tokensInheritanceStrategy);
+                ReplaceConfigurationCommand replaceConfigurationCommand = new ReplaceConfigurationCommand(getConfiguration(mutableEntry), tokensInheritanceStrategy);
                 replaceConfigurationCommand.execute(mutableEntry, currentTimeNanos);
                 state.setConfigurationVersion(desiredConfigurationVersion);
             }
         } else {
-            BucketState bucketState = BucketState.createInitialState(configuration, MathType.INTEGER_64_BITS, currentTimeNanos);
+            BucketState bucketState = BucketState.createInitialState(getConfiguration(mutableEntry), mathType, currentTimeNanos);
             RemoteBucketState state = new RemoteBucketState(bucketState, new RemoteStat(0), desiredConfigurationVersion);
             mutableEntry.set(state);
         }
@@ -138,10 +194,24 @@ public class CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteComman
         return targetCommand.execute(mutableEntry, currentTimeNanos);
     }
 
+    private BucketConfiguration getConfiguration(MutableBucketEntry mutableEntry) {
+        return configuration != null ? configuration : mutableEntry.resolveConfiguration(configurationId);
+    }
+
+    /**
+     * @return the configuration, or {@code null} if command refers to configuration which is not resolved yet
+     */
     public BucketConfiguration getConfiguration() {
         return configuration;
     }
 
+    /**
+     * @return the fingerprint of referenced configuration, or zero if configuration is carried inside the command
+     */
+    public long getConfigurationId() {
+        return configurationId;
+    }
+
     public RemoteCommand<T> getTargetCommand() {
         return targetCommand;
     }
@@ -154,11 +224,25 @@ public class CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteComman
         return tokensInheritanceStrategy;
     }
 
+    public MathType getMathType() {
+        return mathType;
+    }
+
     @Override
     public boolean isInitializationCommand() {
         return true;
     }
 
+    @Override
+    public RemoteCommand<T> withConfigurationIds(ConfigurationStore configurationStore) {
+        if (configurationId != 0) {
+            return this;
+        }
+        long fingerprint = InternalSerializationHelper.registerConfiguration(configuration, configurationStore);
+        return new CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<>(configuration, fingerprint, targetCommand.withConfigurationIds(configurationStore),
+            desiredConfigurationVersion, tokensInheritanceStrategy, mathType);
+    }
+
     @Override
     public SerializationHandle getSerializationHandle() {
         return SERIALIZATION_HANDLE;
@@ -167,9 +251,11 @@ public class CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteComman
     @Override
     public boolean equalsByContent(CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand other) {
         return ComparableByContent.equals(configuration, other.configuration) &&
+                configurationId == other.configurationId &&
                 ComparableByContent.equals(targetCommand, other.targetCommand) &&
                 desiredConfigurationVersion == other.desiredConfigurationVersion &&
-                tokensInheritanceStrategy == other.tokensInheritanceStrategy;
+                tokensInheritanceStrategy == other.tokensInheritanceStrategy &&
+                mathType == other.mathType;
     }
 
     @Override
@@ -189,7 +275,14 @@ public class CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteComman
 
     @Override
     public Version getRequiredVersion() {
-        return Versions.max(v_8_1_0, targetCommand.getRequiredVersion());
+        return Versions.max(getSelfVersion(), targetCommand.getRequiredVersion());
+    }
+
+    private Version getSelfVersion() {
+        if (configurationId != 0) {
+            return v_8_15_0;
+        }
+        return mathType == MathType.INTEGER_64_BITS ? v_8_1_0 : v_8_14_0;
     }
 
 }
@@ -0,0 +1,209 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.remote.commands;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.MutableBucketEntry;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import io.github.bucket4j.distributed.remote.RemoteCommand;
+import io.github.bucket4j.distributed.serialization.DeserializationAdapter;
+import io.github.bucket4j.distributed.serialization.Scope;
+import io.github.bucket4j.distributed.serialization.SerializationAdapter;
+import io.github.bucket4j.distributed.serialization.SerializationHandle;
+import io.github.bucket4j.distributed.versioning.Version;
+import io.github.bucket4j.distributed.versioning.Versions;
+import io.github.bucket4j.util.ComparableByContent;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static io.github.bucket4j.distributed.serialization.PrimitiveSerializationHandles.LONG_HANDLE;
+import static io.github.bucket4j.distributed.versioning.Versions.v_8_15_0;
+
+/**
+ * Grants a lease of tokens to the client, tokens are consumed from the bucket at the moment of granting,
+ * so client can spend them locally without overconsumption of the limit.
+ * Unused tokens of previous lease can be returned to the bucket in the same request.
+ *
+ * <p>The result is the amount of granted tokens, which can be less than requested when bucket has not enough tokens.
+ * When {@code claimIntervalNanos} is positive, then granted tokens are also limited by the amount of tokens which the bucket refills during this interval,
+ * so lease can not take more than the configured rate allows for the interval, whatever the client requests.
+ *
+ * @see io.github.bucket4j.distributed.proxy.optimization.lease.TokenLeaseOptimization
+ */
+public class LeaseTokensCommand implements RemoteCommand<Long>, ComparableByContent<LeaseTokensCommand> {
+
+    private final long tokensToLease;
+    private final long tokensToReturn;
+    private final long claimIntervalNanos;
+
+    public static final SerializationHandle<LeaseTokensCommand> SERIALIZATION_HANDLE = new SerializationHandle<>() {
+        @Override
+        public <S> LeaseTokensCommand deserialize(DeserializationAdapter<S> adapter, S input) throws IOException {
+            int formatNumber = adapter.readInt(input);
+            Versions.check(formatNumber, v_8_15_0, v_8_15_0);
+
+            long tokensToLease = adapter.readLong(input);
+            long tokensToReturn = adapter.readLong(input);
+            long claimIntervalNanos = adapter.readLong(input);
+
+            return new LeaseTokensCommand(tokensToLease, tokensToReturn, claimIntervalNanos);
+        }
+
+        @Override
+        public <O> void serialize(SerializationAdapter<O> adapter, O output, LeaseTokensCommand command, Version backwardCompatibilityVersion, Scope scope) throws IOException {
+            adapter.writeInt(output, v_8_15_0.getNumber());
+
+            adapter.writeLong(output, command.tokensToLease);
+            adapter.writeLong(output, command.tokensToReturn);
+            adapter.writeLong(output, command.claimIntervalNanos);
+        }
+
+        @Override
+        public int getTypeId() {
+            return 43;
+        }
+
+        @Override
+        public Class<LeaseTokensCommand> getSerializedType() {
+            return LeaseTokensCommand.class;
+        }
+
+        @Override
+        public LeaseTokensCommand fromJsonCompatibleSnapshot(Map<String, Object> snapshot) throws IOException {
+            int formatNumber = readIntValue(snapshot, "version");
+            Versions.check(formatNumber, v_8_15_0, v_8_15_0);
+
+            long tokensToLease = readLongValue(snapshot, "tokensToLease");
+            long tokensToReturn = readLongValue(snapshot, "tokensToReturn");
+            long claimIntervalNanos = readLongValue(snapshot, "claimIntervalNanos");
+            return new LeaseTokensCommand(tokensToLease, tokensToReturn, claimIntervalNanos);
+        }
+
+        @Override
+        public Map<String, Object> toJsonCompatibleSnapshot(LeaseTokensCommand command, Version backwardCompatibilityVersion, Scope scope) throws IOException {
+            Map<String, Object> result = new HashMap<>();
+            result.put("version", v_8_15_0.getNumber());
+            result.put("tokensToLease", command.tokensToLease);
+            result.put("tokensToReturn", command.tokensToReturn);
+            result.put("claimIntervalNanos", command.claimIntervalNanos);
+            return result;
+        }
+
+        @Override
+        public String getTypeName() {
+            return "LeaseTokensCommand";
+        }
+
+    };
+
+    public LeaseTokensCommand(long tokensToLease, long tokensToReturn) {
+        this(tokensToLease, tokensToReturn, 0);
+    }
+
+    public LeaseTokensCommand(long tokensToLease, long tokensToReturn, long claimIntervalNanos) {
+        this.tokensToLease = tokensToLease;
+        this.tokensToReturn = tokensToReturn;
+        this.claimIntervalNanos = claimIntervalNanos;
+    }
+
+    @Override
+    public CommandResult<Long> execute(MutableBucketEntry mutableEntry, long currentTimeNanos) {
+        if (!mutableEntry.exists()) {
+            return CommandResult.bucketNotFound();
+        }
+
+        RemoteBucketState state = mutableEntry.get();
+        state.refillAllBandwidth(currentTimeNanos);
+        if (tokensToReturn > 0) {
+            state.addTokens(tokensToReturn);
+        }
+        long grantedTokens = Math.min(tokensToLease, state.getAvailableTokens());
+        if (claimIntervalNanos > 0) {
+            grantedTokens = Math.min(grantedTokens, tokensRefilledDuring(state.getConfiguration(), claimIntervalNanos));
+        }
+        if (grantedTokens > 0) {
+            state.consume(grantedTokens);
+        } else {
+            grantedTokens = 0;
+        }
+        if (grantedTokens > 0 || tokensToReturn > 0) {
+            mutableEntry.set(state);
+        }
+        return CommandResult.success(grantedTokens, LONG_HANDLE);
+    }
+
+    public long getTokensToLease() {
+        return tokensToLease;
+    }
+
+    public long getTokensToReturn() {
+        return tokensToReturn;
+    }
+
+    public long getClaimIntervalNanos() {
+        return claimIntervalNanos;
+    }
+
+    private static long tokensRefilledDuring(BucketConfiguration configuration, long intervalNanos) {
+        long tokens = Long.MAX_VALUE;
+        for (Bandwidth bandwidth : configuration.getBandwidths()) {
+            double refilledTokens = (double) bandwidth.getRefillTokens() * intervalNanos / bandwidth.getRefillPeriodNanos();
+            tokens = Math.min(tokens, (long) refilledTokens);
+        }
+        return tokens;
+    }
+
+    @Override
+    public SerializationHandle getSerializationHandle() {
+        return SERIALIZATION_HANDLE;
+    }
+
+    @Override
+    public boolean equalsByContent(LeaseTokensCommand other) {
+        return tokensToLease == other.tokensToLease
+            && tokensToReturn == other.tokensToReturn
+            && claimIntervalNanos == other.claimIntervalNanos;
+    }
+
+    @Override
+    public boolean isImmediateSyncRequired(long unsynchronizedTokens, long nanosSinceLastSync) {
+        return true;
+    }
+
+    @Override
+    public long estimateTokensToConsume() {
+        return tokensToLease;
+    }
+
+    @Override
+    public long getConsumedTokens(Long result) {
+        return result;
+    }
+
+    @Override
+    public Version getRequiredVersion() {
+        return v_8_15_0;
+    }
+
+}
@@ -19,6 +19,7 @@
  */
 package io.github.bucket4j.distributed.remote.commands;
 
+import io.github.bucket4j.distributed.ConfigurationStore;
 import io.github.bucket4j.distributed.remote.*;
 import io.github.bucket4j.distributed.serialization.DeserializationAdapter;
 import io.github.bucket4j.distributed.serialization.Scope;
@@ -214,6 +215,20 @@ public class MultiCommand implements RemoteCommand<MultiResult>, ComparableByCon
         return commands;
     }
 
+    @Override
+    public RemoteCommand<MultiResult> withConfigurationIds(ConfigurationStore configurationStore) {
+        if (!isInitializationCommand()) {
+            return this;
+        }
+        List<RemoteCommand<?>> transformedCommands = new ArrayList<>(commands.size());
+        for (RemoteCommand<?> command : commands) {
+            transformedCommands.add(command.withConfigurationIds(configurationStore));
+        }
+        MultiCommand multiCommand = new MultiCommand(transformedCommands);
+        multiCommand.mergedCommands = mergedCommands;
+        return multiCommand;
+    }
+
     @Override
     public SerializationHandle getSerializationHandle() {
         return SERIALIZATION_HANDLE;
@@ -0,0 +1,182 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.remote.commands;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.TokensInheritanceStrategy;
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.MutableBucketEntry;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import io.github.bucket4j.distributed.remote.RemoteCommand;
+import io.github.bucket4j.distributed.serialization.DeserializationAdapter;
+import io.github.bucket4j.distributed.serialization.Scope;
+import io.github.bucket4j.distributed.serialization.SerializationAdapter;
+import io.github.bucket4j.distributed.serialization.SerializationHandle;
+import io.github.bucket4j.distributed.versioning.Version;
+import io.github.bucket4j.distributed.versioning.Versions;
+import io.github.bucket4j.util.ComparableByContent;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static io.github.bucket4j.distributed.serialization.PrimitiveSerializationHandles.BOOLEAN_HANDLE;
+import static io.github.bucket4j.distributed.versioning.Versions.v_8_15_0;
+
+/**
+ * Replaces configuration of bucket only if current configuration of bucket has expected fingerprint,
+ * so the decision which is made by client on the base of previously read state is rechecked close to the data.
+ * It is used by bulk migration of configurations, see {@link io.github.bucket4j.distributed.proxy.ProxyManager#migrateConfigurations}.
+ *
+ * <p>The result is {@code true} if configuration was replaced, and {@code false} if bucket has another configuration.
+ */
+public class ReplaceConfigurationIfMatchesCommand implements RemoteCommand<Boolean>, ComparableByContent<ReplaceConfigurationIfMatchesCommand> {
+
+    private final long expectedFingerprint;
+    private final BucketConfiguration newConfiguration;
+    private final TokensInheritanceStrategy tokensInheritanceStrategy;
+
+    public static final SerializationHandle<ReplaceConfigurationIfMatchesCommand> SERIALIZATION_HANDLE = new SerializationHandle<>() {
+        @Override
+        public <S> ReplaceConfigurationIfMatchesCommand deserialize(DeserializationAdapter<S> adapter, S input) throws IOException {
+            int formatNumber = adapter.readInt(input);
+            Versions.check(formatNumber, v_8_15_0, v_8_15_0);
+
+            long expectedFingerprint = adapter.readLong(input);
+            BucketConfiguration newConfiguration = BucketConfiguration.SERIALIZATION_HANDLE.deserialize(adapter, input);
+            TokensInheritanceStrategy tokensInheritanceStrategy = TokensInheritanceStrategy.getById(adapter.readByte(input));
+            return new ReplaceConfigurationIfMatchesCommand(expectedFingerprint, newConfiguration, tokensInheritanceStrategy);
+        }
+
+        @Override
+        public <O> void serialize(SerializationAdapter<O> adapter, O output, ReplaceConfigurationIfMatchesCommand command, Version backwardCompatibilityVersion, Scope scope) throws IOException {
+            adapter.writeInt(output, v_8_15_0.getNumber());
+
+            adapter.writeLong(output, command.expectedFingerprint);
+            BucketConfiguration.SERIALIZATION_HANDLE.serialize(adapter, output, command.newConfiguration, backwardCompatibilityVersion, scope);
+            adapter.writeByte(output, command.tokensInheritanceStrategy.getId());
+        }
+
+        @Override
+        public int getTypeId() {
+            return 45;
+        }
+
+        @Override
+        public Class<ReplaceConfigurationIfMatchesCommand> getSerializedType() {
+            return ReplaceConfigurationIfMatchesCommand.class;
+        }
+
+        @Override
+        public ReplaceConfigurationIfMatchesCommand fromJsonCompatibleSnapshot(Map<String, Object> snapshot) throws IOException {
+            int formatNumber = readIntValue(snapshot, "version");
+            Versions.check(formatNumber, v_8_15_0, v_8_15_0);
+
+            long expectedFingerprint = readLongValue(snapshot, "expectedFingerprint");
+            BucketConfiguration newConfiguration = BucketConfiguration.SERIALIZATION_HANDLE
+                .fromJsonCompatibleSnapshot((Map<String, Object>) snapshot.get("newConfiguration"));
+            TokensInheritanceStrategy tokensInheritanceStrategy = TokensInheritanceStrategy.valueOf((String) snapshot.get("tokensInheritanceStrategy"));
+            return new ReplaceConfigurationIfMatchesCommand(expectedFingerprint, newConfiguration, tokensInheritanceStrategy);
+        }
+
+        @Override
+        public Map<String, Object> toJsonCompatibleSnapshot(ReplaceConfigurationIfMatchesCommand command, Version backwardCompatibilityVersion, Scope scope) throws IOException {
+            Map<String, Object> result = new HashMap<>();
+            result.put("version", v_8_15_0.getNumber());
+            result.put("expectedFingerprint", command.expectedFingerprint);
+            result.put("newConfiguration", BucketConfiguration.SERIALIZATION_HANDLE.toJsonCompatibleSnapshot(command.newConfiguration, backwardCompatibilityVersion, scope));
+            result.put("tokensInheritanceStrategy", command.tokensInheritanceStrategy.toString());
+            return result;
+        }
+
+        @Override
+        public String getTypeName() {
+            return "ReplaceConfigurationIfMatchesCommand";
+        }
+
+    };
+
+    public ReplaceConfigurationIfMatchesCommand(long expectedFingerprint, BucketConfiguration newConfiguration, TokensInheritanceStrategy tokensInheritanceStrategy) {
+        this.expectedFingerprint = expectedFingerprint;
+        this.newConfiguration = newConfiguration;
+        this.tokensInheritanceStrategy = tokensInheritanceStrategy;
+    }
+
+    @Override
+    public CommandResult<Boolean> execute(MutableBucketEntry mutableEntry, long currentTimeNanos) {
+        if (!mutableEntry.exists()) {
+            return CommandResult.bucketNotFound();
+        }
+
+        RemoteBucketState state = mutableEntry.get();
+        if (state.getConfiguration().getFingerprint() != expectedFingerprint) {
+            return CommandResult.success(false, BOOLEAN_HANDLE);
+        }
+        state.refillAllBandwidth(currentTimeNanos);
+        state.replaceConfiguration(newConfiguration, tokensInheritanceStrategy, currentTimeNanos);
+        mutableEntry.set(state);
+        return CommandResult.success(true, BOOLEAN_HANDLE);
+    }
+
+    public long getExpectedFingerprint() {
+        return expectedFingerprint;
+    }
+
+    public BucketConfiguration getNewConfiguration() {
+        return newConfiguration;
+    }
+
+    public TokensInheritanceStrategy getTokensInheritanceStrategy() {
+        return tokensInheritanceStrategy;
+    }
+
+    @Override
+    public SerializationHandle getSerializationHandle() {
+        return SERIALIZATION_HANDLE;
+    }
+
+    @Override
+    public boolean equalsByContent(ReplaceConfigurationIfMatchesCommand other) {
+        return expectedFingerprint == other.expectedFingerprint
+            && ComparableByContent.equals(newConfiguration, other.newConfiguration)
+            && tokensInheritanceStrategy == other.tokensInheritanceStrategy;
+    }
+
+    @Override
+    public boolean isImmediateSyncRequired(long unsynchronizedTokens, long nanosSinceLastSync) {
+        return true;
+    }
+
+    @Override
+    public long estimateTokensToConsume() {
+        return 0;
+    }
+
+    @Override
+    public long getConsumedTokens(Boolean result) {
+        return 0;
+    }
+
+    @Override
+    public Version getRequiredVersion() {
+        return v_8_15_0;
+    }
+
+}
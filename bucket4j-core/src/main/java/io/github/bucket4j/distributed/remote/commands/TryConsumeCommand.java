@@ -157,6 +157,11 @@ public class TryConsumeCommand implements RemoteCommand<Boolean>, ComparableByCo
         return tokensToConsume == other.tokensToConsume;
     }
 
+    @Override
+    public boolean isConfigurationPreserved() {
+        return true;
+    }
+
     @Override
     public boolean isImmediateSyncRequired(long unsynchronizedTokens, long nanosSinceLastSync) {
         return false;
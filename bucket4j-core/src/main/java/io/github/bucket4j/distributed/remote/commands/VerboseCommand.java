@@ -19,6 +19,7 @@
  */
 package io.github.bucket4j.distributed.remote.commands;
 
+import io.github.bucket4j.distributed.ConfigurationStore;
 import io.github.bucket4j.distributed.remote.*;
 import io.github.bucket4j.distributed.serialization.DeserializationAdapter;
 import io.github.bucket4j.distributed.serialization.Scope;
@@ -57,6 +58,12 @@ public class VerboseCommand<T> implements RemoteCommand<RemoteVerboseResult<T>>,
         return targetCommand;
     }
 
+    @Override
+    public RemoteCommand<RemoteVerboseResult<T>> withConfigurationIds(ConfigurationStore configurationStore) {
+        RemoteCommand<T> transformedCommand = targetCommand.withConfigurationIds(configurationStore);
+        return transformedCommand == targetCommand ? this : new VerboseCommand<>(transformedCommand);
+    }
+
     @Override
     public boolean canBeMerged(RemoteCommand<?> another) {
         return this == TRY_CONSUME_ONE_VERBOSE && another == TRY_CONSUME_ONE_VERBOSE;
@@ -165,6 +172,11 @@ public class VerboseCommand<T> implements RemoteCommand<RemoteVerboseResult<T>>,
         return ComparableByContent.equals(targetCommand, other.targetCommand);
     }
 
+    @Override
+    public boolean isConfigurationPreserved() {
+        return targetCommand.isConfigurationPreserved();
+    }
+
     @Override
     public boolean isImmediateSyncRequired(long unsynchronizedTokens, long nanosSinceLastSync) {
         return targetCommand.isImmediateSyncRequired(unsynchronizedTokens, nanosSinceLastSync);
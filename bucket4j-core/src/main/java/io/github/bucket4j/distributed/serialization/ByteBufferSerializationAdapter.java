@@ -0,0 +1,143 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.serialization;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Adapter that reads and writes directly to {@link ByteBuffer} without intermediate streams.
+ * The binary format is exactly the same as produced by {@link DataOutputSerializationAdapter},
+ * so data written by one adapter can be read by another.
+ *
+ * <p>
+ * Buffer must have big-endian byte order, which is default for buffers created via {@link ByteBuffer#wrap(byte[])} and {@link ByteBuffer#allocate(int)}.
+ */
+public class ByteBufferSerializationAdapter implements SerializationAdapter<ByteBuffer>, DeserializationAdapter<ByteBuffer> {
+
+    public static final ByteBufferSerializationAdapter INSTANCE = new ByteBufferSerializationAdapter();
+
+    private ByteBufferSerializationAdapter() {}
+
+    @Override
+    public boolean readBoolean(ByteBuffer source) throws IOException {
+        return source.get() != 0;
+    }
+
+    @Override
+    public byte readByte(ByteBuffer source) throws IOException {
+        return source.get();
+    }
+
+    @Override
+    public int readInt(ByteBuffer source) throws IOException {
+        return source.getInt();
+    }
+
+    @Override
+    public long readLong(ByteBuffer source) throws IOException {
+        return source.getLong();
+    }
+
+    @Override
+    public long[] readLongArray(ByteBuffer source) throws IOException {
+        int size = source.getInt();
+        long[] array = new long[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = source.getLong();
+        }
+        return array;
+    }
+
+    @Override
+    public double[] readDoubleArray(ByteBuffer source) throws IOException {
+        int size = source.getInt();
+        double[] array = new double[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = source.getDouble();
+        }
+        return array;
+    }
+
+    @Override
+    public String readString(ByteBuffer source) throws IOException {
+        // modified UTF-8 is decoded by DataInput, identifiers of bandwidths are rare and short, so copying is cheap
+        int length = source.getShort() & 0xFFFF;
+        byte[] bytes = new byte[2 + length];
+        source.position(source.position() - 2);
+        source.get(bytes);
+        return new DataInputStream(new ByteArrayInputStream(bytes)).readUTF();
+    }
+
+    @Override
+    public void writeBoolean(ByteBuffer target, boolean value) throws IOException {
+        target.put(value ? (byte) 1 : (byte) 0);
+    }
+
+    @Override
+    public void writeByte(ByteBuffer target, byte value) throws IOException {
+        target.put(value);
+    }
+
+    @Override
+    public boolean writeSerializedBytes(ByteBuffer target, byte[] bytes) throws IOException {
+        target.put(bytes);
+        return true;
+    }
+
+    @Override
+    public void writeInt(ByteBuffer target, int value) throws IOException {
+        target.putInt(value);
+    }
+
+    @Override
+    public void writeLong(ByteBuffer target, long value) throws IOException {
+        target.putLong(value);
+    }
+
+    @Override
+    public void writeLongArray(ByteBuffer target, long[] value) throws IOException {
+        target.putInt(value.length);
+        for (int i = 0; i < value.length; i++) {
+            target.putLong(value[i]);
+        }
+    }
+
+    @Override
+    public void writeDoubleArray(ByteBuffer target, double[] value) throws IOException {
+        target.putInt(value.length);
+        for (int i = 0; i < value.length; i++) {
+            target.putDouble(value[i]);
+        }
+    }
+
+    @Override
+    public void writeString(ByteBuffer target, String value) throws IOException {
+        // modified UTF-8 is encoded by DataOutput, identifiers of bandwidths are rare and short, so copying is cheap
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(2 + value.length());
+        new DataOutputStream(bytes).writeUTF(value);
+        target.put(bytes.toByteArray());
+    }
+
+}
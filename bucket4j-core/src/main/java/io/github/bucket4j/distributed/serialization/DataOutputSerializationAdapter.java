@@ -85,6 +85,12 @@ public class DataOutputSerializationAdapter implements SerializationAdapter<Data
         target.writeByte(value);
     }
 
+    @Override
+    public boolean writeSerializedBytes(DataOutput target, byte[] bytes) throws IOException {
+        target.write(bytes);
+        return true;
+    }
+
     @Override
     public void writeInt(DataOutput target, int value) throws IOException {
         target.writeInt(value);
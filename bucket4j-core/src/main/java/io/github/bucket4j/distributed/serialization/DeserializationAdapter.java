@@ -37,4 +37,46 @@ public interface DeserializationAdapter<S> {
 
     String readString(S source) throws IOException;
 
+    /**
+     * Reads value written by {@link SerializationAdapter#writeVarLong(Object, long)}.
+     */
+    default long readVarLong(S source) throws IOException {
+        long zigZag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = readByte(source);
+            zigZag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigZag >>> 1) ^ -(zigZag & 1);
+            }
+        }
+        throw new IOException("Malformed variable-length long");
+    }
+
+    /**
+     * Reads array written by {@link SerializationAdapter#writeDeltaLongArray(Object, long[])}.
+     */
+    default long[] readDeltaLongArray(S source) throws IOException {
+        long length = readVarLong(source);
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw new IOException("Illegal array length " + length);
+        }
+        long[] array = new long[(int) length];
+        if (array.length == 0) {
+            return array;
+        }
+        long base = readVarLong(source);
+        array[0] = base;
+
+        byte[] flags = new byte[(array.length + 6) / 8];
+        for (int i = 0; i < flags.length; i++) {
+            flags[i] = readByte(source);
+        }
+        for (int i = 1; i < array.length; i++) {
+            long value = readVarLong(source);
+            boolean delta = (flags[(i - 1) >> 3] & (1 << ((i - 1) & 7))) != 0;
+            array[i] = delta ? base + value : value;
+        }
+        return array;
+    }
+
 }
@@ -19,88 +19,275 @@
  */
 package io.github.bucket4j.distributed.serialization;
 
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketExceptions;
+import io.github.bucket4j.ConfigurationCache;
+import io.github.bucket4j.distributed.ConfigurationStore;
 import io.github.bucket4j.distributed.remote.CommandResult;
 import io.github.bucket4j.distributed.remote.RemoteBucketState;
 import io.github.bucket4j.distributed.remote.Request;
 import io.github.bucket4j.distributed.versioning.Version;
+import io.github.bucket4j.distributed.versioning.Versions;
 
-import java.io.*;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
+/**
+ * Helper for binary serialization of states, requests and results.
+ *
+ * <p>
+ * Serialization is done in one pass into buffer which is pooled per thread and grows on demand, so the resulting array of exact size is the only allocation,
+ * methods which accept {@link ByteBuffer} allow to write into buffer supplied by caller without any allocation.
+ * Deserialization reads directly from array or buffer without intermediate streams.
+ */
 public class InternalSerializationHelper {
 
+    private static final int INITIAL_BUFFER_SIZE = 256;
+    private static final int MAX_POOLED_BUFFER_SIZE = 64 * 1024;
+    private static final ThreadLocal<ByteBuffer> BUFFERS = new ThreadLocal<>();
+
     public static byte[] serializeState(RemoteBucketState state, Version backwardCompatibilityVersion) {
+        return serialize(RemoteBucketState.SERIALIZATION_HANDLE, state, backwardCompatibilityVersion, Scope.PERSISTED_STATE);
+    }
+
+    /**
+     * Writes state to the buffer starting from its current position.
+     *
+     * @return amount of written bytes
+     *
+     * @throws java.nio.BufferOverflowException if remaining space is not enough, use {@link #getSerializedStateSize(RemoteBucketState, Version)} to check it beforehand
+     */
+    public static int serializeState(RemoteBucketState state, Version backwardCompatibilityVersion, ByteBuffer target) {
+        return serialize(RemoteBucketState.SERIALIZATION_HANDLE, state, backwardCompatibilityVersion, Scope.PERSISTED_STATE, target);
+    }
+
+    /**
+     * Calculates the exact size of state serialized by {@link #serializeState(RemoteBucketState, Version)}.
+     * Nothing is written, the size is summed up from the fields of state, and cached serialized form of configuration is counted by its length.
+     */
+    public static int getSerializedStateSize(RemoteBucketState state, Version backwardCompatibilityVersion) {
+        int[] size = new int[1];
         try {
-            ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
-            DataOutputStream output = new DataOutputStream(byteStream);
+            RemoteBucketState.SERIALIZATION_HANDLE.serialize(SizeCalculationAdapter.INSTANCE, size, state, backwardCompatibilityVersion, Scope.PERSISTED_STATE);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return size[0];
+    }
 
-            RemoteBucketState.SERIALIZATION_HANDLE.serialize(DataOutputSerializationAdapter.INSTANCE, output, state, backwardCompatibilityVersion, Scope.PERSISTED_STATE);
+    /**
+     * Serializes state in the compact format, see {@link io.github.bucket4j.distributed.proxy.ClientSideConfig#withCompactStateFormat()}.
+     */
+    public static byte[] serializeCompactState(RemoteBucketState state) {
+        return serialize(target -> RemoteBucketState.serializeCompact(ByteBufferSerializationAdapter.INSTANCE, target, state));
+    }
 
-            output.close();
-            byteStream.close();
+    /**
+     * Serializes state with reference to configuration instead of configuration itself,
+     * configuration is saved to {@code configurationStore} if it was not saved before.
+     *
+     * @param configurationStore the side table for configurations, if {@code null} then configuration is inlined into state
+     */
+    public static byte[] serializeState(RemoteBucketState state, Version backwardCompatibilityVersion, ConfigurationStore configurationStore) {
+        return serializeState(state, backwardCompatibilityVersion, false, configurationStore);
+    }
 
-            return byteStream.toByteArray();
-        } catch (Exception e) {
-            throw new IllegalStateException(e);
+    /**
+     * Serializes state in the format which is chosen by client, reference to configuration always implies the compact format.
+     *
+     * @param compactStateFormat whether state should be written in the compact format
+     * @param configurationStore the side table for configurations, if {@code null} then configuration is inlined into state
+     */
+    public static byte[] serializeState(RemoteBucketState state, Version backwardCompatibilityVersion, boolean compactStateFormat, ConfigurationStore configurationStore) {
+        if (configurationStore != null) {
+            registerConfiguration(state.getConfiguration(), configurationStore);
+            return serialize(target -> RemoteBucketState.serializeWithConfigurationReference(ByteBufferSerializationAdapter.INSTANCE, target, state));
         }
+        if (compactStateFormat) {
+            return serializeCompactState(state);
+        }
+        return serializeState(state, backwardCompatibilityVersion);
     }
 
     public static RemoteBucketState deserializeState(byte[] bytes) {
+        return deserializeState(bytes, null);
+    }
+
+    /**
+     * Deserializes state, configuration referenced by state is loaded from {@code configurationStore} if it is not cached yet.
+     *
+     * @param configurationStore the side table for configurations, can be {@code null} if states are persisted with inlined configuration
+     */
+    public static RemoteBucketState deserializeState(byte[] bytes, ConfigurationStore configurationStore) {
+        return deserializeState(ByteBuffer.wrap(bytes), configurationStore);
+    }
+
+    public static RemoteBucketState deserializeState(byte[] bytes, int offset, int length) {
+        return deserializeState(ByteBuffer.wrap(bytes, offset, length));
+    }
+
+    /**
+     * Reads state from the buffer starting from its current position, position is moved to the end of state.
+     */
+    public static RemoteBucketState deserializeState(ByteBuffer source) {
+        return deserializeState(source, null);
+    }
+
+    private static RemoteBucketState deserializeState(ByteBuffer source, ConfigurationStore configurationStore) {
         try {
-            try (DataInputStream inputSteam = new DataInputStream(new ByteArrayInputStream(bytes))) {
-                return RemoteBucketState.SERIALIZATION_HANDLE.deserialize(DataOutputSerializationAdapter.INSTANCE, inputSteam);
-            }
-        } catch (Exception e) {
+            return RemoteBucketState.deserialize(ByteBufferSerializationAdapter.INSTANCE, source, configurationStore);
+        } catch (IOException e) {
             throw new IllegalStateException(e);
         }
     }
 
-    public static byte[] serializeRequest(Request<?> request) {
-        try {
-            ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
-            DataOutputStream output = new DataOutputStream(byteStream);
-
-            Request.SERIALIZATION_HANDLE.serialize(DataOutputSerializationAdapter.INSTANCE, output, request, request.getBackwardCompatibilityVersion(), Scope.REQUEST);
-            
-            output.close();
-            byteStream.close();
+    /**
+     * Saves configuration to {@code configurationStore} if it was not saved before, so it can be referenced by fingerprint.
+     *
+     * @return the fingerprint of configuration
+     */
+    public static long registerConfiguration(BucketConfiguration configuration, ConfigurationStore configurationStore) {
+        long fingerprint = configuration.getFingerprint();
+        configurationStore.saveConfigurationIfAbsent(fingerprint, () -> serializeConfiguration(configuration));
+        return fingerprint;
+    }
 
-            return byteStream.toByteArray();
-        } catch (Exception e) {
-            throw new IllegalStateException(e);
+    /**
+     * Resolves configuration referenced by fingerprint, the {@link ConfigurationCache#getDefault() default configuration cache} is checked at first,
+     * so {@code configurationStore} is accessed only at first usage of configuration in the process.
+     *
+     * @param configurationStore the side table for configurations, can be {@code null} if there is no store
+     */
+    public static BucketConfiguration loadConfiguration(long fingerprint, ConfigurationStore configurationStore) {
+        BucketConfiguration cached = ConfigurationCache.getDefault().getByFingerprint(fingerprint);
+        if (cached != null) {
+            return cached;
+        }
+        if (configurationStore == null) {
+            throw BucketExceptions.configurationStoreIsNotConfigured(fingerprint);
+        }
+        byte[] configurationBytes = configurationStore.loadConfiguration(fingerprint);
+        if (configurationBytes == null) {
+            throw BucketExceptions.configurationNotFoundInStore(fingerprint);
+        }
+        BucketConfiguration configuration = deserializeConfiguration(configurationBytes);
+        if (configuration.getFingerprint() != fingerprint) {
+            throw BucketExceptions.configurationFingerprintMismatch(fingerprint, configuration.getFingerprint());
         }
+        return ConfigurationCache.getDefault().intern(configuration);
+    }
+
+    public static byte[] serializeConfiguration(BucketConfiguration configuration) {
+        return serialize(BucketConfiguration.SERIALIZATION_HANDLE, configuration, Versions.getOldest(), Scope.PERSISTED_STATE);
+    }
+
+    public static BucketConfiguration deserializeConfiguration(byte[] bytes) {
+        return deserialize(BucketConfiguration.SERIALIZATION_HANDLE, ByteBuffer.wrap(bytes));
+    }
+
+    public static byte[] serializeRequest(Request<?> request) {
+        return serialize(Request.SERIALIZATION_HANDLE, request, request.getBackwardCompatibilityVersion(), Scope.REQUEST);
+    }
+
+    /**
+     * Writes request to the buffer starting from its current position.
+     *
+     * @return amount of written bytes
+     */
+    public static int serializeRequest(Request<?> request, ByteBuffer target) {
+        return serialize(Request.SERIALIZATION_HANDLE, request, request.getBackwardCompatibilityVersion(), Scope.REQUEST, target);
     }
 
     public static <T> Request<T> deserializeRequest(byte[] bytes) {
-        try {
-            try (DataInputStream inputSteam = new DataInputStream(new ByteArrayInputStream(bytes))) {
-                return (Request<T>) Request.SERIALIZATION_HANDLE.deserialize(DataOutputSerializationAdapter.INSTANCE, inputSteam);
-            }
-        } catch (Exception e) {
-            throw new IllegalStateException(e);
-        }
+        return deserializeRequest(ByteBuffer.wrap(bytes));
+    }
+
+    public static <T> Request<T> deserializeRequest(ByteBuffer source) {
+        return (Request<T>) deserialize(Request.SERIALIZATION_HANDLE, source);
     }
 
     public static byte[] serializeResult(CommandResult<?> result, Version backwardCompatibilityVersion) {
-        try {
-            ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
-            DataOutputStream output = new DataOutputStream(byteStream);
+        return serialize(CommandResult.SERIALIZATION_HANDLE, result, backwardCompatibilityVersion, Scope.RESPONSE);
+    }
 
-            CommandResult.SERIALIZATION_HANDLE.serialize(DataOutputSerializationAdapter.INSTANCE, output, result, backwardCompatibilityVersion, Scope.RESPONSE);
+    /**
+     * Writes result to the buffer starting from its current position.
+     *
+     * @return amount of written bytes
+     */
+    public static int serializeResult(CommandResult<?> result, Version backwardCompatibilityVersion, ByteBuffer target) {
+        return serialize(CommandResult.SERIALIZATION_HANDLE, result, backwardCompatibilityVersion, Scope.RESPONSE, target);
+    }
 
-            output.close();
-            byteStream.close();
+    public static <T> CommandResult<T> deserializeResult(byte[] bytes, Version backwardCompatibilityVersion) {
+        return deserializeResult(ByteBuffer.wrap(bytes), backwardCompatibilityVersion);
+    }
 
-            return byteStream.toByteArray();
-        } catch (Exception e) {
+    public static <T> CommandResult<T> deserializeResult(ByteBuffer source, Version backwardCompatibilityVersion) {
+        return (CommandResult<T>) deserialize(CommandResult.SERIALIZATION_HANDLE, source);
+    }
+
+    private static <T> byte[] serialize(SerializationHandle<T> handle, T object, Version backwardCompatibilityVersion, Scope scope) {
+        return serialize(target -> handle.serialize(ByteBufferSerializationAdapter.INSTANCE, target, object, backwardCompatibilityVersion, scope));
+    }
+
+    private static <T> int serialize(SerializationHandle<T> handle, T object, Version backwardCompatibilityVersion, Scope scope, ByteBuffer target) {
+        int initialPosition = target.position();
+        try {
+            handle.serialize(ByteBufferSerializationAdapter.INSTANCE, target, object, backwardCompatibilityVersion, scope);
+        } catch (IOException e) {
             throw new IllegalStateException(e);
         }
+        return target.position() - initialPosition;
     }
 
-    public static <T> CommandResult<T> deserializeResult(byte[] bytes, Version backwardCompatibilityVersion) {
+    private static byte[] serialize(Writer writer) {
+        ByteBuffer buffer = writeToPooledBuffer(writer);
         try {
-            try (DataInputStream inputSteam = new DataInputStream(new ByteArrayInputStream(bytes))) {
-                return (CommandResult<T>) CommandResult.SERIALIZATION_HANDLE.deserialize(DataOutputSerializationAdapter.INSTANCE, inputSteam);
+            return Arrays.copyOf(buffer.array(), buffer.position());
+        } finally {
+            releaseBuffer(buffer);
+        }
+    }
+
+    private static ByteBuffer writeToPooledBuffer(Writer writer) {
+        ByteBuffer buffer = BUFFERS.get();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        } else {
+            // serialization can be nested, for example configuration is saved to store during serialization of request,
+            // so nested call should not overwrite the buffer which is in use
+            BUFFERS.set(null);
+        }
+        while (true) {
+            buffer.clear();
+            try {
+                writer.write(buffer);
+                return buffer;
+            } catch (BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            } catch (IOException e) {
+                releaseBuffer(buffer);
+                throw new IllegalStateException(e);
             }
+        }
+    }
+
+    private static void releaseBuffer(ByteBuffer buffer) {
+        if (buffer.capacity() <= MAX_POOLED_BUFFER_SIZE) {
+            BUFFERS.set(buffer);
+        }
+    }
+
+    private interface Writer {
+        void write(ByteBuffer target) throws IOException;
+    }
+
+    private static <T> T deserialize(SerializationHandle<T> handle, ByteBuffer source) {
+        try {
+            return handle.deserialize(ByteBufferSerializationAdapter.INSTANCE, source);
         } catch (Exception e) {
             throw new IllegalStateException(e);
         }
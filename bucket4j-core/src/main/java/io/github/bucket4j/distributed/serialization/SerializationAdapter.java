@@ -37,4 +37,66 @@ public interface SerializationAdapter<T> {
 
     void writeString(T target, String value) throws IOException;
 
+    /**
+     * Writes the bytes which were previously produced by {@link DataOutputSerializationAdapter} as is, without length prefix.
+     * It allows to cache serialized form of immutable objects, like {@link io.github.bucket4j.BucketConfiguration}.
+     *
+     * <p>Adapters which binary layout differs from {@link java.io.DataOutput} must not override this method.
+     *
+     * @return true if bytes were written, false if adapter does not support raw writing and caller should serialize the object field by field
+     */
+    default boolean writeSerializedBytes(T target, byte[] bytes) throws IOException {
+        return false;
+    }
+
+    /**
+     * Writes {@code value} in ZigZag + LEB128 variable-length encoding, which takes from 1 to 10 bytes,
+     * small absolute values take less space.
+     */
+    default void writeVarLong(T target, long value) throws IOException {
+        long zigZag = (value << 1) ^ (value >> 63);
+        while ((zigZag & ~0x7FL) != 0) {
+            writeByte(target, (byte) ((zigZag & 0x7F) | 0x80));
+            zigZag >>>= 7;
+        }
+        writeByte(target, (byte) zigZag);
+    }
+
+    /**
+     * Writes array of longs in compact form: the first element is written as is,
+     * each next element is written either as is or as difference with the first element, whatever is shorter.
+     * It is efficient for arrays which contain several timestamps near each other together with small counters.
+     */
+    default void writeDeltaLongArray(T target, long[] value) throws IOException {
+        writeVarLong(target, value.length);
+        if (value.length == 0) {
+            return;
+        }
+        long base = value[0];
+        writeVarLong(target, base);
+
+        // bitmap with one bit per each next element, 1 means that element is written as difference with base
+        int flags = 0;
+        for (int i = 1; i < value.length; i++) {
+            int bit = (i - 1) & 7;
+            if (isDeltaShorter(value[i], base)) {
+                flags |= 1 << bit;
+            }
+            if (bit == 7 || i == value.length - 1) {
+                writeByte(target, (byte) flags);
+                flags = 0;
+            }
+        }
+        for (int i = 1; i < value.length; i++) {
+            writeVarLong(target, isDeltaShorter(value[i], base) ? value[i] - base : value[i]);
+        }
+    }
+
+    private static boolean isDeltaShorter(long value, long base) {
+        long zigZagValue = (value << 1) ^ (value >> 63);
+        long delta = value - base;
+        long zigZagDelta = (delta << 1) ^ (delta >> 63);
+        return Long.compareUnsigned(zigZagDelta, zigZagValue) < 0;
+    }
+
 }
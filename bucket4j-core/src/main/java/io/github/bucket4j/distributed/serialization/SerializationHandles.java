@@ -28,6 +28,7 @@ import io.github.bucket4j.distributed.remote.commands.*;
 import io.github.bucket4j.distributed.versioning.UnsupportedNamedTypeException;
 import io.github.bucket4j.distributed.versioning.UnsupportedTypeException;
 import io.github.bucket4j.local.LockFreeBucket;
+import io.github.bucket4j.local.LockFreeGcraBucket;
 import io.github.bucket4j.local.SynchronizedBucket;
 import io.github.bucket4j.local.ThreadUnsafeBucket;
 
@@ -42,6 +43,8 @@ public class SerializationHandles {
 //            BucketStateIEEE754.SERIALIZATION_HANDLE, // 4
             RemoteBucketState.SERIALIZATION_HANDLE, // 5
             RemoteStat.SERIALIZATION_HANDLE, // 6
+            BucketStateSlidingWindowCounter.SERIALIZATION_HANDLE, // 7
+            BucketStateGcra.SERIALIZATION_HANDLE, // 8
 
             CommandResult.SERIALIZATION_HANDLE, // 10
             ConsumptionProbe.SERIALIZATION_HANDLE, // 11
@@ -75,10 +78,14 @@ public class SerializationHandles {
             ConfigurationNeedToBeReplacedError.SERIALIZATION_HANDLE, // 40
             CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand.SERIALIZATION_HANDLE, // 41
             CheckConfigurationVersionAndExecuteCommand.SERIALIZATION_HANDLE, // 42
+            LeaseTokensCommand.SERIALIZATION_HANDLE, // 43
+            CreateInitialStateCommand.SERIALIZATION_HANDLE, // 44
+            ReplaceConfigurationIfMatchesCommand.SERIALIZATION_HANDLE, // 45
 
             LockFreeBucket.SERIALIZATION_HANDLE, // 60
             SynchronizedBucket.SERIALIZATION_HANDLE, // 61
             ThreadUnsafeBucket.SERIALIZATION_HANDLE, // 62
+            LockFreeGcraBucket.SERIALIZATION_HANDLE, // 63
 
             BasedOnTimeForRefillingBucketUpToMaxExpirationAfterWriteStrategy.SERIALIZATION_HANDLE, // 70
             FixedTtlExpirationAfterWriteStrategy.SERIALIZATION_HANDLE, // 71
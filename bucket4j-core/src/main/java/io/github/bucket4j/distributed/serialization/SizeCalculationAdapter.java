@@ -0,0 +1,94 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.serialization;
+
+import java.io.IOException;
+
+/**
+ * Adapter that does not write anything, but only counts the size of binary form produced by {@link ByteBufferSerializationAdapter},
+ * the target is single element array which accumulates the size.
+ * Serialized form of configuration is cached, so for most states size is calculated without visiting bandwidths.
+ */
+class SizeCalculationAdapter implements SerializationAdapter<int[]> {
+
+    static final SizeCalculationAdapter INSTANCE = new SizeCalculationAdapter();
+
+    private SizeCalculationAdapter() {}
+
+    @Override
+    public void writeBoolean(int[] target, boolean value) throws IOException {
+        target[0] += 1;
+    }
+
+    @Override
+    public void writeByte(int[] target, byte value) throws IOException {
+        target[0] += 1;
+    }
+
+    @Override
+    public boolean writeSerializedBytes(int[] target, byte[] bytes) throws IOException {
+        target[0] += bytes.length;
+        return true;
+    }
+
+    @Override
+    public void writeInt(int[] target, int value) throws IOException {
+        target[0] += Integer.BYTES;
+    }
+
+    @Override
+    public void writeLong(int[] target, long value) throws IOException {
+        target[0] += Long.BYTES;
+    }
+
+    @Override
+    public void writeLongArray(int[] target, long[] value) throws IOException {
+        target[0] += Integer.BYTES + value.length * Long.BYTES;
+    }
+
+    @Override
+    public void writeDoubleArray(int[] target, double[] value) throws IOException {
+        target[0] += Integer.BYTES + value.length * Double.BYTES;
+    }
+
+    @Override
+    public void writeString(int[] target, String value) throws IOException {
+        // length prefix and modified UTF-8 bytes, see DataOutput#writeUTF
+        int size = 2;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                size += 1;
+            } else if (c <= 0x07FF) {
+                size += 2;
+            } else {
+                size += 3;
+            }
+        }
+        target[0] += size;
+    }
+
+    @Override
+    public void writeVarLong(int[] target, long value) throws IOException {
+        long zigZag = (value << 1) ^ (value >> 63);
+        target[0] += zigZag == 0 ? 1 : (64 - Long.numberOfLeadingZeros(zigZag) + 6) / 7;
+    }
+
+}
@@ -23,7 +23,17 @@ public enum Versions implements Version {
 
     v_7_0_0(1),
     v_8_1_0(2),
-    v_8_10_0(3)
+    v_8_10_0(3),
+    v_8_14_0(4),
+
+    /**
+     * Introduces commands for token leasing, bulk initialization and conditional replacement of configuration,
+     * compact persisted state format (see {@link io.github.bucket4j.distributed.proxy.ClientSideConfig#withCompactStateFormat()})
+     * and references to configurations in requests (see {@link io.github.bucket4j.distributed.proxy.ClientSideConfig#withConfigurationIdsInRequests()}).
+     * Compact format and configuration references are not used by default even with this version, each of them should be enabled by its own option
+     * after all nodes are upgraded.
+     */
+    v_8_15_0(5)
     ;
 
     private final int number;
@@ -69,7 +79,7 @@ public enum Versions implements Version {
     }
 
     public static Version getLatest() {
-        return v_8_10_0;
+        return v_8_15_0;
     }
 
     public static Version getOldest() {
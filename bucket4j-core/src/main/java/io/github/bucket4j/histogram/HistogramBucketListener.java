@@ -0,0 +1,122 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.histogram;
+
+import io.github.bucket4j.BucketListener;
+import io.github.bucket4j.Experimental;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Listener which aggregates bucket events into {@link LockFreeHistogram histograms}:
+ * amount of tokens per consumed and rejected request, and durations of parking and delays in nanoseconds.
+ * Recording does not allocate and does not lock, so the same listener can be shared between many buckets and threads.
+ *
+ * <pre>{@code
+ * HistogramBucketListener listener = new HistogramBucketListener();
+ * Bucket bucket = Bucket.builder()
+ *     .addLimit(limit -> limit.capacity(100).refillGreedy(100, Duration.ofSeconds(1)))
+ *     .withListener(listener)
+ *     .build();
+ * ...
+ * long p99ParkedNanos = listener.getParkedNanos().getValueAtPercentile(99);
+ * }</pre>
+ */
+@Experimental
+public class HistogramBucketListener implements BucketListener {
+
+    private final LockFreeHistogram consumed;
+    private final LockFreeHistogram rejected;
+    private final LockFreeHistogram parkedNanos;
+    private final LockFreeHistogram delayedNanos;
+    private final AtomicLong interrupted = new AtomicLong();
+
+    public HistogramBucketListener() {
+        this(LockFreeHistogram.DEFAULT_PRECISION_BITS);
+    }
+
+    /**
+     * @param precisionBits precision of histograms, see {@link LockFreeHistogram#LockFreeHistogram(int)}
+     */
+    public HistogramBucketListener(int precisionBits) {
+        this.consumed = new LockFreeHistogram(precisionBits);
+        this.rejected = new LockFreeHistogram(precisionBits);
+        this.parkedNanos = new LockFreeHistogram(precisionBits);
+        this.delayedNanos = new LockFreeHistogram(precisionBits);
+    }
+
+    @Override
+    public void onConsumed(long tokens) {
+        consumed.record(tokens);
+    }
+
+    @Override
+    public void onRejected(long tokens) {
+        rejected.record(tokens);
+    }
+
+    @Override
+    public void onParked(long nanos) {
+        parkedNanos.record(nanos);
+    }
+
+    @Override
+    public void onDelayed(long nanos) {
+        delayedNanos.record(nanos);
+    }
+
+    @Override
+    public void onInterrupted(InterruptedException e) {
+        interrupted.incrementAndGet();
+    }
+
+    /**
+     * @return distribution of tokens per consumption, {@link HistogramSnapshot#getSum()} is the total amount of consumed tokens
+     */
+    public HistogramSnapshot getConsumed() {
+        return consumed.snapshot();
+    }
+
+    /**
+     * @return distribution of tokens per rejected request, {@link HistogramSnapshot#getSum()} is the total amount of rejected tokens
+     */
+    public HistogramSnapshot getRejected() {
+        return rejected.snapshot();
+    }
+
+    /**
+     * @return distribution of parking durations in nanoseconds
+     */
+    public HistogramSnapshot getParkedNanos() {
+        return parkedNanos.snapshot();
+    }
+
+    /**
+     * @return distribution of delays in nanoseconds
+     */
+    public HistogramSnapshot getDelayedNanos() {
+        return delayedNanos.snapshot();
+    }
+
+    public long getInterrupted() {
+        return interrupted.get();
+    }
+
+}
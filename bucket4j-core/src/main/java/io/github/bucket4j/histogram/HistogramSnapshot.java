@@ -0,0 +1,135 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.histogram;
+
+import io.github.bucket4j.BucketExceptions;
+import io.github.bucket4j.Experimental;
+
+/**
+ * Immutable snapshot of {@link LockFreeHistogram}.
+ */
+@Experimental
+public class HistogramSnapshot {
+
+    private final int precisionBits;
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    HistogramSnapshot(int precisionBits, long[] counts, long sum, long max) {
+        this.precisionBits = precisionBits;
+        this.counts = counts;
+        long count = 0;
+        for (long bucketCount : counts) {
+            count += bucketCount;
+        }
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    /**
+     * @return amount of recorded values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return sum of recorded values
+     */
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * @return maximum recorded value, or zero if nothing was recorded
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @return mean of recorded values, or zero if nothing was recorded
+     */
+    public double getMean() {
+        return count == 0 ? 0.0 : (double) sum / count;
+    }
+
+    /**
+     * Returns the value below which the {@code percentile} of recorded values fall.
+     * The result is the highest value which is equivalent to found bucket, but it is never greater than {@link #getMax()}.
+     *
+     * @param percentile percentile between 0 and 100
+     *
+     * @return value at percentile, or zero if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (!(percentile >= 0.0 && percentile <= 100.0)) {
+            throw BucketExceptions.invalidPercentile(percentile);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long countAtPercentile = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long accumulated = 0;
+        for (int i = 0; i < counts.length; i++) {
+            accumulated += counts[i];
+            if (accumulated >= countAtPercentile) {
+                return Math.min(max, LockFreeHistogram.highestValueAt(i, precisionBits));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Returns snapshot which contains only values that were recorded after {@code previous} snapshot was taken.
+     * Maximum can not be calculated for interval, so maximum of this snapshot is used.
+     *
+     * @param previous snapshot taken earlier from the same histogram
+     *
+     * @return the difference between snapshots
+     */
+    public HistogramSnapshot minus(HistogramSnapshot previous) {
+        if (previous.precisionBits != precisionBits) {
+            throw BucketExceptions.incompatibleHistogramSnapshots(precisionBits, previous.precisionBits);
+        }
+        long[] diff = new long[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            diff[i] = Math.max(0, counts[i] - previous.counts[i]);
+        }
+        return new HistogramSnapshot(precisionBits, diff, sum - previous.sum, max);
+    }
+
+    @Override
+    public String toString() {
+        return "HistogramSnapshot{" +
+                "count=" + count +
+                ", mean=" + getMean() +
+                ", p50=" + getValueAtPercentile(50) +
+                ", p90=" + getValueAtPercentile(90) +
+                ", p99=" + getValueAtPercentile(99) +
+                ", p999=" + getValueAtPercentile(99.9) +
+                ", max=" + max +
+                '}';
+    }
+
+}
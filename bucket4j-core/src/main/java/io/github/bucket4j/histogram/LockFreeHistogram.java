@@ -0,0 +1,161 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.histogram;
+
+import io.github.bucket4j.BucketExceptions;
+import io.github.bucket4j.Experimental;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram with log-linear layout of buckets (the same layout which is used by HdrHistogram),
+ * it does not allocate anything on recording and does not depend on any third-party library.
+ *
+ * <p>
+ * Values in range {@code [0, 2^precisionBits)} are counted exactly, each next power of two is split into {@code 2^precisionBits} equal buckets,
+ * so relative error of any reported value is not greater than {@code 1 / 2^precisionBits}.
+ * Negative values are recorded as zero.
+ *
+ * <p>
+ * Recording threads are spread across independent stripes by thread identifier, so threads rarely compete for the same cache lines,
+ * recording costs a few uncontended atomic increments. {@link #snapshot()} sums all stripes and does not block recording threads,
+ * as consequence snapshot taken concurrently with recording can miss values that are being recorded at the moment.
+ */
+@Experimental
+public class LockFreeHistogram {
+
+    public static final int DEFAULT_PRECISION_BITS = 5;
+    public static final int MAX_PRECISION_BITS = 10;
+
+    private static final int SUM_OFFSET = 0;
+    private static final int MAX_OFFSET = 1;
+    private static final int COUNTS_OFFSET = 2;
+
+    private final int precisionBits;
+    private final int bucketCount;
+    private final AtomicLongArray[] stripes;
+    private final int stripeMask;
+
+    /**
+     * Creates histogram with {@link #DEFAULT_PRECISION_BITS} which guarantees about 3% of relative error.
+     */
+    public LockFreeHistogram() {
+        this(DEFAULT_PRECISION_BITS);
+    }
+
+    /**
+     * Creates histogram with specified precision.
+     *
+     * @param precisionBits amount of bits which are used for linear part of bucket index, should be between 1 and {@link #MAX_PRECISION_BITS}
+     */
+    public LockFreeHistogram(int precisionBits) {
+        if (precisionBits < 1 || precisionBits > MAX_PRECISION_BITS) {
+            throw BucketExceptions.invalidHistogramPrecision(precisionBits);
+        }
+        this.precisionBits = precisionBits;
+        this.bucketCount = bucketCount(precisionBits);
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        int stripeCount = Math.min(16, Integer.highestOneBit(Math.max(1, processors - 1)) << 1);
+        this.stripes = new AtomicLongArray[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new AtomicLongArray(COUNTS_OFFSET + bucketCount);
+        }
+        this.stripeMask = stripeCount - 1;
+    }
+
+    /**
+     * Records the value.
+     *
+     * @param value the value to record
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        AtomicLongArray stripe = stripes[stripeIndex()];
+        stripe.incrementAndGet(COUNTS_OFFSET + indexOf(value, precisionBits));
+        stripe.addAndGet(SUM_OFFSET, value);
+        long max = stripe.get(MAX_OFFSET);
+        while (value > max) {
+            if (stripe.compareAndSet(MAX_OFFSET, max, value)) {
+                return;
+            }
+            max = stripe.get(MAX_OFFSET);
+        }
+    }
+
+    /**
+     * Takes the snapshot of all values recorded since creation of this histogram.
+     * Use {@link HistogramSnapshot#minus(HistogramSnapshot)} to get statistics for interval between two snapshots.
+     *
+     * @return the snapshot
+     */
+    public HistogramSnapshot snapshot() {
+        long[] counts = new long[bucketCount];
+        long sum = 0;
+        long max = 0;
+        for (AtomicLongArray stripe : stripes) {
+            sum += stripe.get(SUM_OFFSET);
+            max = Math.max(max, stripe.get(MAX_OFFSET));
+            for (int i = 0; i < bucketCount; i++) {
+                counts[i] += stripe.get(COUNTS_OFFSET + i);
+            }
+        }
+        return new HistogramSnapshot(precisionBits, counts, sum, max);
+    }
+
+    public int getPrecisionBits() {
+        return precisionBits;
+    }
+
+    private int stripeIndex() {
+        long id = Thread.currentThread().getId();
+        return (int) (id ^ (id >>> 16)) & stripeMask;
+    }
+
+    static int bucketCount(int precisionBits) {
+        return (64 - precisionBits) << precisionBits;
+    }
+
+    static int indexOf(long value, int precisionBits) {
+        long subBucketCount = 1L << precisionBits;
+        if (value < subBucketCount) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - precisionBits;
+        int subBucket = (int) ((value >>> shift) - subBucketCount);
+        return ((shift + 1) << precisionBits) + subBucket;
+    }
+
+    static long highestValueAt(int index, int precisionBits) {
+        int subBucketCount = 1 << precisionBits;
+        if (index < subBucketCount) {
+            return index;
+        }
+        int shift = (index >>> precisionBits) - 1;
+        long subBucket = index & (subBucketCount - 1);
+        long lowest = (subBucketCount + subBucket) << shift;
+        long highest = lowest + (1L << shift) - 1;
+        // the last bucket can overflow
+        return highest < lowest ? Long.MAX_VALUE : highest;
+    }
+
+}
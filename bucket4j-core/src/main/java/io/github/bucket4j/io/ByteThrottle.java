@@ -0,0 +1,114 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.io;
+
+import io.github.bucket4j.BlockingStrategy;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketExceptions;
+
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Shared logic of throttled streams and channels: one token is charged per byte,
+ * and tokens are acquired per chunk in order to avoid per-byte interaction with the bucket.
+ */
+class ByteThrottle {
+
+    private final Bucket bucket;
+    private final int chunkSize;
+    private final BlockingStrategy blockingStrategy;
+
+    ByteThrottle(Bucket bucket, int chunkSize, BlockingStrategy blockingStrategy) {
+        if (bucket == null) {
+            throw BucketExceptions.nullBucket();
+        }
+        if (chunkSize <= 0) {
+            throw BucketExceptions.nonPositiveChunkSize(chunkSize);
+        }
+        if (blockingStrategy == null) {
+            throw BucketExceptions.nullBlockingStrategy();
+        }
+        this.bucket = bucket;
+        this.chunkSize = chunkSize;
+        this.blockingStrategy = blockingStrategy;
+    }
+
+    int getChunkSize() {
+        return chunkSize;
+    }
+
+    int chunk(long bytes) {
+        return (int) Math.min(bytes, chunkSize);
+    }
+
+    void acquire(long bytes) throws InterruptedIOException {
+        if (bytes <= 0) {
+            return;
+        }
+        try {
+            bucket.asBlocking().consume(bytes, blockingStrategy);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException ioException = new InterruptedIOException("Interrupted while waiting for " + bytes + " bytes of bandwidth");
+            ioException.initCause(e);
+            throw ioException;
+        }
+    }
+
+    static long remaining(ByteBuffer[] buffers, int offset, int length) {
+        long remaining = 0;
+        for (int i = offset; i < offset + length; i++) {
+            remaining += buffers[i].remaining();
+        }
+        return remaining;
+    }
+
+    /**
+     * Shrinks limits of buffers in way that sum of remaining bytes does not exceed {@code budget},
+     * buffers content is not touched, so direct buffers stay direct.
+     *
+     * @return original limits of buffers that should be restored via {@link #restoreLimits(ByteBuffer[], int, int[])}
+     */
+    static int[] shrinkLimits(ByteBuffer[] buffers, int offset, int length, long budget) {
+        int[] originalLimits = new int[length];
+        for (int i = 0; i < length; i++) {
+            ByteBuffer buffer = buffers[offset + i];
+            originalLimits[i] = buffer.limit();
+            int allowed = (int) Math.min(buffer.remaining(), budget);
+            buffer.limit(buffer.position() + allowed);
+            budget -= allowed;
+        }
+        return originalLimits;
+    }
+
+    static void restoreLimits(ByteBuffer[] buffers, int offset, int[] originalLimits) {
+        for (int i = 0; i < originalLimits.length; i++) {
+            buffers[offset + i].limit(originalLimits[i]);
+        }
+    }
+
+    void refund(long bytes) {
+        if (bytes > 0) {
+            bucket.addTokens(bytes);
+        }
+    }
+
+}
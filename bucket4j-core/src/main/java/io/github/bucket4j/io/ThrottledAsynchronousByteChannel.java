@@ -0,0 +1,199 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.io;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketExceptions;
+import io.github.bucket4j.SchedulingBucket;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousByteChannel;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * {@link AsynchronousByteChannel} decorator (for example around {@link AsynchronousSocketChannel}) that limits read and write rate
+ * through the {@link Bucket}, each byte costs one token. No thread is blocked in case of lack of tokens,
+ * instead of blocking the completion of operation is delayed via {@link SchedulingBucket}, so single {@link ScheduledExecutorService}
+ * is enough to shape the traffic of any number of channels.
+ *
+ * <ul>
+ *     <li>Read completion is delayed after data has been read, by time required to refill amount of tokens equals to read bytes.</li>
+ *     <li>Write is started after tokens for the chunk were acquired, tokens for bytes which were not written are returned back to the bucket.</li>
+ * </ul>
+ * Single operation never transfers more than {@code chunkSize} bytes, the chunk is limited by shrinking the limit of buffer,
+ * so content is never copied and direct buffers are passed to underlying channel as is.
+ *
+ * <p>
+ * Delayed handlers are invoked by thread of {@code scheduler}, so the same recommendations as for {@link SchedulingBucket} are applicable:
+ * do not do any heavy work in the completion handler.
+ */
+public class ThrottledAsynchronousByteChannel implements AsynchronousByteChannel {
+
+    private final AsynchronousByteChannel channel;
+    private final Bucket bucket;
+    private final SchedulingBucket schedulingBucket;
+    private final ScheduledExecutorService scheduler;
+    private final int chunkSize;
+
+    public ThrottledAsynchronousByteChannel(AsynchronousByteChannel channel, Bucket bucket, ScheduledExecutorService scheduler) {
+        this(channel, bucket, scheduler, ThrottledInputStream.DEFAULT_CHUNK_SIZE);
+    }
+
+    public ThrottledAsynchronousByteChannel(AsynchronousByteChannel channel, Bucket bucket, ScheduledExecutorService scheduler, int chunkSize) {
+        if (bucket == null) {
+            throw BucketExceptions.nullBucket();
+        }
+        if (scheduler == null) {
+            throw BucketExceptions.nullScheduler();
+        }
+        if (chunkSize <= 0) {
+            throw BucketExceptions.nonPositiveChunkSize(chunkSize);
+        }
+        this.channel = Objects.requireNonNull(channel);
+        this.bucket = bucket;
+        this.schedulingBucket = bucket.asScheduler();
+        this.scheduler = scheduler;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public <A> void read(ByteBuffer dst, A attachment, CompletionHandler<Integer, ? super A> handler) {
+        Objects.requireNonNull(handler);
+        int originalLimit = dst.limit();
+        dst.limit(dst.position() + Math.min(dst.remaining(), chunkSize));
+        try {
+            channel.read(dst, attachment, new CompletionHandler<Integer, A>() {
+                @Override
+                public void completed(Integer bytesRead, A attachment) {
+                    dst.limit(originalLimit);
+                    if (bytesRead <= 0) {
+                        handler.completed(bytesRead, attachment);
+                        return;
+                    }
+                    schedulingBucket.consume(bytesRead, scheduler).whenComplete((nothing, error) -> {
+                        if (error != null) {
+                            handler.failed(error, attachment);
+                        } else {
+                            handler.completed(bytesRead, attachment);
+                        }
+                    });
+                }
+
+                @Override
+                public void failed(Throwable exc, A attachment) {
+                    dst.limit(originalLimit);
+                    handler.failed(exc, attachment);
+                }
+            });
+        } catch (RuntimeException e) {
+            // for example ReadPendingException, the buffer of caller should not stay truncated
+            dst.limit(originalLimit);
+            throw e;
+        }
+    }
+
+    @Override
+    public Future<Integer> read(ByteBuffer dst) {
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        read(dst, future, FUTURE_HANDLER);
+        return future;
+    }
+
+    @Override
+    public <A> void write(ByteBuffer src, A attachment, CompletionHandler<Integer, ? super A> handler) {
+        Objects.requireNonNull(handler);
+        int chunk = Math.min(src.remaining(), chunkSize);
+        if (chunk == 0) {
+            channel.write(src, attachment, handler);
+            return;
+        }
+        schedulingBucket.consume(chunk, scheduler).whenComplete((nothing, error) -> {
+            if (error != null) {
+                handler.failed(error, attachment);
+                return;
+            }
+            int originalLimit = src.limit();
+            src.limit(src.position() + chunk);
+            try {
+                channel.write(src, attachment, new CompletionHandler<Integer, A>() {
+                    @Override
+                    public void completed(Integer bytesWritten, A attachment) {
+                        src.limit(originalLimit);
+                        refund(chunk - bytesWritten);
+                        handler.completed(bytesWritten, attachment);
+                    }
+
+                    @Override
+                    public void failed(Throwable exc, A attachment) {
+                        src.limit(originalLimit);
+                        refund(chunk);
+                        handler.failed(exc, attachment);
+                    }
+                });
+            } catch (Throwable t) {
+                src.limit(originalLimit);
+                refund(chunk);
+                handler.failed(t, attachment);
+            }
+        });
+    }
+
+    @Override
+    public Future<Integer> write(ByteBuffer src) {
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        write(src, future, FUTURE_HANDLER);
+        return future;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void refund(long tokens) {
+        if (tokens > 0) {
+            bucket.addTokens(tokens);
+        }
+    }
+
+    private static final CompletionHandler<Integer, CompletableFuture<Integer>> FUTURE_HANDLER = new CompletionHandler<>() {
+        @Override
+        public void completed(Integer result, CompletableFuture<Integer> future) {
+            future.complete(result);
+        }
+
+        @Override
+        public void failed(Throwable exc, CompletableFuture<Integer> future) {
+            future.completeExceptionally(exc);
+        }
+    };
+
+}
@@ -0,0 +1,141 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.io;
+
+import io.github.bucket4j.BlockingStrategy;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketExceptions;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Rate limited replacement of {@link FileChannel#transferTo(long, long, WritableByteChannel)}
+ * which keeps zero-copy transfer(sendfile) path instead of copying the data through user-space buffers.
+ *
+ * <p>
+ * The file is transferred by chunks, size of each chunk is chosen according to tokens available in the buckets
+ * and bounded by {@code [minChunkSize, maxChunkSize]}, tokens for each chunk are acquired from all buckets before chunk is transferred.
+ * Several buckets can be specified in order to enforce per-connection and global rates at same time, for example:
+ * <pre>{@code
+ * Bucket globalBucket = ...; // shared by all connections
+ * Bucket connectionBucket = ...; // created per connection
+ * ThrottledFileTransfer transfer = new ThrottledFileTransfer(connectionBucket, globalBucket);
+ * transfer.transferTo(fileChannel, 0, fileChannel.size(), socketChannel);
+ * }</pre>
+ *
+ * <p>
+ * Instances of this class are immutable and can be reused for any number of transfers.
+ */
+public class ThrottledFileTransfer {
+
+    public static final int DEFAULT_MIN_CHUNK_SIZE = 8 * 1024;
+    public static final int DEFAULT_MAX_CHUNK_SIZE = 1024 * 1024;
+
+    private final ByteThrottle[] throttles;
+    private final List<Bucket> buckets;
+    private final int minChunkSize;
+    private final int maxChunkSize;
+
+    public ThrottledFileTransfer(Bucket... buckets) {
+        this(Arrays.asList(buckets), DEFAULT_MIN_CHUNK_SIZE, DEFAULT_MAX_CHUNK_SIZE, BlockingStrategy.PARKING);
+    }
+
+    public ThrottledFileTransfer(List<Bucket> buckets, int minChunkSize, int maxChunkSize, BlockingStrategy blockingStrategy) {
+        if (buckets.isEmpty()) {
+            throw BucketExceptions.bucketsNotSpecified();
+        }
+        if (minChunkSize <= 0) {
+            throw BucketExceptions.nonPositiveChunkSize(minChunkSize);
+        }
+        if (maxChunkSize < minChunkSize) {
+            throw BucketExceptions.maxChunkSizeLessThanMinChunkSize(minChunkSize, maxChunkSize);
+        }
+        this.buckets = new ArrayList<>(buckets);
+        this.throttles = new ByteThrottle[buckets.size()];
+        for (int i = 0; i < throttles.length; i++) {
+            throttles[i] = new ByteThrottle(this.buckets.get(i), maxChunkSize, blockingStrategy);
+        }
+        this.minChunkSize = minChunkSize;
+        this.maxChunkSize = maxChunkSize;
+    }
+
+    /**
+     * Transfers up to {@code count} bytes from {@code source} file starting at {@code position} to the {@code target} channel.
+     * Caller thread is parked between chunks in case of lack of tokens.
+     *
+     * @param source the file to transfer from
+     * @param position the position within the file at which the transfer is to begin
+     * @param count the maximum number of bytes to be transferred
+     * @param target the target channel
+     *
+     * @return the number of bytes actually transferred, it can be less than {@code count} when end of file is reached
+     * or when {@code target} is in non-blocking mode and does not accept more bytes
+     *
+     * @throws IOException if some I/O error occurs, {@link java.io.InterruptedIOException} is thrown when thread is interrupted during waiting for tokens
+     */
+    public long transferTo(FileChannel source, long position, long count, WritableByteChannel target) throws IOException {
+        long transferred = 0;
+        while (transferred < count) {
+            long chunk = chooseChunkSize(count - transferred);
+            for (int i = 0; i < throttles.length; i++) {
+                try {
+                    throttles[i].acquire(chunk);
+                } catch (IOException e) {
+                    refund(i, chunk);
+                    throw e;
+                }
+            }
+
+            long chunkTransferred = 0;
+            try {
+                chunkTransferred = source.transferTo(position + transferred, chunk, target);
+            } finally {
+                refund(throttles.length, chunk - chunkTransferred);
+            }
+            transferred += chunkTransferred;
+            if (chunkTransferred < chunk) {
+                // end of file reached or non-blocking target is not ready to accept more bytes
+                break;
+            }
+        }
+        return transferred;
+    }
+
+    private long chooseChunkSize(long remaining) {
+        long chunk = Math.min(remaining, maxChunkSize);
+        for (Bucket bucket : buckets) {
+            long available = Math.max(bucket.getAvailableTokens(), minChunkSize);
+            chunk = Math.min(chunk, available);
+        }
+        return chunk;
+    }
+
+    private void refund(int bucketCount, long tokens) {
+        for (int i = 0; i < bucketCount; i++) {
+            throttles[i].refund(tokens);
+        }
+    }
+
+}
@@ -0,0 +1,80 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.io;
+
+import io.github.bucket4j.BlockingStrategy;
+import io.github.bucket4j.Bucket;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * {@link InputStream} decorator that limits read rate through the {@link Bucket}, each byte costs one token.
+ *
+ * <p>
+ * Bytes are charged after they have been read from underlying stream,
+ * and single read never requests more than {@code chunkSize} bytes, so caller thread is parked at least once per chunk.
+ * The {@code chunkSize} should not be greater than the capacity of the smallest bandwidth of the bucket,
+ * otherwise each chunk will be paid by debt instead of available tokens.
+ */
+public class ThrottledInputStream extends FilterInputStream {
+
+    public static final int DEFAULT_CHUNK_SIZE = 8192;
+
+    private final ByteThrottle throttle;
+
+    public ThrottledInputStream(InputStream in, Bucket bucket) {
+        this(in, bucket, DEFAULT_CHUNK_SIZE, BlockingStrategy.PARKING);
+    }
+
+    public ThrottledInputStream(InputStream in, Bucket bucket, int chunkSize) {
+        this(in, bucket, chunkSize, BlockingStrategy.PARKING);
+    }
+
+    public ThrottledInputStream(InputStream in, Bucket bucket, int chunkSize, BlockingStrategy blockingStrategy) {
+        super(in);
+        this.throttle = new ByteThrottle(bucket, chunkSize, blockingStrategy);
+    }
+
+    @Override
+    public int read() throws IOException {
+        int result = in.read();
+        if (result >= 0) {
+            throttle.acquire(1);
+        }
+        return result;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int bytesRead = in.read(b, off, throttle.chunk(len));
+        throttle.acquire(bytesRead);
+        return bytesRead;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = in.skip(throttle.chunk(n));
+        throttle.acquire(skipped);
+        return skipped;
+    }
+
+}
@@ -0,0 +1,76 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.io;
+
+import io.github.bucket4j.BlockingStrategy;
+import io.github.bucket4j.Bucket;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * {@link OutputStream} decorator that limits write rate through the {@link Bucket}, each byte costs one token.
+ *
+ * <p>
+ * Big writes are split to chunks of {@code chunkSize} bytes, tokens for each chunk are acquired before chunk is passed to underlying stream,
+ * so data leaves the stream smoothly instead of single burst followed by long pause.
+ * The {@code chunkSize} should not be greater than the capacity of the smallest bandwidth of the bucket.
+ */
+public class ThrottledOutputStream extends FilterOutputStream {
+
+    public static final int DEFAULT_CHUNK_SIZE = ThrottledInputStream.DEFAULT_CHUNK_SIZE;
+
+    private final ByteThrottle throttle;
+
+    public ThrottledOutputStream(OutputStream out, Bucket bucket) {
+        this(out, bucket, DEFAULT_CHUNK_SIZE, BlockingStrategy.PARKING);
+    }
+
+    public ThrottledOutputStream(OutputStream out, Bucket bucket, int chunkSize) {
+        this(out, bucket, chunkSize, BlockingStrategy.PARKING);
+    }
+
+    public ThrottledOutputStream(OutputStream out, Bucket bucket, int chunkSize, BlockingStrategy blockingStrategy) {
+        super(out);
+        this.throttle = new ByteThrottle(bucket, chunkSize, blockingStrategy);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        throttle.acquire(1);
+        out.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if ((off | len | (b.length - (len + off)) | (off + len)) < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        while (len > 0) {
+            int chunk = throttle.chunk(len);
+            throttle.acquire(chunk);
+            out.write(b, off, chunk);
+            off += chunk;
+            len -= chunk;
+        }
+    }
+
+}
@@ -0,0 +1,113 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.io;
+
+import io.github.bucket4j.BlockingStrategy;
+import io.github.bucket4j.Bucket;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.ScatteringByteChannel;
+import java.util.Objects;
+
+/**
+ * {@link ReadableByteChannel} decorator that limits read rate through the {@link Bucket}, each byte costs one token.
+ *
+ * <p>
+ * Single read never transfers more than {@code chunkSize} bytes, bytes are charged after they have been read from underlying channel.
+ * The chunk is limited by shrinking the limit of destination buffers, so content is never copied
+ * and direct buffers are passed to underlying channel as is.
+ * Scattering reads are delegated to underlying channel as scattering reads when it implements {@link ScatteringByteChannel}.
+ *
+ * <p>
+ * Decorated channel is expected to be in blocking mode, because caller thread is parked when bucket has no enough tokens.
+ */
+public class ThrottledReadableByteChannel implements ScatteringByteChannel {
+
+    private final ReadableByteChannel channel;
+    private final ByteThrottle throttle;
+
+    public ThrottledReadableByteChannel(ReadableByteChannel channel, Bucket bucket) {
+        this(channel, bucket, ThrottledInputStream.DEFAULT_CHUNK_SIZE, BlockingStrategy.PARKING);
+    }
+
+    public ThrottledReadableByteChannel(ReadableByteChannel channel, Bucket bucket, int chunkSize) {
+        this(channel, bucket, chunkSize, BlockingStrategy.PARKING);
+    }
+
+    public ThrottledReadableByteChannel(ReadableByteChannel channel, Bucket bucket, int chunkSize, BlockingStrategy blockingStrategy) {
+        this.channel = Objects.requireNonNull(channel);
+        this.throttle = new ByteThrottle(bucket, chunkSize, blockingStrategy);
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        int originalLimit = dst.limit();
+        dst.limit(dst.position() + throttle.chunk(dst.remaining()));
+        int bytesRead;
+        try {
+            bytesRead = channel.read(dst);
+        } finally {
+            dst.limit(originalLimit);
+        }
+        throttle.acquire(bytesRead);
+        return bytesRead;
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, dsts.length);
+        if (!(channel instanceof ScatteringByteChannel scatteringChannel)) {
+            for (int i = offset; i < offset + length; i++) {
+                if (dsts[i].hasRemaining()) {
+                    return read(dsts[i]);
+                }
+            }
+            return 0;
+        }
+
+        int[] originalLimits = ByteThrottle.shrinkLimits(dsts, offset, length, throttle.getChunkSize());
+        long bytesRead;
+        try {
+            bytesRead = scatteringChannel.read(dsts, offset, length);
+        } finally {
+            ByteThrottle.restoreLimits(dsts, offset, originalLimits);
+        }
+        throttle.acquire(bytesRead);
+        return bytesRead;
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts) throws IOException {
+        return read(dsts, 0, dsts.length);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+}
@@ -0,0 +1,145 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.io;
+
+import io.github.bucket4j.BlockingStrategy;
+import io.github.bucket4j.Bucket;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+
+/**
+ * {@link WritableByteChannel} decorator that limits write rate through the {@link Bucket}, each byte costs one token.
+ *
+ * <p>
+ * Writes are split to chunks of {@code chunkSize} bytes, tokens for each chunk are acquired before chunk is passed to underlying channel.
+ * The chunk is limited by shrinking the limit of source buffers, so content is never copied
+ * and direct buffers are passed to underlying channel as is.
+ * Gathering writes are delegated to underlying channel as gathering writes when it implements {@link GatheringByteChannel}.
+ * If underlying channel accepts fewer bytes than was requested then tokens for not written bytes are returned back to the bucket.
+ */
+public class ThrottledWritableByteChannel implements GatheringByteChannel {
+
+    private final WritableByteChannel channel;
+    private final ByteThrottle throttle;
+
+    public ThrottledWritableByteChannel(WritableByteChannel channel, Bucket bucket) {
+        this(channel, bucket, ThrottledOutputStream.DEFAULT_CHUNK_SIZE, BlockingStrategy.PARKING);
+    }
+
+    public ThrottledWritableByteChannel(WritableByteChannel channel, Bucket bucket, int chunkSize) {
+        this(channel, bucket, chunkSize, BlockingStrategy.PARKING);
+    }
+
+    public ThrottledWritableByteChannel(WritableByteChannel channel, Bucket bucket, int chunkSize, BlockingStrategy blockingStrategy) {
+        this.channel = Objects.requireNonNull(channel);
+        this.throttle = new ByteThrottle(bucket, chunkSize, blockingStrategy);
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        int totalWritten = 0;
+        while (src.hasRemaining()) {
+            int chunk = throttle.chunk(src.remaining());
+            throttle.acquire(chunk);
+
+            int originalLimit = src.limit();
+            src.limit(src.position() + chunk);
+            int written = 0;
+            try {
+                written = channel.write(src);
+            } finally {
+                src.limit(originalLimit);
+                throttle.refund(chunk - written);
+            }
+            totalWritten += written;
+            if (written < chunk) {
+                // underlying channel is in non-blocking mode and its buffer is full
+                break;
+            }
+        }
+        return totalWritten;
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, srcs.length);
+        long totalWritten = 0;
+        long remaining = ByteThrottle.remaining(srcs, offset, length);
+        while (remaining > 0) {
+            int chunk = throttle.chunk(remaining);
+            throttle.acquire(chunk);
+
+            int[] originalLimits = ByteThrottle.shrinkLimits(srcs, offset, length, chunk);
+            long written = 0;
+            try {
+                written = writeChunk(srcs, offset, length);
+            } finally {
+                ByteThrottle.restoreLimits(srcs, offset, originalLimits);
+                throttle.refund(chunk - written);
+            }
+            totalWritten += written;
+            remaining -= written;
+            if (written < chunk) {
+                break;
+            }
+        }
+        return totalWritten;
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs) throws IOException {
+        return write(srcs, 0, srcs.length);
+    }
+
+    private long writeChunk(ByteBuffer[] srcs, int offset, int length) throws IOException {
+        if (channel instanceof GatheringByteChannel gatheringChannel) {
+            return gatheringChannel.write(srcs, offset, length);
+        }
+        long written = 0;
+        for (int i = offset; i < offset + length; i++) {
+            ByteBuffer src = srcs[i];
+            if (!src.hasRemaining()) {
+                continue;
+            }
+            int bufferRemaining = src.remaining();
+            int bufferWritten = channel.write(src);
+            written += bufferWritten;
+            if (bufferWritten < bufferRemaining) {
+                break;
+            }
+        }
+        return written;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+}
@@ -0,0 +1,133 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.jfr;
+
+import io.github.bucket4j.BucketListener;
+import io.github.bucket4j.distributed.proxy.AsyncCommandExecutor;
+import io.github.bucket4j.distributed.proxy.CommandExecutor;
+
+/**
+ * Entry point of integration with JDK Flight Recorder.
+ *
+ * <p>
+ * Buckets emit following events, all of them are disabled by default and should be enabled in recording settings:
+ * <ul>
+ *     <li>{@code io.github.bucket4j.Consumed} and {@code io.github.bucket4j.Rejected} - amount of consumed or rejected tokens;</li>
+ *     <li>{@code io.github.bucket4j.Parked} and {@code io.github.bucket4j.Delayed} - duration of waiting for refill,
+ *     short waits can be filtered out via {@code minimumWait} setting;</li>
+ *     <li>{@code io.github.bucket4j.RemoteCommand} - round-trip time of command sent by distributed bucket to the storage,
+ *     fast commands can be filtered out via standard {@code threshold} setting.</li>
+ * </ul>
+ * For example:
+ * <pre>{@code
+ * Recording recording = new Recording();
+ * recording.enable("io.github.bucket4j.RemoteCommand").withThreshold(Duration.ofMillis(5));
+ * recording.enable("io.github.bucket4j.Parked").with("minimumWait", "10 ms");
+ * recording.start();
+ * }</pre>
+ *
+ * <p>
+ * Integration is opt-in, buckets are decorated only when it was enabled via {@link #setEnabled(boolean)}
+ * or via {@code -Dbucket4j.jfr.enabled=true} system property, so there is no overhead for applications which do not use it.
+ * Only buckets which were created after enabling are decorated.
+ * If {@code jdk.jfr} module is absent in runtime image, then events are silently not emitted.
+ */
+public class BucketEvents {
+
+    private static final boolean JFR_AVAILABLE = ModuleLayer.boot().findModule("jdk.jfr").isPresent();
+
+    private static volatile boolean enabled = Boolean.getBoolean("bucket4j.jfr.enabled");
+
+    private BucketEvents() {
+    }
+
+    /**
+     * Enables or disables decoration of buckets which will be created after this call.
+     *
+     * @param enabled whether buckets should emit JFR events
+     */
+    public static void setEnabled(boolean enabled) {
+        BucketEvents.enabled = enabled;
+    }
+
+    /**
+     * @return true if buckets which will be created now are decorated
+     */
+    public static boolean isEnabled() {
+        return enabled && JFR_AVAILABLE;
+    }
+
+    /**
+     * Decorates listener in order to emit consumption and waiting events.
+     *
+     * @param listener the listener to decorate
+     *
+     * @return decorated listener, or original listener if integration is not {@link #isEnabled() enabled}
+     */
+    public static BucketListener decorate(BucketListener listener) {
+        if (!isEnabled() || listener instanceof JfrBucketListener) {
+            return listener;
+        }
+        return new JfrBucketListener(listener);
+    }
+
+    /**
+     * Returns original listener that was passed to {@link #decorate(BucketListener)}.
+     *
+     * @param listener listener which possibly is decorated
+     *
+     * @return original listener
+     */
+    public static BucketListener undecorate(BucketListener listener) {
+        if (listener instanceof JfrBucketListener) {
+            return ((JfrBucketListener) listener).getTarget();
+        }
+        return listener;
+    }
+
+    /**
+     * Decorates command executor in order to emit events about remote command execution.
+     *
+     * @param commandExecutor the executor to decorate
+     *
+     * @return decorated executor, or original executor if integration is not {@link #isEnabled() enabled}
+     */
+    public static CommandExecutor decorate(CommandExecutor commandExecutor) {
+        if (!isEnabled() || commandExecutor instanceof JfrCommandExecutor) {
+            return commandExecutor;
+        }
+        return new JfrCommandExecutor(commandExecutor);
+    }
+
+    /**
+     * Decorates async command executor in order to emit events about remote command execution.
+     *
+     * @param commandExecutor the executor to decorate
+     *
+     * @return decorated executor, or original executor if integration is not {@link #isEnabled() enabled}
+     */
+    public static AsyncCommandExecutor decorateAsync(AsyncCommandExecutor commandExecutor) {
+        if (!isEnabled() || commandExecutor instanceof JfrCommandExecutor) {
+            return commandExecutor;
+        }
+        return new JfrCommandExecutor(commandExecutor);
+    }
+
+}
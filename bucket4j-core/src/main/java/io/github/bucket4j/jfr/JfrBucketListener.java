@@ -0,0 +1,100 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.jfr;
+
+import io.github.bucket4j.BucketListener;
+import jdk.jfr.EventType;
+
+/**
+ * Decorator of {@link BucketListener} that additionally emits JFR events.
+ * When events are not enabled in any recording the overhead is one check per callback, events are not allocated.
+ */
+class JfrBucketListener implements BucketListener {
+
+    private static final EventType CONSUMED = EventType.getEventType(ConsumedEvent.class);
+    private static final EventType REJECTED = EventType.getEventType(RejectedEvent.class);
+    private static final EventType PARKED = EventType.getEventType(ParkedEvent.class);
+    private static final EventType DELAYED = EventType.getEventType(DelayedEvent.class);
+
+    private final BucketListener target;
+
+    JfrBucketListener(BucketListener target) {
+        this.target = target;
+    }
+
+    @Override
+    public void onConsumed(long tokens) {
+        target.onConsumed(tokens);
+        if (CONSUMED.isEnabled()) {
+            ConsumedEvent event = new ConsumedEvent();
+            event.tokens = tokens;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onRejected(long tokens) {
+        target.onRejected(tokens);
+        if (REJECTED.isEnabled()) {
+            RejectedEvent event = new RejectedEvent();
+            event.tokens = tokens;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onParked(long nanos) {
+        target.onParked(nanos);
+        if (PARKED.isEnabled()) {
+            ParkedEvent event = new ParkedEvent();
+            event.waitNanos = nanos;
+            if (event.shouldCommit()) {
+                event.commit();
+            }
+        }
+    }
+
+    @Override
+    public void beforeParking(long nanos) {
+        target.beforeParking(nanos);
+    }
+
+    @Override
+    public void onInterrupted(InterruptedException e) {
+        target.onInterrupted(e);
+    }
+
+    @Override
+    public void onDelayed(long nanos) {
+        target.onDelayed(nanos);
+        if (DELAYED.isEnabled()) {
+            DelayedEvent event = new DelayedEvent();
+            event.waitNanos = nanos;
+            if (event.shouldCommit()) {
+                event.commit();
+            }
+        }
+    }
+
+    BucketListener getTarget() {
+        return target;
+    }
+
+}
@@ -0,0 +1,98 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.jfr;
+
+import io.github.bucket4j.distributed.proxy.AsyncCommandExecutor;
+import io.github.bucket4j.distributed.proxy.CommandExecutor;
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.RemoteCommand;
+import jdk.jfr.EventType;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Decorator of command executors that measures round-trip time of commands via {@link RemoteCommandEvent}.
+ */
+class JfrCommandExecutor implements CommandExecutor, AsyncCommandExecutor {
+
+    private static final EventType REMOTE_COMMAND = EventType.getEventType(RemoteCommandEvent.class);
+
+    private final CommandExecutor target;
+    private final AsyncCommandExecutor asyncTarget;
+
+    JfrCommandExecutor(CommandExecutor target) {
+        this.target = target;
+        this.asyncTarget = null;
+    }
+
+    JfrCommandExecutor(AsyncCommandExecutor asyncTarget) {
+        this.target = null;
+        this.asyncTarget = asyncTarget;
+    }
+
+    @Override
+    public <T> CommandResult<T> execute(RemoteCommand<T> command) {
+        if (!REMOTE_COMMAND.isEnabled()) {
+            return target.execute(command);
+        }
+        RemoteCommandEvent event = new RemoteCommandEvent();
+        event.begin();
+        CommandResult<T> result = null;
+        try {
+            result = target.execute(command);
+            return result;
+        } finally {
+            event.end();
+            commit(event, command, result);
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<CommandResult<T>> executeAsync(RemoteCommand<T> command) {
+        if (!REMOTE_COMMAND.isEnabled()) {
+            return asyncTarget.executeAsync(command);
+        }
+        RemoteCommandEvent event = new RemoteCommandEvent();
+        event.begin();
+        CompletableFuture<CommandResult<T>> future;
+        try {
+            future = asyncTarget.executeAsync(command);
+        } catch (Throwable t) {
+            event.end();
+            commit(event, command, null);
+            throw t;
+        }
+        return future.whenComplete((result, error) -> {
+            event.end();
+            commit(event, command, result);
+        });
+    }
+
+    private static void commit(RemoteCommandEvent event, RemoteCommand<?> command, CommandResult<?> result) {
+        if (event.shouldCommit()) {
+            event.commandType = command.getSerializationHandle().getTypeName();
+            event.initialization = command.isInitializationCommand();
+            event.failed = result == null || result.isError();
+            event.bucketNotFound = result != null && result.isBucketNotFound();
+            event.commit();
+        }
+    }
+
+}
@@ -0,0 +1,48 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event which is emitted when thread was parked by blocking bucket API in order to wait for tokens refill.
+ * Events with wait shorter than {@code minimumWait} setting are not recorded.
+ */
+@Name("io.github.bucket4j.Parked")
+@Label("Thread Parked By Bucket")
+@Category({"Bucket4j"})
+@Description("Thread was parked in order to wait for tokens refill")
+@Enabled(false)
+@StackTrace(false)
+public final class ParkedEvent extends Event {
+
+    @Label("Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    long waitNanos;
+
+    @Label("Minimum Wait")
+    @Description("Record only events with wait greater than or equal to this value")
+    @Name("minimumWait")
+    @SettingDefinition
+    public boolean minimumWait(WaitThresholdSetting setting) {
+        return setting.accept(waitNanos);
+    }
+
+}
@@ -0,0 +1,38 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event which is emitted when consumption request is rejected by bucket.
+ */
+@Name("io.github.bucket4j.Rejected")
+@Label("Tokens Rejected")
+@Category({"Bucket4j"})
+@Description("Consumption request was rejected by bucket")
+@Enabled(false)
+@StackTrace(false)
+public final class RejectedEvent extends Event {
+
+    @Label("Tokens")
+    long tokens;
+
+}
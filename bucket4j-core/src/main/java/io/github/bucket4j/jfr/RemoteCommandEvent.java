@@ -0,0 +1,50 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * JFR event which measures round-trip time of command that distributed bucket proxy sends to the storage,
+ * the standard {@code threshold} setting can be used to record only slow commands.
+ */
+@Name("io.github.bucket4j.RemoteCommand")
+@Label("Remote Bucket Command")
+@Category({"Bucket4j"})
+@Description("Execution of command against the remote storage of bucket")
+@Enabled(false)
+@StackTrace(false)
+@Threshold("0 ms")
+public final class RemoteCommandEvent extends Event {
+
+    @Label("Command Type")
+    String commandType;
+
+    @Label("Initialization")
+    @Description("Command creates the bucket if it does not exist")
+    boolean initialization;
+
+    @Label("Bucket Not Found")
+    boolean bucketNotFound;
+
+    @Label("Failed")
+    boolean failed;
+
+}
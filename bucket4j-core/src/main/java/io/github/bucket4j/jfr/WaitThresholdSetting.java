@@ -0,0 +1,109 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.MetadataDefinition;
+import jdk.jfr.Name;
+import jdk.jfr.SettingControl;
+import jdk.jfr.Timespan;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Setting that filters out {@link ParkedEvent} and {@link DelayedEvent} when wait is shorter than configured value.
+ * The format of value is the same as for standard {@code threshold} setting, for example {@code "20 ms"}.
+ */
+@MetadataDefinition
+@Name("io.github.bucket4j.WaitThreshold")
+@Label("Wait Threshold")
+@Description("Record event only if wait is greater than or equal to specified duration")
+@Timespan
+public final class WaitThresholdSetting extends SettingControl {
+
+    private static final String DEFAULT_VALUE = "0 ns";
+
+    private volatile String value = DEFAULT_VALUE;
+    private volatile long thresholdNanos;
+
+    @Override
+    public String combine(Set<String> values) {
+        // when several recordings are running, the most permissive value wins
+        String result = null;
+        long min = Long.MAX_VALUE;
+        for (String candidate : values) {
+            long nanos = parseNanos(candidate);
+            if (nanos < min) {
+                min = nanos;
+                result = candidate;
+            }
+        }
+        return result == null ? DEFAULT_VALUE : result;
+    }
+
+    @Override
+    public void setValue(String value) {
+        this.thresholdNanos = parseNanos(value);
+        this.value = value;
+    }
+
+    @Override
+    public String getValue() {
+        return value;
+    }
+
+    boolean accept(long waitNanos) {
+        return waitNanos >= thresholdNanos;
+    }
+
+    static long parseNanos(String value) {
+        if (value == null) {
+            return 0;
+        }
+        String text = value.trim();
+        int unitIndex = 0;
+        while (unitIndex < text.length() && Character.isDigit(text.charAt(unitIndex))) {
+            unitIndex++;
+        }
+        if (unitIndex == 0) {
+            return 0;
+        }
+        long amount;
+        try {
+            amount = Long.parseLong(text.substring(0, unitIndex));
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+        String unit = text.substring(unitIndex).trim();
+        return switch (unit) {
+            case "", "ns" -> amount;
+            case "us" -> TimeUnit.MICROSECONDS.toNanos(amount);
+            case "ms" -> TimeUnit.MILLISECONDS.toNanos(amount);
+            case "s" -> TimeUnit.SECONDS.toNanos(amount);
+            case "m" -> TimeUnit.MINUTES.toNanos(amount);
+            case "h" -> TimeUnit.HOURS.toNanos(amount);
+            case "d" -> TimeUnit.DAYS.toNanos(amount);
+            default -> 0;
+        };
+    }
+
+}
@@ -28,7 +28,8 @@ import java.util.Objects;
 import java.util.function.Function;
 
 /**
- * This builder creates in-memory buckets ({@link LockFreeBucket}).
+ * This builder creates in-memory buckets ({@link LockFreeBucket}, {@link SynchronizedBucket}, {@link ThreadUnsafeBucket},
+ * or {@link LockFreeGcraBucket} for {@link MathType#GCRA} with single bandwidth).
  */
 public class LocalBucketBuilder {
 
@@ -61,6 +62,7 @@ public class LocalBucketBuilder {
     private TimeMeter timeMeter = TimeMeter.SYSTEM_MILLISECONDS;
     private SynchronizationStrategy synchronizationStrategy = SynchronizationStrategy.LOCK_FREE;
     private BucketListener listener = BucketListener.NOPE;
+    private MathType mathType = MathType.INTEGER_64_BITS;
 
     /**
      * Specifies {@link TimeMeter#SYSTEM_NANOTIME} as time meter for buckets that will be created by this builder.
@@ -124,6 +126,24 @@ public class LocalBucketBuilder {
         return this;
     }
 
+    /**
+     * Specifies {@code mathType} for buckets that will be created by this builder.
+     *
+     * <p> By default {@link MathType#INTEGER_64_BITS} is used.
+     *
+     * @param mathType the algorithm and precision of bucket state.
+     *
+     * @return this builder instance
+     */
+    @Experimental
+    public LocalBucketBuilder withMathType(MathType mathType) {
+        if (mathType == null) {
+            throw BucketExceptions.nullMathType();
+        }
+        this.mathType = mathType;
+        return this;
+    }
+
     /**
      * Constructs the bucket.
      *
@@ -132,9 +152,11 @@ public class LocalBucketBuilder {
     public LocalBucket build() {
         BucketConfiguration configuration = buildConfiguration();
         return switch (synchronizationStrategy) {
-            case LOCK_FREE -> new LockFreeBucket(configuration, MathType.INTEGER_64_BITS, timeMeter, listener);
-            case SYNCHRONIZED -> new SynchronizedBucket(configuration, MathType.INTEGER_64_BITS, timeMeter, listener);
-            case NONE -> new ThreadUnsafeBucket(configuration, MathType.INTEGER_64_BITS, timeMeter, listener);
+            case LOCK_FREE -> mathType == MathType.GCRA && configuration.getBandwidths().length == 1 ?
+                    new LockFreeGcraBucket(configuration, timeMeter, listener) :
+                    new LockFreeBucket(configuration, mathType, timeMeter, listener);
+            case SYNCHRONIZED -> new SynchronizedBucket(configuration, mathType, timeMeter, listener);
+            case NONE -> new ThreadUnsafeBucket(configuration, mathType, timeMeter, listener);
         };
     }
 
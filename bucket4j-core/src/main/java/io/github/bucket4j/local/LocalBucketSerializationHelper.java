@@ -62,6 +62,9 @@ public class LocalBucketSerializationHelper {
     }
 
     private static SerializationHandle<LocalBucket> getSerializationHandle(LocalBucket localBucket) {
+        if (localBucket instanceof LockFreeGcraBucket) {
+            return (SerializationHandle) LockFreeGcraBucket.SERIALIZATION_HANDLE;
+        }
         return switch (localBucket.getSynchronizationStrategy()) {
             case LOCK_FREE -> (SerializationHandle) LockFreeBucket.SERIALIZATION_HANDLE;
             case SYNCHRONIZED -> (SerializationHandle) SynchronizedBucket.SERIALIZATION_HANDLE;
@@ -76,6 +79,8 @@ public class LocalBucketSerializationHelper {
             return (SerializationHandle) SynchronizedBucket.SERIALIZATION_HANDLE;
         } else if (typeId == ThreadUnsafeBucket.SERIALIZATION_HANDLE.getTypeId()) {
             return (SerializationHandle) ThreadUnsafeBucket.SERIALIZATION_HANDLE;
+        } else if (typeId == LockFreeGcraBucket.SERIALIZATION_HANDLE.getTypeId()) {
+            return (SerializationHandle) LockFreeGcraBucket.SERIALIZATION_HANDLE;
         } else {
             throw new IOException("Unknown typeId=" + typeId);
         }
@@ -88,6 +93,8 @@ public class LocalBucketSerializationHelper {
             return (SerializationHandle) SynchronizedBucket.SERIALIZATION_HANDLE;
         } else if (ThreadUnsafeBucket.SERIALIZATION_HANDLE.getTypeName().equals(typeName)) {
             return (SerializationHandle) ThreadUnsafeBucket.SERIALIZATION_HANDLE;
+        } else if (LockFreeGcraBucket.SERIALIZATION_HANDLE.getTypeName().equals(typeName)) {
+            return (SerializationHandle) LockFreeGcraBucket.SERIALIZATION_HANDLE;
         } else {
             throw new IOException("Unknown typeName=" + typeName);
         }
@@ -0,0 +1,542 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.local;
+
+import io.github.bucket4j.*;
+import io.github.bucket4j.distributed.serialization.DeserializationAdapter;
+import io.github.bucket4j.distributed.serialization.Scope;
+import io.github.bucket4j.distributed.serialization.SerializationAdapter;
+import io.github.bucket4j.distributed.serialization.SerializationHandle;
+import io.github.bucket4j.distributed.versioning.Version;
+import io.github.bucket4j.distributed.versioning.Versions;
+import io.github.bucket4j.util.ComparableByContent;
+
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.github.bucket4j.distributed.versioning.Versions.v_8_14_0;
+
+/**
+ * Lock-free bucket with single bandwidth which state is represented by {@link MathType#GCRA},
+ * so any consumption is just one CAS on {@link AtomicLong} that holds "theoretical arrival time", without allocation of state copies.
+ *
+ * <p>
+ * This implementation is chosen by {@link LocalBucketBuilder} when {@link MathType#GCRA} is combined with {@link SynchronizationStrategy#LOCK_FREE}
+ * and configuration contains exactly one bandwidth, for multiple bandwidths {@link LockFreeBucket} is used.
+ * Because of this, configuration of this bucket can not be replaced by configuration with several bandwidths.
+ */
+public class LockFreeGcraBucket extends AbstractBucket implements LocalBucket, ComparableByContent<LockFreeGcraBucket> {
+
+    // marks the cell that was abandoned by configuration replacement, threads that see it should reread the holder
+    private static final long SEALED = Long.MIN_VALUE;
+
+    private final AtomicReference<Holder> holderRef;
+    private final TimeMeter timeMeter;
+
+    public LockFreeGcraBucket(BucketConfiguration configuration, TimeMeter timeMeter, BucketListener listener) {
+        this(new AtomicReference<>(createHolder(configuration, timeMeter.currentTimeNanos())), timeMeter, listener);
+    }
+
+    private LockFreeGcraBucket(AtomicReference<Holder> holderRef, TimeMeter timeMeter, BucketListener listener) {
+        super(listener);
+        this.holderRef = holderRef;
+        this.timeMeter = timeMeter;
+    }
+
+    @Override
+    public Bucket toListenable(BucketListener listener) {
+        return new LockFreeGcraBucket(holderRef, timeMeter, listener);
+    }
+
+    @Override
+    protected long consumeAsMuchAsPossibleImpl(long limit) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            Holder holder = holderRef.get();
+            long tat = holder.tat.get();
+            if (tat == SEALED) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long refilledTat = BucketStateGcra.refill(tat, currentTimeNanos);
+            long availableToConsume = BucketStateGcra.availableTokens(holder.bandwidth, refilledTat, currentTimeNanos);
+            long toConsume = Math.min(limit, availableToConsume);
+            if (toConsume <= 0) {
+                return 0;
+            }
+            if (holder.tat.compareAndSet(tat, BucketStateGcra.consume(holder.bandwidth, refilledTat, toConsume))) {
+                return toConsume;
+            }
+        }
+    }
+
+    @Override
+    protected boolean tryConsumeImpl(long tokensToConsume) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            Holder holder = holderRef.get();
+            long tat = holder.tat.get();
+            if (tat == SEALED) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long refilledTat = BucketStateGcra.refill(tat, currentTimeNanos);
+            long availableToConsume = BucketStateGcra.availableTokens(holder.bandwidth, refilledTat, currentTimeNanos);
+            if (tokensToConsume > availableToConsume) {
+                return false;
+            }
+            if (holder.tat.compareAndSet(tat, BucketStateGcra.consume(holder.bandwidth, refilledTat, tokensToConsume))) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    protected ConsumptionProbe tryConsumeAndReturnRemainingTokensImpl(long tokensToConsume) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            Holder holder = holderRef.get();
+            long tat = holder.tat.get();
+            if (tat == SEALED) {
+                Thread.onSpinWait();
+                continue;
+            }
+            Bandwidth bandwidth = holder.bandwidth;
+            long refilledTat = BucketStateGcra.refill(tat, currentTimeNanos);
+            long availableToConsume = BucketStateGcra.availableTokens(bandwidth, refilledTat, currentTimeNanos);
+            if (tokensToConsume > availableToConsume) {
+                long nanosToWaitForRefill = tokensToConsume > bandwidth.getCapacity() ? INFINITY_DURATION
+                    : BucketStateGcra.delayNanosAfterWillBePossibleToConsume(bandwidth, refilledTat, tokensToConsume, currentTimeNanos);
+                long nanosToWaitForReset = refilledTat - currentTimeNanos;
+                return ConsumptionProbe.rejected(availableToConsume, nanosToWaitForRefill, nanosToWaitForReset);
+            }
+            long newTat = BucketStateGcra.consume(bandwidth, refilledTat, tokensToConsume);
+            if (holder.tat.compareAndSet(tat, newTat)) {
+                return ConsumptionProbe.consumed(availableToConsume - tokensToConsume, newTat - currentTimeNanos);
+            }
+        }
+    }
+
+    @Override
+    protected EstimationProbe estimateAbilityToConsumeImpl(long tokensToEstimate) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            Holder holder = holderRef.get();
+            long tat = holder.tat.get();
+            if (tat == SEALED) {
+                Thread.onSpinWait();
+                continue;
+            }
+            Bandwidth bandwidth = holder.bandwidth;
+            long refilledTat = BucketStateGcra.refill(tat, currentTimeNanos);
+            long availableToConsume = BucketStateGcra.availableTokens(bandwidth, refilledTat, currentTimeNanos);
+            if (tokensToEstimate > availableToConsume) {
+                long nanosToWaitForRefill = tokensToEstimate > bandwidth.getCapacity() ? INFINITY_DURATION
+                    : BucketStateGcra.delayNanosAfterWillBePossibleToConsume(bandwidth, refilledTat, tokensToEstimate, currentTimeNanos);
+                return EstimationProbe.canNotBeConsumed(availableToConsume, nanosToWaitForRefill);
+            } else {
+                return EstimationProbe.canBeConsumed(availableToConsume);
+            }
+        }
+    }
+
+    @Override
+    protected long reserveAndCalculateTimeToSleepImpl(long tokensToConsume, long waitIfBusyNanosLimit) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            Holder holder = holderRef.get();
+            long tat = holder.tat.get();
+            if (tat == SEALED) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long refilledTat = BucketStateGcra.refill(tat, currentTimeNanos);
+            long nanosToCloseDeficit = BucketStateGcra.delayNanosAfterWillBePossibleToConsume(holder.bandwidth, refilledTat, tokensToConsume, currentTimeNanos);
+            if (nanosToCloseDeficit == INFINITY_DURATION || nanosToCloseDeficit > waitIfBusyNanosLimit) {
+                return INFINITY_DURATION;
+            }
+            if (holder.tat.compareAndSet(tat, BucketStateGcra.consume(holder.bandwidth, refilledTat, tokensToConsume))) {
+                return nanosToCloseDeficit;
+            }
+        }
+    }
+
+    @Override
+    protected long consumeIgnoringRateLimitsImpl(long tokensToConsume) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            Holder holder = holderRef.get();
+            long tat = holder.tat.get();
+            if (tat == SEALED) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long refilledTat = BucketStateGcra.refill(tat, currentTimeNanos);
+            long nanosToCloseDeficit = BucketStateGcra.delayNanosAfterWillBePossibleToConsume(holder.bandwidth, refilledTat, tokensToConsume, currentTimeNanos);
+            if (nanosToCloseDeficit == INFINITY_DURATION) {
+                return nanosToCloseDeficit;
+            }
+            if (holder.tat.compareAndSet(tat, BucketStateGcra.consume(holder.bandwidth, refilledTat, tokensToConsume))) {
+                return nanosToCloseDeficit;
+            }
+        }
+    }
+
+    @Override
+    public long getAvailableTokens() {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            Holder holder = holderRef.get();
+            long tat = holder.tat.get();
+            if (tat == SEALED) {
+                Thread.onSpinWait();
+                continue;
+            }
+            return BucketStateGcra.availableTokens(holder.bandwidth, tat, currentTimeNanos);
+        }
+    }
+
+    @Override
+    protected void addTokensImpl(long tokensToAdd) {
+        execute((state, currentTimeNanos) -> {
+            state.addTokens(tokensToAdd);
+            return Nothing.INSTANCE;
+        });
+    }
+
+    @Override
+    protected void forceAddTokensImpl(long tokensToAdd) {
+        execute((state, currentTimeNanos) -> {
+            state.forceAddTokens(tokensToAdd);
+            return Nothing.INSTANCE;
+        });
+    }
+
+    @Override
+    public void reset() {
+        execute((state, currentTimeNanos) -> {
+            state.reset();
+            return Nothing.INSTANCE;
+        });
+    }
+
+    @Override
+    protected void replaceConfigurationImpl(BucketConfiguration newConfiguration, TokensInheritanceStrategy tokensInheritanceStrategy) {
+        replaceConfigurationAndReturnNewState(newConfiguration, tokensInheritanceStrategy);
+    }
+
+    @Override
+    protected VerboseResult<Long> consumeAsMuchAsPossibleVerboseImpl(long limit) {
+        return execute((state, currentTimeNanos) -> {
+            long toConsume = Math.min(limit, state.getAvailableTokens());
+            if (toConsume <= 0) {
+                return 0L;
+            }
+            state.consume(toConsume);
+            return toConsume;
+        });
+    }
+
+    @Override
+    protected VerboseResult<Boolean> tryConsumeVerboseImpl(long tokensToConsume) {
+        return execute((state, currentTimeNanos) -> {
+            if (tokensToConsume > state.getAvailableTokens()) {
+                return false;
+            }
+            state.consume(tokensToConsume);
+            return true;
+        });
+    }
+
+    @Override
+    protected VerboseResult<ConsumptionProbe> tryConsumeAndReturnRemainingTokensVerboseImpl(long tokensToConsume) {
+        return execute((state, currentTimeNanos) -> {
+            long availableToConsume = state.getAvailableTokens();
+            if (tokensToConsume > availableToConsume) {
+                long nanosToWaitForRefill = state.calculateDelayNanosAfterWillBePossibleToConsume(tokensToConsume, currentTimeNanos, true);
+                long nanosToWaitForReset = state.calculateFullRefillingTime(currentTimeNanos);
+                return ConsumptionProbe.rejected(availableToConsume, nanosToWaitForRefill, nanosToWaitForReset);
+            }
+            state.consume(tokensToConsume);
+            long nanosToWaitForReset = state.calculateFullRefillingTime(currentTimeNanos);
+            return ConsumptionProbe.consumed(availableToConsume - tokensToConsume, nanosToWaitForReset);
+        });
+    }
+
+    @Override
+    protected VerboseResult<EstimationProbe> estimateAbilityToConsumeVerboseImpl(long tokensToEstimate) {
+        return execute((state, currentTimeNanos) -> {
+            long availableToConsume = state.getAvailableTokens();
+            if (tokensToEstimate > availableToConsume) {
+                long nanosToWaitForRefill = state.calculateDelayNanosAfterWillBePossibleToConsume(tokensToEstimate, currentTimeNanos, true);
+                return EstimationProbe.canNotBeConsumed(availableToConsume, nanosToWaitForRefill);
+            } else {
+                return EstimationProbe.canBeConsumed(availableToConsume);
+            }
+        });
+    }
+
+    @Override
+    protected VerboseResult<Long> getAvailableTokensVerboseImpl() {
+        return execute((state, currentTimeNanos) -> state.getAvailableTokens());
+    }
+
+    @Override
+    protected VerboseResult<Nothing> addTokensVerboseImpl(long tokensToAdd) {
+        return execute((state, currentTimeNanos) -> {
+            state.addTokens(tokensToAdd);
+            return Nothing.INSTANCE;
+        });
+    }
+
+    @Override
+    protected VerboseResult<Nothing> forceAddTokensVerboseImpl(long tokensToAdd) {
+        return execute((state, currentTimeNanos) -> {
+            state.forceAddTokens(tokensToAdd);
+            return Nothing.INSTANCE;
+        });
+    }
+
+    @Override
+    protected VerboseResult<Nothing> resetVerboseImpl() {
+        return execute((state, currentTimeNanos) -> {
+            state.reset();
+            return Nothing.INSTANCE;
+        });
+    }
+
+    @Override
+    protected VerboseResult<Nothing> replaceConfigurationVerboseImpl(BucketConfiguration newConfiguration, TokensInheritanceStrategy tokensInheritanceStrategy) {
+        return replaceConfigurationAndReturnNewState(newConfiguration, tokensInheritanceStrategy);
+    }
+
+    @Override
+    protected VerboseResult<Long> consumeIgnoringRateLimitsVerboseImpl(long tokensToConsume) {
+        return execute((state, currentTimeNanos) -> {
+            long nanosToCloseDeficit = state.calculateDelayNanosAfterWillBePossibleToConsume(tokensToConsume, currentTimeNanos, false);
+            if (nanosToCloseDeficit == INFINITY_DURATION) {
+                return nanosToCloseDeficit;
+            }
+            state.consume(tokensToConsume);
+            return nanosToCloseDeficit;
+        });
+    }
+
+    @Override
+    protected VerboseResult<Long> reserveAndCalculateTimeToSleepVerboseImpl(long tokensToConsume, long maxWaitTimeNanos) {
+        return execute((state, currentTimeNanos) -> {
+            long nanosToCloseDeficit = state.calculateDelayNanosAfterWillBePossibleToConsume(tokensToConsume, currentTimeNanos, false);
+            if (nanosToCloseDeficit == INFINITY_DURATION || nanosToCloseDeficit > maxWaitTimeNanos) {
+                return INFINITY_DURATION;
+            }
+            state.consume(tokensToConsume);
+            return nanosToCloseDeficit;
+        });
+    }
+
+    @Override
+    public BucketConfiguration getConfiguration() {
+        return holderRef.get().configuration;
+    }
+
+    @Override
+    public TimeMeter getTimeMeter() {
+        return timeMeter;
+    }
+
+    @Override
+    public SynchronizationStrategy getSynchronizationStrategy() {
+        return SynchronizationStrategy.LOCK_FREE;
+    }
+
+    private <T> VerboseResult<T> execute(GcraOperation<T> operation) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            Holder holder = holderRef.get();
+            long tat = holder.tat.get();
+            if (tat == SEALED) {
+                Thread.onSpinWait();
+                continue;
+            }
+            BucketStateGcra state = new BucketStateGcra(holder.configuration, new long[] {tat}, currentTimeNanos);
+            T result = operation.apply(state, currentTimeNanos);
+            long newTat = state.getTheoreticalArrivalTime(0);
+            if (newTat == BucketStateGcra.refill(tat, currentTimeNanos) || holder.tat.compareAndSet(tat, newTat)) {
+                return new VerboseResult<>(currentTimeNanos, result, state);
+            }
+        }
+    }
+
+    private VerboseResult<Nothing> replaceConfigurationAndReturnNewState(BucketConfiguration newConfiguration, TokensInheritanceStrategy tokensInheritanceStrategy) {
+        if (newConfiguration.getBandwidths().length != 1) {
+            throw BucketExceptions.multipleBandwidthsAreNotSupportedByGcraBucket(newConfiguration.getBandwidths().length);
+        }
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            Holder holder = holderRef.get();
+            long tat = holder.tat.get();
+            if (tat == SEALED) {
+                Thread.onSpinWait();
+                continue;
+            }
+            BucketStateGcra state = new BucketStateGcra(holder.configuration, new long[] {tat}, currentTimeNanos);
+            BucketStateGcra newState = (BucketStateGcra) state.replaceConfiguration(newConfiguration, tokensInheritanceStrategy, currentTimeNanos);
+            // seal the current cell, so concurrent consumers will not be able to update the tat of previous configuration
+            if (holder.tat.compareAndSet(tat, SEALED)) {
+                holderRef.set(new Holder(newConfiguration, newState.getTheoreticalArrivalTime(0)));
+                return new VerboseResult<>(currentTimeNanos, null, newState);
+            }
+        }
+    }
+
+    private Holder readHolder(long[] tatHolder) {
+        while (true) {
+            Holder holder = holderRef.get();
+            long tat = holder.tat.get();
+            if (tat != SEALED) {
+                tatHolder[0] = tat;
+                return holder;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private static Holder createHolder(BucketConfiguration configuration, long currentTimeNanos) {
+        Bandwidth[] bandwidths = configuration.getBandwidths();
+        if (bandwidths.length != 1) {
+            throw BucketExceptions.multipleBandwidthsAreNotSupportedByGcraBucket(bandwidths.length);
+        }
+        BucketStateGcra.checkCompatibility(bandwidths[0]);
+        return new Holder(configuration, BucketStateGcra.initialTheoreticalArrivalTime(bandwidths[0], currentTimeNanos));
+    }
+
+    private interface GcraOperation<T> {
+        T apply(BucketStateGcra state, long currentTimeNanos);
+    }
+
+    private static final class Holder {
+
+        private final BucketConfiguration configuration;
+        private final Bandwidth bandwidth;
+        private final AtomicLong tat;
+
+        private Holder(BucketConfiguration configuration, long tat) {
+            this.configuration = configuration;
+            this.bandwidth = configuration.getBandwidths()[0];
+            this.tat = new AtomicLong(tat);
+        }
+
+    }
+
+    @Override
+    public String toString() {
+        long[] tat = new long[1];
+        Holder holder = readHolder(tat);
+        return "LockFreeGcraBucket{" +
+                "theoreticalArrivalTime=" + tat[0] +
+                ", configuration=" + holder.configuration +
+                '}';
+    }
+
+    public static final SerializationHandle<LockFreeGcraBucket> SERIALIZATION_HANDLE = new SerializationHandle<>() {
+        @Override
+        public <S> LockFreeGcraBucket deserialize(DeserializationAdapter<S> adapter, S input) throws IOException {
+            int formatNumber = adapter.readInt(input);
+            Versions.check(formatNumber, v_8_14_0, v_8_14_0);
+
+            BucketConfiguration bucketConfiguration = BucketConfiguration.SERIALIZATION_HANDLE.deserialize(adapter, input);
+            long tat = adapter.readLong(input);
+
+            AtomicReference<Holder> holderRef = new AtomicReference<>(new Holder(bucketConfiguration, tat));
+            return new LockFreeGcraBucket(holderRef, TimeMeter.SYSTEM_MILLISECONDS, BucketListener.NOPE);
+        }
+
+        @Override
+        public <O> void serialize(SerializationAdapter<O> adapter, O output, LockFreeGcraBucket bucket, Version backwardCompatibilityVersion, Scope scope) throws IOException {
+            if (bucket.timeMeter != TimeMeter.SYSTEM_MILLISECONDS) {
+                throw new NotSerializableException("Only TimeMeter.SYSTEM_MILLISECONDS can be serialized safely");
+            }
+            adapter.writeInt(output, v_8_14_0.getNumber());
+            long[] tat = new long[1];
+            Holder holder = bucket.readHolder(tat);
+            BucketConfiguration.SERIALIZATION_HANDLE.serialize(adapter, output, holder.configuration, backwardCompatibilityVersion, scope);
+            adapter.writeLong(output, tat[0]);
+        }
+
+        @Override
+        public int getTypeId() {
+            return 63;
+        }
+
+        @Override
+        public Class<LockFreeGcraBucket> getSerializedType() {
+            return LockFreeGcraBucket.class;
+        }
+
+        @Override
+        public LockFreeGcraBucket fromJsonCompatibleSnapshot(Map<String, Object> snapshot) throws IOException {
+            int formatNumber = readIntValue(snapshot, "version");
+            Versions.check(formatNumber, v_8_14_0, v_8_14_0);
+
+            Map<String, Object> configurationSnapshot = (Map<String, Object>) snapshot.get("configuration");
+            BucketConfiguration configuration = BucketConfiguration.SERIALIZATION_HANDLE.fromJsonCompatibleSnapshot(configurationSnapshot);
+            long tat = readLongValue(snapshot, "tat");
+
+            AtomicReference<Holder> holderRef = new AtomicReference<>(new Holder(configuration, tat));
+            return new LockFreeGcraBucket(holderRef, TimeMeter.SYSTEM_MILLISECONDS, BucketListener.NOPE);
+        }
+
+        @Override
+        public Map<String, Object> toJsonCompatibleSnapshot(LockFreeGcraBucket bucket, Version backwardCompatibilityVersion, Scope scope) throws IOException {
+            if (bucket.timeMeter != TimeMeter.SYSTEM_MILLISECONDS) {
+                throw new NotSerializableException("Only TimeMeter.SYSTEM_MILLISECONDS can be serialized safely");
+            }
+            long[] tat = new long[1];
+            Holder holder = bucket.readHolder(tat);
+            Map<String, Object> result = new HashMap<>();
+            result.put("version", v_8_14_0.getNumber());
+            result.put("configuration", BucketConfiguration.SERIALIZATION_HANDLE.toJsonCompatibleSnapshot(holder.configuration, backwardCompatibilityVersion, scope));
+            result.put("tat", tat[0]);
+            return result;
+        }
+
+        @Override
+        public String getTypeName() {
+            return "LockFreeGcraBucket";
+        }
+
+    };
+
+    @Override
+    public boolean equalsByContent(LockFreeGcraBucket other) {
+        long[] tat = new long[1];
+        long[] otherTat = new long[1];
+        Holder holder = readHolder(tat);
+        Holder otherHolder = other.readHolder(otherTat);
+        return tat[0] == otherTat[0] &&
+                ComparableByContent.equals(holder.configuration, otherHolder.configuration) &&
+                timeMeter == other.timeMeter;
+    }
+
+}
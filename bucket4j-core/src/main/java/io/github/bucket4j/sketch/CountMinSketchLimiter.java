@@ -0,0 +1,209 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.sketch;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.Experimental;
+import io.github.bucket4j.TimeMeter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static io.github.bucket4j.LimitChecker.checkTokensToConsume;
+
+/**
+ * Approximate rate limiter for unbounded key spaces (like source IP addresses) which uses constant amount of memory independently of how many keys were observed.
+ *
+ * <p>
+ * Instead of a bucket per key, limiter holds a count-min sketch per bandwidth: {@code depth} rows of {@code width} cells,
+ * each key is mapped to one cell in each row. Each cell stores "theoretical arrival time" (as in GCRA) - the moment
+ * when consumption of all keys mapped to this cell will be completely refilled, so consumption decays over the time
+ * with exactly the same speed as tokens are refilled by greedy {@link Bandwidth}.
+ * Consumption of the key is estimated as minimum across its cells, and {@code tryConsume} costs {@code depth} hash calculations
+ * plus {@code depth} atomic updates per bandwidth.
+ *
+ * <p>
+ * Errors are one-sided: collisions can only overestimate consumption of the key, so the key is never allowed to consume more than its bandwidth permits,
+ * but innocent key that shares all its cells with heavy keys can be rejected earlier than it would be rejected by exact bucket.
+ * The probability of such false rejection decreases exponentially with {@code depth}, and the size of overestimation decreases linearly with {@code width}.
+ * Concurrent requests for the same key are rechecked after the sketch was updated and rolled back when limit is exceeded,
+ * so concurrency can lead only to false rejections, never to overconsumption.
+ *
+ * <p>
+ * Only greedy refill is supported, and each key starts with full capacity.
+ *
+ * @param <K> type of key
+ */
+@Experimental
+public class CountMinSketchLimiter<K> {
+
+    private final TimeMeter timeMeter;
+    private final long originNanos;
+    private final int depth;
+    private final int widthMask;
+    private final long[] capacities;
+    private final long[] refillPeriodNanos;
+    private final long[] refillTokens;
+    private final long[] burstNanos;
+    private final AtomicLongArray[] cells;
+
+    CountMinSketchLimiter(BucketConfiguration configuration, int width, int depth, TimeMeter timeMeter) {
+        Bandwidth[] bandwidths = configuration.getBandwidths();
+        this.timeMeter = timeMeter;
+        this.originNanos = timeMeter.currentTimeNanos();
+        this.depth = depth;
+        this.widthMask = width - 1;
+        this.capacities = new long[bandwidths.length];
+        this.refillPeriodNanos = new long[bandwidths.length];
+        this.refillTokens = new long[bandwidths.length];
+        this.burstNanos = new long[bandwidths.length];
+        this.cells = new AtomicLongArray[bandwidths.length];
+        for (int i = 0; i < bandwidths.length; i++) {
+            Bandwidth bandwidth = bandwidths[i];
+            capacities[i] = bandwidth.getCapacity();
+            refillPeriodNanos[i] = bandwidth.getRefillPeriodNanos();
+            refillTokens[i] = bandwidth.getRefillTokens();
+            burstNanos[i] = tokensToNanos(i, bandwidth.getCapacity());
+            cells[i] = new AtomicLongArray(width * depth);
+        }
+    }
+
+    public static CountMinSketchLimiterBuilder builder() {
+        return new CountMinSketchLimiterBuilder();
+    }
+
+    /**
+     * Tries to consume a specified number of tokens on behalf of the {@code key}.
+     *
+     * @param key the key to which consumption is attributed
+     * @param tokensToConsume The number of tokens to consume, must be a positive number.
+     *
+     * @return {@code true} if the tokens were consumed, {@code false} otherwise.
+     */
+    public boolean tryConsume(K key, long tokensToConsume) {
+        checkTokensToConsume(tokensToConsume);
+        long currentTimeNanos = currentTimeNanos();
+        long hash = hash(key);
+
+        // fast path, rejection does not modify the sketch
+        for (int i = 0; i < cells.length; i++) {
+            long theoreticalArrivalTime = Math.max(estimate(cells[i], hash), currentTimeNanos);
+            long newTheoreticalArrivalTime = theoreticalArrivalTime + tokensToNanos(i, tokensToConsume);
+            if (newTheoreticalArrivalTime - currentTimeNanos > burstNanos[i] || newTheoreticalArrivalTime < theoreticalArrivalTime) {
+                return false;
+            }
+        }
+
+        // estimation above can be outdated because of concurrent callers,
+        // so limit is rechecked after all cells were updated, when consumption of concurrent callers is already visible
+        for (int i = 0; i < cells.length; i++) {
+            add(cells[i], hash, currentTimeNanos, tokensToNanos(i, tokensToConsume));
+        }
+        for (int i = 0; i < cells.length; i++) {
+            if (estimate(cells[i], hash) - currentTimeNanos > burstNanos[i]) {
+                for (int j = 0; j < cells.length; j++) {
+                    subtract(cells[j], hash, tokensToNanos(j, tokensToConsume));
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void add(AtomicLongArray bandwidthCells, long hash, long currentTimeNanos, long costNanos) {
+        for (int row = 0; row < depth; row++) {
+            int index = index(hash, row);
+            while (true) {
+                long previous = bandwidthCells.get(index);
+                if (bandwidthCells.compareAndSet(index, previous, Math.max(previous, currentTimeNanos) + costNanos)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private void subtract(AtomicLongArray bandwidthCells, long hash, long costNanos) {
+        for (int row = 0; row < depth; row++) {
+            bandwidthCells.addAndGet(index(hash, row), -costNanos);
+        }
+    }
+
+    /**
+     * Estimates amount of tokens available for the {@code key}, the estimation is never greater than the amount which exact bucket would have.
+     *
+     * @param key the key
+     *
+     * @return estimated amount of available tokens
+     */
+    public long getAvailableTokens(K key) {
+        long currentTimeNanos = currentTimeNanos();
+        long hash = hash(key);
+        long availableTokens = Long.MAX_VALUE;
+        for (int i = 0; i < cells.length; i++) {
+            long debtNanos = Math.max(0, estimate(cells[i], hash) - currentTimeNanos);
+            long consumed = (long) Math.ceil((double) debtNanos * refillTokens[i] / refillPeriodNanos[i]);
+            availableTokens = Math.min(availableTokens, Math.max(0, capacities[i] - consumed));
+        }
+        return availableTokens;
+    }
+
+    private long estimate(AtomicLongArray bandwidthCells, long hash) {
+        long min = bandwidthCells.get(index(hash, 0));
+        for (int row = 1; row < depth; row++) {
+            min = Math.min(min, bandwidthCells.get(index(hash, row)));
+        }
+        return min;
+    }
+
+    private int index(long hash, int row) {
+        // Kirsch-Mitzenmacher double hashing, rows are stored one after another
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return row * (widthMask + 1) + ((h1 + row * h2) & widthMask);
+    }
+
+    private long currentTimeNanos() {
+        return timeMeter.currentTimeNanos() - originNanos;
+    }
+
+    private long tokensToNanos(int bandwidthIndex, long tokens) {
+        long period = refillPeriodNanos[bandwidthIndex];
+        long refill = refillTokens[bandwidthIndex];
+        long high = Math.multiplyHigh(tokens, period);
+        if (high == 0 && tokens * period >= 0) {
+            long divided = tokens * period;
+            return divided / refill + (divided % refill == 0 ? 0 : 1);
+        }
+        // arithmetic overflow, there is no sense to stay in integer arithmetic when having deal with so big numbers
+        return (long) Math.ceil((double) tokens * (double) period / (double) refill);
+    }
+
+    static long hash(Object key) {
+        // murmur3 finalizer
+        long h = key.hashCode();
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+}
@@ -0,0 +1,143 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.sketch;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BandwidthBuilder.BandwidthBuilderBuildStage;
+import io.github.bucket4j.BandwidthBuilder.BandwidthBuilderCapacityStage;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketExceptions;
+import io.github.bucket4j.ConfigurationBuilder;
+import io.github.bucket4j.TimeMeter;
+
+import java.util.function.Function;
+
+/**
+ * The builder for {@link CountMinSketchLimiter}.
+ *
+ * <p>
+ * Memory occupied by limiter is {@code 8 * width * depth} bytes per bandwidth, and does not depend on the number of keys.
+ */
+public class CountMinSketchLimiterBuilder {
+
+    public static final int DEFAULT_WIDTH = 1 << 14;
+    public static final int DEFAULT_DEPTH = 4;
+
+    private final ConfigurationBuilder configurationBuilder = new ConfigurationBuilder();
+    private TimeMeter timeMeter = TimeMeter.SYSTEM_MILLISECONDS;
+    private int width = DEFAULT_WIDTH;
+    private int depth = DEFAULT_DEPTH;
+
+    /**
+     * Adds limited bandwidth which will be applied to each key independently.
+     *
+     * @param bandwidth limitation, only greedy refill with full initial tokens is supported
+     * @return this builder instance
+     */
+    public CountMinSketchLimiterBuilder addLimit(Bandwidth bandwidth) {
+        configurationBuilder.addLimit(bandwidth);
+        return this;
+    }
+
+    public CountMinSketchLimiterBuilder addLimit(Function<BandwidthBuilderCapacityStage, BandwidthBuilderBuildStage> bandwidthConfigurator) {
+        configurationBuilder.addLimit(bandwidthConfigurator);
+        return this;
+    }
+
+    /**
+     * Specifies the amount of cells in each row of sketch, bigger width leads to smaller overestimation of consumption.
+     *
+     * @param width amount of cells in each row, must be positive power of two
+     * @return this builder instance
+     */
+    public CountMinSketchLimiterBuilder withWidth(int width) {
+        if (width <= 0 || Integer.bitCount(width) != 1) {
+            throw BucketExceptions.nonPowerOfTwoSketchWidth(width);
+        }
+        this.width = width;
+        return this;
+    }
+
+    /**
+     * Specifies the amount of rows in sketch, bigger depth leads to smaller probability of false rejection.
+     *
+     * @param depth amount of rows, each row costs one hash calculation and one atomic update per bandwidth
+     * @return this builder instance
+     */
+    public CountMinSketchLimiterBuilder withDepth(int depth) {
+        if (depth <= 0) {
+            throw BucketExceptions.nonPositiveSketchDepth(depth);
+        }
+        this.depth = depth;
+        return this;
+    }
+
+    /**
+     * Specifies {@link TimeMeter#SYSTEM_NANOTIME} as time meter.
+     *
+     * @return this builder instance
+     */
+    public CountMinSketchLimiterBuilder withNanosecondPrecision() {
+        this.timeMeter = TimeMeter.SYSTEM_NANOTIME;
+        return this;
+    }
+
+    /**
+     * Specifies {@link TimeMeter#SYSTEM_MILLISECONDS} as time meter.
+     *
+     * @return this builder instance
+     */
+    public CountMinSketchLimiterBuilder withMillisecondPrecision() {
+        this.timeMeter = TimeMeter.SYSTEM_MILLISECONDS;
+        return this;
+    }
+
+    /**
+     * Specifies {@code customTimeMeter} time meter.
+     *
+     * @param customTimeMeter object which will measure time.
+     *
+     * @return this builder instance
+     */
+    public CountMinSketchLimiterBuilder withCustomTimePrecision(TimeMeter customTimeMeter) {
+        if (customTimeMeter == null) {
+            throw BucketExceptions.nullTimeMeter();
+        }
+        this.timeMeter = customTimeMeter;
+        return this;
+    }
+
+    /**
+     * Constructs the limiter.
+     *
+     * @param <K> type of key
+     * @return the new limiter
+     */
+    public <K> CountMinSketchLimiter<K> build() {
+        BucketConfiguration configuration = configurationBuilder.build();
+        for (Bandwidth bandwidth : configuration.getBandwidths()) {
+            if (bandwidth.isRefillIntervally() || bandwidth.isIntervallyAligned() || bandwidth.getInitialTokens() != bandwidth.getCapacity()) {
+                throw BucketExceptions.onlyGreedyRefillWithFullInitialTokensIsSupportedBySketch(bandwidth);
+            }
+        }
+        return new CountMinSketchLimiter<>(configuration, width, depth, timeMeter);
+    }
+
+}
@@ -0,0 +1,90 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.sketch;
+
+/**
+ * Snapshot of key tracked by {@link HeavyHitters}.
+ *
+ * @param <K> type of key
+ */
+public class HeavyHitter<K> {
+
+    private final K key;
+    private final long consumedTokens;
+    private final long rejectedTokens;
+    private final long error;
+
+    public HeavyHitter(K key, long consumedTokens, long rejectedTokens, long error) {
+        this.key = key;
+        this.consumedTokens = consumedTokens;
+        this.rejectedTokens = rejectedTokens;
+        this.error = error;
+    }
+
+    public K getKey() {
+        return key;
+    }
+
+    /**
+     * @return amount of tokens consumed since key has been placed to tracker
+     */
+    public long getConsumedTokens() {
+        return consumedTokens;
+    }
+
+    /**
+     * @return amount of tokens rejected since key has been placed to tracker
+     */
+    public long getRejectedTokens() {
+        return rejectedTokens;
+    }
+
+    /**
+     * @return maximum overestimation of weight, it is weight of the key which was evicted when this key has been placed to tracker
+     */
+    public long getError() {
+        return error;
+    }
+
+    /**
+     * @return estimated weight of key, it is never less than real weight
+     */
+    public long getWeight() {
+        return error + consumedTokens + rejectedTokens;
+    }
+
+    /**
+     * @return weight that key has at least
+     */
+    public long getGuaranteedWeight() {
+        return consumedTokens + rejectedTokens;
+    }
+
+    @Override
+    public String toString() {
+        return "HeavyHitter{" +
+                "key=" + key +
+                ", consumedTokens=" + consumedTokens +
+                ", rejectedTokens=" + rejectedTokens +
+                ", error=" + error +
+                '}';
+    }
+
+}
@@ -0,0 +1,283 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.sketch;
+
+import io.github.bucket4j.BucketExceptions;
+import io.github.bucket4j.BucketListener;
+import io.github.bucket4j.Experimental;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free tracker of keys which consume or get rejected the most, based on Space-Saving algorithm.
+ *
+ * <p>
+ * Tracker holds fixed amount of counters, the table is split into small groups of {@link #GROUP_SIZE} slots,
+ * and each key can be placed only in the group selected by its hash. When group is full then counter with minimal weight
+ * is replaced by counter of new key which inherits the evicted weight as {@link HeavyHitter#getError() error}.
+ * Because eviction happens inside the group, the Space-Saving guarantee holds per group: any key which weight is greater than
+ * {@code groupWeight / GROUP_SIZE}, where {@code groupWeight} is the total weight of keys mapped to the same group, is guaranteed to be present.
+ * There is no global guarantee, the threshold {@code totalWeight / capacity} holds only on average when weight is evenly spread across the groups.
+ * Recording is one hash calculation, at most {@link #GROUP_SIZE} reads and one atomic increment.
+ *
+ * <p>
+ * The weight of key is amount of consumed plus rejected tokens. Tracker is fed by listeners which are bound to key:
+ * <pre>{@code
+ * HeavyHitters<String> heavyHitters = new HeavyHitters<>(1024);
+ * Bucket bucket = proxyManager.builder()
+ *     .withListener(heavyHitters.listener(key))
+ *     .build(key, configurationSupplier);
+ * }</pre>
+ * or from user code via {@link #record(Object, long, long)}.
+ *
+ * <p>
+ * Increments which race with eviction of the same counter can be lost, so all numbers are estimations.
+ *
+ * @param <K> type of key
+ */
+@Experimental
+public class HeavyHitters<K> {
+
+    public static final int GROUP_SIZE = 8;
+
+    private final AtomicReferenceArray<Counter<K>> counters;
+    private final int groupMask;
+    private final LongAdder totalWeight = new LongAdder();
+
+    /**
+     * Creates the tracker.
+     *
+     * @param capacity maximum amount of tracked keys, it will be rounded up to power of two and to {@link #GROUP_SIZE}
+     */
+    public HeavyHitters(int capacity) {
+        if (capacity <= 0) {
+            throw BucketExceptions.nonPositiveHeavyHittersCapacity(capacity);
+        }
+        int slots = Math.max(GROUP_SIZE, Integer.highestOneBit(capacity - 1) << 1);
+        this.counters = new AtomicReferenceArray<>(slots);
+        this.groupMask = slots / GROUP_SIZE - 1;
+    }
+
+    /**
+     * Returns listener which records consumed and rejected tokens on behalf of {@code key}, other events are ignored.
+     *
+     * @param key the key
+     * @return listener bound to the key
+     */
+    public BucketListener listener(K key) {
+        if (key == null) {
+            throw BucketExceptions.nullKey();
+        }
+        return new KeyListener<>(this, key);
+    }
+
+    /**
+     * Records consumption of {@code key}.
+     *
+     * @param key the key
+     * @param consumedTokens amount of consumed tokens
+     * @param rejectedTokens amount of rejected tokens
+     */
+    public void record(K key, long consumedTokens, long rejectedTokens) {
+        long weight = consumedTokens + rejectedTokens;
+        if (weight <= 0) {
+            return;
+        }
+        totalWeight.add(weight);
+        int hash = spread(key.hashCode());
+        int groupStart = (hash & groupMask) * GROUP_SIZE;
+        while (!tryRecord(groupStart, key, consumedTokens, rejectedTokens)) {
+            // somebody else has modified the group, rescan it because the key can be inserted concurrently
+        }
+    }
+
+    private boolean tryRecord(int groupStart, K key, long consumedTokens, long rejectedTokens) {
+        int victimIndex = -1;
+        Counter<K> victim = null;
+        for (int i = groupStart; i < groupStart + GROUP_SIZE; i++) {
+            Counter<K> counter = counters.get(i);
+            if (counter == null) {
+                Counter<K> newCounter = new Counter<>(key, consumedTokens, rejectedTokens, 0);
+                // slot can be concurrently occupied or cleared by reset, in both cases group should be rescanned
+                return counters.compareAndSet(i, null, newCounter);
+            }
+            if (counter.key.equals(key)) {
+                counter.add(consumedTokens, rejectedTokens);
+                return true;
+            }
+            if (victim == null || counter.getWeight() < victim.getWeight()) {
+                victim = counter;
+                victimIndex = i;
+            }
+        }
+        long error = victim.getWeight();
+        Counter<K> replacement = new Counter<>(key, consumedTokens, rejectedTokens, error);
+        return counters.compareAndSet(victimIndex, victim, replacement);
+    }
+
+    /**
+     * Returns estimation for {@code key}, or {@code null} if key is not tracked.
+     *
+     * @param key the key
+     * @return estimation for the key
+     */
+    public HeavyHitter<K> get(K key) {
+        int groupStart = (spread(key.hashCode()) & groupMask) * GROUP_SIZE;
+        for (int i = groupStart; i < groupStart + GROUP_SIZE; i++) {
+            Counter<K> counter = counters.get(i);
+            if (counter != null && counter.key.equals(key)) {
+                return counter.snapshot();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether {@code key} is tracked with weight that guaranteed to be not less than {@code minWeight}.
+     * This method is cheap enough to be called on hot path in order to treat hot keys differently.
+     *
+     * @param key the key
+     * @param minWeight the threshold
+     * @return true if key is hot
+     */
+    public boolean isHeavyHitter(K key, long minWeight) {
+        HeavyHitter<K> hitter = get(key);
+        return hitter != null && hitter.getGuaranteedWeight() >= minWeight;
+    }
+
+    /**
+     * Returns up to {@code k} keys with maximal weight, sorted by weight in descending order.
+     *
+     * @param k maximum amount of keys to return
+     * @return the top keys
+     */
+    public List<HeavyHitter<K>> getTop(int k) {
+        List<HeavyHitter<K>> snapshot = new ArrayList<>(counters.length());
+        for (int i = 0; i < counters.length(); i++) {
+            Counter<K> counter = counters.get(i);
+            if (counter != null) {
+                snapshot.add(counter.snapshot());
+            }
+        }
+        snapshot.sort(Comparator.comparingLong((HeavyHitter<K> hitter) -> hitter.getWeight()).reversed());
+        return snapshot.size() <= k ? snapshot : new ArrayList<>(snapshot.subList(0, k));
+    }
+
+    /**
+     * @return total weight recorded by this tracker, including weight of keys which were evicted,
+     * weight which is recorded concurrently with this call can be partially counted
+     */
+    public long getTotalWeight() {
+        return totalWeight.sum();
+    }
+
+    /**
+     * Forgets all tracked keys.
+     */
+    public void reset() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, null);
+        }
+        totalWeight.reset();
+    }
+
+    private static int spread(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        return hash;
+    }
+
+    private static final class Counter<K> {
+
+        private final K key;
+        private final long error;
+        private final AtomicLong consumed;
+        private final AtomicLong rejected;
+
+        private Counter(K key, long consumed, long rejected, long error) {
+            this.key = key;
+            this.error = error;
+            this.consumed = new AtomicLong(consumed);
+            this.rejected = new AtomicLong(rejected);
+        }
+
+        private void add(long consumedTokens, long rejectedTokens) {
+            if (consumedTokens != 0) {
+                consumed.addAndGet(consumedTokens);
+            }
+            if (rejectedTokens != 0) {
+                rejected.addAndGet(rejectedTokens);
+            }
+        }
+
+        private long getWeight() {
+            return error + consumed.get() + rejected.get();
+        }
+
+        private HeavyHitter<K> snapshot() {
+            return new HeavyHitter<>(key, consumed.get(), rejected.get(), error);
+        }
+
+    }
+
+    private static final class KeyListener<K> implements BucketListener {
+
+        private final HeavyHitters<K> heavyHitters;
+        private final K key;
+
+        private KeyListener(HeavyHitters<K> heavyHitters, K key) {
+            this.heavyHitters = heavyHitters;
+            this.key = key;
+        }
+
+        @Override
+        public void onConsumed(long tokens) {
+            heavyHitters.record(key, tokens, 0);
+        }
+
+        @Override
+        public void onRejected(long tokens) {
+            heavyHitters.record(key, 0, tokens);
+        }
+
+        @Override
+        public void onParked(long nanos) {
+            // do nothing
+        }
+
+        @Override
+        public void onInterrupted(InterruptedException e) {
+            // do nothing
+        }
+
+        @Override
+        public void onDelayed(long nanos) {
+            // do nothing
+        }
+
+    }
+
+}
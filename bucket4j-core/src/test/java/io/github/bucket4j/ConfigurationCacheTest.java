@@ -0,0 +1,101 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j;
+
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import io.github.bucket4j.distributed.remote.RemoteStat;
+import io.github.bucket4j.distributed.versioning.Versions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static io.github.bucket4j.distributed.serialization.InternalSerializationHelper.deserializeState;
+import static io.github.bucket4j.distributed.serialization.InternalSerializationHelper.serializeState;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConfigurationCacheTest {
+
+    @Test
+    public void builderShouldShareIdenticalConfigurations() {
+        BucketConfiguration first = BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(17).refillGreedy(17, Duration.ofSeconds(3)))
+            .build();
+        BucketConfiguration second = BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(17).refillGreedy(17, Duration.ofSeconds(3)))
+            .build();
+        assertSame(first, second);
+        assertSame(first, ConfigurationCache.getDefault().getByFingerprint(first.getFingerprint()));
+    }
+
+    @Test
+    public void shouldNotShareConfigurationsWithDifferentIdentifiers() {
+        ConfigurationCache cache = new ConfigurationCache(16);
+        BucketConfiguration withoutId = cache.intern(BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(18).refillGreedy(18, Duration.ofSeconds(3)))
+            .build());
+        BucketConfiguration withId = cache.intern(BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(18).refillGreedy(18, Duration.ofSeconds(3)).id("x"))
+            .build());
+        assertNotSame(withoutId, withId);
+        assertEquals("x", withId.getBandwidths()[0].getId());
+    }
+
+    @Test
+    public void deserializedStatesShouldShareConfiguration() throws IOException {
+        BucketConfiguration configuration = BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(19).refillGreedy(19, Duration.ofSeconds(3)))
+            .build();
+        BucketState state = BucketState.createInitialState(configuration, MathType.INTEGER_64_BITS, 0);
+        byte[] bytes = serializeState(new RemoteBucketState(state, new RemoteStat(0), null), Versions.getLatest());
+
+        RemoteBucketState first = deserializeState(bytes);
+        RemoteBucketState second = deserializeState(bytes);
+        assertSame(configuration, first.getConfiguration());
+        assertSame(first.getConfiguration(), second.getConfiguration());
+    }
+
+    @Test
+    public void shouldBeBounded() {
+        ConfigurationCache cache = new ConfigurationCache(4);
+        for (int i = 1; i <= 100; i++) {
+            BucketConfiguration configuration = new BucketConfiguration(java.util.List.of(
+                Bandwidth.builder().capacity(i).refillGreedy(i, Duration.ofSeconds(1)).build()));
+            assertSame(configuration, cache.intern(configuration));
+            BucketConfiguration copy = new BucketConfiguration(java.util.List.of(
+                Bandwidth.builder().capacity(i).refillGreedy(i, Duration.ofSeconds(1)).build()));
+            assertSame(configuration, cache.intern(copy));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new ConfigurationCache(0));
+    }
+
+    @Test
+    public void shouldBeCleared() {
+        ConfigurationCache cache = new ConfigurationCache(16);
+        BucketConfiguration configuration = cache.intern(BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(23).refillGreedy(23, Duration.ofSeconds(3)))
+            .build());
+        assertSame(configuration, cache.getByFingerprint(configuration.getFingerprint()));
+
+        cache.clear();
+        assertNull(cache.getByFingerprint(configuration.getFingerprint()));
+    }
+
+}
@@ -0,0 +1,259 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.core_algorithms.gcra;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketState;
+import io.github.bucket4j.BucketStateGcra;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.EstimationProbe;
+import io.github.bucket4j.MathType;
+import io.github.bucket4j.TokensInheritanceStrategy;
+import io.github.bucket4j.distributed.BucketProxy;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import io.github.bucket4j.distributed.remote.RemoteStat;
+import io.github.bucket4j.distributed.serialization.DataOutputSerializationAdapter;
+import io.github.bucket4j.distributed.serialization.InternalSerializationHelper;
+import io.github.bucket4j.distributed.serialization.Scope;
+import io.github.bucket4j.distributed.versioning.Versions;
+import io.github.bucket4j.local.LocalBucket;
+import io.github.bucket4j.local.LockFreeBucket;
+import io.github.bucket4j.local.LockFreeGcraBucket;
+import io.github.bucket4j.local.SynchronizationStrategy;
+import io.github.bucket4j.mock.ProxyManagerMock;
+import io.github.bucket4j.mock.TimeMeterMock;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GcraTest {
+
+    private final TimeMeterMock clock = new TimeMeterMock(0);
+
+    // GCRA has no place to hold rounding error, so waiting time can be pessimistic on one nanosecond per consumption since bucket was full last time
+    private static final long MAX_ROUNDING_ERROR_NANOS = 100;
+
+    // refill period is divisible by refill tokens, so GCRA should be indistinguishable from integer math
+    private final BucketConfiguration configuration = BucketConfiguration.builder()
+        .addLimit(limit -> limit.capacity(100).refillGreedy(10, Duration.ofSeconds(1)))
+        .build();
+
+    @Test
+    public void shouldUseSingleWordBucketForSingleBandwidth() {
+        LocalBucket bucket = Bucket.builder()
+            .addLimit(limit -> limit.capacity(100).refillGreedy(10, Duration.ofSeconds(1)))
+            .withMathType(MathType.GCRA)
+            .build();
+        assertEquals(LockFreeGcraBucket.class, bucket.getClass());
+
+        LocalBucket multiBandwidthBucket = Bucket.builder()
+            .addLimit(limit -> limit.capacity(100).refillGreedy(10, Duration.ofSeconds(1)))
+            .addLimit(limit -> limit.capacity(1000).refillGreedy(1000, Duration.ofMinutes(1)))
+            .withMathType(MathType.GCRA)
+            .build();
+        assertEquals(LockFreeBucket.class, multiBandwidthBucket.getClass());
+    }
+
+    @Test
+    public void shouldRejectIntervalRefill() {
+        assertThrows(IllegalArgumentException.class, () -> Bucket.builder()
+            .addLimit(limit -> limit.capacity(100).refillIntervally(10, Duration.ofSeconds(1)))
+            .withMathType(MathType.GCRA)
+            .build());
+    }
+
+    @Test
+    public void localBucketShouldBeEquivalentToIntegerMath() {
+        for (SynchronizationStrategy strategy : SynchronizationStrategy.values()) {
+            TimeMeterMock clock = new TimeMeterMock(0);
+            Bucket gcra = Bucket.builder()
+                .addLimit(limit -> limit.capacity(100).refillGreedy(10, Duration.ofSeconds(1)).initialTokens(30))
+                .withSynchronizationStrategy(strategy)
+                .withMathType(MathType.GCRA)
+                .withCustomTimePrecision(clock)
+                .build();
+            Bucket integer = Bucket.builder()
+                .addLimit(limit -> limit.capacity(100).refillGreedy(10, Duration.ofSeconds(1)).initialTokens(30))
+                .withSynchronizationStrategy(strategy)
+                .withCustomTimePrecision(clock)
+                .build();
+            checkEquivalence(gcra, integer, clock, new Random(42), 0);
+        }
+    }
+
+    @Test
+    public void multipleBandwidthsShouldBeEquivalentToIntegerMath() {
+        TimeMeterMock clock = new TimeMeterMock(0);
+        Bucket gcra = Bucket.builder()
+            .addLimit(limit -> limit.capacity(100).refillGreedy(10, Duration.ofSeconds(1)))
+            .addLimit(limit -> limit.capacity(300).refillGreedy(60, Duration.ofMinutes(1)))
+            .withMathType(MathType.GCRA)
+            .withCustomTimePrecision(clock)
+            .build();
+        Bucket integer = Bucket.builder()
+            .addLimit(limit -> limit.capacity(100).refillGreedy(10, Duration.ofSeconds(1)))
+            .addLimit(limit -> limit.capacity(300).refillGreedy(60, Duration.ofMinutes(1)))
+            .withCustomTimePrecision(clock)
+            .build();
+        checkEquivalence(gcra, integer, clock, new Random(777), 0);
+    }
+
+    @Test
+    public void shouldReplaceConfiguration() {
+        BucketState state = BucketState.createInitialState(configuration, MathType.GCRA, 0);
+        state.consume(60);
+
+        BucketConfiguration newConfiguration = BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(200).refillGreedy(20, Duration.ofSeconds(1)))
+            .build();
+        assertEquals(40, state.replaceConfiguration(newConfiguration, TokensInheritanceStrategy.AS_IS, 0).getAvailableTokens());
+        assertEquals(80, state.replaceConfiguration(newConfiguration, TokensInheritanceStrategy.PROPORTIONALLY, 0).getAvailableTokens());
+        assertEquals(140, state.replaceConfiguration(newConfiguration, TokensInheritanceStrategy.ADDITIVE, 0).getAvailableTokens());
+        assertEquals(200, state.replaceConfiguration(newConfiguration, TokensInheritanceStrategy.RESET, 0).getAvailableTokens());
+
+        Bucket bucket = Bucket.builder()
+            .addLimit(limit -> limit.capacity(100).refillGreedy(10, Duration.ofSeconds(1)))
+            .withMathType(MathType.GCRA)
+            .withCustomTimePrecision(clock)
+            .build();
+        bucket.tryConsume(60);
+        bucket.replaceConfiguration(newConfiguration, TokensInheritanceStrategy.AS_IS);
+        assertEquals(40, bucket.getAvailableTokens());
+        clock.addTime(Duration.ofSeconds(1).toNanos());
+        assertEquals(60, bucket.getAvailableTokens());
+    }
+
+    @Test
+    public void shouldBeUsableForDistributedBuckets() {
+        ProxyManagerMock<String> proxyManager = new ProxyManagerMock<>(clock);
+        BucketProxy bucket = proxyManager.builder()
+            .withMathType(MathType.GCRA)
+            .build("42", () -> configuration);
+
+        assertTrue(bucket.tryConsume(100));
+        assertFalse(bucket.tryConsume(1));
+        clock.addTime(Duration.ofMillis(1500).toNanos());
+        assertEquals(15, bucket.getAvailableTokens());
+    }
+
+    @Test
+    public void refillPeriodNotDivisibleByRefillTokensShouldBeEquivalentToIntegerMath() {
+        for (SynchronizationStrategy strategy : SynchronizationStrategy.values()) {
+            TimeMeterMock clock = new TimeMeterMock(0);
+            Bucket gcra = Bucket.builder()
+                .addLimit(limit -> limit.capacity(100).refillGreedy(7, Duration.ofSeconds(1)).initialTokens(30))
+                .withSynchronizationStrategy(strategy)
+                .withMathType(MathType.GCRA)
+                .withCustomTimePrecision(clock)
+                .build();
+            Bucket integer = Bucket.builder()
+                .addLimit(limit -> limit.capacity(100).refillGreedy(7, Duration.ofSeconds(1)).initialTokens(30))
+                .withSynchronizationStrategy(strategy)
+                .withCustomTimePrecision(clock)
+                .build();
+            checkEquivalence(gcra, integer, clock, new Random(13), MAX_ROUNDING_ERROR_NANOS);
+        }
+
+        TimeMeterMock clock = new TimeMeterMock(0);
+        Bucket gcra = Bucket.builder()
+            .addLimit(limit -> limit.capacity(100).refillGreedy(3, Duration.ofMillis(1000)))
+            .addLimit(limit -> limit.capacity(300).refillGreedy(17, Duration.ofMinutes(1)))
+            .withMathType(MathType.GCRA)
+            .withCustomTimePrecision(clock)
+            .build();
+        Bucket integer = Bucket.builder()
+            .addLimit(limit -> limit.capacity(100).refillGreedy(3, Duration.ofMillis(1000)))
+            .addLimit(limit -> limit.capacity(300).refillGreedy(17, Duration.ofMinutes(1)))
+            .withCustomTimePrecision(clock)
+            .build();
+        checkEquivalence(gcra, integer, clock, new Random(31), MAX_ROUNDING_ERROR_NANOS);
+    }
+
+    @Test
+    public void persistedStateShouldHoldOnlyTheoreticalArrivalTimes() throws IOException {
+        BucketState state = BucketState.createInitialState(configuration, MathType.GCRA, 0);
+        state.consume(60);
+        state.refillAllBandwidth(Duration.ofMillis(1500).toNanos());
+        assertEquals(55, state.getAvailableTokens());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BucketStateGcra.SERIALIZATION_HANDLE.serialize(DataOutputSerializationAdapter.INSTANCE, new DataOutputStream(bytes), (BucketStateGcra) state, Versions.getLatest(), Scope.PERSISTED_STATE);
+        // format number, length of array and single theoretical arrival time
+        assertEquals(4 + 4 + 8, bytes.size());
+
+        RemoteBucketState remoteState = new RemoteBucketState(state, new RemoteStat(60), null);
+        for (boolean compact : new boolean[] {false, true}) {
+            byte[] stateBytes = compact ? InternalSerializationHelper.serializeCompactState(remoteState) : InternalSerializationHelper.serializeState(remoteState, Versions.getLatest());
+            RemoteBucketState deserialized = InternalSerializationHelper.deserializeState(stateBytes);
+            assertThrows(IllegalStateException.class, deserialized::getAvailableTokens);
+
+            deserialized.refillAllBandwidth(Duration.ofMillis(1500).toNanos());
+            assertEquals(55, deserialized.getAvailableTokens());
+            deserialized.addTokens(10);
+            assertEquals(65, deserialized.getAvailableTokens());
+        }
+    }
+
+    private void checkEquivalence(Bucket gcra, Bucket integer, TimeMeterMock clock, Random random, long nanosTolerance) {
+        for (int i = 0; i < 10_000; i++) {
+            clock.addTime(random.nextInt(300_000_000));
+            long tokens = 1 + random.nextInt(120);
+            String step = "step " + i + ", tokens " + tokens;
+            switch (random.nextInt(7)) {
+                case 0 -> assertEquals(integer.tryConsume(tokens), gcra.tryConsume(tokens), step);
+                case 1 -> assertEquals(integer.tryConsumeAsMuchAsPossible(tokens), gcra.tryConsumeAsMuchAsPossible(tokens), step);
+                case 2 -> {
+                    ConsumptionProbe expected = integer.tryConsumeAndReturnRemaining(tokens);
+                    ConsumptionProbe actual = gcra.tryConsumeAndReturnRemaining(tokens);
+                    assertEquals(expected.isConsumed(), actual.isConsumed(), step);
+                    assertEquals(expected.getRemainingTokens(), actual.getRemainingTokens(), step);
+                    assertNanos(expected.getNanosToWaitForRefill(), actual.getNanosToWaitForRefill(), nanosTolerance, step);
+                    assertNanos(expected.getNanosToWaitForReset(), actual.getNanosToWaitForReset(), nanosTolerance, step);
+                }
+                case 3 -> {
+                    EstimationProbe expected = integer.estimateAbilityToConsume(tokens);
+                    EstimationProbe actual = gcra.estimateAbilityToConsume(tokens);
+                    assertEquals(expected.canBeConsumed(), actual.canBeConsumed(), step);
+                    assertEquals(expected.getRemainingTokens(), actual.getRemainingTokens(), step);
+                    assertNanos(expected.getNanosToWaitForRefill(), actual.getNanosToWaitForRefill(), nanosTolerance, step);
+                }
+                case 4 -> assertNanos(integer.consumeIgnoringRateLimits(1 + tokens % 30), gcra.consumeIgnoringRateLimits(1 + tokens % 30), nanosTolerance, step);
+                case 5 -> {
+                    integer.addTokens(tokens);
+                    gcra.addTokens(tokens);
+                }
+                case 6 -> assertEquals(integer.asVerbose().tryConsume(tokens).getValue(), gcra.asVerbose().tryConsume(tokens).getValue(), step);
+            }
+            assertEquals(integer.getAvailableTokens(), gcra.getAvailableTokens(), step);
+        }
+    }
+
+    private static void assertNanos(long expected, long actual, long tolerance, String step) {
+        assertTrue(actual >= expected && actual - expected <= tolerance, step + ": expected " + expected + " but was " + actual);
+    }
+
+}
@@ -0,0 +1,150 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.core_algorithms.sliding_window;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketState;
+import io.github.bucket4j.MathType;
+import io.github.bucket4j.TokensInheritanceStrategy;
+import io.github.bucket4j.distributed.BucketProxy;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.versioning.Versions;
+import io.github.bucket4j.mock.ProxyManagerMock;
+import io.github.bucket4j.mock.TimeMeterMock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SlidingWindowCounterTest {
+
+    private final TimeMeterMock clock = new TimeMeterMock(0);
+
+    private final BucketConfiguration configuration = BucketConfiguration.builder()
+        .addLimit(limit -> limit.capacity(100).refillIntervally(100, Duration.ofMinutes(1)))
+        .build();
+
+    @Test
+    public void shouldInterpolatePreviousWindow() {
+        Bucket bucket = Bucket.builder()
+            .addLimit(limit -> limit.capacity(100).refillIntervally(100, Duration.ofMinutes(1)))
+            .withMathType(MathType.SLIDING_WINDOW_COUNTER)
+            .withCustomTimePrecision(clock)
+            .build();
+
+        assertTrue(bucket.tryConsume(100));
+        assertFalse(bucket.tryConsume(1));
+
+        // next window started 15 seconds ago, so 75% of previous window is still visible
+        clock.addTime(Duration.ofSeconds(75).toNanos());
+        assertEquals(25, bucket.getAvailableTokens());
+        assertTrue(bucket.tryConsume(25));
+        assertFalse(bucket.tryConsume(1));
+
+        // window with 100 tokens has gone, 25 tokens consumed later are visible with weight 50% rounded up
+        clock.addTime(Duration.ofSeconds(75).toNanos());
+        assertEquals(87, bucket.getAvailableTokens());
+    }
+
+    @Test
+    public void shouldCalculateTimeToWait() {
+        Bucket bucket = Bucket.builder()
+            .addLimit(limit -> limit.capacity(100).refillIntervally(100, Duration.ofMinutes(1)))
+            .withMathType(MathType.SLIDING_WINDOW_COUNTER)
+            .withCustomTimePrecision(clock)
+            .build();
+
+        assertTrue(bucket.tryConsume(100));
+        clock.addTime(Duration.ofSeconds(30).toNanos());
+
+        // 30 seconds to the end of window, then 10% of window should pass
+        long nanosToWait = bucket.estimateAbilityToConsume(10).getNanosToWaitForRefill();
+        assertEquals(Duration.ofSeconds(36).toNanos(), nanosToWait);
+
+        clock.addTime(nanosToWait - 1);
+        assertFalse(bucket.tryConsume(10));
+        clock.addTime(1);
+        assertTrue(bucket.tryConsume(10));
+    }
+
+    @Test
+    public void shouldApplyInitialTokensAndAddTokens() {
+        BucketState state = BucketState.createInitialState(BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(100).refillIntervally(100, Duration.ofMinutes(1)).initialTokens(40))
+            .build(), MathType.SLIDING_WINDOW_COUNTER, 0);
+        assertEquals(40, state.getAvailableTokens());
+
+        state.addTokens(50);
+        assertEquals(90, state.getAvailableTokens());
+        state.addTokens(50);
+        assertEquals(100, state.getAvailableTokens());
+
+        state.forceAddTokens(20);
+        assertEquals(120, state.getAvailableTokens());
+        state.refillAllBandwidth(Duration.ofMinutes(1).toNanos());
+        assertEquals(100, state.getAvailableTokens());
+
+        state.consume(30);
+        state.reset();
+        assertEquals(100, state.getAvailableTokens());
+    }
+
+    @Test
+    public void shouldReplaceConfiguration() {
+        BucketState state = BucketState.createInitialState(configuration, MathType.SLIDING_WINDOW_COUNTER, 0);
+        state.consume(60);
+
+        BucketConfiguration newConfiguration = BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(200).refillIntervally(200, Duration.ofMinutes(1)))
+            .build();
+        assertEquals(40, state.replaceConfiguration(newConfiguration, TokensInheritanceStrategy.AS_IS, 0).getAvailableTokens());
+        assertEquals(80, state.replaceConfiguration(newConfiguration, TokensInheritanceStrategy.PROPORTIONALLY, 0).getAvailableTokens());
+        assertEquals(140, state.replaceConfiguration(newConfiguration, TokensInheritanceStrategy.ADDITIVE, 0).getAvailableTokens());
+        assertEquals(200, state.replaceConfiguration(newConfiguration, TokensInheritanceStrategy.RESET, 0).getAvailableTokens());
+        assertEquals(MathType.SLIDING_WINDOW_COUNTER, state.replaceConfiguration(newConfiguration, TokensInheritanceStrategy.AS_IS, 0).getMathType());
+    }
+
+    @Test
+    public void shouldBeUsableForDistributedBuckets() {
+        ProxyManagerMock<String> proxyManager = new ProxyManagerMock<>(clock);
+        BucketProxy bucket = proxyManager.builder()
+            .withMathType(MathType.SLIDING_WINDOW_COUNTER)
+            .build("42", () -> configuration);
+
+        assertTrue(bucket.tryConsume(100));
+        clock.addTime(Duration.ofSeconds(75).toNanos());
+        assertEquals(25, bucket.getAvailableTokens());
+    }
+
+    @Test
+    public void shouldNotBeSentToLegacyNodes() {
+        ProxyManagerMock<String> proxyManager = new ProxyManagerMock<>(ClientSideConfig.getDefault()
+            .withClientClock(clock)
+            .backwardCompatibleWith(Versions.v_8_10_0));
+        BucketProxy bucket = proxyManager.builder()
+            .withMathType(MathType.SLIDING_WINDOW_COUNTER)
+            .build("42", () -> configuration);
+
+        assertThrows(RuntimeException.class, () -> bucket.tryConsume(1));
+    }
+
+}
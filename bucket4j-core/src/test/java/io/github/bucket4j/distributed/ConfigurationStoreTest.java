@@ -0,0 +1,224 @@
+package io.github.bucket4j.distributed;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketState;
+import io.github.bucket4j.ConfigurationCache;
+import io.github.bucket4j.MathType;
+import io.github.bucket4j.distributed.proxy.AbstractProxyManagerBuilder;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.DeferredConfigurationStore;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import io.github.bucket4j.distributed.remote.RemoteCommand;
+import io.github.bucket4j.distributed.remote.RemoteStat;
+import io.github.bucket4j.distributed.remote.commands.TryConsumeCommand;
+import io.github.bucket4j.distributed.serialization.ByteBufferSerializationAdapter;
+import io.github.bucket4j.distributed.serialization.InternalSerializationHelper;
+import io.github.bucket4j.distributed.versioning.Versions;
+import io.github.bucket4j.mock.CompareAndSwapBasedProxyManagerMock;
+import io.github.bucket4j.mock.LockBasedProxyManagerMock;
+import io.github.bucket4j.mock.SelectForUpdateBasedProxyManagerMock;
+import io.github.bucket4j.mock.TimeMeterMock;
+import io.github.bucket4j.util.ComparableByContent;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConfigurationStoreTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final AtomicInteger saves = new AtomicInteger();
+    private final Map<Long, byte[]> table = new HashMap<>();
+    private IntSupplier transactionsInProgress = () -> 0;
+
+    private final ConfigurationStore store = new ConfigurationStore() {
+        @Override
+        protected synchronized byte[] load(long fingerprint) {
+            assertEquals(0, transactionsInProgress.getAsInt(), "store must not be accessed while transaction holds connection");
+            loads.incrementAndGet();
+            return table.get(fingerprint);
+        }
+        @Override
+        protected synchronized void save(long fingerprint, byte[] configurationBytes) {
+            assertEquals(0, transactionsInProgress.getAsInt(), "store must not be accessed while transaction holds connection");
+            saves.incrementAndGet();
+            table.put(fingerprint, configurationBytes);
+        }
+    };
+
+    @Test
+    public void fingerprintShouldDependOnContent() {
+        BucketConfiguration first = configuration(100, null);
+        BucketConfiguration second = configuration(100, null);
+        assertNotSame(first, second);
+        assertEquals(first.getFingerprint(), second.getFingerprint());
+
+        assertNotEquals(first.getFingerprint(), configuration(101, null).getFingerprint());
+        assertNotEquals(first.getFingerprint(), configuration(100, "id").getFingerprint());
+    }
+
+    @Test
+    public void configurationCacheShouldFindConfigurationByFingerprint() {
+        ConfigurationCache cache = new ConfigurationCache(16);
+        BucketConfiguration configuration = uniqueConfiguration("x");
+        assertNull(cache.getByFingerprint(configuration.getFingerprint()));
+        cache.intern(configuration);
+        assertSame(configuration, cache.getByFingerprint(configuration.getFingerprint()));
+    }
+
+    @Test
+    public void stateShouldBePersistedWithReferenceToConfiguration() {
+        BucketConfiguration configuration = uniqueConfiguration("minutely");
+        BucketState bucketState = BucketState.createInitialState(configuration, MathType.INTEGER_64_BITS, System.nanoTime());
+        RemoteBucketState state = new RemoteBucketState(bucketState, new RemoteStat(0), 7L);
+
+        byte[] inlineBytes = InternalSerializationHelper.serializeCompactState(state);
+        byte[] referenceBytes = null;
+        for (int i = 0; i < 100; i++) {
+            referenceBytes = InternalSerializationHelper.serializeState(state, Versions.getLatest(), store);
+        }
+        assertEquals(1, saves.get());
+        assertTrue(referenceBytes.length < inlineBytes.length);
+
+        RemoteBucketState deserialized = InternalSerializationHelper.deserializeState(referenceBytes, store);
+        assertTrue(ComparableByContent.equals(state, deserialized));
+        assertEquals(7L, deserialized.getConfigurationVersion());
+        assertEquals(1, loads.get());
+
+        // configuration is cached after first loading
+        InternalSerializationHelper.deserializeState(referenceBytes, store);
+        InternalSerializationHelper.deserializeState(referenceBytes);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void shouldFailWhenReferencedConfigurationCanNotBeResolved() {
+        BucketConfiguration configuration = uniqueConfiguration(null);
+        BucketState bucketState = BucketState.createInitialState(configuration, MathType.INTEGER_64_BITS, System.nanoTime());
+        RemoteBucketState state = new RemoteBucketState(bucketState, new RemoteStat(0), null);
+        byte[] referenceBytes = InternalSerializationHelper.serializeState(state, Versions.getLatest(), store);
+
+        assertThrows(IllegalStateException.class, () -> InternalSerializationHelper.deserializeState(referenceBytes));
+        assertThrows(IllegalStateException.class, () -> RemoteBucketState.SERIALIZATION_HANDLE.deserialize(ByteBufferSerializationAdapter.INSTANCE, ByteBuffer.wrap(referenceBytes)));
+        table.clear();
+        assertThrows(IllegalStateException.class, () -> InternalSerializationHelper.deserializeState(referenceBytes, store));
+    }
+
+    @Test
+    public void proxyManagerShouldPersistStatesWithReferenceToConfiguration() {
+        TimeMeterMock clock = new TimeMeterMock();
+        CompareAndSwapBasedProxyManagerMock<String> proxyManager = new CompareAndSwapBasedProxyManagerMock<>(ClientSideConfig.getDefault()
+            .withClientClock(clock)
+            .withConfigurationStore(store));
+        BucketConfiguration configuration = configuration(10, null);
+
+        for (int i = 0; i < 10; i++) {
+            BucketProxy bucket = proxyManager.builder().build("key-" + i, () -> configuration);
+            assertTrue(bucket.tryConsume(10));
+            assertFalse(bucket.tryConsume(1));
+        }
+        assertEquals(1, saves.get());
+    }
+
+    @Test
+    public void selectForUpdateBasedProxyManagerShouldAccessStoreOutOfTransaction() {
+        SelectForUpdateBasedProxyManagerMock<String> proxyManager = new SelectForUpdateBasedProxyManagerMock<>(ClientSideConfig.getDefault()
+            .withClientClock(new TimeMeterMock())
+            .withConfigurationStore(store));
+        transactionsInProgress = proxyManager::getAllocatedTransactions;
+        BucketConfiguration configuration = uniqueConfiguration(null);
+
+        BucketProxy bucket = proxyManager.builder().build("single", () -> configuration);
+        assertTrue(bucket.tryConsume(1));
+        assertEquals(1, saves.get());
+
+        proxyManager.setMultiKeyTransactionsEnabled(true);
+        BucketConfiguration otherConfiguration = uniqueConfiguration(null);
+        Map<String, RemoteCommand<Boolean>> commands = new LinkedHashMap<>();
+        commands.put("first", TryConsumeCommand.create(1));
+        commands.put("second", TryConsumeCommand.create(1));
+        Map<String, Boolean> results = proxyManager.executeBulk(commands, key -> otherConfiguration);
+        assertEquals(Map.of("first", true, "second", true), results);
+        assertEquals(2, saves.get());
+        assertEquals(0, proxyManager.getAllocatedTransactions());
+    }
+
+    @Test
+    public void lockBasedProxyManagerShouldAccessStoreOutOfTransaction() {
+        LockBasedProxyManagerMock<String> proxyManager = new LockBasedProxyManagerMock<>(ClientSideConfig.getDefault()
+            .withClientClock(new TimeMeterMock())
+            .withConfigurationStore(store));
+        transactionsInProgress = proxyManager::getAllocatedTransactions;
+        BucketConfiguration configuration = uniqueConfiguration(null);
+
+        for (int i = 0; i < 3; i++) {
+            BucketProxy bucket = proxyManager.builder().build("key-" + i, () -> configuration);
+            assertTrue(bucket.tryConsume(1));
+        }
+        assertEquals(1, saves.get());
+        assertEquals(0, proxyManager.getAllocatedTransactions());
+    }
+
+    @Test
+    public void deferredStoreShouldPostponeLoadingOfUnknownConfiguration() {
+        BucketConfiguration configuration = uniqueConfiguration(null);
+        BucketState bucketState = BucketState.createInitialState(configuration, MathType.INTEGER_64_BITS, System.nanoTime());
+        RemoteBucketState state = new RemoteBucketState(bucketState, new RemoteStat(0), null);
+        byte[] referenceBytes = InternalSerializationHelper.serializeState(state, Versions.getLatest(), store);
+        ConfigurationCache.getDefault().clear();
+
+        DeferredConfigurationStore deferredStore = new DeferredConfigurationStore(store);
+        DeferredConfigurationStore.DeferredAccessException e = assertThrows(DeferredConfigurationStore.DeferredAccessException.class,
+            () -> InternalSerializationHelper.deserializeState(referenceBytes, deferredStore));
+        assertEquals(0, loads.get());
+
+        e.perform();
+        assertEquals(1, loads.get());
+        RemoteBucketState deserialized = InternalSerializationHelper.deserializeState(referenceBytes, deferredStore);
+        assertTrue(ComparableByContent.equals(state, deserialized));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void builderShouldPassStoreToClientSideConfig() {
+        ClientSideConfig config = new ProxyManagerBuilderStub()
+            .configurationStore(store)
+            .configurationIdsInRequests()
+            .getClientSideConfig();
+        assertSame(store, config.getConfigurationStore().get());
+        assertTrue(config.isConfigurationIdsInRequests());
+    }
+
+    private static class ProxyManagerBuilderStub extends AbstractProxyManagerBuilder<String, ProxyManager<String>, ProxyManagerBuilderStub> {
+        @Override
+        public ProxyManager<String> build() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static BucketConfiguration uniqueConfiguration(String id) {
+        return configuration(ThreadLocalRandom.current().nextLong(1000, 1_000_000_000), id);
+    }
+
+    private static BucketConfiguration configuration(long capacity, String id) {
+        Bandwidth bandwidth = Bandwidth.builder()
+            .capacity(capacity)
+            .refillGreedy(capacity, Duration.ofMinutes(10))
+            .id(id)
+            .build();
+        // configuration is created via constructor, so it is not interned into default cache
+        return new BucketConfiguration(List.of(bandwidth));
+    }
+
+}
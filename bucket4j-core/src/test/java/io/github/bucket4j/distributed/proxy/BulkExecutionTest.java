@@ -0,0 +1,116 @@
+package io.github.bucket4j.distributed.proxy;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.remote.RemoteCommand;
+import io.github.bucket4j.distributed.remote.commands.GetAvailableTokensCommand;
+import io.github.bucket4j.distributed.remote.commands.TryConsumeCommand;
+import io.github.bucket4j.mock.ProxyManagerMock;
+import io.github.bucket4j.mock.SelectForUpdateBasedProxyManagerMock;
+import io.github.bucket4j.mock.TimeMeterMock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkExecutionTest {
+
+    private final TimeMeterMock clock = new TimeMeterMock(0);
+    private final ProxyManagerMock<String> proxyManager = new ProxyManagerMock<>(clock);
+    private final Function<String, BucketConfiguration> configurations = key -> BucketConfiguration.builder()
+        .addLimit(limit -> limit.capacity(key.length()).refillGreedy(1, Duration.ofMinutes(1)))
+        .build();
+
+    @Test
+    public void shouldCreateMissingBucketsAndReturnResultsInOrderOfCommands() {
+        Map<String, RemoteCommand<Boolean>> commands = new LinkedHashMap<>();
+        commands.put("xxx", TryConsumeCommand.create(3));
+        commands.put("x", TryConsumeCommand.create(2));
+        commands.put("xx", TryConsumeCommand.create(2));
+
+        Map<String, Boolean> results = proxyManager.executeBulk(commands, configurations);
+        assertEquals(List.of("xxx", "x", "xx"), new ArrayList<>(results.keySet()));
+        assertTrue(results.get("xxx"));
+        assertFalse(results.get("x"));
+        assertTrue(results.get("xx"));
+
+        // buckets are persisted now
+        Map<String, Long> available = proxyManager.executeBulk(Map.of(
+            "xxx", new GetAvailableTokensCommand(),
+            "x", new GetAvailableTokensCommand(),
+            "xx", new GetAvailableTokensCommand()
+        ), key -> { throw new IllegalStateException("configuration should not be requested"); });
+        assertEquals(0L, available.get("xxx"));
+        assertEquals(1L, available.get("x"));
+        assertEquals(0L, available.get("xx"));
+        assertEquals(0L, proxyManager.getProxy("xxx", () -> configurations.apply("xxx")).getAvailableTokens());
+    }
+
+    @Test
+    public void testAsyncBulk() {
+        Map<String, RemoteCommand<Boolean>> commands = new LinkedHashMap<>();
+        commands.put("xx", TryConsumeCommand.create(1));
+        commands.put("xxxx", TryConsumeCommand.create(5));
+
+        Map<String, Boolean> results = proxyManager.asAsync()
+            .executeBulk(commands, key -> CompletableFuture.completedFuture(configurations.apply(key)))
+            .join();
+        assertTrue(results.get("xx"));
+        assertFalse(results.get("xxxx"));
+        assertEquals(1L, proxyManager.getProxy("xx", () -> configurations.apply("xx")).getAvailableTokens());
+    }
+
+    @Test
+    public void testMappedKeys() {
+        ProxyManager<Integer> mapped = proxyManager.withMapper(length -> "x".repeat(length));
+        Map<Integer, Boolean> results = mapped.executeBulk(Map.of(2, TryConsumeCommand.create(2)), length -> configurations.apply("x".repeat(length)));
+        assertTrue(results.get(2));
+        assertEquals(0L, proxyManager.getProxy("xx", () -> configurations.apply("xx")).getAvailableTokens());
+
+        ProxyManager<Integer> colliding = proxyManager.withMapper(number -> "same");
+        Map<Integer, RemoteCommand<Boolean>> commands = Map.of(1, TryConsumeCommand.create(1), 2, TryConsumeCommand.create(1));
+        assertThrows(IllegalArgumentException.class, () -> colliding.executeBulk(commands, number -> configurations.apply("same")));
+
+        AsyncProxyManager<Integer> collidingAsync = proxyManager.asAsync().withMapper(number -> "same");
+        CompletionException e = assertThrows(CompletionException.class, () -> collidingAsync.executeBulk(commands, number -> null).join());
+        assertTrue(e.getCause() instanceof IllegalArgumentException);
+    }
+
+    @Test
+    public void selectForUpdateBasedProxyManagerShouldExecuteBulkInOneTransaction() {
+        SelectForUpdateBasedProxyManagerMock<String> proxyManager = new SelectForUpdateBasedProxyManagerMock<>(ClientSideConfig.getDefault().withClientClock(clock));
+        proxyManager.setMultiKeyTransactionsEnabled(true);
+        Map<String, RemoteCommand<Boolean>> commands = new LinkedHashMap<>();
+        commands.put("xxx", TryConsumeCommand.create(3));
+        commands.put("x", TryConsumeCommand.create(2));
+        commands.put("xx", TryConsumeCommand.create(2));
+
+        Map<String, Boolean> results = proxyManager.executeBulk(commands, configurations);
+        assertTrue(results.get("xxx"));
+        assertFalse(results.get("x"));
+        assertTrue(results.get("xx"));
+        // insertion of empty rows, detection of missing buckets, initialization of buckets
+        assertEquals(3, proxyManager.getMultiKeyCommits());
+
+        clock.addTime(Duration.ofMinutes(1).toNanos());
+        results = proxyManager.executeBulk(commands, key -> { throw new IllegalStateException("configuration should not be requested"); });
+        assertFalse(results.get("xxx"));
+        assertFalse(results.get("x"));
+        assertFalse(results.get("xx"));
+        assertEquals(4, proxyManager.getMultiKeyCommits());
+        assertEquals(1L, proxyManager.getProxy("x", () -> configurations.apply("x")).getAvailableTokens());
+    }
+
+    @Test
+    public void shouldFailOnNullConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> proxyManager.executeBulk(Map.of("x", TryConsumeCommand.create(1)), key -> null));
+    }
+
+}
@@ -0,0 +1,210 @@
+package io.github.bucket4j.distributed.proxy;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConfigurationCache;
+import io.github.bucket4j.TokensInheritanceStrategy;
+import io.github.bucket4j.distributed.BucketProxy;
+import io.github.bucket4j.distributed.ConfigurationStore;
+import io.github.bucket4j.distributed.remote.MutableBucketEntry;
+import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.distributed.remote.commands.CreateInitialStateAndExecuteCommand;
+import io.github.bucket4j.distributed.remote.commands.CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand;
+import io.github.bucket4j.distributed.remote.commands.TryConsumeCommand;
+import io.github.bucket4j.distributed.serialization.InternalSerializationHelper;
+import io.github.bucket4j.distributed.versioning.Versions;
+import io.github.bucket4j.mock.CompareAndSwapBasedProxyManagerMock;
+import io.github.bucket4j.mock.ProxyManagerMock;
+import io.github.bucket4j.mock.TimeMeterMock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConfigurationIdsInRequestsTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final AtomicInteger saves = new AtomicInteger();
+    private final Map<Long, byte[]> table = new HashMap<>();
+
+    private final ConfigurationStore clientStore = new TableStore();
+    private final ConfigurationStore serverStore = new TableStore();
+
+    private final TimeMeterMock clock = new TimeMeterMock(0);
+
+    @Test
+    public void configurationShouldBeReferencedByIdentifier() {
+        ProxyManagerMock<String> proxyManager = proxyManager(ClientSideConfig.getDefault()
+            .withClientClock(clock)
+            .backwardCompatibleWith(Versions.v_8_15_0)
+            .withConfigurationStore(clientStore)
+            .withConfigurationIdsInRequests());
+        BucketConfiguration configuration = uniqueConfiguration();
+
+        for (int i = 0; i < 10; i++) {
+            BucketProxy bucket = proxyManager.getProxy("key-" + i, () -> configuration);
+            assertTrue(bucket.tryConsume(3));
+            assertEquals(7, bucket.getAvailableTokens());
+        }
+
+        // configuration is registered once per proxy-manager and resolved once per backend
+        assertEquals(1, saves.get());
+        assertEquals(1, loads.get());
+
+        Request<?> initializationRequest = proxyManager.getHistory().get(1);
+        CreateInitialStateAndExecuteCommand<?> command = (CreateInitialStateAndExecuteCommand<?>) initializationRequest.getCommand();
+        assertEquals(configuration.getFingerprint(), command.getConfigurationId());
+
+        CreateInitialStateAndExecuteCommand<Boolean> inlineCommand = new CreateInitialStateAndExecuteCommand<>(configuration, TryConsumeCommand.create(3));
+        Request<Boolean> inlineRequest = new Request<>(inlineCommand, Versions.v_8_15_0, 0L, null);
+        assertTrue(InternalSerializationHelper.serializeRequest(initializationRequest).length < InternalSerializationHelper.serializeRequest(inlineRequest).length);
+    }
+
+    @Test
+    public void configurationShouldBeReferencedByIdentifierWhenReplacedImplicitly() {
+        ProxyManagerMock<String> proxyManager = proxyManager(ClientSideConfig.getDefault()
+            .withClientClock(clock)
+            .backwardCompatibleWith(Versions.v_8_15_0)
+            .withConfigurationStore(clientStore)
+            .withConfigurationIdsInRequests());
+        BucketConfiguration configuration = uniqueConfiguration();
+
+        BucketProxy bucket = proxyManager.builder()
+            .withImplicitConfigurationReplacement(1, TokensInheritanceStrategy.AS_IS)
+            .build("key", () -> configuration);
+        assertTrue(bucket.tryConsume(3));
+
+        CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<?> command =
+            (CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<?>) proxyManager.getHistory().get(1).getCommand();
+        assertEquals(configuration.getFingerprint(), command.getConfigurationId());
+        assertEquals(7, bucket.getAvailableTokens());
+    }
+
+    @Test
+    public void configurationShouldBeCarriedInsideRequestUntilAllNodesAreUpgraded() {
+        // backend of previous version knows nothing about configuration store
+        ProxyManagerMock<String> proxyManager = new ProxyManagerMock<>(ClientSideConfig.getDefault()
+            .withClientClock(clock)
+            .backwardCompatibleWith(Versions.v_8_14_0)
+            .withConfigurationStore(clientStore)
+            .withConfigurationIdsInRequests());
+        BucketConfiguration configuration = uniqueConfiguration();
+
+        assertTrue(proxyManager.getProxy("key", () -> configuration).tryConsume(3));
+        CreateInitialStateAndExecuteCommand<?> command = (CreateInitialStateAndExecuteCommand<?>) proxyManager.getHistory().get(1).getCommand();
+        assertEquals(0, command.getConfigurationId());
+        assertEquals(0, saves.get());
+    }
+
+    @Test
+    public void referencedConfigurationShouldBeResolvedOnBackend() {
+        BucketConfiguration configuration = uniqueConfiguration();
+        CreateInitialStateAndExecuteCommand<Boolean> command = new CreateInitialStateAndExecuteCommand<>(configuration, TryConsumeCommand.create(3));
+        Request<Boolean> request = new Request<>(command.withConfigurationIds(clientStore), Versions.v_8_15_0, 0L, null);
+
+        Request<Boolean> deserialized = InternalSerializationHelper.deserializeRequest(InternalSerializationHelper.serializeRequest(request));
+        CreateInitialStateAndExecuteCommand<Boolean> deserializedCommand = (CreateInitialStateAndExecuteCommand<Boolean>) deserialized.getCommand();
+        assertEquals(configuration.getFingerprint(), deserializedCommand.getConfigurationId());
+
+        assertThrows(IllegalStateException.class, () -> deserializedCommand.execute(new MutableBucketEntry(null, null), 0L));
+        MutableBucketEntry entry = new MutableBucketEntry(null, serverStore);
+        assertTrue(deserializedCommand.execute(entry, 0L).getData());
+        assertTrue(entry.get().getConfiguration().equalsByContent(configuration));
+    }
+
+    @Test
+    public void configurationIdsShouldRequireConfigurationStore() {
+        ClientSideConfig config = ClientSideConfig.getDefault().withConfigurationIdsInRequests();
+        assertThrows(IllegalArgumentException.class, () -> new ProxyManagerMock<String>(config));
+    }
+
+    @Test
+    public void configurationIdsShouldBeRejectedWhenCommandsAreExecutedOnServerSide() {
+        ClientSideConfig config = ClientSideConfig.getDefault()
+            .withConfigurationStore(clientStore)
+            .withConfigurationIdsInRequests();
+        // grid based proxy-manager has no store on the server side
+        assertThrows(UnsupportedOperationException.class, () -> new ProxyManagerMock<String>(config) {
+            @Override
+            protected boolean isConfigurationIdsInRequestsSupported() {
+                return false;
+            }
+        });
+    }
+
+    @Test
+    public void configurationStoreShouldBeRejectedWhenCommandsAreExecutedOnServerSide() {
+        ClientSideConfig config = ClientSideConfig.getDefault().withConfigurationStore(clientStore);
+        // grid based proxy-manager has no store on the server side
+        assertThrows(UnsupportedOperationException.class, () -> new ProxyManagerMock<String>(config) {
+            @Override
+            protected boolean isConfigurationStoreSupported() {
+                return false;
+            }
+        });
+    }
+
+    @Test
+    public void configurationShouldBeResolvedFromStoreWhenCacheIsCleared() {
+        CompareAndSwapBasedProxyManagerMock<String> proxyManager = new CompareAndSwapBasedProxyManagerMock<>(ClientSideConfig.getDefault()
+            .withClientClock(clock)
+            .backwardCompatibleWith(Versions.v_8_15_0)
+            .withConfigurationStore(clientStore)
+            .withConfigurationIdsInRequests());
+        BucketConfiguration configuration = BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(10).refillGreedy(10, Duration.ofMillis(ThreadLocalRandom.current().nextLong(1000, 1_000_000_000))))
+            .build();
+
+        BucketProxy bucket = proxyManager.getProxy("key", () -> configuration);
+        assertTrue(bucket.tryConsume(3));
+        assertTrue(bucket.tryConsume(3));
+        int loadsBeforeClear = loads.get();
+
+        // the same as first access to configuration after restart of process
+        ConfigurationCache.getDefault().clear();
+        assertNull(ConfigurationCache.getDefault().getByFingerprint(configuration.getFingerprint()));
+        assertTrue(proxyManager.getProxy("other-key", () -> configuration).tryConsume(3));
+        assertTrue(bucket.tryConsume(3));
+        assertEquals(1, bucket.getAvailableTokens());
+        assertEquals(loadsBeforeClear + 1, loads.get());
+    }
+
+    private ProxyManagerMock<String> proxyManager(ClientSideConfig config) {
+        ProxyManagerMock<String> proxyManager = new ProxyManagerMock<>(config);
+        proxyManager.setServerSideConfigurationStore(serverStore);
+        return proxyManager;
+    }
+
+    private static BucketConfiguration uniqueConfiguration() {
+        Bandwidth bandwidth = Bandwidth.builder()
+            .capacity(10)
+            .refillGreedy(10, Duration.ofMillis(ThreadLocalRandom.current().nextLong(1000, 1_000_000_000)))
+            .build();
+        // configuration is created via constructor, so it is not interned into default cache
+        return new BucketConfiguration(List.of(bandwidth));
+    }
+
+    private class TableStore extends ConfigurationStore {
+        @Override
+        protected byte[] load(long fingerprint) {
+            synchronized (table) {
+                loads.incrementAndGet();
+                return table.get(fingerprint);
+            }
+        }
+        @Override
+        protected void save(long fingerprint, byte[] configurationBytes) {
+            synchronized (table) {
+                saves.incrementAndGet();
+                table.put(fingerprint, configurationBytes);
+            }
+        }
+    }
+
+}
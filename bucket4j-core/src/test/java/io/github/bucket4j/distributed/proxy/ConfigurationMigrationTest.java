@@ -0,0 +1,184 @@
+package io.github.bucket4j.distributed.proxy;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketState;
+import io.github.bucket4j.MathType;
+import io.github.bucket4j.TokensInheritanceStrategy;
+import io.github.bucket4j.distributed.remote.MutableBucketEntry;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import io.github.bucket4j.distributed.remote.RemoteStat;
+import io.github.bucket4j.distributed.remote.commands.ReplaceConfigurationIfMatchesCommand;
+import io.github.bucket4j.distributed.versioning.UsageOfUnsupportedApiException;
+import io.github.bucket4j.distributed.versioning.Versions;
+import io.github.bucket4j.mock.ProxyManagerMock;
+import io.github.bucket4j.mock.TimeMeterMock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConfigurationMigrationTest {
+
+    private final TimeMeterMock clock = new TimeMeterMock(0);
+    private final ProxyManagerMock<String> proxyManager = new ProxyManagerMock<>(ClientSideConfig.getDefault().withClientClock(clock));
+
+    private final BucketConfiguration basic = configuration(100);
+    private final BucketConfiguration premium = configuration(1000);
+    private final BucketConfiguration newBasic = configuration(200);
+
+    @Test
+    public void shouldMigrateBucketsWithFingerprint() {
+        createBuckets("basic-", 20, basic);
+        createBuckets("premium-", 5, premium);
+
+        List<MigrationProgress> reports = new ArrayList<>();
+        ConfigurationMigration<String> migration = ConfigurationMigration.<String>forFingerprint(basic.getFingerprint(), newBasic, TokensInheritanceStrategy.AS_IS)
+            .withPageSize(10)
+            .withProgressListener(reports::add);
+        MigrationProgress progress = proxyManager.migrateConfigurations(migration);
+
+        assertTrue(progress.isCompleted());
+        assertEquals(25, progress.getScannedBuckets());
+        assertEquals(20, progress.getMatchedBuckets());
+        assertEquals(20, progress.getMigratedBuckets());
+        assertEquals(3, reports.size());
+
+        for (int i = 0; i < 20; i++) {
+            assertTrue(newBasic.equalsByContent(proxyManager.getProxyConfiguration("basic-" + i).get()));
+            // tokens are inherited as is
+            assertEquals(99, proxyManager.getProxy("basic-" + i, () -> newBasic).getAvailableTokens());
+        }
+        for (int i = 0; i < 5; i++) {
+            assertTrue(premium.equalsByContent(proxyManager.getProxyConfiguration("premium-" + i).get()));
+        }
+
+        // second run does nothing
+        assertEquals(0, proxyManager.migrateConfigurations(migration).getMatchedBuckets());
+    }
+
+    @Test
+    public void shouldMigrateBucketsWithKeysFromRange() {
+        createBuckets("key-", 10, basic);
+
+        MigrationProgress progress = proxyManager.migrateConfigurations(ConfigurationMigration.<String>forKeys(key -> key.compareTo("key-5") < 0, newBasic, TokensInheritanceStrategy.RESET));
+        assertEquals(5, progress.getMigratedBuckets());
+        assertTrue(newBasic.equalsByContent(proxyManager.getProxyConfiguration("key-4").get()));
+        assertTrue(basic.equalsByContent(proxyManager.getProxyConfiguration("key-5").get()));
+    }
+
+    @Test
+    public void shouldContinueFromReportedCursor() {
+        createBuckets("key-", 10, basic);
+        ScanCursor cursor = proxyManager.scan(ScanCursor.initial(), 4).getNextCursor();
+
+        MigrationProgress progress = proxyManager.migrateConfigurations(ConfigurationMigration.<String>forFingerprint(basic.getFingerprint(), newBasic, TokensInheritanceStrategy.AS_IS)
+            .withPageSize(4)
+            .startingFrom(cursor));
+        assertEquals(6, progress.getMigratedBuckets());
+    }
+
+    @Test
+    public void interruptedPageShouldBeMigratedAfterResume() {
+        createBuckets("key-", 10, basic);
+        List<MigrationProgress> reports = new ArrayList<>();
+        AtomicInteger filteredBuckets = new AtomicInteger();
+        ConfigurationMigration<String> failingMigration = ConfigurationMigration.<String>forBuckets(bucket -> {
+                if (filteredBuckets.incrementAndGet() == 6) {
+                    throw new IllegalStateException("failure in the middle of second page");
+                }
+                return true;
+            }, newBasic, TokensInheritanceStrategy.AS_IS)
+            .withPageSize(4)
+            .withProgressListener(reports::add);
+        assertThrows(IllegalStateException.class, () -> proxyManager.migrateConfigurations(failingMigration));
+        assertEquals(1, reports.size());
+
+        // position is persisted and cursor is restored as it would be done after restart of application
+        ScanCursor resumeCursor = ScanCursor.of(reports.get(0).getNextCursor().getPosition());
+        MigrationProgress progress = proxyManager.migrateConfigurations(ConfigurationMigration.<String>forFingerprint(basic.getFingerprint(), newBasic, TokensInheritanceStrategy.AS_IS)
+            .withPageSize(4)
+            .startingFrom(resumeCursor));
+        assertEquals(6, progress.getMigratedBuckets());
+        for (int i = 0; i < 10; i++) {
+            assertTrue(newBasic.equalsByContent(proxyManager.getProxyConfiguration("key-" + i).get()));
+        }
+    }
+
+    @Test
+    public void shouldThrottleMigration() {
+        createBuckets("key-", 100, basic);
+
+        long startNanos = System.nanoTime();
+        MigrationProgress progress = proxyManager.migrateConfigurations(ConfigurationMigration.<String>forFingerprint(basic.getFingerprint(), newBasic, TokensInheritanceStrategy.AS_IS)
+            .withRateLimit(50));
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - startNanos).toMillis();
+
+        assertEquals(100, progress.getMigratedBuckets());
+        // first 50 buckets are migrated immediately, next 50 buckets after one second
+        assertTrue(elapsedMillis >= 800, "elapsed " + elapsedMillis);
+    }
+
+    @Test
+    public void replacementShouldBeRecheckedCloseToData() {
+        RemoteBucketState state = new RemoteBucketState(BucketState.createInitialState(premium, MathType.INTEGER_64_BITS, 0), new RemoteStat(0), null);
+        MutableBucketEntry entry = new MutableBucketEntry(state);
+
+        ReplaceConfigurationIfMatchesCommand command = new ReplaceConfigurationIfMatchesCommand(basic.getFingerprint(), newBasic, TokensInheritanceStrategy.AS_IS);
+        assertFalse(command.execute(entry, 0).getData());
+        assertTrue(premium.equalsByContent(entry.get().getConfiguration()));
+
+        assertTrue(command.execute(new MutableBucketEntry((RemoteBucketState) null), 0).isBucketNotFound());
+    }
+
+    @Test
+    public void shouldCheckArguments() {
+        assertThrows(IllegalArgumentException.class, () -> ConfigurationMigration.forBuckets(null, newBasic, TokensInheritanceStrategy.AS_IS));
+        assertThrows(IllegalArgumentException.class, () -> ConfigurationMigration.forKeys(key -> true, null, TokensInheritanceStrategy.AS_IS));
+        assertThrows(IllegalArgumentException.class, () -> ConfigurationMigration.forKeys(key -> true, newBasic, null));
+
+        ConfigurationMigration<String> migration = ConfigurationMigration.forFingerprint(1, newBasic, TokensInheritanceStrategy.AS_IS);
+        assertThrows(IllegalArgumentException.class, () -> migration.withPageSize(0));
+        assertThrows(IllegalArgumentException.class, () -> migration.withRateLimit(0));
+        assertThrows(IllegalArgumentException.class, () -> migration.withProgressListener(null));
+        assertThrows(IllegalArgumentException.class, () -> migration.startingFrom(null));
+        assertThrows(IllegalArgumentException.class, () -> proxyManager.migrateConfigurations(null));
+    }
+
+    @Test
+    public void shouldRequireAllNodesToBeUpgraded() {
+        ProxyManagerMock<String> legacyCompatibleProxyManager = new ProxyManagerMock<>(ClientSideConfig.getDefault()
+            .withClientClock(clock)
+            .backwardCompatibleWith(Versions.v_8_14_0));
+        assertTrue(legacyCompatibleProxyManager.getProxy("basic-0", () -> basic).tryConsume(1));
+
+        ConfigurationMigration<String> migration = ConfigurationMigration.forFingerprint(basic.getFingerprint(), newBasic, TokensInheritanceStrategy.AS_IS);
+        assertThrows(UsageOfUnsupportedApiException.class, () -> legacyCompatibleProxyManager.migrateConfigurations(migration));
+        assertTrue(basic.equalsByContent(legacyCompatibleProxyManager.getProxyConfiguration("basic-0").get()));
+    }
+
+    @Test
+    public void migrationShouldNotBeSupportedWithoutScan() {
+        ProxyManager<Integer> view = proxyManager.withMapper(key -> "basic-" + key);
+        assertFalse(view.isScanSupported());
+
+        ConfigurationMigration<Integer> migration = ConfigurationMigration.forFingerprint(basic.getFingerprint(), newBasic, TokensInheritanceStrategy.AS_IS);
+        assertThrows(UnsupportedOperationException.class, () -> view.migrateConfigurations(migration));
+    }
+
+    private void createBuckets(String prefix, int count, BucketConfiguration configuration) {
+        for (int i = 0; i < count; i++) {
+            assertTrue(proxyManager.getProxy(prefix + i, () -> configuration).tryConsume(1));
+        }
+    }
+
+    private static BucketConfiguration configuration(long capacity) {
+        return BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(capacity).refillGreedy(capacity, Duration.ofHours(1)))
+            .build();
+    }
+
+}
@@ -0,0 +1,80 @@
+package io.github.bucket4j.distributed.proxy;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.TokensInheritanceStrategy;
+import io.github.bucket4j.distributed.AsyncBucketProxy;
+import io.github.bucket4j.distributed.BucketProxy;
+import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.distributed.remote.commands.CreateInitialStateAndExecuteCommand;
+import io.github.bucket4j.distributed.remote.commands.CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand;
+import io.github.bucket4j.distributed.remote.commands.TryConsumeCommand;
+import io.github.bucket4j.mock.ProxyManagerMock;
+import io.github.bucket4j.mock.TimeMeterMock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EagerInitializationTest {
+
+    private final TimeMeterMock clock = new TimeMeterMock(0);
+    private final ProxyManagerMock<String> proxyManager = new ProxyManagerMock<>(clock);
+    private final BucketConfiguration configuration = BucketConfiguration.builder()
+        .addLimit(limit -> limit.capacity(10).refillGreedy(10, Duration.ofMinutes(1)))
+        .build();
+
+    @Test
+    public void shouldCreateBucketBySingleRequest() {
+        BucketProxy bucket = proxyManager.builder().withEagerInitialization().build("key", () -> configuration);
+        assertTrue(bucket.tryConsume(3));
+        List<Request<?>> history = proxyManager.getHistory();
+        assertEquals(1, history.size());
+        assertTrue(history.get(0).getCommand() instanceof CreateInitialStateAndExecuteCommand);
+
+        // configuration is not sent anymore when the bucket is known to exist
+        proxyManager.clearHistory();
+        assertTrue(bucket.tryConsume(3));
+        assertEquals(1, proxyManager.getHistory().size());
+        assertTrue(proxyManager.getHistory().get(0).getCommand() instanceof TryConsumeCommand);
+        assertEquals(4, bucket.getAvailableTokens());
+    }
+
+    @Test
+    public void shouldNotReplaceStateOfExistingBucket() {
+        assertTrue(proxyManager.getProxy("key", () -> configuration).tryConsume(7));
+        BucketProxy bucket = proxyManager.builder().withEagerInitialization().build("key", () -> configuration);
+        assertEquals(3, bucket.getAvailableTokens());
+    }
+
+    @Test
+    public void byDefaultBucketShouldBeCreatedBySecondRequest() {
+        assertTrue(proxyManager.getProxy("key", () -> configuration).tryConsume(1));
+        assertEquals(2, proxyManager.getHistory().size());
+    }
+
+    @Test
+    public void shouldUseImplicitConfigurationReplacement() {
+        BucketProxy bucket = proxyManager.builder()
+            .withImplicitConfigurationReplacement(1, TokensInheritanceStrategy.AS_IS)
+            .withEagerInitialization()
+            .build("key", () -> configuration);
+        assertTrue(bucket.tryConsume(1));
+        assertEquals(1, proxyManager.getHistory().size());
+        assertTrue(proxyManager.getHistory().get(0).getCommand() instanceof CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand);
+    }
+
+    @Test
+    public void testAsync() {
+        AsyncBucketProxy bucket = proxyManager.asAsync().builder().withEagerInitialization()
+            .build("key", () -> CompletableFuture.completedFuture(configuration));
+        assertTrue(bucket.tryConsume(3).join());
+        assertEquals(1, proxyManager.getHistory().size());
+        assertTrue(bucket.tryConsume(3).join());
+        assertEquals(2, proxyManager.getHistory().size());
+        assertEquals(4L, bucket.getAvailableTokens().join());
+    }
+
+}
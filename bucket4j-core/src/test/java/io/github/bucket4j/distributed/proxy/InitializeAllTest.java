@@ -0,0 +1,104 @@
+package io.github.bucket4j.distributed.proxy;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.MathType;
+import io.github.bucket4j.distributed.remote.commands.CreateInitialStateCommand;
+import io.github.bucket4j.distributed.versioning.UsageOfUnsupportedApiException;
+import io.github.bucket4j.distributed.versioning.Versions;
+import io.github.bucket4j.mock.ProxyManagerMock;
+import io.github.bucket4j.mock.TimeMeterMock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InitializeAllTest {
+
+    private final TimeMeterMock clock = new TimeMeterMock(0);
+    private final ProxyManagerMock<String> proxyManager = new ProxyManagerMock<>(ClientSideConfig.getDefault()
+        .withClientClock(clock));
+    private final BucketConfiguration configuration = BucketConfiguration.builder()
+        .addLimit(limit -> limit.capacity(100).refillGreedy(10, Duration.ofMinutes(1)))
+        .build();
+
+    @Test
+    public void shouldCreateBucketsWithoutLazyInitialization() {
+        assertEquals(100, proxyManager.initializeAll(configurations(100)));
+        assertTrue(proxyManager.getHistory().stream().allMatch(request -> request.getCommand() instanceof CreateInitialStateCommand));
+
+        proxyManager.clearHistory();
+        assertEquals(100, proxyManager.getProxy("key-7", () -> configuration).getAvailableTokens());
+        // bucket exists, so configuration is not sent
+        assertEquals(1, proxyManager.getHistory().size());
+    }
+
+    @Test
+    public void shouldApplyInitialTokens() {
+        Map<String, BucketConfiguration> configurations = configurations(3);
+        assertEquals(3, proxyManager.initializeAll(configurations, Map.of("key-0", 0L, "key-1", 42L, "key-2", 1000L)));
+
+        assertEquals(0, proxyManager.getProxy("key-0", () -> configuration).getAvailableTokens());
+        assertEquals(42, proxyManager.getProxy("key-1", () -> configuration).getAvailableTokens());
+        assertEquals(100, proxyManager.getProxy("key-2", () -> configuration).getAvailableTokens());
+    }
+
+    @Test
+    public void shouldNotTouchExistingBuckets() {
+        assertTrue(proxyManager.getProxy("key-1", () -> configuration).tryConsume(30));
+
+        assertEquals(2, proxyManager.initializeAll(configurations(3)));
+        assertEquals(70, proxyManager.getProxy("key-1", () -> configuration).getAvailableTokens());
+    }
+
+    @Test
+    public void shouldCreateBucketsWithSpecifiedMathType() {
+        assertEquals(3, proxyManager.initializeAll(configurations(3), Map.of("key-1", 42L), MathType.GCRA));
+        assertTrue(proxyManager.getHistory().stream()
+            .allMatch(request -> ((CreateInitialStateCommand) request.getCommand()).getMathType() == MathType.GCRA));
+        assertEquals(MathType.GCRA, proxyManager.getProxy("key-0", () -> configuration).asVerbose().getAvailableTokens().getState().getMathType());
+        assertEquals(42, proxyManager.getProxy("key-1", () -> configuration).getAvailableTokens());
+
+        assertEquals(2, proxyManager.asAsync().initializeAll(configurations(5), Map.of(), MathType.SLIDING_WINDOW_COUNTER).join());
+        assertEquals(MathType.SLIDING_WINDOW_COUNTER, proxyManager.getProxy("key-4", () -> configuration).asVerbose().getAvailableTokens().getState().getMathType());
+    }
+
+    @Test
+    public void testAsync() {
+        assertEquals(10, proxyManager.asAsync().initializeAll(configurations(10), Map.of("key-3", 5L)).join());
+        assertEquals(0, proxyManager.asAsync().initializeAll(configurations(10)).join());
+        assertEquals(5, proxyManager.getProxy("key-3", () -> configuration).getAvailableTokens());
+    }
+
+    @Test
+    public void shouldRequireAllNodesToBeUpgraded() {
+        ProxyManagerMock<String> legacyCompatibleProxyManager = new ProxyManagerMock<>(ClientSideConfig.getDefault()
+            .withClientClock(clock)
+            .backwardCompatibleWith(Versions.v_8_14_0));
+        assertThrows(UsageOfUnsupportedApiException.class, () -> legacyCompatibleProxyManager.initializeAll(configurations(2)));
+    }
+
+    @Test
+    public void shouldCheckArguments() {
+        assertThrows(IllegalArgumentException.class, () -> proxyManager.initializeAll(configurations(2), Map.of("key-1", -1L)));
+        assertTrue(proxyManager.asAsync().initializeAll(configurations(2), Map.of("key-1", -1L)).isCompletedExceptionally());
+
+        Map<String, BucketConfiguration> withNull = new LinkedHashMap<>();
+        withNull.put("key", null);
+        assertThrows(IllegalArgumentException.class, () -> proxyManager.initializeAll(withNull));
+
+        assertThrows(IllegalArgumentException.class, () -> proxyManager.initializeAll(configurations(2), Map.of(), null));
+        assertTrue(proxyManager.asAsync().initializeAll(configurations(2), Map.of(), null).isCompletedExceptionally());
+    }
+
+    private Map<String, BucketConfiguration> configurations(int count) {
+        Map<String, BucketConfiguration> configurations = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            configurations.put("key-" + i, configuration);
+        }
+        return configurations;
+    }
+
+}
@@ -0,0 +1,128 @@
+package io.github.bucket4j.distributed.proxy;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.AsyncBucketProxy;
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.mock.ProxyManagerMock;
+import io.github.bucket4j.mock.TimeMeterMock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestCoalescingTest {
+
+    private final TimeMeterMock clock = new TimeMeterMock(0);
+    private final BucketConfiguration configuration = BucketConfiguration.builder()
+        .addLimit(limit -> limit.capacity(10).refillGreedy(10, Duration.ofMinutes(1)))
+        .build();
+
+    @Test
+    public void shouldCoalesceRequestsForDifferentKeysWhilePreviousRequestInProgress() throws Exception {
+        RecordingProxyManager proxyManager = new RecordingProxyManager(ClientSideConfig.getDefault().withClientClock(clock).withRequestCoalescing(1));
+        proxyManager.blockExecution();
+        Thread firstThread = new Thread(() -> proxyManager.asAsync().getProxy("first", () -> CompletableFuture.completedFuture(configuration)).tryConsume(1).join());
+        firstThread.start();
+        proxyManager.awaitBlockedRequests(1);
+
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (String key : List.of("a", "b", "c", "d", "a")) {
+            AsyncBucketProxy bucket = proxyManager.asAsync().getProxy(key, () -> CompletableFuture.completedFuture(configuration));
+            futures.add(bucket.tryConsume(6));
+        }
+        // requests are waiting until first request completes
+        for (CompletableFuture<Boolean> future : futures) {
+            assertFalse(future.isDone());
+        }
+
+        proxyManager.unblockExecution();
+        firstThread.join();
+        List<Boolean> results = new ArrayList<>();
+        for (CompletableFuture<Boolean> future : futures) {
+            results.add(future.join());
+        }
+        assertEquals(List.of(true, true, true, true, false), results);
+
+        // buckets are not found on the first round, then second request for "a" is executed separately
+        assertEquals(List.of(4, 1, 4, 1), proxyManager.batchSizes);
+    }
+
+    @Test
+    public void shouldConsumeCorrectlyFromManyThreads() throws Exception {
+        ProxyManagerMock<Integer> proxyManager = new ProxyManagerMock<>(ClientSideConfig.getDefault().withClientClock(clock).withRequestCoalescing(2)) {
+            @Override
+            protected boolean isMultiKeyExecutionSupported() {
+                return true;
+            }
+        };
+        AtomicInteger consumed = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread(() -> {
+                for (int j = 0; j < 100; j++) {
+                    if (proxyManager.getProxy(j % 5, () -> configuration).tryConsume(1)) {
+                        consumed.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(50, consumed.get());
+    }
+
+    @Test
+    public void shouldNotCoalesceRequestsWhenMultiKeyExecutionIsNotSupported() {
+        AtomicInteger bulks = new AtomicInteger();
+        ProxyManagerMock<String> proxyManager = new ProxyManagerMock<>(ClientSideConfig.getDefault().withClientClock(clock).withRequestCoalescing(1)) {
+            @Override
+            protected <T> CompletableFuture<Map<String, CommandResult<T>>> executeAllAsync(Map<String, Request<T>> requests) {
+                bulks.incrementAndGet();
+                return super.executeAllAsync(requests);
+            }
+        };
+        for (String key : List.of("a", "b")) {
+            assertTrue(proxyManager.asAsync().getProxy(key, () -> CompletableFuture.completedFuture(configuration)).tryConsume(1).join());
+            assertTrue(proxyManager.getProxy(key, () -> configuration).tryConsume(1));
+        }
+        assertEquals(0, bulks.get());
+    }
+
+    @Test
+    public void shouldCheckParallelism() {
+        assertThrows(IllegalArgumentException.class, () -> ClientSideConfig.getDefault().withRequestCoalescing(0));
+    }
+
+    private static class RecordingProxyManager extends ProxyManagerMock<String> {
+
+        private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+        RecordingProxyManager(ClientSideConfig config) {
+            super(config);
+        }
+
+        @Override
+        protected boolean isMultiKeyExecutionSupported() {
+            return true;
+        }
+
+        @Override
+        protected <T> CompletableFuture<Map<String, CommandResult<T>>> executeAllAsync(Map<String, Request<T>> requests) {
+            batchSizes.add(requests.size());
+            return super.executeAllAsync(requests);
+        }
+
+    }
+
+}
@@ -0,0 +1,121 @@
+package io.github.bucket4j.distributed.proxy;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.mock.ProxyManagerMock;
+import io.github.bucket4j.mock.TimeMeterMock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScanTest {
+
+    private final TimeMeterMock clock = new TimeMeterMock(0);
+    private final ProxyManagerMock<String> proxyManager = new ProxyManagerMock<>(clock);
+    private final BucketConfiguration configuration = BucketConfiguration.builder()
+        .addLimit(limit -> limit.capacity(100).refillGreedy(10, Duration.ofMinutes(1)))
+        .build();
+
+    @Test
+    public void shouldReturnAllBucketsPageByPage() {
+        for (int i = 0; i < 25; i++) {
+            proxyManager.getProxy("key-" + i, () -> configuration).tryConsume(i + 1);
+        }
+
+        Map<String, Long> availableTokens = new HashMap<>();
+        ScanCursor cursor = ScanCursor.initial();
+        int pages = 0;
+        while (cursor != null) {
+            ScanPage<String> page = proxyManager.scan(cursor, 10);
+            assertTrue(page.getBuckets().size() <= 10);
+            for (PersistedBucket<String> bucket : page.getBuckets()) {
+                assertTrue(bucket.getConfiguration().equalsByContent(configuration));
+                availableTokens.put(bucket.getKey(), bucket.getState().getAvailableTokens());
+            }
+            cursor = page.getNextCursor();
+            pages++;
+        }
+
+        assertEquals(3, pages);
+        assertEquals(25, availableTokens.size());
+        for (int i = 0; i < 25; i++) {
+            assertEquals(99 - i, availableTokens.get("key-" + i));
+        }
+    }
+
+    @Test
+    public void iteratorShouldFetchPagesLazily() {
+        for (int i = 0; i < 7; i++) {
+            proxyManager.getProxy("key-" + i, () -> configuration).getAvailableTokens();
+        }
+        int readsBeforeScan = proxyManager.getReadCount();
+
+        Iterator<PersistedBucket<String>> iterator = proxyManager.scan(3);
+        assertEquals(readsBeforeScan, proxyManager.getReadCount());
+
+        assertTrue(iterator.hasNext());
+        iterator.next();
+        assertEquals(readsBeforeScan + 1, proxyManager.getReadCount());
+
+        int count = 1;
+        while (iterator.hasNext()) {
+            iterator.next();
+            count++;
+        }
+        assertEquals(7, count);
+        assertEquals(readsBeforeScan + 3, proxyManager.getReadCount());
+    }
+
+    @Test
+    public void sameCursorShouldReturnSamePage() {
+        for (int i = 0; i < 10; i++) {
+            proxyManager.getProxy("key-" + i, () -> configuration).getAvailableTokens();
+        }
+        ScanCursor cursor = proxyManager.scan(ScanCursor.initial(), 4).getNextCursor();
+
+        ScanPage<String> first = proxyManager.scan(cursor, 4);
+        ScanPage<String> second = proxyManager.scan(cursor, 4);
+        assertEquals(keys(first), keys(second));
+        assertEquals(first.getNextCursor().getPosition(), second.getNextCursor().getPosition());
+
+        // cursor restored from persisted position continues from the same place
+        assertEquals(keys(first), keys(proxyManager.scan(ScanCursor.of(cursor.getPosition()), 4)));
+    }
+
+    @Test
+    public void scanOfEmptyStorage() {
+        assertTrue(proxyManager.scan(ScanCursor.initial(), 10).isLast());
+        assertFalse(proxyManager.scan(10).hasNext());
+    }
+
+    @Test
+    public void shouldCheckArguments() {
+        assertThrows(IllegalArgumentException.class, () -> proxyManager.scan(null, 10));
+        assertThrows(IllegalArgumentException.class, () -> proxyManager.scan(ScanCursor.initial(), 0));
+        assertThrows(IllegalArgumentException.class, () -> proxyManager.scan(-1));
+        assertThrows(IllegalArgumentException.class, () -> ScanCursor.of(null));
+    }
+
+    @Test
+    public void scanShouldNotBeSupportedThroughKeyMapper() {
+        ProxyManager<Integer> view = proxyManager.withMapper(key -> "key-" + key);
+        assertTrue(proxyManager.isScanSupported());
+        assertFalse(view.isScanSupported());
+        assertThrows(UnsupportedOperationException.class, () -> view.scan(ScanCursor.initial(), 10));
+    }
+
+    private static List<String> keys(ScanPage<String> page) {
+        List<String> keys = new ArrayList<>();
+        for (PersistedBucket<String> bucket : page.getBuckets()) {
+            keys.add(bucket.getKey());
+        }
+        return keys;
+    }
+
+}
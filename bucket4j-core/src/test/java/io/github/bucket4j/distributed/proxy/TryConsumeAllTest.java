@@ -0,0 +1,122 @@
+package io.github.bucket4j.distributed.proxy;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.mock.ProxyManagerMock;
+import io.github.bucket4j.mock.SelectForUpdateBasedProxyManagerMock;
+import io.github.bucket4j.mock.TimeMeterMock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TryConsumeAllTest {
+
+    private final TimeMeterMock clock = new TimeMeterMock(0);
+    private final ProxyManagerMock<String> proxyManager = new ProxyManagerMock<>(clock);
+    private final Map<String, Long> capacities = Map.of("user", 10L, "organization", 100L, "global", 1000L);
+    private final Function<String, BucketConfiguration> configurations = key -> BucketConfiguration.builder()
+        .addLimit(limit -> limit.capacity(capacities.get(key)).refillGreedy(1, Duration.ofMinutes(1)))
+        .build();
+
+    @Test
+    public void shouldConsumeFromAllBuckets() {
+        assertTrue(proxyManager.tryConsumeAll(hierarchy(7), configurations));
+        assertAvailableTokens(3, 93, 993);
+    }
+
+    @Test
+    public void shouldNotConsumeFromAnyBucketWhenOneRejects() {
+        assertTrue(proxyManager.tryConsumeAll(hierarchy(7), configurations));
+        assertFalse(proxyManager.tryConsumeAll(hierarchy(7), configurations));
+        assertAvailableTokens(3, 93, 993);
+
+        assertTrue(proxyManager.tryConsumeAll(hierarchy(3), configurations));
+        assertAvailableTokens(0, 90, 990);
+    }
+
+    @Test
+    public void compensationShouldNotExceedCapacity() {
+        assertTrue(proxyManager.tryConsumeAll(Map.of("organization", 100L), configurations));
+        assertFalse(proxyManager.tryConsumeAll(hierarchy(11), configurations));
+        // user and organization rejected consumption, tokens consumed from global are returned back
+        assertAvailableTokens(10, 0, 1000);
+    }
+
+    @Test
+    public void testAsync() {
+        Function<String, CompletableFuture<BucketConfiguration>> asyncConfigurations = key -> CompletableFuture.completedFuture(configurations.apply(key));
+        assertTrue(proxyManager.asAsync().tryConsumeAll(hierarchy(6), asyncConfigurations).join());
+        assertFalse(proxyManager.asAsync().tryConsumeAll(hierarchy(6), asyncConfigurations).join());
+        assertAvailableTokens(4, 94, 994);
+    }
+
+    @Test
+    public void shouldCheckTokens() {
+        assertThrows(IllegalArgumentException.class, () -> proxyManager.tryConsumeAll(hierarchy(0), configurations));
+        assertTrue(proxyManager.asAsync().tryConsumeAll(hierarchy(-1), key -> null).isCompletedExceptionally());
+    }
+
+    @Test
+    public void selectForUpdateBasedProxyManagerShouldConsumeInOneTransaction() {
+        SelectForUpdateBasedProxyManagerMock<String> proxyManager = new SelectForUpdateBasedProxyManagerMock<>(ClientSideConfig.getDefault().withClientClock(clock));
+        proxyManager.setMultiKeyTransactionsEnabled(true);
+
+        assertTrue(proxyManager.tryConsumeAll(hierarchy(7), configurations));
+        assertAvailableTokens(proxyManager, 3, 93, 993);
+
+        int commits = proxyManager.getMultiKeyCommits();
+        assertFalse(proxyManager.tryConsumeAll(hierarchy(7), configurations));
+        // transaction is rolled back, so there is nothing to compensate
+        assertEquals(commits, proxyManager.getMultiKeyCommits());
+        assertAvailableTokens(proxyManager, 3, 93, 993);
+
+        assertTrue(proxyManager.tryConsumeAll(hierarchy(3), configurations));
+        assertEquals(commits + 1, proxyManager.getMultiKeyCommits());
+        assertAvailableTokens(proxyManager, 0, 90, 990);
+        assertEquals(0, proxyManager.getAllocatedTransactions());
+    }
+
+    @Test
+    public void selectForUpdateBasedProxyManagerShouldNotCreateBucketsWhenConsumptionIsRejected() {
+        SelectForUpdateBasedProxyManagerMock<String> proxyManager = new SelectForUpdateBasedProxyManagerMock<>(ClientSideConfig.getDefault().withClientClock(clock));
+        proxyManager.setMultiKeyTransactionsEnabled(true);
+
+        assertFalse(proxyManager.tryConsumeAll(hierarchy(11), configurations));
+        assertFalse(proxyManager.getProxyConfiguration("organization").isPresent());
+        assertFalse(proxyManager.getProxyConfiguration("global").isPresent());
+    }
+
+    @Test
+    public void selectForUpdateBasedProxyManagerShouldUseCompensationWithoutMultiKeyTransactions() {
+        SelectForUpdateBasedProxyManagerMock<String> proxyManager = new SelectForUpdateBasedProxyManagerMock<>(ClientSideConfig.getDefault().withClientClock(clock));
+
+        assertTrue(proxyManager.tryConsumeAll(Map.of("organization", 100L), configurations));
+        assertFalse(proxyManager.tryConsumeAll(hierarchy(11), configurations));
+        assertAvailableTokens(proxyManager, 10, 0, 1000);
+        assertEquals(0, proxyManager.getMultiKeyCommits());
+    }
+
+    private static Map<String, Long> hierarchy(long tokens) {
+        Map<String, Long> tokensByKey = new LinkedHashMap<>();
+        tokensByKey.put("user", tokens);
+        tokensByKey.put("organization", tokens);
+        tokensByKey.put("global", tokens);
+        return tokensByKey;
+    }
+
+    private void assertAvailableTokens(long user, long organization, long global) {
+        assertAvailableTokens(proxyManager, user, organization, global);
+    }
+
+    private void assertAvailableTokens(ProxyManager<String> proxyManager, long user, long organization, long global) {
+        assertEquals(user, proxyManager.getProxy("user", () -> configurations.apply("user")).getAvailableTokens());
+        assertEquals(organization, proxyManager.getProxy("organization", () -> configurations.apply("organization")).getAvailableTokens());
+        assertEquals(global, proxyManager.getProxy("global", () -> configurations.apply("global")).getAvailableTokens());
+    }
+
+}
@@ -0,0 +1,131 @@
+package io.github.bucket4j.distributed.proxy.optimization.lease;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.AsyncBucketProxy;
+import io.github.bucket4j.distributed.BucketProxy;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.optimization.DefaultOptimizationListener;
+import io.github.bucket4j.distributed.proxy.optimization.LeaseParameters;
+import io.github.bucket4j.distributed.proxy.optimization.Optimization;
+import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.distributed.remote.commands.LeaseTokensCommand;
+import io.github.bucket4j.mock.ProxyManagerMock;
+import io.github.bucket4j.mock.TimeMeterMock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenLeaseOptimizationTest {
+
+    private final TimeMeterMock clock = new TimeMeterMock(1_000_000_000L);
+    private final ProxyManagerMock<String> proxyManager = new ProxyManagerMock<>(ClientSideConfig.getDefault()
+        .withClientClock(clock));
+    private final DefaultOptimizationListener listener = new DefaultOptimizationListener();
+    private final Optimization optimization = new TokenLeaseOptimization(new LeaseParameters(10, Duration.ofSeconds(1)), listener, clock);
+
+    @Test
+    public void shouldServeRequestsFromLease() {
+        BucketConfiguration configuration = configuration(100);
+        BucketProxy bucket = proxyManager.builder().withOptimization(optimization).build("key", () -> configuration);
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(bucket.tryConsume(1));
+        }
+        assertTrue(proxyManager.getHistory().size() < 15);
+        assertTrue(listener.getSkipCount() > 35);
+
+        // tokens are consumed from storage at the moment of leasing, so storage never sees more tokens than really available
+        long availableInStorage = proxyManager.getProxy("key", () -> configuration).getAvailableTokens();
+        assertTrue(availableInStorage <= 50);
+        assertTrue(availableInStorage >= 40);
+    }
+
+    @Test
+    public void shouldNotOverconsume() {
+        BucketConfiguration configuration = configuration(5);
+        BucketProxy first = proxyManager.builder().withOptimization(optimization).build("key", () -> configuration);
+        BucketProxy second = proxyManager.builder().withOptimization(optimization).build("key", () -> configuration);
+
+        int consumed = 0;
+        for (int i = 0; i < 10; i++) {
+            consumed += first.tryConsume(1) ? 1 : 0;
+            consumed += second.tryConsume(1) ? 1 : 0;
+        }
+        assertEquals(5, consumed);
+    }
+
+    @Test
+    public void shouldReturnUnusedTokensAfterExpiration() {
+        BucketConfiguration configuration = configuration(100);
+        BucketProxy bucket = proxyManager.builder().withOptimization(optimization).build("key", () -> configuration);
+        assertTrue(bucket.tryConsume(1));
+        assertTrue(bucket.tryConsume(1));
+        assertEquals(89, proxyManager.getProxy("key", () -> configuration).getAvailableTokens());
+
+        clock.addSeconds(2);
+        proxyManager.clearHistory();
+        assertTrue(bucket.tryConsume(1));
+        List<Request<?>> history = proxyManager.getHistory();
+        assertEquals(1, history.size());
+        LeaseTokensCommand command = (LeaseTokensCommand) history.get(0).getCommand();
+        assertEquals(9, command.getTokensToReturn());
+        assertEquals(88, proxyManager.getProxy("key", () -> configuration).getAvailableTokens());
+    }
+
+    @Test
+    public void shouldKeepTokensToReturnWhenLeaseRequestFails() {
+        BucketConfiguration configuration = configuration(100);
+        BucketProxy bucket = proxyManager.builder().withOptimization(optimization).build("key", () -> configuration);
+        assertTrue(bucket.tryConsume(1));
+        assertTrue(bucket.tryConsume(1));
+
+        clock.addSeconds(2);
+        proxyManager.setException(new RuntimeException());
+        assertThrows(RuntimeException.class, () -> bucket.tryConsume(1));
+        proxyManager.setException(null);
+
+        proxyManager.clearHistory();
+        assertTrue(bucket.tryConsume(1));
+        LeaseTokensCommand command = (LeaseTokensCommand) proxyManager.getHistory().get(0).getCommand();
+        assertEquals(9, command.getTokensToReturn());
+        assertEquals(88, proxyManager.getProxy("key", () -> configuration).getAvailableTokens());
+    }
+
+    @Test
+    public void shouldServeRequestsFromLeaseAsync() {
+        BucketConfiguration configuration = configuration(100);
+        AsyncBucketProxy bucket = proxyManager.asAsync().builder().withOptimization(optimization).build("key", configuration);
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(bucket.tryConsume(1).join());
+        }
+        assertTrue(proxyManager.getHistory().size() < 15);
+        long availableInStorage = proxyManager.getProxy("key", () -> configuration).getAvailableTokens();
+        assertTrue(availableInStorage <= 50);
+    }
+
+    @Test
+    public void shouldPropagateOtherRequests() {
+        BucketConfiguration configuration = configuration(100);
+        BucketProxy bucket = proxyManager.builder().withOptimization(optimization).build("key", () -> configuration);
+        assertEquals(97, bucket.tryConsumeAndReturnRemaining(3).getRemainingTokens());
+        assertFalse(proxyManager.getHistory().stream().anyMatch(request -> request.getCommand() instanceof LeaseTokensCommand));
+    }
+
+    @Test
+    public void shouldValidateParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new LeaseParameters(0, Duration.ofSeconds(1)));
+        assertThrows(IllegalArgumentException.class, () -> new LeaseParameters(10, null));
+        assertThrows(IllegalArgumentException.class, () -> new LeaseParameters(10, Duration.ZERO));
+    }
+
+    private static BucketConfiguration configuration(long capacity) {
+        return BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(capacity).refillIntervally(capacity, Duration.ofDays(1)))
+            .build();
+    }
+
+}
@@ -0,0 +1,174 @@
+package io.github.bucket4j.distributed.proxy.optimization.partitioning;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.AsyncBucketProxy;
+import io.github.bucket4j.distributed.BucketProxy;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.optimization.DefaultOptimizationListener;
+import io.github.bucket4j.distributed.proxy.optimization.Optimization;
+import io.github.bucket4j.distributed.proxy.optimization.Optimizations;
+import io.github.bucket4j.distributed.remote.commands.LeaseTokensCommand;
+import io.github.bucket4j.mock.ProxyManagerMock;
+import io.github.bucket4j.mock.TimeMeterMock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PartitioningOptimizationTest {
+
+    private static final long REBALANCE_INTERVAL_NANOS = Duration.ofSeconds(1).toNanos();
+
+    private final TimeMeterMock clock = new TimeMeterMock(1_000_000_000L);
+    private final ProxyManagerMock<String> proxyManager = new ProxyManagerMock<>(ClientSideConfig.getDefault()
+        .withClientClock(clock));
+    private final DefaultOptimizationListener listener = new DefaultOptimizationListener();
+    private final Optimization optimization = new PartitioningOptimization(REBALANCE_INTERVAL_NANOS, listener, clock);
+
+    @Test
+    public void shouldServeRequestsLocallyWhenDemandIsKnown() {
+        BucketConfiguration configuration = configuration(1000, 1000);
+        BucketProxy bucket = proxyManager.builder().withOptimization(optimization).build("key", () -> configuration);
+
+        for (int interval = 0; interval < 5; interval++) {
+            proxyManager.clearHistory();
+            for (int i = 0; i < 20; i++) {
+                assertTrue(bucket.tryConsume(1));
+            }
+            clock.addSeconds(1);
+        }
+        // one rebalance per interval plus occasional top-up
+        assertTrue(proxyManager.getHistory().size() <= 2);
+        assertTrue(listener.getSkipCount() > 60);
+    }
+
+    @Test
+    public void shouldNotOverconsume() {
+        BucketConfiguration configuration = configuration(5);
+        BucketProxy first = proxyManager.builder().withOptimization(optimization).build("key", () -> configuration);
+        BucketProxy second = proxyManager.builder().withOptimization(optimization).build("key", () -> configuration);
+
+        int consumed = 0;
+        for (int interval = 0; interval < 3; interval++) {
+            for (int i = 0; i < 10; i++) {
+                consumed += first.tryConsume(1) ? 1 : 0;
+                consumed += second.tryConsume(1) ? 1 : 0;
+            }
+            clock.addSeconds(1);
+        }
+        assertEquals(5, consumed);
+    }
+
+    @Test
+    public void shouldReturnShareWhenDemandDecreases() {
+        BucketConfiguration configuration = configuration(100, 30);
+        BucketProxy bucket = proxyManager.builder().withOptimization(optimization).build("key", () -> configuration);
+        for (int i = 0; i < 30; i++) {
+            assertTrue(bucket.tryConsume(1));
+        }
+        assertEquals(70, proxyManager.getProxy("key", () -> configuration).getAvailableTokens());
+
+        // share for the next interval is claimed according to demand of previous interval,
+        // the first request is served by initialization of bucket, so it is not counted
+        clock.addSeconds(1);
+        proxyManager.clearHistory();
+        assertTrue(bucket.tryConsume(1));
+        assertEquals(29, ((LeaseTokensCommand) proxyManager.getHistory().get(0).getCommand()).getTokensToLease());
+        assertEquals(71, proxyManager.getProxy("key", () -> configuration).getAvailableTokens());
+
+        // node was idle, so whole share is returned back
+        clock.addSeconds(10);
+        proxyManager.clearHistory();
+        assertTrue(bucket.tryConsume(1));
+        LeaseTokensCommand rebalanceCommand = (LeaseTokensCommand) proxyManager.getHistory().get(0).getCommand();
+        assertEquals(28, rebalanceCommand.getTokensToReturn());
+        assertEquals(0, rebalanceCommand.getTokensToLease());
+        assertEquals(99, proxyManager.getProxy("key", () -> configuration).getAvailableTokens());
+    }
+
+    @Test
+    public void shouldNotCountRejectedRequestsAsDemand() {
+        BucketConfiguration configuration = configuration(5);
+        BucketProxy bucket = proxyManager.builder().withOptimization(optimization).build("key", () -> configuration);
+        int consumed = 0;
+        for (int i = 0; i < 20; i++) {
+            consumed += bucket.tryConsume(1) ? 1 : 0;
+        }
+        assertEquals(5, consumed);
+
+        clock.addSeconds(1);
+        proxyManager.clearHistory();
+        bucket.tryConsume(1);
+        LeaseTokensCommand rebalanceCommand = (LeaseTokensCommand) proxyManager.getHistory().get(0).getCommand();
+        // four requests were served from the storage after initialization, fifteen rejected requests are not demand
+        assertEquals(4, rebalanceCommand.getTokensToLease());
+    }
+
+    @Test
+    public void shouldLimitClaimByRefillRate() {
+        BucketConfiguration configuration = configuration(1000, 10);
+        BucketProxy bucket = proxyManager.builder().withOptimization(optimization).build("key", () -> configuration);
+        for (int i = 0; i < 50; i++) {
+            assertTrue(bucket.tryConsume(1));
+        }
+        assertEquals(950, proxyManager.getProxy("key", () -> configuration).getAvailableTokens());
+
+        clock.addSeconds(1);
+        proxyManager.clearHistory();
+        assertTrue(bucket.tryConsume(1));
+        LeaseTokensCommand rebalanceCommand = (LeaseTokensCommand) proxyManager.getHistory().get(0).getCommand();
+        assertEquals(49, rebalanceCommand.getTokensToLease());
+        assertEquals(REBALANCE_INTERVAL_NANOS, rebalanceCommand.getClaimIntervalNanos());
+        // bucket refills only 10 tokens per interval, so share is not greater than 10
+        assertEquals(950, proxyManager.getProxy("key", () -> configuration).getAvailableTokens());
+        proxyManager.clearHistory();
+        for (int i = 0; i < 9; i++) {
+            assertTrue(bucket.tryConsume(1));
+        }
+        assertTrue(proxyManager.getHistory().isEmpty());
+    }
+
+    @Test
+    public void shouldServeRequestsLocallyAsync() {
+        BucketConfiguration configuration = configuration(1000, 1000);
+        AsyncBucketProxy bucket = proxyManager.asAsync().builder().withOptimization(optimization).build("key", configuration);
+
+        for (int interval = 0; interval < 5; interval++) {
+            proxyManager.clearHistory();
+            for (int i = 0; i < 20; i++) {
+                assertTrue(bucket.tryConsume(1).join());
+            }
+            clock.addSeconds(1);
+        }
+        assertTrue(proxyManager.getHistory().size() <= 2);
+    }
+
+    @Test
+    public void shouldPropagateOtherRequests() {
+        BucketConfiguration configuration = configuration(100);
+        BucketProxy bucket = proxyManager.builder().withOptimization(optimization).build("key", () -> configuration);
+        assertEquals(97, bucket.tryConsumeAndReturnRemaining(3).getRemainingTokens());
+        assertFalse(proxyManager.getHistory().stream().anyMatch(request -> request.getCommand() instanceof LeaseTokensCommand));
+    }
+
+    @Test
+    public void shouldValidateParameters() {
+        assertThrows(IllegalArgumentException.class, () -> Optimizations.partitioning(null));
+        assertThrows(IllegalArgumentException.class, () -> Optimizations.partitioning(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> Optimizations.partitioning(Duration.ofSeconds(-1)));
+    }
+
+    private static BucketConfiguration configuration(long capacity) {
+        return BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(capacity).refillIntervally(capacity, Duration.ofDays(1)))
+            .build();
+    }
+
+    private static BucketConfiguration configuration(long capacity, long refillTokensPerSecond) {
+        return BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(capacity).refillGreedy(refillTokensPerSecond, Duration.ofSeconds(1)))
+            .build();
+    }
+
+}
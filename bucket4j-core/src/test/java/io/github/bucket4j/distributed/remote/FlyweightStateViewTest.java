@@ -0,0 +1,161 @@
+package io.github.bucket4j.distributed.remote;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketState;
+import io.github.bucket4j.ConfigurationCache;
+import io.github.bucket4j.MathType;
+import io.github.bucket4j.TokensInheritanceStrategy;
+import io.github.bucket4j.distributed.remote.commands.ConsumeIgnoringRateLimitsCommand;
+import io.github.bucket4j.distributed.remote.commands.CreateInitialStateAndExecuteCommand;
+import io.github.bucket4j.distributed.remote.commands.ReplaceConfigurationCommand;
+import io.github.bucket4j.distributed.remote.commands.TryConsumeCommand;
+import io.github.bucket4j.distributed.serialization.InternalSerializationHelper;
+import io.github.bucket4j.distributed.versioning.Versions;
+import io.github.bucket4j.util.ComparableByContent;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FlyweightStateViewTest {
+
+    private static final long NANOS_IN_SECOND = 1_000_000_000L;
+
+    @Test
+    public void patchedBytesShouldBeTheSameAsSerializedFromScratch() {
+        for (MathType mathType : MathType.values()) {
+            for (Long configurationVersion : Arrays.asList(null, 42L)) {
+                byte[] bytes = persist(configuration(), mathType, configurationVersion);
+                assertNotNull(FlyweightStateView.parse(bytes));
+
+                long now = NANOS_IN_SECOND;
+                for (int i = 0; i < 20; i++) {
+                    now += NANOS_IN_SECOND / 3;
+                    RemoteCommand<?> command = i % 5 == 0 ? new ConsumeIgnoringRateLimitsCommand(3) : TryConsumeCommand.create(1);
+
+                    byte[] original = bytes.clone();
+                    MutableBucketEntry entry = new MutableBucketEntry(bytes, null, command);
+                    command.execute(entry, now);
+                    if (!entry.isStateModified()) {
+                        continue;
+                    }
+                    // state is written by patching, not by full serialization
+                    assertNotNull(FlyweightStateView.parse(bytes).patch(entry.get(), Versions.getLatest()));
+                    byte[] patched = entry.getStateBytes(Versions.getLatest());
+                    byte[] expected = InternalSerializationHelper.serializeState(entry.get(), Versions.getLatest());
+                    assertArrayEquals(expected, patched);
+                    // original array can be used as expected value of compare-and-swap
+                    assertArrayEquals(original, bytes);
+                    bytes = patched;
+                }
+            }
+        }
+    }
+
+    @Test
+    public void configurationShouldBeTakenFromCacheWithoutDeserialization() {
+        BucketConfiguration configuration = configuration();
+        byte[] first = persist(configuration, MathType.INTEGER_64_BITS, null);
+        byte[] second = persist(configuration, MathType.INTEGER_64_BITS, null);
+        assertSame(configuration, FlyweightStateView.parse(first).getState().getConfiguration());
+        assertSame(configuration, FlyweightStateView.parse(second).getState().getConfiguration());
+    }
+
+    @Test
+    public void fingerprintShouldBeCalculatedFromSerializedForm() {
+        BucketConfiguration configuration = configuration();
+        ByteBuffer buffer = ByteBuffer.wrap(InternalSerializationHelper.serializeConfiguration(configuration));
+        assertSame(configuration, ConfigurationCache.getDefault().getBySerializedForm(buffer));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void shouldFallbackToDeserializationWhenConfigurationIsNotCached() {
+        Bandwidth bandwidth = Bandwidth.builder()
+            .capacity(10)
+            .refillGreedy(10, Duration.ofNanos(ThreadLocalRandom.current().nextLong(1, 1_000_000_000)))
+            .build();
+        // configuration is created via constructor, so it is not interned into default cache
+        byte[] bytes = persist(new BucketConfiguration(List.of(bandwidth)), MathType.INTEGER_64_BITS, null);
+        assertNull(FlyweightStateView.parse(bytes));
+
+        MutableBucketEntry entry = new MutableBucketEntry(bytes, null, TryConsumeCommand.create(1));
+        assertTrue(entry.exists());
+        // configuration was interned by regular deserialization
+        assertNotNull(FlyweightStateView.parse(bytes));
+    }
+
+    @Test
+    public void shouldFallbackToDeserializationWhenIdentifierIsNotAscii() {
+        BucketConfiguration configuration = BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(10).refillGreedy(10, Duration.ofSeconds(1)).id("\u20ac"))
+            .build();
+        byte[] bytes = persist(configuration, MathType.INTEGER_64_BITS, null);
+        assertNull(FlyweightStateView.parse(bytes));
+        assertTrue(ComparableByContent.equals(configuration, new MutableBucketEntry(bytes, null, TryConsumeCommand.create(1)).get().getConfiguration()));
+    }
+
+    @Test
+    public void flyweightShouldBeUsedOnlyWhenCommandPreservesConfiguration() {
+        assertTrue(TryConsumeCommand.create(1).isConfigurationPreserved());
+        assertTrue(new ConsumeIgnoringRateLimitsCommand(1).isConfigurationPreserved());
+        assertTrue(TryConsumeCommand.create(1).asVerbose().isConfigurationPreserved());
+        assertTrue(new CreateInitialStateAndExecuteCommand<>(configuration(), TryConsumeCommand.create(1)).isConfigurationPreserved());
+        assertFalse(new ReplaceConfigurationCommand(configuration(), TokensInheritanceStrategy.AS_IS).isConfigurationPreserved());
+    }
+
+    @Test
+    public void shouldFallbackToFullSerializationWhenConfigurationReplaced() {
+        byte[] bytes = persist(configuration(), MathType.INTEGER_64_BITS, null);
+        // command type does not allow flyweight, so state is deserialized in regular way
+        BucketConfiguration newConfiguration = BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(7).refillGreedy(7, Duration.ofSeconds(1)).id("new"))
+            .build();
+        ReplaceConfigurationCommand command = new ReplaceConfigurationCommand(newConfiguration, TokensInheritanceStrategy.AS_IS);
+        MutableBucketEntry entry = new MutableBucketEntry(bytes, null, command);
+        command.execute(entry, NANOS_IN_SECOND);
+        assertTrue(entry.isStateModified());
+
+        byte[] newBytes = entry.getStateBytes(Versions.getLatest());
+        RemoteBucketState deserialized = InternalSerializationHelper.deserializeState(newBytes);
+        assertTrue(ComparableByContent.equals(newConfiguration, deserialized.getConfiguration()));
+
+        // patching is refused if configuration was replaced anyway
+        RemoteBucketState replaced = FlyweightStateView.parse(bytes).getState().copy();
+        replaced.replaceConfiguration(newConfiguration, TokensInheritanceStrategy.AS_IS, NANOS_IN_SECOND);
+        assertNull(FlyweightStateView.parse(bytes).patch(replaced, Versions.getLatest()));
+    }
+
+    @Test
+    public void shouldConvertToCompactFormatWhenItIsRequested() {
+        byte[] bytes = persist(configuration(), MathType.INTEGER_64_BITS, 1L);
+        TryConsumeCommand command = TryConsumeCommand.create(1);
+        MutableBucketEntry entry = new MutableBucketEntry(bytes, null, command);
+        command.execute(entry, NANOS_IN_SECOND);
+
+        byte[] compactBytes = entry.getStateBytes(Versions.getLatest(), true);
+        assertArrayEquals(InternalSerializationHelper.serializeCompactState(entry.get()), compactBytes);
+        assertNull(FlyweightStateView.parse(compactBytes));
+        assertTrue(ComparableByContent.equals(entry.get(), new MutableBucketEntry(compactBytes, null, command).get()));
+    }
+
+    private static BucketConfiguration configuration() {
+        return BucketConfiguration.builder()
+            .addLimit(Bandwidth.builder().capacity(10).refillGreedy(10, Duration.ofSeconds(1)).id("secondly").build())
+            .addLimit(Bandwidth.builder().capacity(100).refillGreedy(100, Duration.ofMinutes(1)).build())
+            .build();
+    }
+
+    private static byte[] persist(BucketConfiguration configuration, MathType mathType, Long configurationVersion) {
+        BucketState bucketState = BucketState.createInitialState(configuration, mathType, 0);
+        RemoteBucketState state = new RemoteBucketState(bucketState, new RemoteStat(0), configurationVersion);
+        return InternalSerializationHelper.serializeState(state, Versions.getLatest());
+    }
+
+}
@@ -7,6 +7,7 @@ import io.github.bucket4j.distributed.remote.*;
 import io.github.bucket4j.distributed.remote.commands.*;
 import io.github.bucket4j.distributed.versioning.Versions;
 import io.github.bucket4j.local.LockFreeBucket;
+import io.github.bucket4j.local.LockFreeGcraBucket;
 import io.github.bucket4j.local.SynchronizationStrategy;
 import io.github.bucket4j.local.SynchronizedBucket;
 import io.github.bucket4j.local.ThreadUnsafeBucket;
@@ -120,7 +121,9 @@ public abstract class AbstractSerializationTest {
             Bandwidth[] bandwidths = new Bandwidth[]{
                     simple(10, ofSeconds(42)),
                     classic(20, greedy(300, ofHours(2))),
-                    classic(400, intervallyAligned(1000, ofDays(2), Instant.now(), false))
+                    mathType == MathType.GCRA ?
+                        classic(400, greedy(1000, ofDays(2))) :
+                        classic(400, intervallyAligned(1000, ofDays(2), Instant.now(), false))
             };
             BucketConfiguration bucketConfiguration = new BucketConfiguration(Arrays.asList(bandwidths));
             BucketState bucketState = BucketState.createInitialState(bucketConfiguration, mathType, System.nanoTime());
@@ -169,7 +172,9 @@ public abstract class AbstractSerializationTest {
             Bandwidth[] bandwidths = new Bandwidth[] {
                     simple(10, ofSeconds(42)),
                     classic(20, greedy(300, ofHours(2))),
-                    classic(400, intervallyAligned(1000, ofDays(2), Instant.now(), false))
+                    mathType == MathType.GCRA ?
+                        classic(400, greedy(1000, ofDays(2))) :
+                        classic(400, intervallyAligned(1000, ofDays(2), Instant.now(), false))
             };
             BucketConfiguration bucketConfiguration = new BucketConfiguration(Arrays.asList(bandwidths));
             BucketState bucketState = BucketState.createInitialState(bucketConfiguration, mathType, System.nanoTime());
@@ -253,6 +258,9 @@ public abstract class AbstractSerializationTest {
 
         testSerialization(new CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<>(configuration, new ConsumeAsMuchAsPossibleCommand(13), 1, TokensInheritanceStrategy.AS_IS));
         testSerialization(new CreateInitialStateAndExecuteCommand<>(configuration, new ConsumeAsMuchAsPossibleCommand(13)));
+        testSerialization(new CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<>(configuration, new ConsumeAsMuchAsPossibleCommand(13), 1, TokensInheritanceStrategy.AS_IS, MathType.SLIDING_WINDOW_COUNTER));
+        testSerialization(new CreateInitialStateAndExecuteCommand<>(configuration, new ConsumeAsMuchAsPossibleCommand(13), MathType.SLIDING_WINDOW_COUNTER));
+        testSerialization(new CreateInitialStateAndExecuteCommand<>(configuration, new ConsumeAsMuchAsPossibleCommand(13), MathType.GCRA));
         testSerialization(new CheckConfigurationVersionAndExecuteCommand<>(new ConsumeAsMuchAsPossibleCommand(13), 1));
 
         testSerialization(
@@ -272,6 +280,14 @@ public abstract class AbstractSerializationTest {
 
         testSerialization(new ConsumeAsMuchAsPossibleCommand(13));
 
+        testSerialization(new LeaseTokensCommand(10, 7));
+        testSerialization(new LeaseTokensCommand(10, 7, 1_000_000_000L));
+        testSerialization(new CreateInitialStateCommand(configuration, 42));
+        testSerialization(new CreateInitialStateCommand(configuration));
+        testSerialization(new CreateInitialStateCommand(configuration, 42, MathType.GCRA));
+        testSerialization(new CreateInitialStateCommand(configuration, CreateInitialStateCommand.CONFIGURED_INITIAL_TOKENS, MathType.SLIDING_WINDOW_COUNTER));
+        testSerialization(new ReplaceConfigurationIfMatchesCommand(configuration.getFingerprint(), configuration, TokensInheritanceStrategy.PROPORTIONALLY));
+
         testSerialization(new GetAvailableTokensCommand());
 
         testSerialization(new CreateSnapshotCommand());
@@ -320,6 +336,12 @@ public abstract class AbstractSerializationTest {
                 .withSynchronizationStrategy(SynchronizationStrategy.NONE)
                 .build();
         testSerialization(unsafeBucket);
+
+        LockFreeGcraBucket gcraBucket = (LockFreeGcraBucket) Bucket.builder()
+                .addLimit(Bandwidth.simple(1, Duration.ofSeconds(1)))
+                .withMathType(MathType.GCRA)
+                .build();
+        testSerialization(gcraBucket);
     }
 
     @Test
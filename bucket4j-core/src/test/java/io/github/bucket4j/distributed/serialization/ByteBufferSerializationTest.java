@@ -0,0 +1,84 @@
+package io.github.bucket4j.distributed.serialization;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketState;
+import io.github.bucket4j.MathType;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import io.github.bucket4j.distributed.remote.RemoteStat;
+import io.github.bucket4j.distributed.versioning.Versions;
+import io.github.bucket4j.util.ComparableByContent;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ByteBufferSerializationTest extends AbstractSerializationTest {
+
+    private Map<Class, SerializationHandle> allHandles = new HashMap<>()
+    {{
+        for (SerializationHandle<?> handle : SerializationHandles.CORE_HANDLES.getAllHandles()) {
+            put(handle.getSerializedType(), handle);
+        }
+    }};
+
+    @Override
+    protected <T> T serializeAndDeserialize(T object, Scope scope) {
+        SerializationHandle serializationHandle = allHandles.get(object.getClass());
+        if (serializationHandle == null) {
+            throw new IllegalArgumentException("Serializer for class " + serializationHandle + " is not specified");
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            serializationHandle.serialize(ByteBufferSerializationAdapter.INSTANCE, buffer, object, Versions.getLatest(), scope);
+            buffer.flip();
+
+            // binary format must be the same as produced by DataOutput
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            serializationHandle.serialize(DataOutputSerializationAdapter.INSTANCE, new DataOutputStream(baos), object, Versions.getLatest(), scope);
+            if (!Arrays.equals(baos.toByteArray(), Arrays.copyOf(buffer.array(), buffer.limit()))) {
+                throw new IllegalStateException("Binary format differs from DataOutput for class " + object.getClass());
+            }
+
+            // size must be calculated exactly without writing
+            int[] size = new int[1];
+            serializationHandle.serialize(SizeCalculationAdapter.INSTANCE, size, object, Versions.getLatest(), scope);
+            if (size[0] != buffer.limit()) {
+                throw new IllegalStateException("Calculated size " + size[0] + " differs from " + buffer.limit() + " for class " + object.getClass());
+            }
+
+            T deserialized = (T) serializationHandle.deserialize(ByteBufferSerializationAdapter.INSTANCE, buffer);
+            if (buffer.hasRemaining()) {
+                throw new IllegalStateException("Buffer was not read to the end for class " + object.getClass());
+            }
+            return deserialized;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    public void stateLargerThanPooledBufferShouldBeSerializedInOnePass() {
+        List<Bandwidth> bandwidths = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            bandwidths.add(Bandwidth.builder().capacity(i).refillGreedy(i, Duration.ofSeconds(i)).id("bandwidth-\u00e9\u20ac-" + i).build());
+        }
+        BucketState bucketState = BucketState.createInitialState(new BucketConfiguration(bandwidths), MathType.INTEGER_64_BITS, 0);
+        RemoteBucketState state = new RemoteBucketState(bucketState, new RemoteStat(0), null);
+
+        byte[] bytes = InternalSerializationHelper.serializeState(state, Versions.getLatest());
+        assertTrue(bytes.length > 1024);
+        assertEquals(bytes.length, InternalSerializationHelper.getSerializedStateSize(state, Versions.getLatest()));
+        assertTrue(ComparableByContent.equals(state, InternalSerializationHelper.deserializeState(bytes)));
+        assertEquals("bandwidth-\u00e9\u20ac-7", InternalSerializationHelper.deserializeState(bytes).getConfiguration().getBandwidths()[6].getId());
+    }
+
+}
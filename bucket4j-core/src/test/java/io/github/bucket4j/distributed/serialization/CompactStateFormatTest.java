@@ -0,0 +1,159 @@
+package io.github.bucket4j.distributed.serialization;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketState;
+import io.github.bucket4j.MathType;
+import io.github.bucket4j.distributed.BucketProxy;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.remote.AbstractBinaryTransaction;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import io.github.bucket4j.distributed.remote.RemoteStat;
+import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.distributed.versioning.Versions;
+import io.github.bucket4j.mock.ProxyManagerMock;
+import io.github.bucket4j.mock.TimeMeterMock;
+import io.github.bucket4j.util.ComparableByContent;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactStateFormatTest {
+
+    @Test
+    public void testVarLong() throws Exception {
+        long[] values = {0, 1, -1, 63, 64, -64, -65, 127, 128, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, System.nanoTime()};
+        for (long value : values) {
+            ByteBuffer buffer = ByteBuffer.allocate(10);
+            ByteBufferSerializationAdapter.INSTANCE.writeVarLong(buffer, value);
+            int size = buffer.position();
+            buffer.flip();
+            assertEquals(value, ByteBufferSerializationAdapter.INSTANCE.readVarLong(buffer));
+            assertFalse(buffer.hasRemaining());
+            if (value >= -64 && value <= 63) {
+                assertEquals(1, size);
+            }
+        }
+    }
+
+    @Test
+    public void testDeltaLongArray() throws Exception {
+        Random random = new Random(42);
+        long now = System.nanoTime();
+        for (int length = 0; length < 20; length++) {
+            long[] array = new long[length];
+            for (int i = 0; i < length; i++) {
+                array[i] = switch (random.nextInt(4)) {
+                    case 0 -> now + random.nextInt(1000);
+                    case 1 -> random.nextInt(100);
+                    case 2 -> -random.nextInt(100);
+                    default -> random.nextLong();
+                };
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(11 * length + 10);
+            ByteBufferSerializationAdapter.INSTANCE.writeDeltaLongArray(buffer, array);
+            buffer.flip();
+            assertArrayEquals(array, ByteBufferSerializationAdapter.INSTANCE.readDeltaLongArray(buffer));
+            assertFalse(buffer.hasRemaining());
+        }
+    }
+
+    @Test
+    public void compactStateShouldBeReadableAndSmallerThanLegacyOne() {
+        for (MathType mathType : MathType.values()) {
+            BucketConfiguration configuration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.builder().capacity(100).refillGreedy(10, Duration.ofSeconds(1)).initialTokens(3).build())
+                .addLimit(Bandwidth.builder().capacity(1000).refillGreedy(1000, Duration.ofMinutes(1)).id("minutely").build())
+                .build();
+            if (mathType != MathType.GCRA) {
+                configuration = BucketConfiguration.builder()
+                    .addLimit(configuration.getBandwidths()[0])
+                    .addLimit(configuration.getBandwidths()[1])
+                    .addLimit(Bandwidth.builder().capacity(5000).refillIntervallyAligned(5000, Duration.ofHours(1), Instant.now()).build())
+                    .build();
+            }
+            BucketState bucketState = BucketState.createInitialState(configuration, mathType, System.nanoTime());
+            bucketState.consume(2);
+
+            for (Long configurationVersion : Arrays.asList(null, 42L)) {
+                RemoteBucketState state = new RemoteBucketState(bucketState, new RemoteStat(2), configurationVersion);
+
+                byte[] legacyBytes = InternalSerializationHelper.serializeState(state, Versions.getLatest());
+                byte[] compactBytes = InternalSerializationHelper.serializeCompactState(state);
+                assertTrue(compactBytes.length * 2 < legacyBytes.length, mathType + ": " + compactBytes.length + " vs " + legacyBytes.length);
+
+                RemoteBucketState deserialized = InternalSerializationHelper.deserializeState(compactBytes);
+                assertTrue(ComparableByContent.equals(state, deserialized));
+                assertEquals(configurationVersion, deserialized.getConfigurationVersion());
+                assertEquals(Versions.v_8_15_0.getNumber(), ByteBuffer.wrap(compactBytes).getInt());
+            }
+        }
+    }
+
+    @Test
+    public void compactFormatShouldBeUsedThroughProxyManagerWhenEnabled() {
+        TimeMeterMock clock = new TimeMeterMock();
+        ProxyManagerMock<String> proxyManager = new ProxyManagerMock<>(ClientSideConfig.getDefault()
+            .withClientClock(clock)
+            .withCompactStateFormat());
+        BucketConfiguration configuration = BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(10).refillGreedy(10, Duration.ofSeconds(1)))
+            .build();
+        BucketProxy bucket = proxyManager.builder().build("42", () -> configuration);
+
+        assertTrue(bucket.tryConsume(10));
+        assertFalse(bucket.tryConsume(1));
+        clock.addTime(Duration.ofMillis(500).toNanos());
+        assertEquals(5, bucket.getAvailableTokens());
+    }
+
+    @Test
+    public void compactFormatShouldBeEnabledOnlyByOwnOption() {
+        TimeMeterMock clock = new TimeMeterMock();
+        BucketConfiguration configuration = BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(10).refillGreedy(10, Duration.ofSeconds(1)))
+            .build();
+        for (boolean compact : new boolean[] {false, true}) {
+            ClientSideConfig config = ClientSideConfig.getDefault().withClientClock(clock);
+            ProxyManagerMock<String> proxyManager = new ProxyManagerMock<>(compact ? config.withCompactStateFormat() : config);
+            assertTrue(proxyManager.getProxy("42", () -> configuration).tryConsume(1));
+
+            // the flag is transferred to the server side inside the request
+            Request<?> initializationRequest = proxyManager.getHistory().get(1);
+            byte[] requestBytes = InternalSerializationHelper.serializeRequest(initializationRequest);
+            assertEquals(compact, InternalSerializationHelper.deserializeRequest(requestBytes).isCompactStateFormat());
+
+            byte[][] persistedState = new byte[1][];
+            new AbstractBinaryTransaction(requestBytes) {
+                @Override
+                protected byte[] getRawState() {
+                    return null;
+                }
+                @Override
+                protected void setRawState(byte[] newStateBytes, RemoteBucketState newState) {
+                    persistedState[0] = newStateBytes;
+                }
+                @Override
+                public boolean exists() {
+                    return false;
+                }
+            }.execute();
+            assertEquals(compact, ByteBuffer.wrap(persistedState[0]).getInt() == Versions.v_8_15_0.getNumber());
+        }
+    }
+
+    @Test
+    public void compactFormatShouldNotBeCombinedWithCompatibilityWithPreviousVersions() {
+        ClientSideConfig config = ClientSideConfig.getDefault()
+            .backwardCompatibleWith(Versions.v_8_14_0)
+            .withCompactStateFormat();
+        assertThrows(IllegalArgumentException.class, () -> new ProxyManagerMock<String>(config));
+    }
+
+}
@@ -0,0 +1,95 @@
+package io.github.bucket4j.distributed.serialization;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.MathType;
+import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.distributed.remote.commands.CreateInitialStateAndExecuteCommand;
+import io.github.bucket4j.distributed.remote.commands.TryConsumeCommand;
+import io.github.bucket4j.distributed.versioning.Versions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SerializedConfigurationReuseTest {
+
+    private final BucketConfiguration configuration = BucketConfiguration.builder()
+        .addLimit(limit -> limit.capacity(100).refillGreedy(10, Duration.ofSeconds(1)).id("first"))
+        .addLimit(limit -> limit.capacity(1000).refillIntervally(1000, Duration.ofMinutes(1)))
+        .build();
+
+    @Test
+    public void cachedConfigurationBytesShouldBeTheSameAsFieldByFieldSerialization() throws IOException {
+        for (MathType mathType : MathType.values()) {
+            Request<Boolean> request = new Request<>(
+                new CreateInitialStateAndExecuteCommand<>(configuration, TryConsumeCommand.create(42), mathType),
+                Versions.getLatest(), 1000L, null
+            );
+
+            byte[] fieldByField = serialize(new FieldByFieldAdapter(), request);
+            // the second serialization reuses bytes cached at the first one
+            for (int i = 0; i < 2; i++) {
+                assertArrayEquals(fieldByField, serialize(DataOutputSerializationAdapter.INSTANCE, request));
+                assertArrayEquals(fieldByField, InternalSerializationHelper.serializeRequest(request));
+            }
+
+            Request<?> deserialized = InternalSerializationHelper.deserializeRequest(ByteBuffer.wrap(fieldByField));
+            CreateInitialStateAndExecuteCommand<?> command = (CreateInitialStateAndExecuteCommand<?>) deserialized.getCommand();
+            assertEquals(configuration, command.getConfiguration());
+        }
+    }
+
+    private static byte[] serialize(SerializationAdapter<DataOutput> adapter, Request<?> request) throws IOException {
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+        Request.SERIALIZATION_HANDLE.serialize(adapter, new DataOutputStream(byteStream), request, request.getBackwardCompatibilityVersion(), Scope.REQUEST);
+        return byteStream.toByteArray();
+    }
+
+    private static class FieldByFieldAdapter implements SerializationAdapter<DataOutput> {
+
+        private final DataOutputSerializationAdapter delegate = DataOutputSerializationAdapter.INSTANCE;
+
+        @Override
+        public void writeBoolean(DataOutput target, boolean value) throws IOException {
+            delegate.writeBoolean(target, value);
+        }
+
+        @Override
+        public void writeByte(DataOutput target, byte value) throws IOException {
+            delegate.writeByte(target, value);
+        }
+
+        @Override
+        public void writeInt(DataOutput target, int value) throws IOException {
+            delegate.writeInt(target, value);
+        }
+
+        @Override
+        public void writeLong(DataOutput target, long value) throws IOException {
+            delegate.writeLong(target, value);
+        }
+
+        @Override
+        public void writeLongArray(DataOutput target, long[] value) throws IOException {
+            delegate.writeLongArray(target, value);
+        }
+
+        @Override
+        public void writeDoubleArray(DataOutput target, double[] value) throws IOException {
+            delegate.writeDoubleArray(target, value);
+        }
+
+        @Override
+        public void writeString(DataOutput target, String value) throws IOException {
+            delegate.writeString(target, value);
+        }
+
+    }
+
+}
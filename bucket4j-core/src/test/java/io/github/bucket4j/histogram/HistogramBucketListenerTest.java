@@ -0,0 +1,132 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.histogram;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.mock.TimeMeterMock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HistogramBucketListenerTest {
+
+    @Test
+    public void smallValuesShouldBeCountedExactly() {
+        LockFreeHistogram histogram = new LockFreeHistogram(5);
+        for (int i = 1; i <= 20; i++) {
+            histogram.record(i);
+        }
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(20, snapshot.getCount());
+        assertEquals(210, snapshot.getSum());
+        assertEquals(20, snapshot.getMax());
+        assertEquals(10, snapshot.getValueAtPercentile(50));
+        assertEquals(19, snapshot.getValueAtPercentile(95));
+        assertEquals(1, snapshot.getValueAtPercentile(0));
+        assertEquals(20, snapshot.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void largeValuesShouldBeReportedWithBoundedRelativeError() {
+        LockFreeHistogram histogram = new LockFreeHistogram(5);
+        long[] values = {1_000, 77_777, 1_000_000_007L, Duration.ofDays(3).toNanos(), Long.MAX_VALUE};
+        for (long value : values) {
+            LockFreeHistogram single = new LockFreeHistogram(5);
+            single.record(value);
+            long reported = single.snapshot().getValueAtPercentile(50);
+            assertTrue(reported <= value);
+            assertTrue(value - reported <= value / 32, "value=" + value + " reported=" + reported);
+
+            int index = LockFreeHistogram.indexOf(value, 5);
+            assertTrue(LockFreeHistogram.highestValueAt(index, 5) >= value);
+            assertTrue(index < LockFreeHistogram.bucketCount(5));
+            histogram.record(value);
+        }
+        assertEquals(Long.MAX_VALUE, histogram.snapshot().getMax());
+    }
+
+    @Test
+    public void shouldCalculateIntervalSnapshot() {
+        LockFreeHistogram histogram = new LockFreeHistogram();
+        histogram.record(100);
+        HistogramSnapshot first = histogram.snapshot();
+        histogram.record(7);
+        histogram.record(9);
+        HistogramSnapshot interval = histogram.snapshot().minus(first);
+        assertEquals(2, interval.getCount());
+        assertEquals(16, interval.getSum());
+        assertEquals(9, interval.getValueAtPercentile(100));
+
+        assertThrows(IllegalArgumentException.class, () -> interval.getValueAtPercentile(101));
+        assertThrows(IllegalArgumentException.class, () -> interval.minus(new LockFreeHistogram(3).snapshot()));
+        assertThrows(IllegalArgumentException.class, () -> new LockFreeHistogram(0));
+    }
+
+    @Test
+    public void shouldNotLoseValuesRecordedConcurrently() throws InterruptedException {
+        LockFreeHistogram histogram = new LockFreeHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            int threadNumber = i;
+            Thread thread = new Thread(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    histogram.record(threadNumber * 1000 + j % 1000);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(80_000, snapshot.getCount());
+        assertEquals(7999, snapshot.getMax());
+    }
+
+    @Test
+    public void shouldAggregateBucketEvents() {
+        HistogramBucketListener listener = new HistogramBucketListener();
+        Bucket bucket = Bucket.builder()
+            .addLimit(limit -> limit.capacity(10).refillGreedy(10, Duration.ofSeconds(1)))
+            .withCustomTimePrecision(new TimeMeterMock(0))
+            .withListener(listener)
+            .build();
+
+        assertTrue(bucket.tryConsume(4));
+        assertTrue(bucket.tryConsume(6));
+        assertFalse(bucket.tryConsume(3));
+
+        assertEquals(2, listener.getConsumed().getCount());
+        assertEquals(10, listener.getConsumed().getSum());
+        assertEquals(1, listener.getRejected().getCount());
+        assertEquals(3, listener.getRejected().getMax());
+
+        listener.onParked(Duration.ofMillis(20).toNanos());
+        listener.onDelayed(Duration.ofMillis(5).toNanos());
+        assertEquals(Duration.ofMillis(20).toNanos(), listener.getParkedNanos().getMax());
+        assertEquals(1, listener.getDelayedNanos().getCount());
+    }
+
+}
@@ -0,0 +1,127 @@
+package io.github.bucket4j.io;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.mock.SchedulerMock;
+import io.github.bucket4j.mock.TimeMeterMock;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousByteChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.ReadPendingException;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ThrottledAsynchronousByteChannelTest {
+
+    private final TimeMeterMock clock = new TimeMeterMock(0);
+    private final SchedulerMock scheduler = new SchedulerMock(clock);
+    private final Bucket bucket = Bucket.builder()
+            .addLimit(limit -> limit.capacity(1000).refillGreedy(1000, Duration.ofSeconds(1)).initialTokens(0))
+            .withCustomTimePrecision(clock)
+            .build();
+    private final ChannelMock channelMock = new ChannelMock();
+
+    @Test
+    public void readCompletionShouldBeDelayedByReadBytes() throws ExecutionException, InterruptedException {
+        channelMock.bytesPerOperation = 300;
+        ThrottledAsynchronousByteChannel channel = new ThrottledAsynchronousByteChannel(channelMock, bucket, scheduler, 500);
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(2000);
+        Future<Integer> future = channel.read(buffer);
+
+        assertEquals(300, future.get());
+        assertEquals(2000, buffer.limit());
+        assertTrue(channelMock.lastBufferWasDirect);
+        assertEquals(Duration.ofMillis(300).toNanos(), scheduler.getAcummulatedDelayNanos());
+    }
+
+    @Test
+    public void writeShouldBeLimitedByChunkAndDelayed() throws ExecutionException, InterruptedException {
+        channelMock.bytesPerOperation = Integer.MAX_VALUE;
+        ThrottledAsynchronousByteChannel channel = new ThrottledAsynchronousByteChannel(channelMock, bucket, scheduler, 400);
+
+        ByteBuffer buffer = ByteBuffer.allocate(1000);
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            int chunk = channel.write(buffer).get();
+            assertTrue(chunk <= 400);
+            written += chunk;
+        }
+
+        assertEquals(1000, written);
+        assertEquals(Duration.ofSeconds(1).toNanos(), scheduler.getAcummulatedDelayNanos());
+    }
+
+    @Test
+    public void tokensForNotWrittenBytesShouldBeReturned() throws ExecutionException, InterruptedException {
+        bucket.addTokens(1000);
+        channelMock.bytesPerOperation = 100;
+        ThrottledAsynchronousByteChannel channel = new ThrottledAsynchronousByteChannel(channelMock, bucket, scheduler, 400);
+
+        assertEquals(100, channel.write(ByteBuffer.allocate(1000)).get());
+        assertEquals(900, bucket.getAvailableTokens());
+    }
+
+    @Test
+    public void limitOfBufferShouldBeRestoredWhenReadIsRejected() {
+        channelMock.readPending = true;
+        ThrottledAsynchronousByteChannel channel = new ThrottledAsynchronousByteChannel(channelMock, bucket, scheduler, 500);
+
+        ByteBuffer buffer = ByteBuffer.allocate(2000);
+        assertThrows(ReadPendingException.class, () -> channel.read(buffer));
+        assertEquals(2000, buffer.limit());
+    }
+
+    private static class ChannelMock implements AsynchronousByteChannel {
+
+        int bytesPerOperation;
+        boolean lastBufferWasDirect;
+        boolean readPending;
+
+        @Override
+        public <A> void read(ByteBuffer dst, A attachment, CompletionHandler<Integer, ? super A> handler) {
+            if (readPending) {
+                throw new ReadPendingException();
+            }
+            handler.completed(transfer(dst), attachment);
+        }
+
+        @Override
+        public Future<Integer> read(ByteBuffer dst) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <A> void write(ByteBuffer src, A attachment, CompletionHandler<Integer, ? super A> handler) {
+            handler.completed(transfer(src), attachment);
+        }
+
+        @Override
+        public Future<Integer> write(ByteBuffer src) {
+            throw new UnsupportedOperationException();
+        }
+
+        private int transfer(ByteBuffer buffer) {
+            lastBufferWasDirect = buffer.isDirect();
+            int bytes = Math.min(bytesPerOperation, buffer.remaining());
+            buffer.position(buffer.position() + bytes);
+            return bytes;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+}
@@ -0,0 +1,81 @@
+package io.github.bucket4j.io;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.mock.BlockingStrategyMock;
+import io.github.bucket4j.mock.TimeMeterMock;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ThrottledFileTransferTest {
+
+    private final TimeMeterMock clock = new TimeMeterMock(0);
+    private final BlockingStrategyMock blocking = new BlockingStrategyMock(clock);
+
+    @Test
+    public void transferShouldRespectTheSlowestBucket() throws IOException {
+        Bucket connectionBucket = bucket(1000);
+        Bucket globalBucket = bucket(500);
+        byte[] content = new byte[2000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+
+        Path file = Files.createTempFile("bucket4j", "transfer");
+        try {
+            Files.write(file, content);
+            ByteArrayOutputStream target = new ByteArrayOutputStream();
+            ThrottledFileTransfer transfer = new ThrottledFileTransfer(List.of(connectionBucket, globalBucket), 100, 400, blocking);
+            try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ)) {
+                long transferred = transfer.transferTo(source, 0, source.size(), Channels.newChannel(target));
+                assertEquals(2000, transferred);
+            }
+            assertArrayEquals(content, target.toByteArray());
+        } finally {
+            Files.delete(file);
+        }
+
+        long parkedNanos = blocking.getParkedNanos();
+        assertTrue(parkedNanos >= Duration.ofSeconds(4).toNanos(), "parked " + parkedNanos);
+        assertTrue(parkedNanos <= Duration.ofMillis(4400).toNanos(), "parked " + parkedNanos);
+    }
+
+    @Test
+    public void tokensShouldBeReturnedWhenEndOfFileReached() throws IOException {
+        Bucket bucket = bucket(1000);
+        bucket.addTokens(1000);
+
+        Path file = Files.createTempFile("bucket4j", "transfer");
+        try {
+            Files.write(file, new byte[300]);
+            ThrottledFileTransfer transfer = new ThrottledFileTransfer(List.of(bucket), 100, 1000, blocking);
+            try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ)) {
+                long transferred = transfer.transferTo(source, 0, 1000, Channels.newChannel(new ByteArrayOutputStream()));
+                assertEquals(300, transferred);
+            }
+        } finally {
+            Files.delete(file);
+        }
+        assertEquals(700, bucket.getAvailableTokens());
+    }
+
+    private Bucket bucket(long bytesPerSecond) {
+        return Bucket.builder()
+                .addLimit(limit -> limit.capacity(bytesPerSecond).refillGreedy(bytesPerSecond, Duration.ofSeconds(1)).initialTokens(0))
+                .withCustomTimePrecision(clock)
+                .build();
+    }
+
+}
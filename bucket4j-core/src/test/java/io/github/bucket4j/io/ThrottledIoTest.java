@@ -0,0 +1,162 @@
+package io.github.bucket4j.io;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.mock.BlockingStrategyMock;
+import io.github.bucket4j.mock.TimeMeterMock;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ThrottledIoTest {
+
+    private static final int BYTES_PER_SECOND = 1000;
+
+    private final TimeMeterMock clock = new TimeMeterMock(0);
+    private final BlockingStrategyMock blocking = new BlockingStrategyMock(clock);
+    private final Bucket bucket = Bucket.builder()
+            .addLimit(limit -> limit.capacity(BYTES_PER_SECOND).refillGreedy(BYTES_PER_SECOND, Duration.ofSeconds(1)).initialTokens(0))
+            .withCustomTimePrecision(clock)
+            .build();
+
+    @Test
+    public void outputStreamShouldSplitWritesToChunks() throws IOException {
+        byte[] data = randomBytes(3000);
+        List<Integer> writes = new ArrayList<>();
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        OutputStream recordingTarget = new OutputStream() {
+            @Override
+            public void write(int b) {
+                writes.add(1);
+                target.write(b);
+            }
+            @Override
+            public void write(byte[] b, int off, int len) {
+                writes.add(len);
+                target.write(b, off, len);
+            }
+        };
+
+        try (OutputStream out = new ThrottledOutputStream(recordingTarget, bucket, 500, blocking)) {
+            out.write(data);
+        }
+
+        assertArrayEquals(data, target.toByteArray());
+        assertEquals(Arrays.asList(500, 500, 500, 500, 500, 500), writes);
+        assertEquals(Duration.ofSeconds(3).toNanos(), blocking.getParkedNanos());
+    }
+
+    @Test
+    public void inputStreamShouldChargeReadBytes() throws IOException {
+        byte[] data = randomBytes(2500);
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (InputStream in = new ThrottledInputStream(new ByteArrayInputStream(data), bucket, 500, blocking)) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                assertTrue(read <= 500);
+                result.write(buffer, 0, read);
+            }
+        }
+
+        assertArrayEquals(data, result.toByteArray());
+        assertEquals(Duration.ofMillis(2500).toNanos(), blocking.getParkedNanos());
+    }
+
+    @Test
+    public void readableChannelShouldPreserveDirectBuffers() throws IOException {
+        byte[] data = randomBytes(1500);
+        List<Boolean> directness = new ArrayList<>();
+        ReadableByteChannel source = Channels.newChannel(new ByteArrayInputStream(data));
+        ReadableByteChannel recordingSource = new ReadableByteChannel() {
+            @Override
+            public int read(ByteBuffer dst) throws IOException {
+                directness.add(dst.isDirect());
+                return source.read(dst);
+            }
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+            @Override
+            public void close() {}
+        };
+
+        ThrottledReadableByteChannel channel = new ThrottledReadableByteChannel(recordingSource, bucket, 400, blocking);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(2000);
+        while (channel.read(buffer) >= 0) {
+            assertEquals(2000, buffer.limit());
+        }
+
+        buffer.flip();
+        byte[] result = new byte[buffer.remaining()];
+        buffer.get(result);
+        assertArrayEquals(data, result);
+        assertTrue(directness.stream().allMatch(direct -> direct));
+        assertEquals(Duration.ofMillis(1500).toNanos(), blocking.getParkedNanos());
+    }
+
+    @Test
+    public void gatheringWriteShouldBeChunkedAcrossBuffers() throws IOException {
+        ByteBuffer first = ByteBuffer.wrap(randomBytes(300));
+        ByteBuffer second = ByteBuffer.allocateDirect(700);
+        second.put(randomBytes(700)).flip();
+
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        WritableByteChannel channel = new ThrottledWritableByteChannel(Channels.newChannel(target), bucket, 250, blocking);
+        long written = ((ThrottledWritableByteChannel) channel).write(new ByteBuffer[] {first, second});
+
+        assertEquals(1000, written);
+        assertEquals(1000, target.size());
+        assertEquals(300, first.limit());
+        assertEquals(700, second.limit());
+        assertEquals(Duration.ofSeconds(1).toNanos(), blocking.getParkedNanos());
+    }
+
+    @Test
+    public void tokensForNotWrittenBytesShouldBeReturned() throws IOException {
+        bucket.addTokens(1000);
+        WritableByteChannel nonBlockingChannel = new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) {
+                int accepted = Math.min(100, src.remaining());
+                src.position(src.position() + accepted);
+                return accepted;
+            }
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+            @Override
+            public void close() {}
+        };
+
+        ThrottledWritableByteChannel channel = new ThrottledWritableByteChannel(nonBlockingChannel, bucket, 500, blocking);
+        assertEquals(100, channel.write(ByteBuffer.allocate(800)));
+        assertEquals(900, bucket.getAvailableTokens());
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) (i * 31 + 7);
+        }
+        return bytes;
+    }
+
+}
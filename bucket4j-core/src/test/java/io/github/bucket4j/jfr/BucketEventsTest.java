@@ -0,0 +1,163 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.jfr;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.AsyncBucketProxy;
+import io.github.bucket4j.distributed.BucketProxy;
+import io.github.bucket4j.mock.ProxyManagerMock;
+import io.github.bucket4j.mock.TimeMeterMock;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BucketEventsTest {
+
+    @BeforeEach
+    public void enable() {
+        BucketEvents.setEnabled(true);
+    }
+
+    @AfterEach
+    public void disable() {
+        BucketEvents.setEnabled(false);
+    }
+
+    @Test
+    public void shouldEmitConsumptionAndWaitEvents() throws Exception {
+        List<RecordedEvent> events = record(recording -> {
+            recording.enable(ConsumedEvent.class);
+            recording.enable(RejectedEvent.class);
+            recording.enable(ParkedEvent.class).with("minimumWait", "1 ms");
+        }, () -> {
+            Bucket bucket = Bucket.builder()
+                .addLimit(limit -> limit.capacity(10).refillGreedy(10, Duration.ofSeconds(1)))
+                .withCustomTimePrecision(new TimeMeterMock(0))
+                .build();
+            bucket.tryConsume(7);
+            bucket.tryConsume(7);
+        });
+
+        List<RecordedEvent> consumed = filter(events, "io.github.bucket4j.Consumed");
+        List<RecordedEvent> rejected = filter(events, "io.github.bucket4j.Rejected");
+        assertEquals(1, consumed.size());
+        assertEquals(7, consumed.get(0).getLong("tokens"));
+        assertEquals(1, rejected.size());
+        assertTrue(filter(events, "io.github.bucket4j.Parked").isEmpty());
+    }
+
+    @Test
+    public void shouldNotEmitEventsByDefault() throws Exception {
+        List<RecordedEvent> events = record(recording -> {}, () -> {
+            Bucket bucket = Bucket.builder()
+                .addLimit(limit -> limit.capacity(10).refillGreedy(10, Duration.ofSeconds(1)))
+                .build();
+            bucket.tryConsume(1);
+        });
+        assertTrue(events.stream().noneMatch(event -> event.getEventType().getName().startsWith("io.github.bucket4j")));
+    }
+
+    @Test
+    public void shouldNotDecorateBucketsWhenIntegrationIsDisabled() throws Exception {
+        BucketEvents.setEnabled(false);
+        List<RecordedEvent> events = record(recording -> recording.enable(ConsumedEvent.class), () -> {
+            Bucket bucket = Bucket.builder()
+                .addLimit(limit -> limit.capacity(10).refillGreedy(10, Duration.ofSeconds(1)))
+                .build();
+            bucket.tryConsume(1);
+        });
+        assertTrue(filter(events, "io.github.bucket4j.Consumed").isEmpty());
+    }
+
+    @Test
+    public void shouldMeasureRemoteCommands() throws Exception {
+        BucketConfiguration configuration = BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(10).refillGreedy(10, Duration.ofSeconds(1)))
+            .build();
+        List<RecordedEvent> events = record(recording -> recording.enable(RemoteCommandEvent.class), () -> {
+            ProxyManagerMock<String> proxyManager = new ProxyManagerMock<>(new TimeMeterMock(0));
+            BucketProxy bucket = proxyManager.builder().build("42", () -> configuration);
+            bucket.tryConsume(1);
+            bucket.tryConsume(1);
+
+            AsyncBucketProxy asyncBucket = proxyManager.asAsync().builder().build("43", () -> java.util.concurrent.CompletableFuture.completedFuture(configuration));
+            try {
+                asyncBucket.tryConsume(1).get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        List<RecordedEvent> commands = filter(events, "io.github.bucket4j.RemoteCommand");
+        List<String> types = commands.stream().map(event -> event.getString("commandType")).collect(Collectors.toList());
+        // the first command finds nothing, then bucket is created by second command
+        assertEquals(List.of("TryConsumeCommand", "CreateInitialStateAndExecuteCommand", "TryConsumeCommand",
+            "TryConsumeCommand", "CreateInitialStateAndExecuteCommand"), types);
+        assertTrue(commands.get(0).getBoolean("bucketNotFound"));
+        assertTrue(commands.get(1).getBoolean("initialization"));
+    }
+
+    @Test
+    public void shouldParseWaitThreshold() {
+        assertEquals(0, WaitThresholdSetting.parseNanos("0 ns"));
+        assertEquals(20_000_000, WaitThresholdSetting.parseNanos("20 ms"));
+        assertEquals(3_000_000_000L, WaitThresholdSetting.parseNanos("3 s"));
+        assertEquals("1 ms", new WaitThresholdSetting().combine(java.util.Set.of("1 ms", "2 s")));
+    }
+
+    private static List<RecordedEvent> record(RecordingConfigurer configurer, Runnable action) throws IOException {
+        Path file = Files.createTempFile("bucket4j", ".jfr");
+        try (Recording recording = new Recording()) {
+            configurer.configure(recording);
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<RecordedEvent> filter(List<RecordedEvent> events, String name) {
+        return events.stream()
+            .filter(event -> event.getEventType().getName().equals(name))
+            .collect(Collectors.toList());
+    }
+
+    private interface RecordingConfigurer {
+        void configure(Recording recording);
+    }
+
+}
@@ -29,6 +29,7 @@ import java.util.Optional;
 public class LockBasedProxyManagerMock<K> extends AbstractLockBasedProxyManager<K> {
 
     private final Map<K, byte[]> stateMap = new HashMap<>();
+    private int allocatedTransactions;
 
     public LockBasedProxyManagerMock(ClientSideConfig clientSideConfig) {
         super(clientSideConfig);
@@ -36,6 +37,7 @@ public class LockBasedProxyManagerMock<K> extends AbstractLockBasedProxyManager<
 
     @Override
     protected LockBasedTransaction allocateTransaction(K key, Optional<Long> requestTimeout) {
+        allocatedTransactions++;
         byte[] backup = stateMap.get(key);
 
         return new LockBasedTransaction() {
@@ -55,7 +57,7 @@ public class LockBasedProxyManagerMock<K> extends AbstractLockBasedProxyManager<
 
             @Override
             public void release() {
-                // do nothing
+                allocatedTransactions--;
             }
 
             @Override
@@ -89,6 +91,10 @@ public class LockBasedProxyManagerMock<K> extends AbstractLockBasedProxyManager<
         };
     }
 
+    public int getAllocatedTransactions() {
+        return allocatedTransactions;
+    }
+
     @Override
     public void removeProxy(K key) {
         stateMap.remove(key);
@@ -19,8 +19,12 @@ package io.github.bucket4j.mock;
 
 
 import io.github.bucket4j.TimeMeter;
+import io.github.bucket4j.distributed.ConfigurationStore;
 import io.github.bucket4j.distributed.proxy.AbstractProxyManager;
 import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.PersistedBucket;
+import io.github.bucket4j.distributed.proxy.ScanCursor;
+import io.github.bucket4j.distributed.proxy.ScanPage;
 import io.github.bucket4j.distributed.remote.*;
 import io.github.bucket4j.distributed.versioning.Version;
 
@@ -52,6 +56,7 @@ public class ProxyManagerMock<K> extends AbstractProxyManager<K> {
     private int blockedRequests = 0;
     private boolean allowExecution = true;
     private boolean allowReturnResult = true;
+    private ConfigurationStore serverSideConfigurationStore;
 
     public ProxyManagerMock(TimeMeter timeMeter) {
         super(ClientSideConfig.getDefault().withClientClock(timeMeter));
@@ -76,6 +81,15 @@ public class ProxyManagerMock<K> extends AbstractProxyManager<K> {
         }
     }
 
+    public void setServerSideConfigurationStore(ConfigurationStore serverSideConfigurationStore) {
+        executionLock.lock();
+        try {
+            this.serverSideConfigurationStore = serverSideConfigurationStore;
+        } finally {
+            executionLock.unlock();
+        }
+    }
+
     public void setException(RuntimeException exception) {
         executionLock.lock();
         try {
@@ -206,6 +220,10 @@ public class ProxyManagerMock<K> extends AbstractProxyManager<K> {
                 public boolean exists() {
                     return stateMap.containsKey(key);
                 }
+                @Override
+                protected ConfigurationStore getConfigurationStore() {
+                    return serverSideConfigurationStore;
+                }
             };
             byte[] responseBytes = transaction.execute();
             Version backwardCompatibilityVersion = request.getBackwardCompatibilityVersion();
@@ -232,11 +250,45 @@ public class ProxyManagerMock<K> extends AbstractProxyManager<K> {
         }
     }
 
+    @Override
+    public boolean isScanSupported() {
+        return true;
+    }
+
+    @Override
+    protected ScanPage<K> scanPage(ScanCursor cursor, int pageSize) {
+        executionLock.lock();
+        try {
+            readCount++;
+            List<K> keys = new ArrayList<>(stateMap.keySet());
+            int offset = cursor.isInitial() ? 0 : (Integer) cursor.getPosition();
+            int end = Math.min(keys.size(), offset + pageSize);
+            List<PersistedBucket<K>> buckets = new ArrayList<>();
+            for (K key : keys.subList(offset, end)) {
+                buckets.add(new PersistedBucket<>(key, decodeState(stateMap.get(key))));
+            }
+            return new ScanPage<>(buckets, end < keys.size() ? ScanCursor.of(end) : null);
+        } finally {
+            executionLock.unlock();
+        }
+    }
+
     @Override
     public boolean isAsyncModeSupported() {
         return true;
     }
 
+    @Override
+    protected boolean isConfigurationStoreSupported() {
+        // transaction is provided with server side store, see setServerSideConfigurationStore
+        return true;
+    }
+
+    @Override
+    protected boolean isConfigurationIdsInRequestsSupported() {
+        return true;
+    }
+
     @Override
     public <T> CompletableFuture<CommandResult<T>> executeAsync(K key, Request<T> request) {
         executionLock.lock();
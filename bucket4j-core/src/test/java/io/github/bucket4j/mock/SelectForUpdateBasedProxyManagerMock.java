@@ -22,6 +22,7 @@ import io.github.bucket4j.distributed.proxy.generic.pessimistic_locking.Abstract
 import io.github.bucket4j.distributed.proxy.generic.pessimistic_locking.LockBasedTransaction;
 import io.github.bucket4j.distributed.proxy.generic.select_for_update.AbstractSelectForUpdateBasedProxyManager;
 import io.github.bucket4j.distributed.proxy.generic.select_for_update.LockAndGetResult;
+import io.github.bucket4j.distributed.proxy.generic.select_for_update.MultiKeySelectForUpdateBasedTransaction;
 import io.github.bucket4j.distributed.proxy.generic.select_for_update.SelectForUpdateBasedTransaction;
 import io.github.bucket4j.distributed.remote.RemoteBucketState;
 
@@ -32,6 +33,9 @@ import java.util.Optional;
 public class SelectForUpdateBasedProxyManagerMock<K> extends AbstractSelectForUpdateBasedProxyManager<K> {
 
     private final Map<K, byte[]> stateMap = new HashMap<>();
+    private int allocatedTransactions;
+    private boolean multiKeyTransactionsEnabled;
+    private int multiKeyCommits;
 
     public SelectForUpdateBasedProxyManagerMock(ClientSideConfig clientSideConfig) {
         super(clientSideConfig);
@@ -39,6 +43,7 @@ public class SelectForUpdateBasedProxyManagerMock<K> extends AbstractSelectForUp
 
     @Override
     protected SelectForUpdateBasedTransaction allocateTransaction(K key, Optional<Long> requestTimeoutNanos) {
+        allocatedTransactions++;
         boolean existBeforeTransaction = stateMap.containsKey(key);
         byte[] backup = stateMap.get(key);
 
@@ -59,7 +64,7 @@ public class SelectForUpdateBasedProxyManagerMock<K> extends AbstractSelectForUp
 
             @Override
             public void release() {
-                // do nothing
+                allocatedTransactions--;
             }
 
             @Override
@@ -92,6 +97,74 @@ public class SelectForUpdateBasedProxyManagerMock<K> extends AbstractSelectForUp
         };
     }
 
+    @Override
+    protected MultiKeySelectForUpdateBasedTransaction<K> allocateMultiKeyTransaction(Optional<Long> timeoutNanos) {
+        if (!multiKeyTransactionsEnabled) {
+            return null;
+        }
+        allocatedTransactions++;
+        return new MultiKeySelectForUpdateBasedTransaction<>() {
+
+            private final Map<K, byte[]> pendingUpdates = new HashMap<>();
+
+            @Override
+            public void begin(Optional<Long> timeoutNanos) {
+                // do nothing
+            }
+
+            @Override
+            public void rollback() {
+                pendingUpdates.clear();
+            }
+
+            @Override
+            public void commit(Optional<Long> timeoutNanos) {
+                stateMap.putAll(pendingUpdates);
+                pendingUpdates.clear();
+                multiKeyCommits++;
+            }
+
+            @Override
+            public LockAndGetResult tryLockAndGet(K key, Optional<Long> timeoutNanos) {
+                if (!stateMap.containsKey(key)) {
+                    return LockAndGetResult.notLocked();
+                }
+                return LockAndGetResult.locked(stateMap.get(key));
+            }
+
+            @Override
+            public void insertEmptyData(K key, Optional<Long> timeoutNanos) {
+                pendingUpdates.putIfAbsent(key, null);
+            }
+
+            @Override
+            public void update(K key, byte[] data, RemoteBucketState newState, Optional<Long> timeoutNanos) {
+                if (!stateMap.containsKey(key)) {
+                    throw new IllegalStateException();
+                }
+                pendingUpdates.put(key, data);
+            }
+
+            @Override
+            public void release() {
+                allocatedTransactions--;
+            }
+
+        };
+    }
+
+    public void setMultiKeyTransactionsEnabled(boolean multiKeyTransactionsEnabled) {
+        this.multiKeyTransactionsEnabled = multiKeyTransactionsEnabled;
+    }
+
+    public int getMultiKeyCommits() {
+        return multiKeyCommits;
+    }
+
+    public int getAllocatedTransactions() {
+        return allocatedTransactions;
+    }
+
     @Override
     public void removeProxy(K key) {
         stateMap.remove(key);
@@ -0,0 +1,153 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.sketch;
+
+import io.github.bucket4j.mock.TimeMeterMock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CountMinSketchLimiterTest {
+
+    private final TimeMeterMock clock = new TimeMeterMock(0);
+
+    @Test
+    public void shouldLimitEachKeyIndependently() {
+        CountMinSketchLimiter<String> limiter = CountMinSketchLimiter.builder()
+            .addLimit(limit -> limit.capacity(10).refillGreedy(10, Duration.ofSeconds(1)))
+            .withCustomTimePrecision(clock)
+            .build();
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryConsume("alice", 1));
+        }
+        assertFalse(limiter.tryConsume("alice", 1));
+        assertEquals(0, limiter.getAvailableTokens("alice"));
+
+        assertTrue(limiter.tryConsume("bob", 10));
+        assertFalse(limiter.tryConsume("bob", 1));
+    }
+
+    @Test
+    public void shouldRefillConsumptionWithBandwidthSpeed() {
+        CountMinSketchLimiter<String> limiter = CountMinSketchLimiter.builder()
+            .addLimit(limit -> limit.capacity(10).refillGreedy(10, Duration.ofSeconds(1)))
+            .withCustomTimePrecision(clock)
+            .build();
+
+        assertTrue(limiter.tryConsume("alice", 10));
+        assertFalse(limiter.tryConsume("alice", 1));
+
+        clock.addMillis(300);
+        assertEquals(3, limiter.getAvailableTokens("alice"));
+        assertTrue(limiter.tryConsume("alice", 3));
+        assertFalse(limiter.tryConsume("alice", 1));
+
+        clock.addMillis(10_000);
+        assertEquals(10, limiter.getAvailableTokens("alice"));
+        assertFalse(limiter.tryConsume("alice", 11));
+    }
+
+    @Test
+    public void shouldApplyAllBandwidths() {
+        CountMinSketchLimiter<String> limiter = CountMinSketchLimiter.builder()
+            .addLimit(limit -> limit.capacity(10).refillGreedy(10, Duration.ofSeconds(1)))
+            .addLimit(limit -> limit.capacity(15).refillGreedy(15, Duration.ofMinutes(1)))
+            .withCustomTimePrecision(clock)
+            .build();
+
+        assertTrue(limiter.tryConsume("alice", 10));
+        clock.addMillis(1000);
+        assertEquals(5, limiter.getAvailableTokens("alice"));
+        assertTrue(limiter.tryConsume("alice", 5));
+        clock.addMillis(1000);
+        assertFalse(limiter.tryConsume("alice", 1));
+    }
+
+    @Test
+    public void shouldNeverAllowMoreThanExactBucketWhenKeysCollide() {
+        // single row with single cell, so all keys share the same counter
+        CountMinSketchLimiter<Integer> limiter = CountMinSketchLimiter.builder()
+            .addLimit(limit -> limit.capacity(10).refillGreedy(10, Duration.ofSeconds(1)))
+            .withWidth(1)
+            .withDepth(1)
+            .withCustomTimePrecision(clock)
+            .build();
+
+        int consumed = 0;
+        for (int key = 0; key < 100; key++) {
+            if (limiter.tryConsume(key, 1)) {
+                consumed++;
+            }
+        }
+        assertEquals(10, consumed);
+    }
+
+    @Test
+    public void concurrentCallersShouldNotOverconsume() throws InterruptedException {
+        CountMinSketchLimiter<String> limiter = CountMinSketchLimiter.builder()
+            .addLimit(limit -> limit.capacity(1000).refillGreedy(1000, Duration.ofSeconds(1)))
+            .withCustomTimePrecision(clock)
+            .build();
+
+        int threads = 8;
+        AtomicInteger consumed = new AtomicInteger();
+        CountDownLatch startLatch = new CountDownLatch(1);
+        CountDownLatch endLatch = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            new Thread(() -> {
+                try {
+                    startLatch.await();
+                    for (int j = 0; j < 1000; j++) {
+                        if (limiter.tryConsume("alice", 1)) {
+                            consumed.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    endLatch.countDown();
+                }
+            }).start();
+        }
+        startLatch.countDown();
+        endLatch.await();
+
+        assertTrue(consumed.get() <= 1000);
+        assertEquals(1000 - consumed.get(), limiter.getAvailableTokens("alice"));
+    }
+
+    @Test
+    public void shouldRejectUnsupportedConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> CountMinSketchLimiter.builder().withWidth(1000));
+        assertThrows(IllegalArgumentException.class, () -> CountMinSketchLimiter.builder().withDepth(0));
+        assertThrows(IllegalArgumentException.class, () -> CountMinSketchLimiter.builder()
+            .addLimit(limit -> limit.capacity(10).refillIntervally(10, Duration.ofSeconds(1)))
+            .build());
+        assertThrows(IllegalArgumentException.class, () -> CountMinSketchLimiter.builder()
+            .addLimit(limit -> limit.capacity(10).refillGreedy(10, Duration.ofSeconds(1)).initialTokens(0))
+            .build());
+    }
+
+}
@@ -0,0 +1,111 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.sketch;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.mock.TimeMeterMock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HeavyHittersTest {
+
+    @Test
+    public void shouldTrackConsumedAndRejectedTokensViaListener() {
+        HeavyHitters<String> heavyHitters = new HeavyHitters<>(16);
+        Bucket bucket = Bucket.builder()
+            .addLimit(limit -> limit.capacity(10).refillGreedy(10, Duration.ofSeconds(1)))
+            .withCustomTimePrecision(new TimeMeterMock(0))
+            .build()
+            .toListenable(heavyHitters.listener("alice"));
+
+        assertTrue(bucket.tryConsume(7));
+        assertFalse(bucket.tryConsume(5));
+
+        HeavyHitter<String> alice = heavyHitters.get("alice");
+        assertEquals(7, alice.getConsumedTokens());
+        assertEquals(5, alice.getRejectedTokens());
+        assertEquals(0, alice.getError());
+        assertEquals(12, heavyHitters.getTotalWeight());
+        assertNull(heavyHitters.get("bob"));
+    }
+
+    @Test
+    public void shouldReturnTopKeysInDescendingOrder() {
+        HeavyHitters<Integer> heavyHitters = new HeavyHitters<>(64);
+        for (int key = 1; key <= 20; key++) {
+            heavyHitters.record(key, key, 0);
+        }
+
+        List<HeavyHitter<Integer>> top = heavyHitters.getTop(3);
+        assertEquals(3, top.size());
+        assertEquals(20, top.get(0).getKey());
+        assertEquals(19, top.get(1).getKey());
+        assertEquals(18, top.get(2).getKey());
+    }
+
+    @Test
+    public void heavyKeyShouldSurviveEvictions() {
+        HeavyHitters<Integer> heavyHitters = new HeavyHitters<>(8);
+        for (int i = 0; i < 10_000; i++) {
+            heavyHitters.record(-1, 10, 0);
+            heavyHitters.record(i, 1, 0);
+        }
+
+        HeavyHitter<Integer> top = heavyHitters.getTop(1).get(0);
+        assertEquals(-1, top.getKey());
+        assertEquals(100_000, top.getConsumedTokens());
+        assertTrue(heavyHitters.isHeavyHitter(-1, 100_000));
+        assertFalse(heavyHitters.isHeavyHitter(9_999, 2));
+        assertTrue(heavyHitters.getTop(100).size() <= 8);
+    }
+
+    @Test
+    public void recordingShouldSurviveConcurrentReset() throws InterruptedException {
+        HeavyHitters<Integer> heavyHitters = new HeavyHitters<>(8);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread recorder = new Thread(() -> {
+            try {
+                for (int i = 0; i < 1_000_000; i++) {
+                    heavyHitters.record(i % 64, 1, 0);
+                }
+            } catch (Throwable t) {
+                error.set(t);
+            }
+        });
+        recorder.start();
+        while (recorder.isAlive()) {
+            heavyHitters.reset();
+        }
+        recorder.join();
+        assertNull(error.get());
+    }
+
+    @Test
+    public void shouldRejectWrongArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new HeavyHitters<>(0));
+        assertThrows(IllegalArgumentException.class, () -> new HeavyHitters<String>(8).listener(null));
+    }
+
+}
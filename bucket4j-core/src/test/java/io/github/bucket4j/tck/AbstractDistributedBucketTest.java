@@ -17,6 +17,10 @@ import io.github.bucket4j.distributed.proxy.optimization.delay.DelayOptimization
 import io.github.bucket4j.distributed.proxy.optimization.manual.ManuallySyncingOptimization;
 import io.github.bucket4j.distributed.proxy.optimization.predictive.PredictiveOptimization;
 import io.github.bucket4j.distributed.proxy.optimization.skiponzero.SkipSyncOnZeroOptimization;
+import io.github.bucket4j.distributed.remote.RemoteCommand;
+import io.github.bucket4j.distributed.remote.commands.ConsumeIgnoringRateLimitsCommand;
+import io.github.bucket4j.distributed.remote.commands.GetAvailableTokensCommand;
+import io.github.bucket4j.distributed.remote.commands.TryConsumeCommand;
 import io.github.bucket4j.util.AsyncConsumptionScenario;
 import io.github.bucket4j.util.ConsumptionScenario;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -25,8 +29,12 @@ import org.junit.jupiter.params.provider.MethodSource;
 
 import java.sql.SQLException;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -886,4 +894,99 @@ public abstract class AbstractDistributedBucketTest {
         assertEquals(capacity - opsCount, availableTokens);
     }
 
+    @MethodSource("specs")
+    @ParameterizedTest
+    public <K, P extends ProxyManager<K>, B extends AbstractProxyManagerBuilder<K, P, B>> void testExecuteBulk(ProxyManagerSpec<K, P, B> spec) {
+        ProxyManager<K> proxyManager = spec.builder.get().build();
+        BucketConfiguration configuration = BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(10).refillIntervally(10, Duration.ofDays(1)))
+            .build();
+
+        List<K> keys = new ArrayList<>();
+        Map<K, RemoteCommand<Boolean>> commands = new LinkedHashMap<>();
+        for (int i = 0; i < 5; i++) {
+            K key = spec.generateRandomKey();
+            keys.add(key);
+            // identical commands for all keys except first one, that should be rejected
+            commands.put(key, TryConsumeCommand.create(i == 0 ? 11 : 3));
+        }
+        // buckets are not persisted yet, so they are created after first round-trip
+        Map<K, Boolean> results = proxyManager.executeBulk(commands, key -> configuration);
+        assertEquals(keys, new ArrayList<>(results.keySet()));
+        assertFalse(results.get(keys.get(0)));
+        for (K key : keys.subList(1, keys.size())) {
+            assertTrue(results.get(key));
+        }
+
+        // buckets are persisted now, so results are provided by single round-trip
+        results = proxyManager.executeBulk(commands, key -> {
+            throw new IllegalStateException("Bucket " + key + " should be persisted");
+        });
+        assertFalse(results.get(keys.get(0)));
+        for (K key : keys.subList(1, keys.size())) {
+            assertTrue(results.get(key));
+        }
+
+        Map<K, RemoteCommand<Long>> getTokensCommands = new LinkedHashMap<>();
+        keys.forEach(key -> getTokensCommands.put(key, new GetAvailableTokensCommand()));
+        Map<K, Long> availableTokens = proxyManager.executeBulk(getTokensCommands, key -> configuration);
+        assertEquals(10L, availableTokens.get(keys.get(0)));
+        for (K key : keys.subList(1, keys.size())) {
+            assertEquals(4L, availableTokens.get(key));
+            assertEquals(4L, proxyManager.getProxy(key, () -> configuration).getAvailableTokens());
+        }
+    }
+
+    @MethodSource("specs")
+    @ParameterizedTest
+    public <K, P extends ProxyManager<K>, B extends AbstractProxyManagerBuilder<K, P, B>> void testConcurrentBulksWithDifferentOrderOfKeys(ProxyManagerSpec<K, P, B> spec) throws InterruptedException {
+        ProxyManager<K> proxyManager = spec.builder.get().build();
+        int capacity = 1_000;
+        int threadCount = 4;
+        int bulksPerThread = 50;
+        BucketConfiguration configuration = BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(capacity).refillIntervally(1, Duration.ofDays(1)))
+            .build();
+
+        List<K> keys = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            keys.add(spec.generateRandomKey());
+        }
+
+        CountDownLatch startLatch = new CountDownLatch(threadCount);
+        CountDownLatch stopLatch = new CountDownLatch(threadCount);
+        ConcurrentHashMap<Integer, Throwable> errors = new ConcurrentHashMap<>();
+        for (int i = 0; i < threadCount; i++) {
+            // half of threads iterate over keys in reverse order, so backends which lock keys in order of iteration can deadlock
+            List<K> threadKeys = new ArrayList<>(keys);
+            if (i % 2 == 1) {
+                Collections.reverse(threadKeys);
+            }
+            Map<K, RemoteCommand<Long>> commands = new LinkedHashMap<>();
+            threadKeys.forEach(key -> commands.put(key, new ConsumeIgnoringRateLimitsCommand(1)));
+            final int threadId = i;
+            new Thread(() -> {
+                try {
+                    startLatch.countDown();
+                    startLatch.await();
+                    for (int j = 0; j < bulksPerThread; j++) {
+                        Map<K, Long> results = proxyManager.executeBulk(commands, key -> configuration);
+                        assertEquals(keys.size(), results.size());
+                    }
+                } catch (Throwable e) {
+                    errors.put(threadId, e);
+                    e.printStackTrace();
+                } finally {
+                    stopLatch.countDown();
+                }
+            }, "Bulk-thread-" + i).start();
+        }
+        stopLatch.await();
+
+        assertTrue(errors.isEmpty());
+        for (K key : keys) {
+            assertEquals(capacity - threadCount * bulksPerThread, proxyManager.getProxy(key, () -> configuration).getAvailableTokens());
+        }
+    }
+
 }
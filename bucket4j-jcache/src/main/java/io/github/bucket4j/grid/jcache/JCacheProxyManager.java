@@ -36,21 +36,28 @@
 
 package io.github.bucket4j.grid.jcache;
 
+import io.github.bucket4j.BucketExceptions;
 import io.github.bucket4j.distributed.proxy.AbstractProxyManager;
 import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.PersistedBucket;
+import io.github.bucket4j.distributed.proxy.ScanCursor;
+import io.github.bucket4j.distributed.proxy.ScanPage;
 import io.github.bucket4j.distributed.remote.*;
 import io.github.bucket4j.distributed.serialization.InternalSerializationHelper;
 
 import javax.cache.Cache;
 import javax.cache.CacheManager;
 import javax.cache.processor.EntryProcessor;
+import javax.cache.processor.EntryProcessorResult;
 import javax.cache.processor.MutableEntry;
 import javax.cache.spi.CachingProvider;
 
 import java.io.Serial;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * The extension of Bucket4j library addressed to support <a href="https://www.jcp.org/en/jsr/detail?id=107">JCache API (JSR 107)</a> specification.
@@ -67,6 +74,7 @@ public class JCacheProxyManager<K> extends AbstractProxyManager<K> {
 
     private final Cache<K, byte[]> cache;
     private final boolean preferLambdaStyle;
+    private final AtomicReference<OpenedScan<K>> openedScan = new AtomicReference<>();
 
     public JCacheProxyManager(Bucket4jJCache.JCacheProxyManagerBuilder<K> builder) {
         super(builder.getClientSideConfig());
@@ -101,6 +109,111 @@ public class JCacheProxyManager<K> extends AbstractProxyManager<K> {
         return InternalSerializationHelper.deserializeResult(resultBytes, request.getBackwardCompatibilityVersion());
     }
 
+    /**
+     * JCache applies the same entry processor to each key of {@link Cache#invokeAll(Set, EntryProcessor, Object...)},
+     * so keys are grouped by serialized request and each distinct request is shipped once by its own {@code invokeAll}.
+     * Typical bulk applies the same command to all keys, so it is executed by single {@code invokeAll}.
+     */
+    @Override
+    protected <T> Map<K, CommandResult<T>> executeAll(Map<K, Request<T>> requests) {
+        Map<ByteBuffer, Set<K>> keysByRequest = new LinkedHashMap<>();
+        requests.forEach((key, request) -> {
+            ByteBuffer serializedRequest = ByteBuffer.wrap(InternalSerializationHelper.serializeRequest(request));
+            keysByRequest.computeIfAbsent(serializedRequest, bytes -> new HashSet<>()).add(key);
+        });
+
+        Map<K, CommandResult<T>> results = new HashMap<>();
+        keysByRequest.forEach((serializedRequest, keys) -> {
+            byte[] requestBytes = serializedRequest.array();
+            EntryProcessor<K, byte[], byte[]> entryProcessor = preferLambdaStyle? createLambdaProcessor(requestBytes) : new BucketProcessor<>(requestBytes);
+            Map<K, EntryProcessorResult<byte[]>> resultBytes = cache.invokeAll(keys, entryProcessor);
+            for (K key : keys) {
+                byte[] bytes = resultBytes.get(key).get();
+                results.put(key, InternalSerializationHelper.deserializeResult(bytes, requests.get(key).getBackwardCompatibilityVersion()));
+            }
+        });
+        return results;
+    }
+
+    @Override
+    protected boolean isMultiKeyExecutionSupported() {
+        return true;
+    }
+
+    @Override
+    public boolean isScanSupported() {
+        return true;
+    }
+
+    /**
+     * Scan is based on {@link Cache#iterator()}. JCache iterator can not be positioned, so position of cursor is the {@link Long} amount of entries
+     * which were passed since the beginning of iteration. Position is immutable value, so the same cursor can be scanned repeatedly,
+     * and it can be persisted via {@link ScanCursor#getPosition()} and restored via {@link ScanCursor#of(Object)} after restart of application.
+     *
+     * <p>Iterator which was opened by previous page is reused when its next cursor is scanned first time,
+     * otherwise new iterator is opened and passed entries are skipped. JCache does not define the order of iteration,
+     * so skipping leads to the same position only when provider iterates over unchanged cache in the same order,
+     * otherwise some buckets can be missed or returned twice.
+     *
+     * <p>Partition-local iteration offered by Hazelcast and Ignite is not used, because it is not a part of JCache API,
+     * native proxy managers from bucket4j-hazelcast and bucket4j-ignite are the right place for it.
+     */
+    @Override
+    protected ScanPage<K> scanPage(ScanCursor cursor, int pageSize) {
+        long offset = cursor.isInitial() ? 0 : toOffset(cursor.getPosition());
+        Iterator<Cache.Entry<K, byte[]>> iterator = claimOpenedIterator(cursor);
+        if (iterator == null) {
+            iterator = cache.iterator();
+            for (long i = 0; i < offset && iterator.hasNext(); i++) {
+                iterator.next();
+            }
+        }
+
+        List<PersistedBucket<K>> buckets = new ArrayList<>(pageSize);
+        while (buckets.size() < pageSize && iterator.hasNext()) {
+            Cache.Entry<K, byte[]> entry = iterator.next();
+            offset++;
+            RemoteBucketState state = decodeState(entry.getValue());
+            if (state != null) {
+                buckets.add(new PersistedBucket<>(entry.getKey(), state));
+            }
+        }
+        if (!iterator.hasNext()) {
+            return new ScanPage<>(buckets, null);
+        }
+        ScanCursor nextCursor = ScanCursor.of(offset);
+        // only the latest page keeps its iterator, so concurrent scans are correct but skip entries more often
+        openedScan.set(new OpenedScan<>(nextCursor, iterator));
+        return new ScanPage<>(buckets, nextCursor);
+    }
+
+    private Iterator<Cache.Entry<K, byte[]>> claimOpenedIterator(ScanCursor cursor) {
+        OpenedScan<K> scan = openedScan.get();
+        if (scan != null && scan.nextCursor == cursor && openedScan.compareAndSet(scan, null)) {
+            return scan.iterator;
+        }
+        return null;
+    }
+
+    private static long toOffset(Object position) {
+        if (position instanceof Long offset && offset >= 0) {
+            return offset;
+        }
+        throw BucketExceptions.unsupportedScanPosition(position);
+    }
+
+    private static final class OpenedScan<K> {
+
+        private final ScanCursor nextCursor;
+        private final Iterator<Cache.Entry<K, byte[]>> iterator;
+
+        private OpenedScan(ScanCursor nextCursor, Iterator<Cache.Entry<K, byte[]>> iterator) {
+            this.nextCursor = nextCursor;
+            this.iterator = iterator;
+        }
+
+    }
+
     @Override
     public void removeProxy(K key) {
         cache.remove(key);
@@ -165,7 +278,10 @@ public class JCacheProxyManager<K> extends AbstractProxyManager<K> {
     }
 
     public <T> EntryProcessor<K, byte[], byte[]> createLambdaProcessor(Request<T> request) {
-        byte[] serializedRequest = InternalSerializationHelper.serializeRequest(request);
+        return createLambdaProcessor(InternalSerializationHelper.serializeRequest(request));
+    }
+
+    private EntryProcessor<K, byte[], byte[]> createLambdaProcessor(byte[] serializedRequest) {
         return  (Serializable & EntryProcessor<K, byte[], byte[]>) (mutableEntry, objects)
                 -> new JCacheTransaction(mutableEntry, serializedRequest).execute();
     }
@@ -178,7 +294,11 @@ public class JCacheProxyManager<K> extends AbstractProxyManager<K> {
         private final byte[] serializedRequest;
 
         public BucketProcessor(Request<T> request) {
-            this.serializedRequest = InternalSerializationHelper.serializeRequest(request);
+            this(InternalSerializationHelper.serializeRequest(request));
+        }
+
+        public BucketProcessor(byte[] serializedRequest) {
+            this.serializedRequest = serializedRequest;
         }
 
         @Override
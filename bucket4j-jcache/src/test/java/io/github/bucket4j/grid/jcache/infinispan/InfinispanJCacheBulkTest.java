@@ -0,0 +1,124 @@
+package io.github.bucket4j.grid.jcache.infinispan;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.remote.RemoteCommand;
+import io.github.bucket4j.distributed.remote.commands.TryConsumeCommand;
+import io.github.bucket4j.grid.jcache.Bucket4jJCache;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InfinispanJCacheBulkTest {
+
+    private static CacheManager cacheManager;
+    private static Cache<String, byte[]> cache;
+
+    private final AtomicInteger invokeAllCount = new AtomicInteger();
+    private final AtomicInteger invokeCount = new AtomicInteger();
+    private final BucketConfiguration configuration = BucketConfiguration.builder()
+        .addLimit(limit -> limit.capacity(10).refillIntervally(10, Duration.ofDays(1)))
+        .build();
+
+    @BeforeAll
+    public static void setup() throws URISyntaxException {
+        CachingProvider cachingProvider = Caching.getCachingProvider("org.infinispan.jcache.embedded.JCachingProvider");
+        ClassLoader classLoader = new InfinispanJCacheTest.TestClassLoader1(InfinispanJCacheBulkTest.class.getClassLoader());
+        cacheManager = cachingProvider.getCacheManager(InfinispanJCacheBulkTest.class.getResource("/infinispan-jcache-cluster.xml").toURI(), classLoader);
+        cache = cacheManager.getCache("my_buckets");
+    }
+
+    @AfterAll
+    public static void shutdown() {
+        if (cacheManager != null) {
+            cacheManager.close();
+        }
+    }
+
+    @Test
+    public void identicalCommandsShouldBeExecutedBySingleInvokeAll() {
+        ProxyManager<String> proxyManager = Bucket4jJCache.entryProcessorBasedBuilder(countingCache()).build();
+        List<String> keys = generateKeys(5);
+        Map<String, RemoteCommand<Boolean>> commands = new LinkedHashMap<>();
+        keys.forEach(key -> commands.put(key, TryConsumeCommand.create(1)));
+
+        // first invokeAll detects that buckets are not persisted, second one initializes all of them by the same request
+        proxyManager.executeBulk(commands, key -> configuration);
+        assertEquals(2, invokeAllCount.get());
+
+        invokeAllCount.set(0);
+        Map<String, Boolean> results = proxyManager.executeBulk(commands, key -> configuration);
+        keys.forEach(key -> assertTrue(results.get(key)));
+        assertEquals(1, invokeAllCount.get());
+        assertEquals(0, invokeCount.get());
+        for (String key : keys) {
+            assertEquals(8, proxyManager.getProxy(key, () -> configuration).getAvailableTokens());
+        }
+    }
+
+    @Test
+    public void differentCommandsShouldBeExecutedByInvokeAllPerCommand() {
+        ProxyManager<String> proxyManager = Bucket4jJCache.entryProcessorBasedBuilder(countingCache()).build();
+        List<String> keys = generateKeys(5);
+        Map<String, RemoteCommand<Boolean>> initCommands = new LinkedHashMap<>();
+        keys.forEach(key -> initCommands.put(key, TryConsumeCommand.create(1)));
+        proxyManager.executeBulk(initCommands, key -> configuration);
+
+        invokeAllCount.set(0);
+        Map<String, RemoteCommand<Boolean>> commands = new LinkedHashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            // commands are interleaved, so grouping does not depend on order of keys
+            commands.put(keys.get(i), TryConsumeCommand.create(i % 2 == 0 ? 2 : 3));
+        }
+        Map<String, Boolean> results = proxyManager.executeBulk(commands, key -> configuration);
+        assertEquals(keys, new ArrayList<>(results.keySet()));
+        keys.forEach(key -> assertTrue(results.get(key)));
+        assertEquals(2, invokeAllCount.get());
+        assertEquals(0, invokeCount.get());
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(i % 2 == 0 ? 7 : 6, proxyManager.getProxy(keys.get(i), () -> configuration).getAvailableTokens());
+        }
+    }
+
+    private static List<String> generateKeys(int count) {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            keys.add(UUID.randomUUID().toString());
+        }
+        return keys;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cache<String, byte[]> countingCache() {
+        return (Cache<String, byte[]>) Proxy.newProxyInstance(Cache.class.getClassLoader(), new Class<?>[] {Cache.class}, (proxy, method, args) -> {
+            if (method.getName().equals("invokeAll")) {
+                invokeAllCount.incrementAndGet();
+            } else if (method.getName().equals("invoke")) {
+                invokeCount.incrementAndGet();
+            }
+            try {
+                return method.invoke(cache, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+}
@@ -0,0 +1,150 @@
+package io.github.bucket4j.grid.jcache.infinispan;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.TokensInheritanceStrategy;
+import io.github.bucket4j.distributed.proxy.ConfigurationMigration;
+import io.github.bucket4j.distributed.proxy.MigrationProgress;
+import io.github.bucket4j.distributed.proxy.PersistedBucket;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.proxy.ScanCursor;
+import io.github.bucket4j.distributed.proxy.ScanPage;
+import io.github.bucket4j.grid.jcache.Bucket4jJCache;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InfinispanJCacheScanTest {
+
+    private static CacheManager cacheManager;
+    private static Cache<String, byte[]> cache;
+
+    private final BucketConfiguration configuration = BucketConfiguration.builder()
+        .addLimit(limit -> limit.capacity(10).refillIntervally(10, Duration.ofDays(1)))
+        .build();
+
+    @BeforeAll
+    public static void setup() throws URISyntaxException {
+        CachingProvider cachingProvider = Caching.getCachingProvider("org.infinispan.jcache.embedded.JCachingProvider");
+        ClassLoader classLoader = new InfinispanJCacheTest.TestClassLoader1(InfinispanJCacheScanTest.class.getClassLoader());
+        cacheManager = cachingProvider.getCacheManager(InfinispanJCacheScanTest.class.getResource("/infinispan-jcache-cluster.xml").toURI(), classLoader);
+        cache = cacheManager.getCache("my_buckets");
+    }
+
+    @AfterAll
+    public static void shutdown() {
+        if (cacheManager != null) {
+            cacheManager.close();
+        }
+    }
+
+    @Test
+    public void sameCursorShouldReturnSamePage() {
+        ProxyManager<String> proxyManager = Bucket4jJCache.entryProcessorBasedBuilder(cache).build();
+        createBuckets(proxyManager, 10);
+
+        ScanCursor cursor = proxyManager.scan(ScanCursor.initial(), 3).getNextCursor();
+        assertNotNull(cursor);
+        // the first scan reuses iterator of previous page, the second one restores position from cursor
+        List<String> first = keys(proxyManager.scan(cursor, 3));
+        List<String> second = keys(proxyManager.scan(cursor, 3));
+        assertEquals(3, first.size());
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void scanShouldBeContinuedFromRestoredCursor() {
+        ProxyManager<String> proxyManager = Bucket4jJCache.entryProcessorBasedBuilder(cache).build();
+        List<String> createdKeys = createBuckets(proxyManager, 10);
+
+        Set<String> scannedKeys = new HashSet<>();
+        ScanCursor cursor = ScanCursor.initial();
+        while (cursor != null) {
+            ScanPage<String> page = proxyManager.scan(cursor, 4);
+            scannedKeys.addAll(keys(page));
+            // position is persisted and cursor is restored as it would be done after restart of application
+            cursor = page.isLast() ? null : ScanCursor.of(page.getNextCursor().getPosition());
+        }
+        assertTrue(scannedKeys.containsAll(createdKeys));
+        assertEquals(countEntries(), scannedKeys.size());
+    }
+
+    @Test
+    public void interruptedMigrationShouldBeResumedWithoutLossOfBuckets() {
+        ProxyManager<String> proxyManager = Bucket4jJCache.entryProcessorBasedBuilder(cache).build();
+        Set<String> createdKeys = new HashSet<>(createBuckets(proxyManager, 10));
+        BucketConfiguration newConfiguration = BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(20).refillIntervally(20, Duration.ofDays(1)))
+            .build();
+
+        List<MigrationProgress> reports = new ArrayList<>();
+        AtomicInteger filteredBuckets = new AtomicInteger();
+        ConfigurationMigration<String> failingMigration = ConfigurationMigration.<String>forBuckets(bucket -> {
+                if (filteredBuckets.incrementAndGet() == 6) {
+                    throw new IllegalStateException("failure in the middle of second page");
+                }
+                return createdKeys.contains(bucket.getKey());
+            }, newConfiguration, TokensInheritanceStrategy.AS_IS)
+            .withPageSize(4)
+            .withProgressListener(reports::add);
+        assertThrows(IllegalStateException.class, () -> proxyManager.migrateConfigurations(failingMigration));
+        assertEquals(1, reports.size());
+
+        // cursor is restored from persisted position, so iterator which was used before failure is not reused
+        ScanCursor resumeCursor = ScanCursor.of(reports.get(0).getNextCursor().getPosition());
+        proxyManager.migrateConfigurations(ConfigurationMigration.<String>forKeys(createdKeys::contains, newConfiguration, TokensInheritanceStrategy.AS_IS)
+            .withPageSize(4)
+            .startingFrom(resumeCursor));
+        for (String key : createdKeys) {
+            assertTrue(newConfiguration.equalsByContent(proxyManager.getProxyConfiguration(key).get()));
+        }
+    }
+
+    @Test
+    public void shouldRejectForeignPosition() {
+        ProxyManager<String> proxyManager = Bucket4jJCache.entryProcessorBasedBuilder(cache).build();
+        assertThrows(IllegalArgumentException.class, () -> proxyManager.scan(ScanCursor.of("42"), 10));
+        assertThrows(IllegalArgumentException.class, () -> proxyManager.scan(ScanCursor.of(-1L), 10));
+    }
+
+    private List<String> createBuckets(ProxyManager<String> proxyManager, int count) {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String key = UUID.randomUUID().toString();
+            proxyManager.getProxy(key, () -> configuration).tryConsume(1);
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    private static List<String> keys(ScanPage<String> page) {
+        List<String> keys = new ArrayList<>();
+        for (PersistedBucket<String> bucket : page.getBuckets()) {
+            keys.add(bucket.getKey());
+        }
+        return keys;
+    }
+
+    private static int countEntries() {
+        int count = 0;
+        for (Cache.Entry<String, byte[]> ignored : cache) {
+            count++;
+        }
+        return count;
+    }
+
+}
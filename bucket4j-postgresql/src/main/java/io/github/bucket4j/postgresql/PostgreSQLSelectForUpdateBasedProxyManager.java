@@ -26,6 +26,7 @@ import io.github.bucket4j.distributed.jdbc.SQLProxyConfiguration;
 import io.github.bucket4j.distributed.proxy.ExpiredEntriesCleaner;
 import io.github.bucket4j.distributed.proxy.generic.select_for_update.AbstractSelectForUpdateBasedProxyManager;
 import io.github.bucket4j.distributed.proxy.generic.select_for_update.LockAndGetResult;
+import io.github.bucket4j.distributed.proxy.generic.select_for_update.MultiKeySelectForUpdateBasedTransaction;
 import io.github.bucket4j.distributed.proxy.generic.select_for_update.SelectForUpdateBasedTransaction;
 import io.github.bucket4j.distributed.remote.RemoteBucketState;
 import io.github.bucket4j.postgresql.Bucket4jPostgreSQL.PostgreSQLSelectForUpdateBasedProxyManagerBuilder;
@@ -208,6 +209,126 @@ public class PostgreSQLSelectForUpdateBasedProxyManager<K> extends AbstractSelec
 
     }
 
+    @Override
+    protected boolean isMultiKeyExecutionSupported() {
+        return true;
+    }
+
+    @Override
+    protected MultiKeySelectForUpdateBasedTransaction<K> allocateMultiKeyTransaction(Optional<Long> requestTimeoutNanos) {
+        Connection connection;
+        try {
+            connection = dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new BucketExceptions.BucketExecutionException(e);
+        }
+
+        return new MultiKeySelectForUpdateBasedTransaction<>() {
+
+            private PreparedStatement selectStatement;
+            private PreparedStatement updateStatement;
+            private boolean hasPendingUpdates;
+
+            @Override
+            public void begin(Optional<Long> requestTimeoutNanos) {
+                try {
+                    connection.setAutoCommit(false);
+                } catch (SQLException e) {
+                    throw new BucketExceptions.BucketExecutionException(e);
+                }
+            }
+
+            @Override
+            public void rollback() {
+                try {
+                    if (updateStatement != null) {
+                        updateStatement.clearBatch();
+                    }
+                    hasPendingUpdates = false;
+                    connection.rollback();
+                } catch (SQLException e) {
+                    throw new BucketExceptions.BucketExecutionException(e);
+                }
+            }
+
+            @Override
+            public void commit(Optional<Long> requestTimeoutNanos) {
+                try {
+                    if (hasPendingUpdates) {
+                        applyTimeout(updateStatement, requestTimeoutNanos);
+                        updateStatement.executeBatch();
+                        hasPendingUpdates = false;
+                    }
+                    connection.commit();
+                } catch (SQLException e) {
+                    throw new BucketExceptions.BucketExecutionException(e);
+                }
+            }
+
+            @Override
+            public LockAndGetResult tryLockAndGet(K key, Optional<Long> requestTimeoutNanos) {
+                try {
+                    if (selectStatement == null) {
+                        selectStatement = connection.prepareStatement(selectSqlQuery);
+                    }
+                    applyTimeout(selectStatement, requestTimeoutNanos);
+                    primaryKeyMapper.set(selectStatement, 1, key);
+                    try (ResultSet rs = selectStatement.executeQuery()) {
+                        if (rs.next()) {
+                            byte[] data = rs.getBytes("state");
+                            return LockAndGetResult.locked(data);
+                        } else {
+                            return LockAndGetResult.notLocked();
+                        }
+                    }
+                } catch (SQLException e) {
+                    throw new BucketExceptions.BucketExecutionException(e);
+                }
+            }
+
+            @Override
+            public void insertEmptyData(K key, Optional<Long> requestTimeoutNanos) {
+                try (PreparedStatement insertStatement = connection.prepareStatement(insertSqlQuery)) {
+                    applyTimeout(insertStatement, requestTimeoutNanos);
+                    primaryKeyMapper.set(insertStatement, 1, key);
+                    insertStatement.executeUpdate();
+                } catch (SQLException e) {
+                    throw new BucketExceptions.BucketExecutionException(e);
+                }
+            }
+
+            @Override
+            public void update(K key, byte[] data, RemoteBucketState newState, Optional<Long> requestTimeoutNanos) {
+                try {
+                    if (updateStatement == null) {
+                        updateStatement = connection.prepareStatement(updateSqlQuery);
+                    }
+                    int i = 0;
+                    updateStatement.setBytes(++i, data);
+                    for (CustomColumnProvider<K> column : customColumns) {
+                        column.setCustomField(key, ++i, updateStatement, newState, currentTimeNanos());
+                    }
+                    primaryKeyMapper.set(updateStatement, ++i, key);
+                    updateStatement.addBatch();
+                    hasPendingUpdates = true;
+                } catch (SQLException e) {
+                    throw new BucketExceptions.BucketExecutionException(e);
+                }
+            }
+
+            @Override
+            public void release() {
+                try {
+                    // closing of connection closes the statements as well
+                    connection.close();
+                } catch (SQLException e) {
+                    throw new BucketExceptions.BucketExecutionException(e);
+                }
+            }
+
+        };
+    }
+
     @Override
     public void removeProxy(K key) {
         try (Connection connection = dataSource.getConnection()) {
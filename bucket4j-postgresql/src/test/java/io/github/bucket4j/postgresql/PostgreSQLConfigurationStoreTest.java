@@ -0,0 +1,126 @@
+package io.github.bucket4j.postgresql;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.BucketProxy;
+import io.github.bucket4j.distributed.jdbc.JdbcConfigurationStore;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.serialization.InternalSerializationHelper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PostgreSQLConfigurationStoreTest {
+
+    private static PostgreSQLContainer container;
+    private static HikariDataSource dataSource;
+
+    @BeforeAll
+    public static void initializeInstance() throws SQLException {
+        container = new PostgreSQLContainer();
+        container.start();
+
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setJdbcUrl(container.getJdbcUrl());
+        hikariConfig.setUsername(container.getUsername());
+        hikariConfig.setPassword(container.getPassword());
+        hikariConfig.setDriverClassName(container.getDriverClassName());
+        // single connection, so any access to configuration store inside of transaction hangs
+        hikariConfig.setMaximumPoolSize(1);
+        hikariConfig.setConnectionTimeout(2_000);
+        dataSource = new HikariDataSource(hikariConfig);
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS bucket(id BIGINT PRIMARY KEY, state BYTEA, expires_at BIGINT, explicit_lock BIGINT)");
+            statement.execute("CREATE TABLE IF NOT EXISTS bucket_configuration(id BIGINT PRIMARY KEY, configuration BYTEA)");
+        }
+    }
+
+    @AfterAll
+    public static void shutdown() {
+        if (dataSource != null) {
+            dataSource.close();
+        }
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    @Test
+    public void selectForUpdateBasedProxyManagerShouldNotHoldConnectionWhileSavingConfiguration() {
+        ProxyManager<Long> proxyManager = Bucket4jPostgreSQL.selectForUpdateBasedBuilder(dataSource)
+            .configurationStore(new JdbcConfigurationStore(dataSource))
+            .build();
+        BucketConfiguration configuration = uniqueConfiguration();
+
+        BucketProxy bucket = proxyManager.getProxy(ThreadLocalRandom.current().nextLong(1_000_000_000), () -> configuration);
+        assertTrue(bucket.tryConsume(1));
+        assertEquals(9, bucket.getAvailableTokens());
+    }
+
+    @Test
+    public void advisoryLockBasedProxyManagerShouldNotHoldConnectionWhileSavingConfiguration() {
+        ProxyManager<Long> proxyManager = Bucket4jPostgreSQL.advisoryLockBasedBuilder(dataSource)
+            .configurationStore(new JdbcConfigurationStore(dataSource))
+            .build();
+        BucketConfiguration configuration = uniqueConfiguration();
+
+        BucketProxy bucket = proxyManager.getProxy(ThreadLocalRandom.current().nextLong(1_000_000_000), () -> configuration);
+        assertTrue(bucket.tryConsume(1));
+        assertEquals(9, bucket.getAvailableTokens());
+    }
+
+    @Test
+    public void savingOfSameConfigurationShouldBeIdempotent() {
+        BucketConfiguration configuration = uniqueConfiguration();
+        long fingerprint = configuration.getFingerprint();
+        byte[] bytes = InternalSerializationHelper.serializeConfiguration(configuration);
+
+        new JdbcConfigurationStore(dataSource).saveConfigurationIfAbsent(fingerprint, () -> bytes);
+        new JdbcConfigurationStore(dataSource).saveConfigurationIfAbsent(fingerprint, () -> bytes);
+
+        assertArrayEquals(bytes, new JdbcConfigurationStore(dataSource).loadConfiguration(fingerprint));
+    }
+
+    @Test
+    public void collisionOfFingerprintsShouldFailLoudly() throws SQLException {
+        BucketConfiguration configuration = uniqueConfiguration();
+        long fingerprint = configuration.getFingerprint();
+        // emulate that another configuration is already stored with the same fingerprint
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("INSERT INTO bucket_configuration(id, configuration) VALUES(?, ?)")) {
+            statement.setLong(1, fingerprint);
+            statement.setBytes(2, InternalSerializationHelper.serializeConfiguration(uniqueConfiguration()));
+            statement.executeUpdate();
+        }
+
+        JdbcConfigurationStore store = new JdbcConfigurationStore(dataSource);
+        byte[] bytes = InternalSerializationHelper.serializeConfiguration(configuration);
+        assertThrows(IllegalStateException.class, () -> store.saveConfigurationIfAbsent(fingerprint, () -> bytes));
+        assertFalse(store.isKnown(fingerprint));
+    }
+
+    private static BucketConfiguration uniqueConfiguration() {
+        long period = ThreadLocalRandom.current().nextLong(1, 1_000_000_000);
+        Bandwidth bandwidth = Bandwidth.builder()
+            .capacity(10)
+            .refillGreedy(10, Duration.ofNanos(period))
+            .build();
+        return new BucketConfiguration(List.of(bandwidth));
+    }
+
+}
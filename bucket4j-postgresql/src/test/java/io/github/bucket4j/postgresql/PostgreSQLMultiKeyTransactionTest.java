@@ -0,0 +1,259 @@
+package io.github.bucket4j.postgresql;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.remote.RemoteCommand;
+import io.github.bucket4j.distributed.remote.commands.TryConsumeCommand;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PostgreSQLMultiKeyTransactionTest {
+
+    private static PostgreSQLContainer container;
+    private static HikariDataSource dataSource;
+
+    private final BucketConfiguration configuration = BucketConfiguration.builder()
+        .addLimit(limit -> limit.capacity(10).refillIntervally(10, Duration.ofDays(1)))
+        .build();
+
+    @BeforeAll
+    public static void initializeInstance() throws SQLException {
+        container = new PostgreSQLContainer();
+        container.start();
+
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setJdbcUrl(container.getJdbcUrl());
+        hikariConfig.setUsername(container.getUsername());
+        hikariConfig.setPassword(container.getPassword());
+        hikariConfig.setDriverClassName(container.getDriverClassName());
+        hikariConfig.setMaximumPoolSize(10);
+        dataSource = new HikariDataSource(hikariConfig);
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS bucket(id BIGINT PRIMARY KEY, state BYTEA, expires_at BIGINT, explicit_lock BIGINT)");
+        }
+    }
+
+    @AfterAll
+    public static void shutdown() {
+        if (dataSource != null) {
+            dataSource.close();
+        }
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    @Test
+    public void persistedBucketsShouldBeUpdatedByOneBatchInOneTransaction() {
+        RecordingDataSource recordingDataSource = new RecordingDataSource(dataSource);
+        ProxyManager<Long> proxyManager = Bucket4jPostgreSQL.selectForUpdateBasedBuilder(recordingDataSource.dataSource).build();
+        List<Long> keys = generateKeys(5);
+        proxyManager.executeBulk(tryConsume(keys, 1), key -> configuration);
+
+        recordingDataSource.events.clear();
+        Map<Long, Boolean> results = proxyManager.executeBulk(tryConsume(keys, 2), key -> configuration);
+
+        keys.forEach(key -> assertTrue(results.get(key)));
+        assertEquals(1, recordingDataSource.count("getConnection"));
+        assertEquals(0, recordingDataSource.count("INSERT"));
+        assertEquals(keys.size(), recordingDataSource.count("addBatch"));
+        assertEquals(1, recordingDataSource.count("executeBatch"));
+        assertEquals(1, recordingDataSource.count("commit"));
+        for (Long key : keys) {
+            assertEquals(7, proxyManager.getProxy(key, () -> configuration).getAvailableTokens());
+        }
+    }
+
+    @Test
+    public void missingRowsShouldBeInsertedAndBulkShouldBeRetried() throws SQLException {
+        RecordingDataSource recordingDataSource = new RecordingDataSource(dataSource);
+        ProxyManager<Long> proxyManager = Bucket4jPostgreSQL.selectForUpdateBasedBuilder(recordingDataSource.dataSource).build();
+        List<Long> keys = generateKeys(5);
+        Map<Long, Boolean> results = proxyManager.executeBulk(tryConsume(keys, 1), key -> configuration);
+
+        keys.forEach(key -> assertTrue(results.get(key)));
+        // first connection inserts missing rows, then locks inserted empty rows in the next transaction and reports that buckets are not found,
+        // second connection initializes all buckets by one batch
+        assertEquals(2, recordingDataSource.count("getConnection"));
+        assertEquals(keys.size(), recordingDataSource.count("INSERT"));
+        assertEquals(keys.size(), recordingDataSource.count("addBatch"));
+        assertEquals(1, recordingDataSource.count("executeBatch"));
+        assertEquals(3, recordingDataSource.count("commit"));
+        for (Long key : keys) {
+            assertNotNull(readState(key));
+            assertEquals(9, proxyManager.getProxy(key, () -> configuration).getAvailableTokens());
+        }
+    }
+
+    @Test
+    public void rowsShouldBeLockedInOrderOfKeys() {
+        RecordingDataSource recordingDataSource = new RecordingDataSource(dataSource);
+        ProxyManager<Long> proxyManager = Bucket4jPostgreSQL.selectForUpdateBasedBuilder(recordingDataSource.dataSource).build();
+        List<Long> keys = generateKeys(10);
+        Collections.sort(keys);
+        Collections.reverse(keys);
+        proxyManager.executeBulk(tryConsume(keys, 1), key -> configuration);
+
+        recordingDataSource.events.clear();
+        proxyManager.executeBulk(tryConsume(keys, 1), key -> configuration);
+
+        List<Long> lockedKeys = recordingDataSource.lockedKeys();
+        List<Long> expectedOrder = new ArrayList<>(keys);
+        Collections.sort(expectedOrder);
+        assertEquals(expectedOrder, lockedKeys);
+    }
+
+    @Test
+    public void tryConsumeAllShouldBeRolledBackWhenOneBucketRejects() {
+        RecordingDataSource recordingDataSource = new RecordingDataSource(dataSource);
+        ProxyManager<Long> proxyManager = Bucket4jPostgreSQL.selectForUpdateBasedBuilder(recordingDataSource.dataSource).build();
+        List<Long> keys = generateKeys(3);
+        Map<Long, Long> tokensByKey = new LinkedHashMap<>();
+        keys.forEach(key -> tokensByKey.put(key, 4L));
+        assertTrue(proxyManager.tryConsumeAll(tokensByKey, key -> configuration));
+
+        // last bucket does not have enough tokens, so nothing is written to database
+        proxyManager.getProxy(keys.get(2), () -> configuration).tryConsume(4);
+        recordingDataSource.events.clear();
+        assertFalse(proxyManager.tryConsumeAll(tokensByKey, key -> configuration));
+        assertEquals(1, recordingDataSource.count("getConnection"));
+        assertEquals(0, recordingDataSource.count("executeBatch"));
+        assertEquals(0, recordingDataSource.count("commit"));
+        assertEquals(6, proxyManager.getProxy(keys.get(0), () -> configuration).getAvailableTokens());
+        assertEquals(6, proxyManager.getProxy(keys.get(1), () -> configuration).getAvailableTokens());
+        assertEquals(2, proxyManager.getProxy(keys.get(2), () -> configuration).getAvailableTokens());
+    }
+
+    private static List<Long> generateKeys(int count) {
+        List<Long> keys = new ArrayList<>();
+        while (keys.size() < count) {
+            long key = ThreadLocalRandom.current().nextLong(1_000_000_000);
+            if (!keys.contains(key)) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    private static Map<Long, RemoteCommand<Boolean>> tryConsume(List<Long> keys, long tokens) {
+        Map<Long, RemoteCommand<Boolean>> commands = new LinkedHashMap<>();
+        keys.forEach(key -> commands.put(key, TryConsumeCommand.create(tokens)));
+        return commands;
+    }
+
+    private static byte[] readState(long key) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT state FROM bucket WHERE id = ?")) {
+            statement.setLong(1, key);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? rs.getBytes("state") : null;
+            }
+        }
+    }
+
+    /**
+     * Records interaction of proxy-manager with JDBC, statements are recorded by the first word of SQL.
+     */
+    private static class RecordingDataSource {
+
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final DataSource dataSource;
+
+        private RecordingDataSource(DataSource target) {
+            this.dataSource = wrap(DataSource.class, target, (method, args) -> {
+                if (method.equals("getConnection") && args == null) {
+                    events.add("getConnection");
+                    return wrapConnection(target.getConnection());
+                }
+                return null;
+            });
+        }
+
+        private Connection wrapConnection(Connection connection) {
+            return wrap(Connection.class, connection, (method, args) -> {
+                if (method.equals("commit")) {
+                    events.add("commit");
+                }
+                if (method.equals("prepareStatement") && args.length == 1) {
+                    String sql = (String) args[0];
+                    String operation = sql.trim().split("\\s+")[0].toUpperCase();
+                    return wrap(PreparedStatement.class, connection.prepareStatement(sql), (statementMethod, statementArgs) -> {
+                        switch (statementMethod) {
+                            case "executeUpdate", "addBatch", "executeBatch" -> events.add(operation.equals("UPDATE") ? statementMethod : operation);
+                            case "setLong" -> {
+                                if (operation.equals("SELECT")) {
+                                    events.add("lock:" + statementArgs[1]);
+                                }
+                            }
+                            default -> {
+                                // not interesting
+                            }
+                        }
+                        return null;
+                    });
+                }
+                return null;
+            });
+        }
+
+        private long count(String event) {
+            return events.stream().filter(event::equals).count();
+        }
+
+        private List<Long> lockedKeys() {
+            List<Long> keys = new ArrayList<>();
+            for (String event : events) {
+                if (event.startsWith("lock:")) {
+                    keys.add(Long.parseLong(event.substring("lock:".length())));
+                }
+            }
+            return keys;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T wrap(Class<T> type, T target, Interceptor interceptor) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+                Object replacement = interceptor.intercept(method.getName(), args);
+                if (replacement != null) {
+                    return replacement;
+                }
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        }
+
+        private interface Interceptor {
+            Object intercept(String method, Object[] args) throws SQLException;
+        }
+
+    }
+
+}